@@ -150,6 +150,24 @@ public class DataCarrier<T> {
         return this;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of the data waiting for being consumed, for telemetry only.
+     */
+    public long getQueueDepth() {
+        return channels.queueDepth();
+    }
+
+    /**
+     * @return the number of the data dropped since the carrier is created.
+     */
+    public long getDropCount() {
+        return channels.dropCount();
+    }
+
     /**
      * shutdown all consumer threads, if consumer threads are running. Notice {@link BufferStrategy}: if {@link
      * BufferStrategy} == {@link BufferStrategy#BLOCKING}, shutdown consumeDriver maybe cause blocking when producing.
@@ -68,4 +68,9 @@ public class ArrayBlockingQueueBuffer<T> implements QueueBuffer<T> {
     public int getBufferSize() {
         return bufferSize;
     }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
 }
@@ -19,6 +19,7 @@
 package org.apache.skywalking.apm.commons.datacarrier.buffer;
 
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.skywalking.apm.commons.datacarrier.common.AtomicRangeInteger;
 
 /**
@@ -28,6 +29,10 @@ public class Buffer<T> implements QueueBuffer<T> {
     private final Object[] buffer;
     private BufferStrategy strategy;
     private AtomicRangeInteger index;
+    /**
+     * The number of the saved data not obtained yet, for {@link #size()} without scanning the buffer.
+     */
+    private final LongAdder count = new LongAdder();
 
     Buffer(int bufferSize, BufferStrategy strategy) {
         buffer = new Object[bufferSize];
@@ -57,6 +62,7 @@ public class Buffer<T> implements QueueBuffer<T> {
             }
         }
         buffer[i] = data;
+        count.increment();
         return true;
     }
 
@@ -64,17 +70,28 @@ public class Buffer<T> implements QueueBuffer<T> {
         return buffer.length;
     }
 
+    @Override
+    public int size() {
+        // The data could be obtained before the count increment of its save.
+        return (int) Math.max(0, count.sum());
+    }
+
     public void obtain(List<T> consumeList) {
         this.obtain(consumeList, 0, buffer.length);
     }
 
     void obtain(List<T> consumeList, int start, int end) {
+        int obtained = 0;
         for (int i = start; i < end; i++) {
             if (buffer[i] != null) {
                 consumeList.add((T) buffer[i]);
                 buffer[i] = null;
+                obtained++;
             }
         }
+        if (obtained > 0) {
+            count.add(-obtained);
+        }
     }
 
 }
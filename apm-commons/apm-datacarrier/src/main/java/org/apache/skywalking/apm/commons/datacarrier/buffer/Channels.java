@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.commons.datacarrier.buffer;
 
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.skywalking.apm.commons.datacarrier.partition.IDataPartitioner;
 
 /**
@@ -29,6 +30,7 @@ public class Channels<T> {
     private IDataPartitioner<T> dataPartitioner;
     private BufferStrategy strategy;
     private final long size;
+    private final AtomicLong dropCount = new AtomicLong(0);
 
     public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy) {
         this.dataPartitioner = partitioner;
@@ -58,6 +60,7 @@ public class Channels<T> {
                 return true;
             }
         }
+        dropCount.incrementAndGet();
         return false;
     }
 
@@ -86,6 +89,25 @@ public class Channels<T> {
         return size;
     }
 
+    /**
+     * @return the number of the data waiting for being consumed in all channels.
+     */
+    public long queueDepth() {
+        long depth = 0;
+        for (QueueBuffer<T> buffer : bufferChannels) {
+            depth += buffer.size();
+        }
+        return depth;
+    }
+
+    /**
+     * @return the number of the data not saved, because the buffers are full in {@link BufferStrategy#IF_POSSIBLE} or
+     * the producer is interrupted.
+     */
+    public long dropCount() {
+        return dropCount.get();
+    }
+
     public QueueBuffer<T> getBuffer(int index) {
         return this.bufferChannels[index];
     }
@@ -43,4 +43,10 @@ public interface QueueBuffer<T> {
     void obtain(List<T> consumeList);
 
     int getBufferSize();
+
+    /**
+     * @return the number of the data in the queue, which are waiting for being consumed. It is for telemetry only, and
+     * could be inexact while the data are saved and obtained concurrently.
+     */
+    int size();
 }
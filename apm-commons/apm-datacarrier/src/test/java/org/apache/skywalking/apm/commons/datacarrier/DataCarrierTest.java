@@ -92,9 +92,12 @@ public class DataCarrierTest {
             Assert.assertTrue(carrier.produce(new SampleData().setName("d" + i)));
         }
 
+        Assert.assertEquals(200, carrier.getQueueDepth());
+
         for (int i = 0; i < 200; i++) {
             Assert.assertFalse(carrier.produce(new SampleData().setName("d" + i + "_2")));
         }
+        Assert.assertEquals(200, carrier.getDropCount());
 
         Channels<SampleData> channels = (Channels<SampleData>) (MemberModifier.field(DataCarrier.class, "channels")
                                                                               .get(carrier));
@@ -105,6 +108,7 @@ public class DataCarrierTest {
         QueueBuffer<SampleData> buffer2 = channels.getBuffer(1);
         buffer2.obtain(result);
         Assert.assertEquals(200, result.size());
+        Assert.assertEquals(0, carrier.getQueueDepth());
     }
 
     @Test
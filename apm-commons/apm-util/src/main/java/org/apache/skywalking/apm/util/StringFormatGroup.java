@@ -19,7 +19,12 @@
 package org.apache.skywalking.apm.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -28,13 +33,33 @@ import lombok.ToString;
 /**
  * Group patterns use {@link java.util.regex.Pattern} as core, could group the input strings to matched group or return
  * original string.
+ * <p>
+ * The literal prefixes of the rules are compiled into a trie, only the rules whose prefix matches the string are tried,
+ * in the order of being added. The results could be memoized in a cache bounded by the total length of the cached
+ * strings.
  */
-@ToString
+@ToString(of = "rules")
 public class StringFormatGroup {
     private final List<PatternRule> rules;
+    private volatile PrefixTrie trie;
+
+    private final long maxCachedLength;
+    private final Map<String, FormatResult> cache;
+    private final AtomicLong cachedLength = new AtomicLong();
 
     public StringFormatGroup() {
+        this(0);
+    }
+
+    /**
+     * @param maxCachedLength max total length of the strings memoized with their format results, 0 means no cache. The
+     *                        cache is cleared when reaching it.
+     */
+    public StringFormatGroup(long maxCachedLength) {
         rules = new ArrayList<>();
+        trie = new PrefixTrie(rules);
+        this.maxCachedLength = maxCachedLength;
+        this.cache = maxCachedLength > 0 ? new ConcurrentHashMap<>() : null;
     }
 
     /**
@@ -43,7 +68,7 @@ public class StringFormatGroup {
      * @param name      will be used when ruleRegex matched.
      * @param ruleRegex to match target string.
      */
-    public void addRule(String name, String ruleRegex) {
+    public synchronized void addRule(String name, String ruleRegex) {
         for (PatternRule rule : rules) {
             if (rule.name.equals(name)) {
                 return;
@@ -51,6 +76,11 @@ public class StringFormatGroup {
         }
         PatternRule rule = new PatternRule(name, ruleRegex);
         rules.add(rule);
+        trie = new PrefixTrie(rules);
+        if (cache != null) {
+            cache.clear();
+            cachedLength.set(0);
+        }
     }
 
     /**
@@ -60,12 +90,20 @@ public class StringFormatGroup {
      * @return matched rule name, or original string.
      */
     public FormatResult format(String string) {
-        for (PatternRule rule : rules) {
-            if (rule.getPattern().matcher(string).matches()) {
-                return new FormatResult(true, rule.getName());
+        if (cache == null) {
+            return trie.format(string);
+        }
+
+        FormatResult result = cache.get(string);
+        if (result == null) {
+            result = trie.format(string);
+            if (cachedLength.addAndGet(string.length()) > maxCachedLength) {
+                cache.clear();
+                cachedLength.set(string.length());
             }
+            cache.put(string, result);
         }
-        return new FormatResult(false, string);
+        return result;
     }
 
     @Getter
@@ -80,10 +118,98 @@ public class StringFormatGroup {
     private static class PatternRule {
         private final String name;
         private final Pattern pattern;
+        private final String literalPrefix;
 
         private PatternRule(String name, String ruleRegex) {
             this.name = name;
             pattern = Pattern.compile(ruleRegex);
+            literalPrefix = literalPrefix(ruleRegex);
+        }
+
+        /**
+         * @return the literal string which all the matched strings start with, maybe empty.
+         */
+        private static String literalPrefix(String regex) {
+            if (regex.indexOf('|') >= 0) {
+                // the prefix of an alternation is not easy to decide
+                return "";
+            }
+
+            StringBuilder prefix = new StringBuilder();
+            for (int i = 0; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                char literal;
+                if (c == '\\') {
+                    if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                        // character classes, such as \d, or back references
+                        break;
+                    }
+                    literal = regex.charAt(++i);
+                } else if ("[](){}.*+?^$".indexOf(c) >= 0) {
+                    break;
+                } else {
+                    literal = c;
+                }
+
+                if (i + 1 < regex.length() && "?*{".indexOf(regex.charAt(i + 1)) >= 0) {
+                    // the literal is optional or repeated, exclude it
+                    break;
+                }
+                prefix.append(literal);
+            }
+            return prefix.toString();
+        }
+    }
+
+    /**
+     * The trie of the literal prefixes of the rules, each node keeps the indexes of the rules whose prefix ends there.
+     */
+    private static class PrefixTrie {
+        private final PatternRule[] rules;
+        private final Node root = new Node();
+
+        private PrefixTrie(List<PatternRule> rules) {
+            this.rules = rules.toArray(new PatternRule[0]);
+            for (int i = 0; i < this.rules.length; i++) {
+                Node node = root;
+                String prefix = this.rules[i].getLiteralPrefix();
+                for (int c = 0; c < prefix.length(); c++) {
+                    node = node.children.computeIfAbsent(prefix.charAt(c), key -> new Node());
+                }
+                node.ruleIndexes.add(i);
+            }
+        }
+
+        private FormatResult format(String string) {
+            if (rules.length == 0) {
+                return new FormatResult(false, string);
+            }
+
+            int[] candidates = new int[rules.length];
+            int count = 0;
+            Node node = root;
+            int depth = 0;
+            while (node != null) {
+                for (Integer index : node.ruleIndexes) {
+                    candidates[count++] = index;
+                }
+                node = depth < string.length() ? node.children.get(string.charAt(depth++)) : null;
+            }
+
+            // keep the rules in the order of being added
+            Arrays.sort(candidates, 0, count);
+            for (int i = 0; i < count; i++) {
+                PatternRule rule = rules[candidates[i]];
+                if (rule.getPattern().matcher(string).matches()) {
+                    return new FormatResult(true, rule.getName());
+                }
+            }
+            return new FormatResult(false, string);
+        }
+
+        private static class Node {
+            private final Map<Character, Node> children = new HashMap<>();
+            private final List<Integer> ruleIndexes = new ArrayList<>(1);
         }
     }
 }
@@ -54,6 +54,30 @@ public class StringFormatGroupTest {
         Assert.assertEquals("/name/*/add/{orderId}", group.format("/name/test/add/12323").getName());
     }
 
+    @Test
+    public void testRuleOrderAcrossPrefixes() {
+        StringFormatGroup group = new StringFormatGroup();
+        group.addRule("any", ".*/orders/.*");
+        group.addRule("/api/orders/{id}", "/api/orders/\\d+");
+        group.addRule("/ab?c", "/ab?c");
+        Assert.assertEquals("any", group.format("/api/orders/1").getName());
+        Assert.assertEquals("/ab?c", group.format("/ac").getName());
+        Assert.assertFalse(group.format("/api/users/1").isMatch());
+        Assert.assertEquals("/api/users/1", group.format("/api/users/1").getName());
+    }
+
+    @Test
+    public void testCachedFormat() {
+        StringFormatGroup group = new StringFormatGroup(16);
+        group.addRule("/name/*/add", "/name/.+/add");
+        Assert.assertSame(group.format("/name/test/add"), group.format("/name/test/add"));
+        Assert.assertEquals("/name/*/add", group.format("/name/test2/add").getName());
+        Assert.assertEquals("/name/*/add", group.format("/name/test/add").getName());
+
+        group.addRule("/other", "/other");
+        Assert.assertEquals("/other", group.format("/other").getName());
+    }
+
     /**
      * The report below shows this pattern match performance is much about rule numbers. This is a single thread test.
      */
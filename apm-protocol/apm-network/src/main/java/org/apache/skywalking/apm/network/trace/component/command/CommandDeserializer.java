@@ -27,6 +27,8 @@ public class CommandDeserializer {
             return ServiceResetCommand.DESERIALIZER.deserialize(command);
         } else if (ProfileTaskCommand.NAME.equals(commandName)) {
             return ProfileTaskCommand.DESERIALIZER.deserialize(command);
+        } else if (SamplingRateCommand.NAME.equals(commandName)) {
+            return SamplingRateCommand.DESERIALIZER.deserialize(command);
         }
         throw new UnsupportedCommandException(command);
     }
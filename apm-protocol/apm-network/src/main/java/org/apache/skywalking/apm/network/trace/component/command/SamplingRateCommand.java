@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.apm.network.trace.component.command;
+
+import org.apache.skywalking.apm.network.common.Command;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+
+import java.util.List;
+
+/**
+ * Adjust the sampling rates of the agent. The rates are the number of sampled traces in 3 seconds, for the whole
+ * instance and for every endpoint. Zero or negative means the agent should use its local configuration.
+ */
+public class SamplingRateCommand extends BaseCommand implements Serializable, Deserializable<SamplingRateCommand> {
+    public static final Deserializable<SamplingRateCommand> DESERIALIZER = new SamplingRateCommand("", 0, 0);
+    public static final String NAME = "SamplingRate";
+
+    private int sampleNPer3Secs;
+    private int sampleNPer3SecsPerEndpoint;
+
+    public SamplingRateCommand(String serialNumber, int sampleNPer3Secs, int sampleNPer3SecsPerEndpoint) {
+        super(NAME, serialNumber);
+        this.sampleNPer3Secs = sampleNPer3Secs;
+        this.sampleNPer3SecsPerEndpoint = sampleNPer3SecsPerEndpoint;
+    }
+
+    @Override
+    public SamplingRateCommand deserialize(Command command) {
+        final List<KeyStringValuePair> argsList = command.getArgsList();
+        String serialNumber = null;
+        int sampleNPer3Secs = 0;
+        int sampleNPer3SecsPerEndpoint = 0;
+
+        for (final KeyStringValuePair pair : argsList) {
+            if ("SerialNumber".equals(pair.getKey())) {
+                serialNumber = pair.getValue();
+            } else if ("SampleNPer3Secs".equals(pair.getKey())) {
+                sampleNPer3Secs = Integer.parseInt(pair.getValue());
+            } else if ("SampleNPer3SecsPerEndpoint".equals(pair.getKey())) {
+                sampleNPer3SecsPerEndpoint = Integer.parseInt(pair.getValue());
+            }
+        }
+
+        return new SamplingRateCommand(serialNumber, sampleNPer3Secs, sampleNPer3SecsPerEndpoint);
+    }
+
+    @Override
+    public Command.Builder serialize() {
+        final Command.Builder builder = commandBuilder();
+        builder.addArgs(KeyStringValuePair.newBuilder()
+                                          .setKey("SampleNPer3Secs")
+                                          .setValue(String.valueOf(sampleNPer3Secs)))
+               .addArgs(KeyStringValuePair.newBuilder()
+                                          .setKey("SampleNPer3SecsPerEndpoint")
+                                          .setValue(String.valueOf(sampleNPer3SecsPerEndpoint)));
+        return builder;
+    }
+
+    public int getSampleNPer3Secs() {
+        return sampleNPer3Secs;
+    }
+
+    public int getSampleNPer3SecsPerEndpoint() {
+        return sampleNPer3SecsPerEndpoint;
+    }
+}
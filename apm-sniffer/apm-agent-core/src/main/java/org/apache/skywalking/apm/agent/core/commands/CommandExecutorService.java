@@ -21,9 +21,11 @@ import org.apache.skywalking.apm.agent.core.boot.BootService;
 import org.apache.skywalking.apm.agent.core.boot.DefaultImplementor;
 import org.apache.skywalking.apm.agent.core.commands.executor.NoopCommandExecutor;
 import org.apache.skywalking.apm.agent.core.commands.executor.ProfileTaskCommandExecutor;
+import org.apache.skywalking.apm.agent.core.commands.executor.SamplingRateCommandExecutor;
 import org.apache.skywalking.apm.agent.core.commands.executor.ServiceResetCommandExecutor;
 import org.apache.skywalking.apm.network.trace.component.command.BaseCommand;
 import org.apache.skywalking.apm.network.trace.component.command.ProfileTaskCommand;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
 import org.apache.skywalking.apm.network.trace.component.command.ServiceResetCommand;
 
 import java.util.HashMap;
@@ -49,6 +51,9 @@ public class CommandExecutorService implements BootService, CommandExecutor {
 
         // Profile task executor
         commandExecutorMap.put(ProfileTaskCommand.NAME, new ProfileTaskCommandExecutor());
+
+        // Sampling rate executor
+        commandExecutorMap.put(SamplingRateCommand.NAME, new SamplingRateCommandExecutor());
     }
 
     @Override
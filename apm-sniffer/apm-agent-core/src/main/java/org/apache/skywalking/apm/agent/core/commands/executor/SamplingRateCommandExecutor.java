@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.skywalking.apm.agent.core.commands.executor;
+
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.commands.CommandExecutionException;
+import org.apache.skywalking.apm.agent.core.commands.CommandExecutor;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingService;
+import org.apache.skywalking.apm.network.trace.component.command.BaseCommand;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
+
+/**
+ * Command executor that executes the {@link SamplingRateCommand} command, the rates not set by the backend fall back
+ * to the local configuration.
+ */
+public class SamplingRateCommandExecutor implements CommandExecutor {
+    private static final ILog LOGGER = LogManager.getLogger(SamplingRateCommandExecutor.class);
+
+    @Override
+    public void execute(final BaseCommand command) throws CommandExecutionException {
+        final SamplingRateCommand samplingRateCommand = (SamplingRateCommand) command;
+
+        int nPer3Secs = samplingRateCommand.getSampleNPer3Secs() > 0
+            ? samplingRateCommand.getSampleNPer3Secs() : Config.Agent.SAMPLE_N_PER_3_SECS;
+        int nPer3SecsPerEndpoint = samplingRateCommand.getSampleNPer3SecsPerEndpoint() > 0
+            ? samplingRateCommand.getSampleNPer3SecsPerEndpoint() : Config.Agent.SAMPLE_N_PER_3_SECS_PER_ENDPOINT;
+
+        // The backend may send the same rates repeatedly, only the changes are logged.
+        if (ServiceManager.INSTANCE.findService(SamplingService.class).updateRates(nPer3Secs, nPer3SecsPerEndpoint)) {
+            LOGGER.info(
+                "Received SamplingRateCommand, sample {} traces in 3 seconds, {} traces per endpoint.", nPer3Secs,
+                nPer3SecsPerEndpoint
+            );
+        }
+    }
+}
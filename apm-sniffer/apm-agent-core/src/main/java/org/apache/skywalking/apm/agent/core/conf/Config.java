@@ -55,6 +55,44 @@ public class Config {
          */
         public static int SAMPLE_N_PER_3_SECS = -1;
 
+        /**
+         * Negative or zero means off, by default. {@code #SAMPLE_N_PER_3_SECS_PER_ENDPOINT} means sampling N {@link
+         * TraceSegment} in 3 seconds tops for every endpoint, checked after {@link #SAMPLE_N_PER_3_SECS}.
+         */
+        public static int SAMPLE_N_PER_3_SECS_PER_ENDPOINT = -1;
+
+        /**
+         * The max number of endpoints having their own sampling rate limit. The endpoints beyond it are only limited
+         * by {@link #SAMPLE_N_PER_3_SECS}.
+         */
+        public static int SAMPLE_ENDPOINT_MAX_SIZE = 1000;
+
+        /**
+         * The max number of the unsampled segments traced at the same time, in order to keep the error or slow ones.
+         * These deferred segments are reported only when an error occurred or it takes longer than {@link
+         * #SAMPLE_DEFERRED_SLOW_THRESHOLD}. Negative or zero means off, by default.
+         */
+        public static int SAMPLE_DEFERRED_MAX_SEGMENTS = -1;
+
+        /**
+         * The number of deferred segments in 3 seconds tops, which bounds the kept ones. The downstream segments of a
+         * deferred one are deferred too, within their own bound. Negative or zero means the same as {@link
+         * #SAMPLE_N_PER_3_SECS}, and no segment is deferred if neither is set.
+         */
+        public static int SAMPLE_DEFERRED_N_PER_3_SECS = -1;
+
+        /**
+         * The deferred segment takes longer than this is kept as a slow one. Unit is millisecond.
+         */
+        public static int SAMPLE_DEFERRED_SLOW_THRESHOLD = 1000;
+
+        /**
+         * Register the sampling decision counters as the MBean {@code org.apache.skywalking.apm.agent:type=Sampling}.
+         * Off by default, as getting the platform MBean server in the agent boot initializes the JUL LogManager before
+         * the application servers, such as WildFly, install their own one.
+         */
+        public static boolean SAMPLE_STATISTICS_MBEAN = false;
+
         /**
          * If the operation name of the first span is included in this set, this segment should be ignored.
          */
@@ -156,6 +194,11 @@ public class Config {
          * Snapshot transport to backend buffer size
          */
         public static int SNAPSHOT_TRANSPORT_BUFFER_SIZE = 500;
+
+        /**
+         * Max count of the distinct stack elements whose code signature is kept in the dictionary of a profile task
+         */
+        public static int CODE_SIGNATURE_DICTIONARY_SIZE = 10000;
     }
 
     public static class Jvm {
@@ -163,6 +206,12 @@ public class Config {
          * The buffer size of collected JVM info.
          */
         public static int BUFFER_SIZE = 60 * 10;
+
+        /**
+         * The interval(seconds) of reporting the collected JVM info. The samples collected in one interval are
+         * coalesced into one request.
+         */
+        public static int REPORT_INTERVAL = 5;
     }
 
     public static class Buffer {
@@ -178,6 +227,31 @@ public class Config {
         public static int SERVICE_CODE_BUFFER_SIZE = 10 * 10000;
 
         public static int ENDPOINT_NAME_BUFFER_SIZE = 1000 * 10000;
+
+        /**
+         * The buffer size of the network addresses waiting for registering
+         */
+        public static int NETWORK_ADDRESS_REGISTER_BUFFER_SIZE = 10000;
+
+        /**
+         * Max count of the network addresses in one register request
+         */
+        public static int NETWORK_ADDRESS_REGISTER_BATCH_SIZE = 1000;
+
+        /**
+         * Max register rounds of a network address, it isn't registered again until expired after that
+         */
+        public static int NETWORK_ADDRESS_REGISTER_MAX_ATTEMPTS = 20;
+
+        /**
+         * The buffer size of the network addresses given up registering
+         */
+        public static int NETWORK_ADDRESS_NOT_FOUND_BUFFER_SIZE = 10000;
+
+        /**
+         * Expire time(seconds) of the network addresses given up registering
+         */
+        public static int NETWORK_ADDRESS_NOT_FOUND_EXPIRE = 300;
     }
 
     public static class Logging {
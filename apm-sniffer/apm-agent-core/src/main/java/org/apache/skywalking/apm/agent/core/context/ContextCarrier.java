@@ -20,7 +20,6 @@ package org.apache.skywalking.apm.agent.core.context;
 
 import java.io.Serializable;
 import java.util.List;
-import org.apache.skywalking.apm.agent.core.base64.Base64;
 import org.apache.skywalking.apm.agent.core.context.ids.DistributedTraceId;
 import org.apache.skywalking.apm.agent.core.context.ids.ID;
 import org.apache.skywalking.apm.agent.core.context.ids.PropagatedTraceId;
@@ -72,6 +71,11 @@ public class ContextCarrier implements Serializable {
 
     private CorrelationContext correlationContext = new CorrelationContext();
 
+    /**
+     * The upstream segment is traced in deferred mode, it is propagated by the sample flag 0.
+     */
+    private boolean deferred;
+
     public CarrierItem items() {
         SW7CorrelationCarrierItem sw7CorrelationCarrierItem = new SW7CorrelationCarrierItem(correlationContext, null);
         SW6CarrierItem sw6CarrierItem = new SW6CarrierItem(this, sw7CorrelationCarrierItem);
@@ -85,18 +89,17 @@ public class ContextCarrier implements Serializable {
      */
     String serialize(HeaderVersion version) {
         if (this.isValid(version)) {
-            return StringUtil.join(
-                '-',
-                "1",
-                Base64.encode(this.getPrimaryDistributedTraceId().encode()),
-                Base64.encode(this.getTraceSegmentId().encode()),
-                this.getSpanId() + "",
-                this.getParentServiceInstanceId() + "",
-                this.getEntryServiceInstanceId() + "",
-                Base64.encode(this.getPeerHost()),
-                Base64.encode(this.getEntryEndpointName()),
-                Base64.encode(this.getParentEndpointName())
-            );
+            return SW6HeaderCodec.writer()
+                                 .sampleFlag(!deferred)
+                                 .encoded(this.getPrimaryDistributedTraceId().encodeBase64())
+                                 .encoded(this.getTraceSegmentId().encodeBase64())
+                                 .integer(this.getSpanId())
+                                 .integer(this.getParentServiceInstanceId())
+                                 .integer(this.getEntryServiceInstanceId())
+                                 .peerHost(this.getPeerHost())
+                                 .entryEndpointName(this.getEntryEndpointName())
+                                 .parentEndpointName(this.getParentEndpointName())
+                                 .build();
         }
         return "";
     }
@@ -115,22 +118,24 @@ public class ContextCarrier implements Serializable {
             return this;
         }
         if (HeaderVersion.v2 == version) {
-            String[] parts = text.split("-", 9);
-            if (parts.length == 9) {
+            SW6HeaderCodec.Reader reader = SW6HeaderCodec.reader(text);
+            if (reader.fields() == SW6HeaderCodec.FIELD_NUMBER) {
                 try {
-                    // parts[0] is sample flag, always trace if header exists.
-                    this.primaryDistributedTraceId = new PropagatedTraceId(Base64.decode2UTFString(parts[1]));
-                    this.traceSegmentId = new ID(Base64.decode2UTFString(parts[2]));
-                    this.spanId = Integer.parseInt(parts[3]);
-                    this.parentServiceInstanceId = Integer.parseInt(parts[4]);
-                    this.entryServiceInstanceId = Integer.parseInt(parts[5]);
-                    this.peerHost = Base64.decode2UTFString(parts[6]);
-                    this.entryEndpointName = Base64.decode2UTFString(parts[7]);
-                    this.parentEndpointName = Base64.decode2UTFString(parts[8]);
-                } catch (NumberFormatException ignored) {
+                    // field 0 is sample flag, 0 means the upstream segment is deferred, see TracingContext.
+                    this.deferred = !reader.sampleFlag();
+                    this.primaryDistributedTraceId = new PropagatedTraceId(reader.string(1));
+                    this.traceSegmentId = new ID(reader.string(2));
+                    this.spanId = reader.integer(3);
+                    this.parentServiceInstanceId = reader.integer(4);
+                    this.entryServiceInstanceId = reader.integer(5);
+                    this.peerHost = reader.string(6);
+                    this.entryEndpointName = reader.string(7);
+                    this.parentEndpointName = reader.string(8);
+                } catch (IllegalArgumentException ignored) {
 
                 }
             }
+            reader.release();
         }
         return this;
     }
@@ -233,6 +238,14 @@ public class ContextCarrier implements Serializable {
         return correlationContext;
     }
 
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    void setDeferred(boolean deferred) {
+        this.deferred = deferred;
+    }
+
     public enum HeaderVersion {
         v2
     }
@@ -46,6 +46,13 @@ public class ContextManager implements BootService {
     private static ContextManagerExtendService EXTEND_SERVICE;
 
     private static AbstractTracerContext getOrCreate(String operationName, boolean forceSampling) {
+        return getOrCreate(operationName, forceSampling, false);
+    }
+
+    /**
+     * @param deferred the upstream segment is deferred, so this one is deferred too, rather than sampled.
+     */
+    private static AbstractTracerContext getOrCreate(String operationName, boolean forceSampling, boolean deferred) {
         AbstractTracerContext context = CONTEXT.get();
         if (context == null) {
             if (StringUtil.isEmpty(operationName)) {
@@ -59,7 +66,9 @@ public class ContextManager implements BootService {
                     if (EXTEND_SERVICE == null) {
                         EXTEND_SERVICE = ServiceManager.INSTANCE.findService(ContextManagerExtendService.class);
                     }
-                    context = EXTEND_SERVICE.createTraceContext(operationName, forceSampling);
+                    context = deferred
+                        ? EXTEND_SERVICE.createDeferredTraceContext(operationName)
+                        : EXTEND_SERVICE.createTraceContext(operationName, forceSampling);
                 } else {
                     /*
                      * Can't register to collector, no need to trace anything.
@@ -93,9 +102,13 @@ public class ContextManager implements BootService {
         AbstractTracerContext context;
         operationName = StringUtil.cut(operationName, OPERATION_NAME_THRESHOLD);
         if (carrier != null && carrier.isValid()) {
-            SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
-            samplingService.forceSampled();
-            context = getOrCreate(operationName, true);
+            if (carrier.isDeferred()) {
+                context = getOrCreate(operationName, false, true);
+            } else {
+                SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
+                samplingService.forceSampled();
+                context = getOrCreate(operationName, true);
+            }
             span = context.createEntrySpan(operationName);
             context.extract(carrier);
         } else {
@@ -48,13 +48,14 @@ public class ContextManagerExtendService implements BootService {
 
     public AbstractTracerContext createTraceContext(String operationName, boolean forceSampling) {
         AbstractTracerContext context;
-        int suffixIdx = operationName.lastIndexOf(".");
-        if (suffixIdx > -1 && Config.Agent.IGNORE_SUFFIX.contains(operationName.substring(suffixIdx))) {
+        if (isIgnoredSuffix(operationName)) {
             context = new IgnoredTracerContext();
         } else {
             SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
-            if (forceSampling || samplingService.trySampling()) {
+            if (forceSampling || samplingService.trySampling(operationName)) {
                 context = new TracingContext(operationName);
+            } else if (samplingService.tryDeferring()) {
+                context = new TracingContext(operationName, true);
             } else {
                 context = new IgnoredTracerContext();
             }
@@ -62,4 +63,23 @@ public class ContextManagerExtendService implements BootService {
 
         return context;
     }
+
+    /**
+     * Create the context of a trace whose upstream segment is deferred. It is deferred too if {@link
+     * SamplingService#tryDeferring()} allows, otherwise ignored, as the upstream one isn't sampled.
+     */
+    public AbstractTracerContext createDeferredTraceContext(String operationName) {
+        if (!isIgnoredSuffix(operationName)) {
+            SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
+            if (samplingService.tryDeferring()) {
+                return new TracingContext(operationName, true);
+            }
+        }
+        return new IgnoredTracerContext();
+    }
+
+    private boolean isIgnoredSuffix(String operationName) {
+        int suffixIdx = operationName.lastIndexOf(".");
+        return suffixIdx > -1 && Config.Agent.IGNORE_SUFFIX.contains(operationName.substring(suffixIdx));
+    }
 }
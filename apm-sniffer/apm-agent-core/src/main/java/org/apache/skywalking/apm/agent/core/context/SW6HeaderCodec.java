@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.apm.agent.core.context;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.skywalking.apm.agent.core.base64.Base64;
+
+/**
+ * The codec of the sw6 header value, the fields are split by '-', and the string fields are encoded by Base64.
+ * <p>
+ * sampleFlag-traceId-segmentId-spanId-parentAppInstId-entryAppInstId-peerHost-entryEndpoint-parentEndpoint
+ * <p>
+ * The {@link Writer} writes the header into a thread local buffer, and caches the Base64 forms of the peer and the
+ * endpoint names, which don't change in one segment. The {@link Reader} locates all fields in one pass and decodes
+ * them without creating the sub strings.
+ */
+final class SW6HeaderCodec {
+    static final int FIELD_NUMBER = 9;
+
+    private static final char SPLIT = '-';
+    private static final char PADDING = '=';
+    private static final int[] DECODE_TABLE = new int[128];
+
+    static {
+        Arrays.fill(DECODE_TABLE, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private static final ThreadLocal<Writer> WRITER = new ThreadLocal<Writer>() {
+        @Override
+        protected Writer initialValue() {
+            return new Writer();
+        }
+    };
+
+    private static final ThreadLocal<Reader> READER = new ThreadLocal<Reader>() {
+        @Override
+        protected Reader initialValue() {
+            return new Reader();
+        }
+    };
+
+    private SW6HeaderCodec() {
+    }
+
+    /**
+     * @return the writer of the current thread, which has been reset.
+     */
+    static Writer writer() {
+        Writer writer = WRITER.get();
+        writer.length = 0;
+        return writer;
+    }
+
+    /**
+     * @return the reader of the current thread, which has located the fields of the given header.
+     */
+    static Reader reader(String header) {
+        Reader reader = READER.get();
+        reader.locate(header);
+        return reader;
+    }
+
+    static class Writer {
+        private char[] buffer = new char[256];
+        private int length;
+        private final EncodedCache peerHost = new EncodedCache();
+        private final EncodedCache entryEndpointName = new EncodedCache();
+        private final EncodedCache parentEndpointName = new EncodedCache();
+
+        /**
+         * @param sampled false writes 0, which means the downstream could ignore the context.
+         */
+        Writer sampleFlag(boolean sampled) {
+            ensureCapacity(1);
+            buffer[length++] = sampled ? '1' : '0';
+            return this;
+        }
+
+        /**
+         * @param base64 the encoded string, such as {@link org.apache.skywalking.apm.agent.core.context.ids.ID#encodeBase64()}.
+         */
+        Writer encoded(String base64) {
+            split();
+            int size = base64.length();
+            ensureCapacity(size);
+            base64.getChars(0, size, buffer, length);
+            length += size;
+            return this;
+        }
+
+        Writer integer(int value) {
+            split();
+            // 11 chars hold the Integer.MIN_VALUE.
+            ensureCapacity(11);
+            long remaining = value;
+            if (remaining < 0) {
+                buffer[length++] = '-';
+                remaining = -remaining;
+            }
+            int end = length + digits(remaining);
+            for (int i = end - 1; i >= length; i--) {
+                buffer[i] = (char) ('0' + remaining % 10);
+                remaining /= 10;
+            }
+            length = end;
+            return this;
+        }
+
+        Writer peerHost(String value) {
+            return encoded(peerHost.encode(value));
+        }
+
+        Writer entryEndpointName(String value) {
+            return encoded(entryEndpointName.encode(value));
+        }
+
+        Writer parentEndpointName(String value) {
+            return encoded(parentEndpointName.encode(value));
+        }
+
+        String build() {
+            return new String(buffer, 0, length);
+        }
+
+        private void split() {
+            ensureCapacity(1);
+            buffer[length++] = SPLIT;
+        }
+
+        private void ensureCapacity(int size) {
+            if (length + size > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + size));
+            }
+        }
+
+        private static int digits(long value) {
+            int digits = 1;
+            while (value >= 10) {
+                value /= 10;
+                digits++;
+            }
+            return digits;
+        }
+    }
+
+    /**
+     * Keep the last encoded value, the Base64 encoding only happens when the value changes.
+     */
+    private static class EncodedCache {
+        private String value;
+        private String encoded = "";
+
+        private String encode(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (!value.equals(this.value)) {
+                this.encoded = Base64.encode(value);
+                this.value = value;
+            }
+            return encoded;
+        }
+    }
+
+    static class Reader {
+        private String header;
+        private final int[] starts = new int[FIELD_NUMBER];
+        private final int[] ends = new int[FIELD_NUMBER];
+        private int fields;
+        private byte[] bytes = new byte[128];
+
+        private void locate(String header) {
+            this.header = header;
+            int start = 0;
+            fields = 0;
+            while (fields < FIELD_NUMBER - 1) {
+                int end = header.indexOf(SPLIT, start);
+                if (end < 0) {
+                    break;
+                }
+                starts[fields] = start;
+                ends[fields] = end;
+                fields++;
+                start = end + 1;
+            }
+            // The last field takes the rest, same as splitting with the limit.
+            starts[fields] = start;
+            ends[fields] = header.length();
+            fields++;
+        }
+
+        /**
+         * @return the number of the fields in the header.
+         */
+        int fields() {
+            return fields;
+        }
+
+        /**
+         * @return false only if the sample flag, the first field, is 0.
+         */
+        boolean sampleFlag() {
+            return ends[0] - starts[0] != 1 || header.charAt(starts[0]) != '0';
+        }
+
+        /**
+         * @throws NumberFormatException if the field isn't a decimal int.
+         */
+        int integer(int field) {
+            int start = starts[field];
+            int end = ends[field];
+            if (start == end || end - start > 10) {
+                throw new NumberFormatException(header);
+            }
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = header.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException(header);
+                }
+                value = value * 10 + digit;
+            }
+            if (value > Integer.MAX_VALUE) {
+                throw new NumberFormatException(header);
+            }
+            return (int) value;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the field isn't a valid Base64 string.
+         */
+        String string(int field) {
+            int start = starts[field];
+            int end = ends[field];
+            while (end > start && header.charAt(end - 1) == PADDING) {
+                end--;
+            }
+            int size = end - start;
+            if (size % 4 == 1) {
+                throw new IllegalArgumentException("Illegal Base64 length: " + header);
+            }
+            int decodedSize = size * 3 / 4;
+            if (decodedSize > bytes.length) {
+                bytes = new byte[Math.max(bytes.length * 2, decodedSize)];
+            }
+            int bits = 0;
+            int bitCount = 0;
+            int position = 0;
+            for (int i = start; i < end; i++) {
+                char c = header.charAt(i);
+                int value = c < DECODE_TABLE.length ? DECODE_TABLE[c] : -1;
+                if (value < 0) {
+                    throw new IllegalArgumentException("Illegal Base64 character: " + header);
+                }
+                bits = (bits << 6) | value;
+                bitCount += 6;
+                if (bitCount >= 8) {
+                    bitCount -= 8;
+                    bytes[position++] = (byte) (bits >> bitCount);
+                    bits &= (1 << bitCount) - 1;
+                }
+            }
+            return new String(bytes, 0, position, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Release the header, the reader is kept by the thread.
+         */
+        void release() {
+            header = null;
+        }
+    }
+}
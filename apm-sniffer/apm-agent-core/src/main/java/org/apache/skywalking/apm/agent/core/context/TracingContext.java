@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.context;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
@@ -75,11 +76,14 @@ public class TracingContext implements AbstractTracerContext {
     private TraceSegment segment;
 
     /**
-     * Active spans stored in a Stack, usually called 'ActiveSpanStack'. This {@link LinkedList} is the in-memory
-     * storage-structure. <p> I use {@link LinkedList#removeLast()}, {@link LinkedList#addLast(Object)} and {@link
-     * LinkedList#getLast()} instead of {@link #pop()}, {@link #push(AbstractSpan)}, {@link #peek()}
+     * Active spans stored in a Stack, usually called 'ActiveSpanStack'. This array is the in-memory storage-structure,
+     * and {@link #activeSpanStackDepth} is the number of the active spans in it. Use {@link #pop()}, {@link
+     * #push(AbstractSpan)} and {@link #peek()} to access it. The array grows when the depth is over its length, and
+     * doesn't allocate anything in common push/pop cycles.
      */
-    private LinkedList<AbstractSpan> activeSpanStack = new LinkedList<>();
+    private AbstractSpan[] activeSpanStack = new AbstractSpan[ACTIVE_SPAN_STACK_INITIAL_CAPACITY];
+    private int activeSpanStackDepth = 0;
+    private static final int ACTIVE_SPAN_STACK_INITIAL_CAPACITY = 8;
     /**
      * @since 7.0.0 SkyWalking support lazy injection through {@link ExitTypeSpan#inject(ContextCarrier)}. Due to that,
      * the {@link #activeSpanStack} could be blank by then, this is a pointer forever to the first span, even the main
@@ -113,10 +117,24 @@ public class TracingContext implements AbstractTracerContext {
 
     private final CorrelationContext correlationContext;
 
+    /**
+     * The segment isn't sampled, it is traced only to be kept if an error occurred or it is slow. It propagates the
+     * context with the sample flag 0, so the downstream segments are deferred too, rather than sampled by force, and
+     * each of them is kept only if it is error or slow itself.
+     *
+     * @see SamplingService#tryDeferring()
+     */
+    private final boolean deferredSampling;
+
     /**
      * Initialize all fields with default value.
      */
     TracingContext(String firstOPName) {
+        this(firstOPName, false);
+    }
+
+    TracingContext(String firstOPName, boolean deferredSampling) {
+        this.deferredSampling = deferredSampling;
         this.segment = new TraceSegment();
         this.spanIdGenerator = 0;
         isRunningInAsyncMode = false;
@@ -171,6 +189,7 @@ public class TracingContext implements AbstractTracerContext {
         }
 
         carrier.setTraceSegmentId(this.segment.getTraceSegmentId());
+        carrier.setDeferred(deferredSampling);
         carrier.setSpanId(exitSpan.getSpanId());
 
         carrier.setParentServiceInstanceId(segment.getApplicationInstanceId());
@@ -417,7 +436,7 @@ public class TracingContext implements AbstractTracerContext {
 
         finish();
 
-        return activeSpanStack.isEmpty();
+        return activeSpanStackDepth == 0;
     }
 
     @Override
@@ -470,7 +489,7 @@ public class TracingContext implements AbstractTracerContext {
             asyncFinishLock.lock();
         }
         try {
-            boolean isFinishedInMainThread = activeSpanStack.isEmpty() && running;
+            boolean isFinishedInMainThread = activeSpanStackDepth == 0 && running;
             if (isFinishedInMainThread) {
                 /*
                  * Notify after tracing finished in the main thread.
@@ -486,7 +505,12 @@ public class TracingContext implements AbstractTracerContext {
                  *
                  * @see {@link #createSpan(String, long, boolean)}
                  */
-                if (!segment.hasRef() && segment.isSingleSpanSegment()) {
+                if (deferredSampling) {
+                    if (!SAMPLING_SERVICE.finishDeferred(
+                        segment.isErrorOccurred(), System.currentTimeMillis() - createTime)) {
+                        finishedSegment.setIgnore(true);
+                    }
+                } else if (!segment.hasRef() && segment.isSingleSpanSegment()) {
                     if (!SAMPLING_SERVICE.trySampling()) {
                         finishedSegment.setIgnore(true);
                     }
@@ -575,7 +599,9 @@ public class TracingContext implements AbstractTracerContext {
      * @return the top element of 'ActiveSpanStack', and remove it.
      */
     private AbstractSpan pop() {
-        return activeSpanStack.removeLast();
+        AbstractSpan span = activeSpanStack[--activeSpanStackDepth];
+        activeSpanStack[activeSpanStackDepth] = null;
+        return span;
     }
 
     /**
@@ -587,7 +613,10 @@ public class TracingContext implements AbstractTracerContext {
         if (firstSpan == null) {
             firstSpan = span;
         }
-        activeSpanStack.addLast(span);
+        if (activeSpanStackDepth == activeSpanStack.length) {
+            activeSpanStack = Arrays.copyOf(activeSpanStack, activeSpanStackDepth << 1);
+        }
+        activeSpanStack[activeSpanStackDepth++] = span;
         return span;
     }
 
@@ -595,10 +624,10 @@ public class TracingContext implements AbstractTracerContext {
      * @return the top element of 'ActiveSpanStack' only.
      */
     private AbstractSpan peek() {
-        if (activeSpanStack.isEmpty()) {
+        if (activeSpanStackDepth == 0) {
             return null;
         }
-        return activeSpanStack.getLast();
+        return activeSpanStack[activeSpanStackDepth - 1];
     }
 
     private AbstractSpan first() {
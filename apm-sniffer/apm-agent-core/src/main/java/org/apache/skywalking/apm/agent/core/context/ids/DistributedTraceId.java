@@ -47,6 +47,10 @@ public abstract class DistributedTraceId {
         return id.encode();
     }
 
+    public String encodeBase64() {
+        return id.encodeBase64();
+    }
+
     @Override
     public String toString() {
         return id.toString();
@@ -18,15 +18,15 @@
 
 package org.apache.skywalking.apm.agent.core.context.ids;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 public class DistributedTraceIds {
-    private LinkedList<DistributedTraceId> relatedGlobalTraces;
+    private ArrayList<DistributedTraceId> relatedGlobalTraces;
 
     public DistributedTraceIds() {
-        relatedGlobalTraces = new LinkedList<DistributedTraceId>();
+        relatedGlobalTraces = new ArrayList<DistributedTraceId>(1);
     }
 
     public List<DistributedTraceId> getRelatedGlobalTraces() {
@@ -34,8 +34,8 @@ public class DistributedTraceIds {
     }
 
     public void append(DistributedTraceId distributedTraceId) {
-        if (relatedGlobalTraces.size() > 0 && relatedGlobalTraces.getFirst() instanceof NewDistributedTraceId) {
-            relatedGlobalTraces.removeFirst();
+        if (relatedGlobalTraces.size() > 0 && relatedGlobalTraces.get(0) instanceof NewDistributedTraceId) {
+            relatedGlobalTraces.remove(0);
         }
         if (!relatedGlobalTraces.contains(distributedTraceId)) {
             relatedGlobalTraces.add(distributedTraceId);
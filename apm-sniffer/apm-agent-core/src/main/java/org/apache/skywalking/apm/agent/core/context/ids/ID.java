@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.ids;
 
+import org.apache.skywalking.apm.agent.core.base64.Base64;
 import org.apache.skywalking.apm.network.language.agent.UniqueId;
 
 public class ID {
@@ -25,6 +26,7 @@ public class ID {
     private long part2;
     private long part3;
     private String encoding;
+    private String base64Encoding;
     private boolean isValid;
 
     public ID(long part1, long part2, long part3) {
@@ -36,23 +38,42 @@ public class ID {
     }
 
     public ID(String encodingString) {
-        String[] idParts = encodingString.split("\\.", 3);
-        this.isValid = true;
-        for (int part = 0; part < 3; part++) {
-            try {
-                if (part == 0) {
-                    part1 = Long.parseLong(idParts[part]);
-                } else if (part == 1) {
-                    part2 = Long.parseLong(idParts[part]);
-                } else {
-                    part3 = Long.parseLong(idParts[part]);
-                }
-            } catch (NumberFormatException e) {
-                this.isValid = false;
-                break;
-            }
+        this.isValid = false;
+        int firstDot = encodingString.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : encodingString.indexOf('.', firstDot + 1);
+        if (secondDot < 0) {
+            return;
+        }
+        try {
+            part1 = parsePart(encodingString, 0, firstDot);
+            part2 = parsePart(encodingString, firstDot + 1, secondDot);
+            part3 = parsePart(encodingString, secondDot + 1, encodingString.length());
+            this.isValid = true;
+        } catch (NumberFormatException ignored) {
+        }
+    }
 
+    /**
+     * Parse the decimal long in the given range, without creating the sub string.
+     */
+    private static long parsePart(String text, int from, int to) {
+        boolean negative = from < to && text.charAt(from) == '-';
+        int start = negative ? from + 1 : from;
+        if (start == to || to - start > 19) {
+            throw new NumberFormatException(text);
         }
+        long value = 0;
+        for (int i = start; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(text);
+            }
+            value = value * 10 + digit;
+            if (value < 0) {
+                throw new NumberFormatException(text);
+            }
+        }
+        return negative ? -value : value;
     }
 
     public String encode() {
@@ -62,6 +83,16 @@ public class ID {
         return encoding;
     }
 
+    /**
+     * @return the Base64 form of {@link #encode()}, which is cached as the ID is propagated many times in one segment.
+     */
+    public String encodeBase64() {
+        if (base64Encoding == null) {
+            base64Encoding = Base64.encode(encode());
+        }
+        return base64Encoding;
+    }
+
     @Override
     public String toString() {
         return part1 + "." + part2 + '.' + part3;
@@ -91,6 +122,18 @@ public class ID {
         return result;
     }
 
+    public long getPart1() {
+        return part1;
+    }
+
+    public long getPart2() {
+        return part2;
+    }
+
+    public long getPart3() {
+        return part3;
+    }
+
     public boolean isValid() {
         return isValid;
     }
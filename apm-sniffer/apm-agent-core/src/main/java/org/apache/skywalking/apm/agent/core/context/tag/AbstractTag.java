@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.tag;
 
+import java.nio.charset.StandardCharsets;
 import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
 
 public abstract class AbstractTag<T> {
@@ -29,6 +30,10 @@ public abstract class AbstractTag<T> {
      * The key of this Tag.
      */
     protected final String key;
+    /**
+     * The UTF-8 encoding of the key, kept for the segment encoding, as the tags are constants mostly.
+     */
+    private volatile byte[] keyBytes;
 
     public AbstractTag(int id, String tagKey, boolean canOverwrite) {
         this.id = id;
@@ -49,6 +54,18 @@ public abstract class AbstractTag<T> {
         return this.key;
     }
 
+    /**
+     * @return the UTF-8 encoding of the key of this tag.
+     */
+    public byte[] keyBytes() {
+        byte[] bytes = keyBytes;
+        if (bytes == null) {
+            bytes = key.getBytes(StandardCharsets.UTF_8);
+            keyBytes = bytes;
+        }
+        return bytes;
+    }
+
     public boolean sameWith(AbstractTag<T> tag) {
         return canOverwrite && this.id == tag.id;
     }
@@ -19,7 +19,7 @@
 package org.apache.skywalking.apm.agent.core.context.trace;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.apache.skywalking.apm.agent.core.context.ContextManager;
@@ -27,9 +27,9 @@ import org.apache.skywalking.apm.agent.core.context.TracingContext;
 import org.apache.skywalking.apm.agent.core.context.tag.AbstractTag;
 import org.apache.skywalking.apm.agent.core.context.tag.Tags;
 import org.apache.skywalking.apm.agent.core.context.util.KeyValuePair;
-import org.apache.skywalking.apm.agent.core.context.util.TagValuePair;
 import org.apache.skywalking.apm.agent.core.context.util.ThrowableTransformer;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
 import org.apache.skywalking.apm.network.language.agent.SpanType;
 import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
 import org.apache.skywalking.apm.network.trace.component.Component;
@@ -39,9 +39,17 @@ import org.apache.skywalking.apm.network.trace.component.Component;
  * distributed trace.
  */
 public abstract class AbstractTracingSpan implements AbstractSpan {
+    private static final int TAGS_INITIAL_CAPACITY = 4;
+
     protected int spanId;
     protected int parentSpanId;
-    protected List<TagValuePair> tags;
+    /**
+     * The keys and values of the tags, in the order they are tagged. Only the first {@link #tagCount} of them are set,
+     * and the arrays grow when they are full, so tagging allocates no pair or list node per tag.
+     */
+    protected AbstractTag<?>[] tagKeys;
+    protected String[] tagValues;
+    protected int tagCount;
     protected String operationName;
     protected SpanLayer layer;
     /**
@@ -108,23 +116,41 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
 
     @Override
     public AbstractTracingSpan tag(AbstractTag<?> tag, String value) {
-        if (tags == null) {
-            tags = new ArrayList<>(8);
+        if (tagKeys == null) {
+            tagKeys = new AbstractTag<?>[TAGS_INITIAL_CAPACITY];
+            tagValues = new String[TAGS_INITIAL_CAPACITY];
         }
 
         if (tag.isCanOverwrite()) {
-            for (TagValuePair pair : tags) {
-                if (pair.sameWith(tag)) {
-                    pair.setValue(value);
+            for (int i = 0; i < tagCount; i++) {
+                if (tagKeys[i].isCanOverwrite() && tagKeys[i].getId() == tag.getId()) {
+                    tagValues[i] = value;
                     return this;
                 }
             }
         }
 
-        tags.add(new TagValuePair(tag, value));
+        if (tagCount == tagKeys.length) {
+            tagKeys = Arrays.copyOf(tagKeys, tagCount << 1);
+            tagValues = Arrays.copyOf(tagValues, tagCount << 1);
+        }
+        tagKeys[tagCount] = tag;
+        tagValues[tagCount] = value;
+        tagCount++;
         return this;
     }
 
+    /**
+     * Remove all the tags, keeping the arrays for the coming ones.
+     */
+    protected void clearTags() {
+        if (tagKeys != null) {
+            Arrays.fill(tagKeys, 0, tagCount, null);
+            Arrays.fill(tagValues, 0, tagCount, null);
+        }
+        tagCount = 0;
+    }
+
     /**
      * Finish the active Span. When it is finished, it will be archived by the given {@link TraceSegment}, which owners
      * it.
@@ -152,7 +178,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan log(Throwable t) {
         if (logs == null) {
-            logs = new LinkedList<>();
+            logs = new ArrayList<>(2);
         }
         logs.add(new LogDataEntity.Builder().add(new KeyValuePair("event", "error"))
                                             .add(new KeyValuePair("error.kind", t.getClass().getName()))
@@ -173,7 +199,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan log(long timestampMicroseconds, Map<String, ?> fields) {
         if (logs == null) {
-            logs = new LinkedList<>();
+            logs = new ArrayList<>(2);
         }
         LogDataEntity.Builder builder = new LogDataEntity.Builder();
         for (Map.Entry<String, ?> entry : fields.entrySet()) {
@@ -195,6 +221,10 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
         return this;
     }
 
+    public boolean isErrorOccurred() {
+        return errorOccurred;
+    }
+
     /**
      * Set the operation name, just because these is not compress dictionary value for this name. Use the entire string
      * temporarily, the agent will compress this name in async mode.
@@ -277,10 +307,12 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
             }
         }
         spanBuilder.setIsError(errorOccurred);
-        if (this.tags != null) {
-            for (TagValuePair tag : this.tags) {
-                spanBuilder.addTags(tag.transform());
+        for (int i = 0; i < tagCount; i++) {
+            KeyStringValuePair.Builder tagBuilder = KeyStringValuePair.newBuilder().setKey(tagKeys[i].key());
+            if (tagValues[i] != null) {
+                tagBuilder.setValue(tagValues[i]);
             }
+            spanBuilder.addTags(tagBuilder);
         }
         if (this.logs != null) {
             for (LogDataEntity log : this.logs) {
@@ -299,7 +331,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public void ref(TraceSegmentRef ref) {
         if (refs == null) {
-            refs = new LinkedList<>();
+            refs = new ArrayList<>(1);
         }
         if (!refs.contains(ref)) {
             refs.add(ref);
@@ -118,6 +118,6 @@ public class EntrySpan extends StackBasedTracingSpan {
         this.componentName = null;
         this.layer = null;
         this.logs = null;
-        this.tags = null;
+        clearTags();
     }
 }
@@ -18,8 +18,8 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.context.util.KeyValuePair;
 import org.apache.skywalking.apm.network.language.agent.v2.Log;
@@ -37,6 +37,10 @@ public class LogDataEntity {
         this.logs = logs;
     }
 
+    public long getTimestamp() {
+        return timestamp;
+    }
+
     public List<KeyValuePair> getLogs() {
         return logs;
     }
@@ -45,7 +49,7 @@ public class LogDataEntity {
         protected List<KeyValuePair> logs;
 
         public Builder() {
-            logs = new LinkedList<>();
+            logs = new ArrayList<>(4);
         }
 
         public Builder add(KeyValuePair... fields) {
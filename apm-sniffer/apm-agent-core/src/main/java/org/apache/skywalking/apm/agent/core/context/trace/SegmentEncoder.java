@@ -0,0 +1,397 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context.trace;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
+import org.apache.skywalking.apm.agent.core.context.ids.DistributedTraceId;
+import org.apache.skywalking.apm.agent.core.context.ids.ID;
+import org.apache.skywalking.apm.agent.core.context.tag.AbstractTag;
+import org.apache.skywalking.apm.agent.core.context.util.KeyValuePair;
+import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.RefType;
+import org.apache.skywalking.apm.network.language.agent.SpanType;
+import org.apache.skywalking.apm.network.language.agent.UniqueId;
+import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.apm.network.language.agent.v2.Log;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentReference;
+import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
+
+/**
+ * The <code>SegmentEncoder</code> writes the {@link SegmentObject} of a finished {@link TraceSegment} into the protobuf
+ * wire format directly, rather than building the message objects through {@link TraceSegment#transform()} and
+ * serializing them again. The bytes are the same as {@link TraceSegment#transform()} gives.
+ * <p>
+ * The encoding takes two passes. The first one computes the sizes of all the nested messages, in the order they are
+ * written, into a reused size table. The second one writes the segment into an array of the exact size, which is
+ * wrapped into the {@link UpstreamSegment} without copying.
+ * <p>
+ * The encoder is not thread safe, it is used by the consumer thread of the segment carrier only.
+ */
+public class SegmentEncoder {
+    private static final ILog logger = LogManager.getLogger(SegmentEncoder.class);
+
+    private static final int LENGTH_DELIMITED = WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    /**
+     * The sizes of the spans, refs, tags, logs and log data, in the order of being written.
+     */
+    private int[] sizes = new int[64];
+    private int sizeCount;
+    private int sizeCursor;
+
+    public UpstreamSegment encode(TraceSegment segment) {
+        UpstreamSegment.Builder upstreamBuilder = UpstreamSegment.newBuilder();
+        for (DistributedTraceId distributedTraceId : segment.getRelatedGlobalTraces()) {
+            upstreamBuilder.addGlobalTraceIds(distributedTraceId.toUniqueId());
+        }
+
+        // Read once, as the registration could change them between the two passes.
+        int serviceId = RemoteDownstreamConfig.Agent.SERVICE_ID;
+        int serviceInstanceId = RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID;
+        try {
+            sizeCount = 0;
+            byte[] bytes = new byte[segmentSize(segment, serviceId, serviceInstanceId)];
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+            sizeCursor = 0;
+            writeSegment(output, segment, serviceId, serviceInstanceId);
+            output.checkNoSpaceLeft();
+            upstreamBuilder.setSegment(UnsafeByteOperations.unsafeWrap(bytes));
+        } catch (IOException | IllegalStateException e) {
+            logger.warn(e, "Encode the segment {} directly fail, transform it instead.", segment.getTraceSegmentId());
+            return segment.transform();
+        }
+        return upstreamBuilder.build();
+    }
+
+    private int segmentSize(TraceSegment segment, int serviceId, int serviceInstanceId) {
+        int size = uniqueIdFieldSize(SegmentObject.TRACESEGMENTID_FIELD_NUMBER, segment.getTraceSegmentId());
+        for (AbstractTracingSpan span : segment.getSpans()) {
+            size += messageFieldSize(SegmentObject.SPANS_FIELD_NUMBER, spanSize(span));
+        }
+        size += int32FieldSize(SegmentObject.SERVICEID_FIELD_NUMBER, serviceId);
+        size += int32FieldSize(SegmentObject.SERVICEINSTANCEID_FIELD_NUMBER, serviceInstanceId);
+        if (segment.isSizeLimited()) {
+            size += CodedOutputStream.computeBoolSize(SegmentObject.ISSIZELIMITED_FIELD_NUMBER, true);
+        }
+        return size;
+    }
+
+    private void writeSegment(CodedOutputStream output, TraceSegment segment, int serviceId,
+        int serviceInstanceId) throws IOException {
+        writeUniqueId(output, SegmentObject.TRACESEGMENTID_FIELD_NUMBER, segment.getTraceSegmentId());
+        for (AbstractTracingSpan span : segment.getSpans()) {
+            writeMessageHeader(output, SegmentObject.SPANS_FIELD_NUMBER);
+            writeSpan(output, span);
+        }
+        writeInt32(output, SegmentObject.SERVICEID_FIELD_NUMBER, serviceId);
+        writeInt32(output, SegmentObject.SERVICEINSTANCEID_FIELD_NUMBER, serviceInstanceId);
+        if (segment.isSizeLimited()) {
+            output.writeBool(SegmentObject.ISSIZELIMITED_FIELD_NUMBER, true);
+        }
+    }
+
+    /**
+     * Follow {@link AbstractTracingSpan#transform()} and {@link StackBasedTracingSpan#transform()}.
+     */
+    private int spanSize(AbstractTracingSpan span) {
+        int slot = reserve();
+        int size = int32FieldSize(SpanObjectV2.SPANID_FIELD_NUMBER, span.spanId);
+        size += int32FieldSize(SpanObjectV2.PARENTSPANID_FIELD_NUMBER, span.parentSpanId);
+        size += int64FieldSize(SpanObjectV2.STARTTIME_FIELD_NUMBER, span.startTime);
+        size += int64FieldSize(SpanObjectV2.ENDTIME_FIELD_NUMBER, span.endTime);
+        if (span.refs != null) {
+            for (TraceSegmentRef ref : span.refs) {
+                size += messageFieldSize(SpanObjectV2.REFS_FIELD_NUMBER, refSize(ref));
+            }
+        }
+        size += stringFieldSize(SpanObjectV2.OPERATIONNAME_FIELD_NUMBER, span.operationName);
+        if (span instanceof StackBasedTracingSpan) {
+            StackBasedTracingSpan stackBasedSpan = (StackBasedTracingSpan) span;
+            if (stackBasedSpan.peerId != DictionaryUtil.nullValue()) {
+                size += int32FieldSize(SpanObjectV2.PEERID_FIELD_NUMBER, stackBasedSpan.peerId);
+            } else {
+                size += stringFieldSize(SpanObjectV2.PEER_FIELD_NUMBER, stackBasedSpan.peer);
+            }
+        }
+        size += int32FieldSize(SpanObjectV2.SPANTYPE_FIELD_NUMBER, spanType(span));
+        if (span.layer != null) {
+            size += int32FieldSize(SpanObjectV2.SPANLAYER_FIELD_NUMBER, span.layer.getCode());
+        }
+        if (span.componentId != DictionaryUtil.nullValue()) {
+            size += int32FieldSize(SpanObjectV2.COMPONENTID_FIELD_NUMBER, span.componentId);
+        } else {
+            size += stringFieldSize(SpanObjectV2.COMPONENT_FIELD_NUMBER, span.componentName);
+        }
+        if (span.errorOccurred) {
+            size += CodedOutputStream.computeBoolSize(SpanObjectV2.ISERROR_FIELD_NUMBER, true);
+        }
+        for (int i = 0; i < span.tagCount; i++) {
+            size += messageFieldSize(SpanObjectV2.TAGS_FIELD_NUMBER, tagSize(span.tagKeys[i], span.tagValues[i]));
+        }
+        if (span.logs != null) {
+            for (LogDataEntity log : span.logs) {
+                size += messageFieldSize(SpanObjectV2.LOGS_FIELD_NUMBER, logSize(log));
+            }
+        }
+        return record(slot, size);
+    }
+
+    private void writeSpan(CodedOutputStream output, AbstractTracingSpan span) throws IOException {
+        writeInt32(output, SpanObjectV2.SPANID_FIELD_NUMBER, span.spanId);
+        writeInt32(output, SpanObjectV2.PARENTSPANID_FIELD_NUMBER, span.parentSpanId);
+        writeInt64(output, SpanObjectV2.STARTTIME_FIELD_NUMBER, span.startTime);
+        writeInt64(output, SpanObjectV2.ENDTIME_FIELD_NUMBER, span.endTime);
+        if (span.refs != null) {
+            for (TraceSegmentRef ref : span.refs) {
+                writeMessageHeader(output, SpanObjectV2.REFS_FIELD_NUMBER);
+                writeRef(output, ref);
+            }
+        }
+        writeString(output, SpanObjectV2.OPERATIONNAME_FIELD_NUMBER, span.operationName);
+        if (span instanceof StackBasedTracingSpan) {
+            StackBasedTracingSpan stackBasedSpan = (StackBasedTracingSpan) span;
+            if (stackBasedSpan.peerId != DictionaryUtil.nullValue()) {
+                writeInt32(output, SpanObjectV2.PEERID_FIELD_NUMBER, stackBasedSpan.peerId);
+            } else {
+                writeString(output, SpanObjectV2.PEER_FIELD_NUMBER, stackBasedSpan.peer);
+            }
+        }
+        writeInt32(output, SpanObjectV2.SPANTYPE_FIELD_NUMBER, spanType(span));
+        if (span.layer != null) {
+            writeInt32(output, SpanObjectV2.SPANLAYER_FIELD_NUMBER, span.layer.getCode());
+        }
+        if (span.componentId != DictionaryUtil.nullValue()) {
+            writeInt32(output, SpanObjectV2.COMPONENTID_FIELD_NUMBER, span.componentId);
+        } else {
+            writeString(output, SpanObjectV2.COMPONENT_FIELD_NUMBER, span.componentName);
+        }
+        if (span.errorOccurred) {
+            output.writeBool(SpanObjectV2.ISERROR_FIELD_NUMBER, true);
+        }
+        for (int i = 0; i < span.tagCount; i++) {
+            writeMessageHeader(output, SpanObjectV2.TAGS_FIELD_NUMBER);
+            writeTag(output, span.tagKeys[i], span.tagValues[i]);
+        }
+        if (span.logs != null) {
+            for (LogDataEntity log : span.logs) {
+                writeMessageHeader(output, SpanObjectV2.LOGS_FIELD_NUMBER);
+                writeLog(output, log);
+            }
+        }
+    }
+
+    /**
+     * Follow {@link TraceSegmentRef#transform()}, whose fields are written in the order of their numbers.
+     */
+    private int refSize(TraceSegmentRef ref) {
+        int slot = reserve();
+        int size = int32FieldSize(SegmentReference.REFTYPE_FIELD_NUMBER, refType(ref));
+        size += uniqueIdFieldSize(SegmentReference.PARENTTRACESEGMENTID_FIELD_NUMBER, ref.getTraceSegmentId());
+        size += int32FieldSize(SegmentReference.PARENTSPANID_FIELD_NUMBER, ref.getSpanId());
+        size += int32FieldSize(
+            SegmentReference.PARENTSERVICEINSTANCEID_FIELD_NUMBER, ref.getParentServiceInstanceId());
+        if (TraceSegmentRef.SegmentRefType.CROSS_PROCESS.equals(ref.getType())) {
+            if (ref.getPeerId() == DictionaryUtil.nullValue()) {
+                size += stringFieldSize(SegmentReference.NETWORKADDRESS_FIELD_NUMBER, ref.getPeerHost());
+            } else {
+                size += int32FieldSize(SegmentReference.NETWORKADDRESSID_FIELD_NUMBER, ref.getPeerId());
+            }
+        }
+        size += int32FieldSize(
+            SegmentReference.ENTRYSERVICEINSTANCEID_FIELD_NUMBER, ref.getEntryServiceInstanceId());
+        size += stringFieldSize(SegmentReference.ENTRYENDPOINT_FIELD_NUMBER, ref.getEntryEndpointName());
+        size += stringFieldSize(SegmentReference.PARENTENDPOINT_FIELD_NUMBER, ref.getParentEndpointName());
+        return record(slot, size);
+    }
+
+    private void writeRef(CodedOutputStream output, TraceSegmentRef ref) throws IOException {
+        writeInt32(output, SegmentReference.REFTYPE_FIELD_NUMBER, refType(ref));
+        writeUniqueId(output, SegmentReference.PARENTTRACESEGMENTID_FIELD_NUMBER, ref.getTraceSegmentId());
+        writeInt32(output, SegmentReference.PARENTSPANID_FIELD_NUMBER, ref.getSpanId());
+        writeInt32(output, SegmentReference.PARENTSERVICEINSTANCEID_FIELD_NUMBER, ref.getParentServiceInstanceId());
+        if (TraceSegmentRef.SegmentRefType.CROSS_PROCESS.equals(ref.getType())) {
+            if (ref.getPeerId() == DictionaryUtil.nullValue()) {
+                writeString(output, SegmentReference.NETWORKADDRESS_FIELD_NUMBER, ref.getPeerHost());
+            } else {
+                writeInt32(output, SegmentReference.NETWORKADDRESSID_FIELD_NUMBER, ref.getPeerId());
+            }
+        }
+        writeInt32(output, SegmentReference.ENTRYSERVICEINSTANCEID_FIELD_NUMBER, ref.getEntryServiceInstanceId());
+        writeString(output, SegmentReference.ENTRYENDPOINT_FIELD_NUMBER, ref.getEntryEndpointName());
+        writeString(output, SegmentReference.PARENTENDPOINT_FIELD_NUMBER, ref.getParentEndpointName());
+    }
+
+    /**
+     * The key of the tag is written from its cached UTF-8 bytes, as the string and bytes fields share the wire type.
+     */
+    private int tagSize(AbstractTag<?> tag, String value) {
+        int slot = reserve();
+        byte[] key = tag.keyBytes();
+        int size = key.length == 0
+            ? 0 : CodedOutputStream.computeByteArraySize(KeyStringValuePair.KEY_FIELD_NUMBER, key);
+        size += stringFieldSize(KeyStringValuePair.VALUE_FIELD_NUMBER, value);
+        return record(slot, size);
+    }
+
+    private void writeTag(CodedOutputStream output, AbstractTag<?> tag, String value) throws IOException {
+        byte[] key = tag.keyBytes();
+        if (key.length != 0) {
+            output.writeByteArray(KeyStringValuePair.KEY_FIELD_NUMBER, key);
+        }
+        writeString(output, KeyStringValuePair.VALUE_FIELD_NUMBER, value);
+    }
+
+    private int logSize(LogDataEntity log) {
+        int slot = reserve();
+        int size = int64FieldSize(Log.TIME_FIELD_NUMBER, log.getTimestamp());
+        for (KeyValuePair data : log.getLogs()) {
+            size += messageFieldSize(Log.DATA_FIELD_NUMBER, keyValueSize(data));
+        }
+        return record(slot, size);
+    }
+
+    private void writeLog(CodedOutputStream output, LogDataEntity log) throws IOException {
+        writeInt64(output, Log.TIME_FIELD_NUMBER, log.getTimestamp());
+        for (KeyValuePair data : log.getLogs()) {
+            writeMessageHeader(output, Log.DATA_FIELD_NUMBER);
+            writeString(output, KeyStringValuePair.KEY_FIELD_NUMBER, data.getKey());
+            writeString(output, KeyStringValuePair.VALUE_FIELD_NUMBER, data.getValue());
+        }
+    }
+
+    private int keyValueSize(KeyValuePair data) {
+        int slot = reserve();
+        int size = stringFieldSize(KeyStringValuePair.KEY_FIELD_NUMBER, data.getKey());
+        size += stringFieldSize(KeyStringValuePair.VALUE_FIELD_NUMBER, data.getValue());
+        return record(slot, size);
+    }
+
+    private static int spanType(AbstractTracingSpan span) {
+        if (span.isEntry()) {
+            return SpanType.Entry_VALUE;
+        } else if (span.isExit()) {
+            return SpanType.Exit_VALUE;
+        } else {
+            return SpanType.Local_VALUE;
+        }
+    }
+
+    private static int refType(TraceSegmentRef ref) {
+        if (TraceSegmentRef.SegmentRefType.CROSS_PROCESS.equals(ref.getType())) {
+            return RefType.CrossProcess_VALUE;
+        } else {
+            return RefType.CrossThread_VALUE;
+        }
+    }
+
+    /**
+     * The {@link UniqueId} is always set, and its parts are packed.
+     */
+    private static int uniqueIdFieldSize(int fieldNumber, ID id) {
+        return messageFieldSize(fieldNumber, uniqueIdSize(id));
+    }
+
+    private static int uniqueIdSize(ID id) {
+        int partsSize = idPartsSize(id);
+        return CodedOutputStream.computeTagSize(UniqueId.IDPARTS_FIELD_NUMBER)
+            + CodedOutputStream.computeUInt32SizeNoTag(partsSize) + partsSize;
+    }
+
+    private static int idPartsSize(ID id) {
+        return CodedOutputStream.computeInt64SizeNoTag(id.getPart1())
+            + CodedOutputStream.computeInt64SizeNoTag(id.getPart2())
+            + CodedOutputStream.computeInt64SizeNoTag(id.getPart3());
+    }
+
+    private static void writeUniqueId(CodedOutputStream output, int fieldNumber, ID id) throws IOException {
+        output.writeTag(fieldNumber, LENGTH_DELIMITED);
+        output.writeUInt32NoTag(uniqueIdSize(id));
+        output.writeTag(UniqueId.IDPARTS_FIELD_NUMBER, LENGTH_DELIMITED);
+        output.writeUInt32NoTag(idPartsSize(id));
+        output.writeInt64NoTag(id.getPart1());
+        output.writeInt64NoTag(id.getPart2());
+        output.writeInt64NoTag(id.getPart3());
+    }
+
+    private static int messageFieldSize(int fieldNumber, int size) {
+        return CodedOutputStream.computeTagSize(fieldNumber) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    /**
+     * The default values of the proto3 fields are not written, the same as the generated messages do.
+     */
+    private static int int32FieldSize(int fieldNumber, int value) {
+        return value == 0 ? 0 : CodedOutputStream.computeInt32Size(fieldNumber, value);
+    }
+
+    private static int int64FieldSize(int fieldNumber, long value) {
+        return value == 0 ? 0 : CodedOutputStream.computeInt64Size(fieldNumber, value);
+    }
+
+    private static int stringFieldSize(int fieldNumber, String value) {
+        return value == null || value.isEmpty() ? 0 : CodedOutputStream.computeStringSize(fieldNumber, value);
+    }
+
+    private void writeMessageHeader(CodedOutputStream output, int fieldNumber) throws IOException {
+        output.writeTag(fieldNumber, LENGTH_DELIMITED);
+        output.writeUInt32NoTag(sizes[sizeCursor++]);
+    }
+
+    private static void writeInt32(CodedOutputStream output, int fieldNumber, int value) throws IOException {
+        if (value != 0) {
+            output.writeInt32(fieldNumber, value);
+        }
+    }
+
+    private static void writeInt64(CodedOutputStream output, int fieldNumber, long value) throws IOException {
+        if (value != 0) {
+            output.writeInt64(fieldNumber, value);
+        }
+    }
+
+    private static void writeString(CodedOutputStream output, int fieldNumber, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            output.writeString(fieldNumber, value);
+        }
+    }
+
+    /**
+     * Reserve the slot of a nested message before its own nested messages, so the slots are in the writing order.
+     */
+    private int reserve() {
+        if (sizeCount == sizes.length) {
+            sizes = Arrays.copyOf(sizes, sizes.length * 2);
+        }
+        return sizeCount++;
+    }
+
+    private int record(int slot, int size) {
+        sizes[slot] = size;
+        return size;
+    }
+}
@@ -18,7 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
 import org.apache.skywalking.apm.agent.core.context.ids.DistributedTraceId;
@@ -54,6 +54,7 @@ public class TraceSegment {
      * "skywalking-api" module.
      */
     private List<AbstractTracingSpan> spans;
+    private static final int SPANS_INITIAL_CAPACITY = 8;
 
     /**
      * The <code>relatedGlobalTraces</code> represent a set of all related trace. Most time it contains only one
@@ -76,7 +77,7 @@ public class TraceSegment {
      */
     public TraceSegment() {
         this.traceSegmentId = GlobalIdGenerator.generate();
-        this.spans = new LinkedList<>();
+        this.spans = new ArrayList<>(SPANS_INITIAL_CAPACITY);
         this.relatedGlobalTraces = new DistributedTraceIds();
         this.relatedGlobalTraces.append(new NewDistributedTraceId());
         this.createTime = System.currentTimeMillis();
@@ -89,7 +90,7 @@ public class TraceSegment {
      */
     public void ref(TraceSegmentRef refSegment) {
         if (refs == null) {
-            refs = new LinkedList<>();
+            refs = new ArrayList<>(1);
         }
         if (!refs.contains(refSegment)) {
             refs.add(refSegment);
@@ -139,10 +140,30 @@ public class TraceSegment {
         return relatedGlobalTraces.getRelatedGlobalTraces();
     }
 
+    List<AbstractTracingSpan> getSpans() {
+        return spans;
+    }
+
+    boolean isSizeLimited() {
+        return isSizeLimited;
+    }
+
     public boolean isSingleSpanSegment() {
         return this.spans != null && this.spans.size() == 1;
     }
 
+    /**
+     * @return true if error occurred in any finished span.
+     */
+    public boolean isErrorOccurred() {
+        for (AbstractTracingSpan span : spans) {
+            if (span.isErrorOccurred()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean isIgnore() {
         return ignore;
     }
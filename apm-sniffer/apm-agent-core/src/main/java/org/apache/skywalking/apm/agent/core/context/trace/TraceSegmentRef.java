@@ -111,6 +111,34 @@ public class TraceSegmentRef {
         return entryServiceInstanceId;
     }
 
+    SegmentRefType getType() {
+        return type;
+    }
+
+    ID getTraceSegmentId() {
+        return traceSegmentId;
+    }
+
+    int getSpanId() {
+        return spanId;
+    }
+
+    int getPeerId() {
+        return peerId;
+    }
+
+    String getPeerHost() {
+        return peerHost;
+    }
+
+    int getParentServiceInstanceId() {
+        return parentServiceInstanceId;
+    }
+
+    String getParentEndpointName() {
+        return parentEndpointName;
+    }
+
     public SegmentReference transform() {
         SegmentReference.Builder refBuilder = SegmentReference.newBuilder();
         if (SegmentRefType.CROSS_PROCESS.equals(type)) {
@@ -15,55 +15,249 @@
  * limitations under the License.
  *
  */
-
 package org.apache.skywalking.apm.agent.core.dictionary;
 
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
 import org.apache.skywalking.apm.network.common.KeyIntValuePair;
 import org.apache.skywalking.apm.network.register.v2.NetAddressMapping;
 import org.apache.skywalking.apm.network.register.v2.NetAddresses;
 import org.apache.skywalking.apm.network.register.v2.RegisterGrpc;
 
+import static org.apache.skywalking.apm.agent.core.conf.Config.Dictionary.NETWORK_ADDRESS_NOT_FOUND_BUFFER_SIZE;
+import static org.apache.skywalking.apm.agent.core.conf.Config.Dictionary.NETWORK_ADDRESS_NOT_FOUND_EXPIRE;
+import static org.apache.skywalking.apm.agent.core.conf.Config.Dictionary.NETWORK_ADDRESS_REGISTER_BATCH_SIZE;
+import static org.apache.skywalking.apm.agent.core.conf.Config.Dictionary.NETWORK_ADDRESS_REGISTER_BUFFER_SIZE;
+import static org.apache.skywalking.apm.agent.core.conf.Config.Dictionary.NETWORK_ADDRESS_REGISTER_MAX_ATTEMPTS;
 import static org.apache.skywalking.apm.agent.core.conf.Config.Dictionary.SERVICE_CODE_BUFFER_SIZE;
 
 /**
  * Map of network address id to network literal address, which is from the collector side.
+ * <p>
+ * The unknown addresses are registered in batches on the async stub, one batch in flight at a time, so a slow backend
+ * doesn't block the register thread. They are retried in the following rounds until the backend returns the id, or
+ * given up after {@code Config.Dictionary#NETWORK_ADDRESS_REGISTER_MAX_ATTEMPTS} rounds. The given up addresses are
+ * not registered again until they expire. The least recently used addresses are evicted when the dictionary is out
+ * of {@code Config.Dictionary#SERVICE_CODE_BUFFER_SIZE}, so the churning peers don't occupy the dictionary forever.
  */
 public enum NetworkAddressDictionary {
     INSTANCE;
-    private Map<String, Integer> serviceDictionary = new ConcurrentHashMap<>();
-    private Set<String> unRegisterServices = ConcurrentHashMap.newKeySet();
+
+    private static final ILog logger = LogManager.getLogger(NetworkAddressDictionary.class);
+
+    private final Map<String, AddressId> serviceDictionary = new ConcurrentHashMap<>();
+    /**
+     * Network address to register, and the count of the rounds it has been tried.
+     */
+    private final Map<String, Integer> unRegisterServices = new ConcurrentHashMap<>();
+    /**
+     * Network address given up registering, and the time of giving up.
+     */
+    private final Map<String, Long> notFoundServices = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    /**
+     * Increase in each sync round, work as the clock of the LRU.
+     */
+    private volatile int syncRound;
+    /**
+     * Whether a register request is in flight, the next batch isn't sent until it responds.
+     */
+    private final AtomicBoolean registering = new AtomicBoolean(false);
 
     public PossibleFound find(String networkAddress) {
-        Integer applicationId = serviceDictionary.get(networkAddress);
-        if (applicationId != null) {
-            return new Found(applicationId);
+        AddressId addressId = serviceDictionary.get(networkAddress);
+        if (addressId != null) {
+            addressId.accessIn(syncRound);
+            hitCount.incrementAndGet();
+            return new Found(addressId.id);
         } else {
-            if (serviceDictionary.size() + unRegisterServices.size() < SERVICE_CODE_BUFFER_SIZE) {
-                unRegisterServices.add(networkAddress);
+            missCount.incrementAndGet();
+            if (unRegisterServices.size() < NETWORK_ADDRESS_REGISTER_BUFFER_SIZE && !isNotFound(networkAddress)) {
+                unRegisterServices.putIfAbsent(networkAddress, 0);
             }
             return new NotFound();
         }
     }
 
-    public void syncRemoteDictionary(RegisterGrpc.RegisterBlockingStub networkAddressRegisterServiceBlockingStub) {
-        if (unRegisterServices.size() > 0) {
-            NetAddressMapping networkAddressMappings = networkAddressRegisterServiceBlockingStub
-                .doNetworkAddressRegister(NetAddresses.newBuilder()
-                                                      .addAllAddresses(unRegisterServices)
-                                                      .build());
-            if (networkAddressMappings.getAddressIdsCount() > 0) {
-                for (KeyIntValuePair keyWithIntegerValue : networkAddressMappings.getAddressIdsList()) {
-                    unRegisterServices.remove(keyWithIntegerValue.getKey());
-                    serviceDictionary.put(keyWithIntegerValue.getKey(), keyWithIntegerValue.getValue());
+    public void syncRemoteDictionary(RegisterGrpc.RegisterStub networkAddressRegisterServiceStub) {
+        final int round = ++syncRound;
+        if (unRegisterServices.size() > 0 && registering.compareAndSet(false, true)) {
+            final List<String> addresses = new ArrayList<>(
+                Math.min(unRegisterServices.size(), NETWORK_ADDRESS_REGISTER_BATCH_SIZE));
+            for (String address : unRegisterServices.keySet()) {
+                if (addresses.size() >= NETWORK_ADDRESS_REGISTER_BATCH_SIZE) {
+                    break;
                 }
+                addresses.add(address);
             }
+
+            try {
+                networkAddressRegisterServiceStub.doNetworkAddressRegister(
+                    NetAddresses.newBuilder().addAllAddresses(addresses).build(),
+                    new StreamObserver<NetAddressMapping>() {
+                        @Override
+                        public void onNext(NetAddressMapping networkAddressMappings) {
+                            registered(addresses, networkAddressMappings, round);
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            registering.set(false);
+                            logger.warn(t, "Register network addresses fail, retry in the next round.");
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            registering.set(false);
+                        }
+                    }
+                );
+            } catch (RuntimeException e) {
+                registering.set(false);
+                throw e;
+            }
+        }
+
+        evictLeastRecentlyUsed();
+
+        if (logger.isDebugEnable()) {
+            logger.debug(
+                "Network address dictionary size: {}, unregistered: {}, not found: {}, hit rate: {}",
+                serviceDictionary.size(), unRegisterServices.size(), notFoundServices.size(), hitRate()
+            );
         }
     }
 
+    private void registered(List<String> addresses, NetAddressMapping networkAddressMappings, int round) {
+        for (KeyIntValuePair keyWithIntegerValue : networkAddressMappings.getAddressIdsList()) {
+            unRegisterServices.remove(keyWithIntegerValue.getKey());
+            serviceDictionary.put(keyWithIntegerValue.getKey(), new AddressId(keyWithIntegerValue.getValue(), round));
+        }
+
+        // the backend registers asynchronously, so retry the rest in the following rounds
+        for (String address : addresses) {
+            Integer attempts = unRegisterServices.get(address);
+            if (attempts == null) {
+                continue;
+            }
+            if (attempts + 1 < NETWORK_ADDRESS_REGISTER_MAX_ATTEMPTS) {
+                unRegisterServices.put(address, attempts + 1);
+            } else {
+                unRegisterServices.remove(address);
+                markNotFound(address);
+            }
+        }
+    }
+
+    /**
+     * @return the rate of the found addresses in all finding since started or cleared.
+     */
+    public double hitRate() {
+        long hit = hitCount.get();
+        long total = hit + missCount.get();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
     public void clear() {
         this.serviceDictionary.clear();
+        this.unRegisterServices.clear();
+        this.notFoundServices.clear();
+        this.hitCount.set(0);
+        this.missCount.set(0);
+        this.registering.set(false);
+    }
+
+    /**
+     * @return the count of the addresses in the dictionary.
+     */
+    public int size() {
+        return serviceDictionary.size();
+    }
+
+    private boolean isNotFound(String networkAddress) {
+        Long notFoundTime = notFoundServices.get(networkAddress);
+        if (notFoundTime == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - notFoundTime < TimeUnit.SECONDS.toMillis(NETWORK_ADDRESS_NOT_FOUND_EXPIRE)) {
+            return true;
+        }
+        notFoundServices.remove(networkAddress, notFoundTime);
+        return false;
+    }
+
+    private void markNotFound(String networkAddress) {
+        long now = System.currentTimeMillis();
+        if (notFoundServices.size() >= NETWORK_ADDRESS_NOT_FOUND_BUFFER_SIZE) {
+            long expireTime = now - TimeUnit.SECONDS.toMillis(NETWORK_ADDRESS_NOT_FOUND_EXPIRE);
+            notFoundServices.values().removeIf(notFoundTime -> notFoundTime < expireTime);
+        }
+        if (notFoundServices.size() < NETWORK_ADDRESS_NOT_FOUND_BUFFER_SIZE) {
+            notFoundServices.put(networkAddress, now);
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        int overflow = serviceDictionary.size() - SERVICE_CODE_BUFFER_SIZE;
+        if (overflow <= 0) {
+            return;
+        }
+
+        // snapshot the access rounds, they keep changing while sorting
+        final List<EvictionCandidate> candidates = new ArrayList<>(serviceDictionary.size());
+        serviceDictionary.forEach((address, addressId) -> candidates.add(
+            new EvictionCandidate(address, addressId, addressId.lastAccessRound)));
+        candidates.sort(Comparator.comparingInt(candidate -> candidate.lastAccessRound));
+        for (int i = 0; i < overflow && i < candidates.size(); i++) {
+            serviceDictionary.remove(candidates.get(i).address, candidates.get(i).addressId);
+        }
+    }
+
+    private static class AddressId {
+        private final int id;
+        private volatile int lastAccessRound;
+
+        private AddressId(int id, int lastAccessRound) {
+            this.id = id;
+            this.lastAccessRound = lastAccessRound;
+        }
+
+        private void accessIn(int round) {
+            // avoid the volatile write when accessed in the same round
+            if (lastAccessRound != round) {
+                lastAccessRound = round;
+            }
+        }
+    }
+
+    private static class EvictionCandidate {
+        private final String address;
+        private final AddressId addressId;
+        private final int lastAccessRound;
+
+        private EvictionCandidate(String address, AddressId addressId, int lastAccessRound) {
+            this.address = address;
+            this.addressId = addressId;
+            this.lastAccessRound = lastAccessRound;
+        }
     }
 }
@@ -19,11 +19,16 @@
 package org.apache.skywalking.apm.agent.core.jvm;
 
 import io.grpc.Channel;
-import java.util.LinkedList;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.skywalking.apm.agent.core.boot.BootService;
 import org.apache.skywalking.apm.agent.core.boot.DefaultImplementor;
 import org.apache.skywalking.apm.agent.core.boot.DefaultNamedThreadFactory;
@@ -42,7 +47,10 @@ import org.apache.skywalking.apm.agent.core.remote.GRPCChannelListener;
 import org.apache.skywalking.apm.agent.core.remote.GRPCChannelManager;
 import org.apache.skywalking.apm.agent.core.remote.GRPCChannelStatus;
 import org.apache.skywalking.apm.network.common.Commands;
+import org.apache.skywalking.apm.network.language.agent.GC;
 import org.apache.skywalking.apm.network.language.agent.JVMMetric;
+import org.apache.skywalking.apm.network.language.agent.MemoryPool;
+import org.apache.skywalking.apm.network.language.agent.PoolType;
 import org.apache.skywalking.apm.network.language.agent.v2.JVMMetricCollection;
 import org.apache.skywalking.apm.network.language.agent.v2.JVMMetricReportServiceGrpc;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
@@ -52,6 +60,12 @@ import static org.apache.skywalking.apm.agent.core.conf.Config.Collector.GRPC_UP
 /**
  * The <code>JVMService</code> represents a timer, which collectors JVM cpu, memory, memorypool and gc info, and send
  * the collected info to Collector through the channel provided by {@link GRPCChannelManager}
+ * <p>
+ * Samples are collected every second, but reported in a compacted form: memory pools are only included when their
+ * values changed since the last sample, and GC entries only when there was GC activity. The first sample of every
+ * minute, and the first one after a reconnection or a failed report, is always complete, so the backend never misses
+ * a value for a whole minute. Samples are coalesced and reported once per {@link Config.Jvm#REPORT_INTERVAL}
+ * through the async stub, at most one request in flight.
  */
 @DefaultImplementor
 public class JVMService implements BootService, Runnable {
@@ -61,6 +75,14 @@ public class JVMService implements BootService, Runnable {
     private volatile ScheduledFuture<?> sendMetricFuture;
     private Sender sender;
 
+    /**
+     * The builder and the last reported pools are only touched by the producer thread.
+     */
+    private final JVMMetric.Builder jvmBuilder = JVMMetric.newBuilder();
+    private final Map<PoolType, MemoryPool> lastMemoryPools = new EnumMap<PoolType, MemoryPool>(PoolType.class);
+    private long lastFullSampleMinute = -1;
+    private volatile boolean fullSampleRequired = true;
+
     @Override
     public void prepare() throws Throwable {
         queue = new LinkedBlockingQueue<JVMMetric>(Config.Jvm.BUFFER_SIZE);
@@ -83,7 +105,7 @@ public class JVMService implements BootService, Runnable {
                                         public void handle(Throwable t) {
                                             logger.error("JVMService consumes and upload failure.", t);
                                         }
-                                    }), 0, 1, TimeUnit.SECONDS);
+                                    }), 0, Math.max(1, Config.Jvm.REPORT_INTERVAL), TimeUnit.SECONDS);
     }
 
     @Override
@@ -103,17 +125,36 @@ public class JVMService implements BootService, Runnable {
             .nullValue()) {
             long currentTimeMillis = System.currentTimeMillis();
             try {
-                JVMMetric.Builder jvmBuilder = JVMMetric.newBuilder();
+                long minute = currentTimeMillis / 60000;
+                boolean fullSample = fullSampleRequired || minute != lastFullSampleMinute;
+                if (fullSample) {
+                    fullSampleRequired = false;
+                    lastFullSampleMinute = minute;
+                    lastMemoryPools.clear();
+                }
+
+                jvmBuilder.clear();
                 jvmBuilder.setTime(currentTimeMillis);
                 jvmBuilder.setCpu(CPUProvider.INSTANCE.getCpuMetric());
                 jvmBuilder.addAllMemory(MemoryProvider.INSTANCE.getMemoryMetricList());
-                jvmBuilder.addAllMemoryPool(MemoryPoolProvider.INSTANCE.getMemoryPoolMetricsList());
-                jvmBuilder.addAllGc(GCProvider.INSTANCE.getGCList());
+                for (MemoryPool memoryPool : MemoryPoolProvider.INSTANCE.getMemoryPoolMetricsList()) {
+                    if (!memoryPool.equals(lastMemoryPools.put(memoryPool.getType(), memoryPool))) {
+                        jvmBuilder.addMemoryPool(memoryPool);
+                    }
+                }
+                // The GC values are already deltas, an idle collector adds nothing to the sums in the backend.
+                for (GC gc : GCProvider.INSTANCE.getGCList()) {
+                    if (fullSample || gc.getCount() != 0 || gc.getTime() != 0) {
+                        jvmBuilder.addGc(gc);
+                    }
+                }
 
                 JVMMetric jvmMetric = jvmBuilder.build();
                 if (!queue.offer(jvmMetric)) {
                     queue.poll();
                     queue.offer(jvmMetric);
+                    // The dropped sample may carry the only report of a changed pool.
+                    fullSampleRequired = true;
                 }
             } catch (Exception e) {
                 logger.error(e, "Collect JVM info fail.");
@@ -123,26 +164,56 @@ public class JVMService implements BootService, Runnable {
 
     private class Sender implements Runnable, GRPCChannelListener {
         private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
-        private volatile JVMMetricReportServiceGrpc.JVMMetricReportServiceBlockingStub stub = null;
+        private volatile JVMMetricReportServiceGrpc.JVMMetricReportServiceStub stub = null;
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+        private final List<JVMMetric> buffer = new ArrayList<JVMMetric>();
+        private final JVMMetricCollection.Builder builder = JVMMetricCollection.newBuilder();
 
         @Override
         public void run() {
             if (RemoteDownstreamConfig.Agent.SERVICE_ID != DictionaryUtil.nullValue() && RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID != DictionaryUtil
                 .nullValue()) {
-                if (status == GRPCChannelStatus.CONNECTED) {
+                // Keep the samples queued while the previous report is still pending, they go with the next one.
+                if (status == GRPCChannelStatus.CONNECTED && inFlight.compareAndSet(false, true)) {
+                    boolean sent = false;
                     try {
-                        JVMMetricCollection.Builder builder = JVMMetricCollection.newBuilder();
-                        LinkedList<JVMMetric> buffer = new LinkedList<JVMMetric>();
+                        buffer.clear();
                         queue.drainTo(buffer);
                         if (buffer.size() > 0) {
+                            builder.clear();
                             builder.addAllMetrics(buffer);
                             builder.setServiceInstanceId(RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID);
-                            Commands commands = stub.withDeadlineAfter(GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS)
-                                                    .collect(builder.build());
-                            ServiceManager.INSTANCE.findService(CommandService.class).receiveCommand(commands);
+                            stub.withDeadlineAfter(GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS)
+                                .collect(builder.build(), new StreamObserver<Commands>() {
+                                    @Override
+                                    public void onNext(Commands commands) {
+                                        ServiceManager.INSTANCE.findService(CommandService.class)
+                                                               .receiveCommand(commands);
+                                    }
+
+                                    @Override
+                                    public void onError(Throwable t) {
+                                        fullSampleRequired = true;
+                                        inFlight.set(false);
+                                        logger.error(t, "send JVM metrics to Collector fail.");
+                                        ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(t);
+                                    }
+
+                                    @Override
+                                    public void onCompleted() {
+                                        inFlight.set(false);
+                                    }
+                                });
+                            sent = true;
                         }
                     } catch (Throwable t) {
+                        fullSampleRequired = true;
                         logger.error(t, "send JVM metrics to Collector fail.");
+                    } finally {
+                        buffer.clear();
+                        if (!sent) {
+                            inFlight.set(false);
+                        }
                     }
                 }
             }
@@ -152,7 +223,9 @@ public class JVMService implements BootService, Runnable {
         public void statusChanged(GRPCChannelStatus status) {
             if (GRPCChannelStatus.CONNECTED.equals(status)) {
                 Channel channel = ServiceManager.INSTANCE.findService(GRPCChannelManager.class).getChannel();
-                stub = JVMMetricReportServiceGrpc.newBlockingStub(channel);
+                stub = JVMMetricReportServiceGrpc.newStub(channel);
+                // The backend may be a different OAP node now, which has no memory pools of this instance.
+                fullSampleRequired = true;
             }
             this.status = status;
         }
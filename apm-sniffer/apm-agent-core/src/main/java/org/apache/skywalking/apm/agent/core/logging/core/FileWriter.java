@@ -15,7 +15,6 @@
  * limitations under the License.
  *
  */
-
 package org.apache.skywalking.apm.agent.core.logging.core;
 
 import java.io.File;
@@ -23,15 +22,18 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.regex.Pattern;
 import org.apache.skywalking.apm.agent.core.boot.DefaultNamedThreadFactory;
 import org.apache.skywalking.apm.agent.core.conf.Config;
@@ -39,14 +41,51 @@ import org.apache.skywalking.apm.agent.core.conf.Constants;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 
 /**
- * The <code>FileWriter</code> support async file output, by using a queue as buffer.
+ * The <code>FileWriter</code> support async file output, by using a ring of byte buffers.
+ * <p>
+ * The application threads claim a slot of the ring by CAS, encode the message into the pre-allocated buffer of the
+ * slot and publish it. They never block, when the ring is full, the message is dropped and counted. The dropped count
+ * is written into the log file by the writer thread, which writes the published buffers in batch through the gathering
+ * write of the {@link FileChannel}.
  */
 public class FileWriter implements IWriter {
+    /**
+     * Must be the power of 2.
+     */
+    private static final int RING_SIZE = 2048;
+    private static final int RING_MASK = RING_SIZE - 1;
+    private static final int BUFFER_SIZE = 256;
+    /**
+     * The slot buffer grows for the long messages, and is shrunk back after written if it grows beyond this size.
+     */
+    private static final int MAX_KEPT_BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final byte[] LINE_SEPARATOR = Constants.LINE_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+
     private static FileWriter INSTANCE;
     private static final Object CREATE_LOCK = new Object();
+
+    private final ByteBuffer[] ring = new ByteBuffer[RING_SIZE];
+    /**
+     * The sequence published in each slot, the slot is readable when it equals the expected sequence.
+     */
+    private final AtomicLongArray published = new AtomicLongArray(RING_SIZE);
+    /**
+     * The next sequence to be claimed by the application threads.
+     */
+    private final AtomicLong claimed = new AtomicLong(0);
+    /**
+     * The next sequence to be written, only updated by the writer thread.
+     */
+    private volatile long consumed = 0;
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private long reportedDroppedCount = 0;
+    private final ByteBuffer[] batch = new ByteBuffer[MAX_BATCH_SIZE];
+
     private FileOutputStream fileOutputStream;
-    private ArrayBlockingQueue logBuffer;
-    private volatile int fileSize;
+    private FileChannel fileChannel;
+    private long fileSize;
+    private final SimpleDateFormat rotationDateFormat = new SimpleDateFormat(".yyyy_MM_dd_HH_mm_ss");
     private Pattern filenamePattern = Pattern.compile(Config.Logging.FILE_NAME + "\\.\\d{4}_\\d{2}_\\d{2}_\\d{2}_\\d{2}_\\d{2}");
 
     public static FileWriter get() {
@@ -61,58 +100,90 @@ public class FileWriter implements IWriter {
     }
 
     private FileWriter() {
-        logBuffer = new ArrayBlockingQueue(1024);
-        final ArrayList<String> outputLogs = new ArrayList<String>(200);
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = ByteBuffer.allocate(BUFFER_SIZE);
+            published.set(i, -1);
+        }
         Executors.newSingleThreadScheduledExecutor(new DefaultNamedThreadFactory("LogFileWriter"))
                  .scheduleAtFixedRate(new RunnableWithExceptionProtection(new Runnable() {
                      @Override
                      public void run() {
-                         try {
-                             logBuffer.drainTo(outputLogs);
-                             for (String log : outputLogs) {
-                                 writeToFile(log + Constants.LINE_SEPARATOR);
-                             }
-                             try {
-                                 fileOutputStream.flush();
-                             } catch (IOException e) {
-                                 e.printStackTrace();
-                             }
-                         } finally {
-                             outputLogs.clear();
-                         }
+                         drain();
                      }
                  }, new RunnableWithExceptionProtection.CallbackWhenException() {
                      @Override
                      public void handle(Throwable t) {
                      }
-                 }), 0, 1, TimeUnit.SECONDS);
+                 }), 0, 200, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * @param message to be written into the file.
+     * Write all published messages into the file, in the order of their sequences.
      */
-    private void writeToFile(String message) {
-        if (prepareWriteStream()) {
-            try {
-                fileOutputStream.write(message.getBytes());
-                fileSize += message.length();
-            } catch (IOException e) {
-                e.printStackTrace();
-            } finally {
-                switchFile();
+    private void drain() {
+        long sequence = consumed;
+        while (prepareWriteStream()) {
+            reportDropped();
+
+            int count = 0;
+            while (count < MAX_BATCH_SIZE) {
+                int index = (int) ((sequence + count) & RING_MASK);
+                if (published.get(index) != sequence + count) {
+                    break;
+                }
+                batch[count++] = ring[index];
+            }
+            if (count == 0) {
+                return;
+            }
+
+            writeToFile(batch, count);
+
+            for (int i = 0; i < count; i++) {
+                int index = (int) ((sequence + i) & RING_MASK);
+                if (ring[index].capacity() > MAX_KEPT_BUFFER_SIZE) {
+                    ring[index] = ByteBuffer.allocate(BUFFER_SIZE);
+                }
+                batch[i] = null;
             }
+            sequence += count;
+            consumed = sequence;
+
+            switchFile();
+        }
+    }
+
+    private void reportDropped() {
+        long dropped = droppedCount.get();
+        if (dropped > reportedDroppedCount) {
+            String message = "SkyWalking agent dropped " + (dropped - reportedDroppedCount)
+                + " log lines, as the log buffer is full." + Constants.LINE_SEPARATOR;
+            writeToFile(new ByteBuffer[] {ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8))}, 1);
+            reportedDroppedCount = dropped;
+        }
+    }
+
+    /**
+     * @param buffers to be written into the file by one gathering write.
+     */
+    private void writeToFile(ByteBuffer[] buffers, int count) {
+        long size = 0;
+        for (int i = 0; i < count; i++) {
+            size += buffers[i].remaining();
+        }
+        try {
+            long written = 0;
+            while (written < size) {
+                written += fileChannel.write(buffers, 0, count);
+            }
+            fileSize += size;
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
     private void switchFile() {
         if (fileSize > Config.Logging.MAX_FILE_SIZE) {
-            forceExecute(new Callable() {
-                @Override
-                public Object call() throws Exception {
-                    fileOutputStream.flush();
-                    return null;
-                }
-            });
             forceExecute(new Callable() {
                 @Override
                 public Object call() throws Exception {
@@ -123,7 +194,7 @@ public class FileWriter implements IWriter {
             forceExecute(new Callable() {
                 @Override
                 public Object call() throws Exception {
-                    new File(Config.Logging.DIR, Config.Logging.FILE_NAME).renameTo(new File(Config.Logging.DIR, Config.Logging.FILE_NAME + new SimpleDateFormat(".yyyy_MM_dd_HH_mm_ss")
+                    new File(Config.Logging.DIR, Config.Logging.FILE_NAME).renameTo(new File(Config.Logging.DIR, Config.Logging.FILE_NAME + rotationDateFormat
                         .format(new Date())));
                     return null;
                 }
@@ -132,6 +203,7 @@ public class FileWriter implements IWriter {
                 @Override
                 public Object call() throws Exception {
                     fileOutputStream = null;
+                    fileChannel = null;
                     return null;
                 }
             });
@@ -203,7 +275,8 @@ public class FileWriter implements IWriter {
         }
         try {
             fileOutputStream = new FileOutputStream(new File(logFilePath, Config.Logging.FILE_NAME), true);
-            fileSize = Long.valueOf(new File(logFilePath, Config.Logging.FILE_NAME).length()).intValue();
+            fileChannel = fileOutputStream.getChannel();
+            fileSize = new File(logFilePath, Config.Logging.FILE_NAME).length();
         } catch (FileNotFoundException e) {
             e.printStackTrace();
         }
@@ -212,12 +285,73 @@ public class FileWriter implements IWriter {
     }
 
     /**
-     * Write log to the queue. W/ performance trade off.
+     * Write log to the ring buffer. Never block, the message is dropped if the ring is full. The claimed slot is always
+     * published, as empty if the message fails to be encoded.
      *
      * @param message to log
      */
     @Override
     public void write(String message) {
-        logBuffer.offer(message);
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= RING_SIZE) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+        }
+        while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & RING_MASK);
+        boolean encoded = false;
+        try {
+            ByteBuffer buffer = ring[index];
+            buffer.clear();
+            if (!putAscii(buffer, message)) {
+                byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+                if (buffer.capacity() < bytes.length + LINE_SEPARATOR.length) {
+                    buffer = ByteBuffer.allocate(bytes.length + LINE_SEPARATOR.length);
+                    ring[index] = buffer;
+                }
+                buffer.clear();
+                buffer.put(bytes);
+            }
+            buffer.put(LINE_SEPARATOR);
+            buffer.flip();
+            encoded = true;
+        } finally {
+            if (!encoded) {
+                // Publish an empty buffer, the writer thread would wait for the claimed sequence forever otherwise.
+                ring[index].clear().flip();
+            }
+            published.set(index, sequence);
+        }
+    }
+
+    /**
+     * Encode the message directly when all chars are ASCII and fit in the buffer.
+     *
+     * @return false if the message has to be encoded by {@link String#getBytes}.
+     */
+    private static boolean putAscii(ByteBuffer buffer, String message) {
+        int length = message.length();
+        if (length + LINE_SEPARATOR.length > buffer.capacity()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (c >= 0x80) {
+                return false;
+            }
+            buffer.put((byte) c);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of the log lines dropped since the agent starts, as the buffer is full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
     }
 }
@@ -25,12 +25,40 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
- * The Converter is used to return a now date with format.
+ * The Converter is used to return a now date with format. The formatted date till the second is cached, only the
+ * milliseconds are appended for each log event.
  */
 public class DateConverter implements Converter {
+    private static volatile SecondPrefix CACHED_PREFIX = new SecondPrefix(-1, "");
 
     @Override
     public String convert(LogEvent logEvent) {
-        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:SSS").format(new Date());
+        long now = System.currentTimeMillis();
+        long second = now / 1000;
+        SecondPrefix prefix = CACHED_PREFIX;
+        if (prefix.second != second) {
+            prefix = new SecondPrefix(second, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:").format(new Date(second * 1000)));
+            CACHED_PREFIX = prefix;
+        }
+
+        int millis = (int) (now % 1000);
+        StringBuilder date = new StringBuilder(prefix.formatted.length() + 3).append(prefix.formatted);
+        if (millis < 100) {
+            date.append('0');
+        }
+        if (millis < 10) {
+            date.append('0');
+        }
+        return date.append(millis).toString();
+    }
+
+    private static class SecondPrefix {
+        private final long second;
+        private final String formatted;
+
+        private SecondPrefix(long second, String formatted) {
+            this.second = second;
+            this.formatted = formatted;
+        }
     }
 }
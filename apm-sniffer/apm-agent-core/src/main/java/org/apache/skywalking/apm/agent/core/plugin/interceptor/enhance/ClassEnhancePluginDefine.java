@@ -18,6 +18,8 @@
 
 package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
 
+import java.util.function.Function;
+import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.DynamicType;
@@ -42,6 +44,8 @@ import org.apache.skywalking.apm.util.StringUtil;
 
 import static net.bytebuddy.jar.asm.Opcodes.ACC_PRIVATE;
 import static net.bytebuddy.jar.asm.Opcodes.ACC_VOLATILE;
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.isNative;
 import static net.bytebuddy.matcher.ElementMatchers.isStatic;
 import static net.bytebuddy.matcher.ElementMatchers.not;
 
@@ -172,6 +176,10 @@ public abstract class ClassEnhancePluginDefine extends AbstractClassEnhancePlugi
                         newClassBuilder = newClassBuilder.method(junction)
                                                          .intercept(MethodDelegation.withDefaultConfiguration()
                                                                                     .to(BootstrapInstrumentBoost.forInternalDelegateClass(interceptor)));
+                    } else if (isInlineInterception()) {
+                        newClassBuilder = inlineMethods(typeDescription, newClassBuilder, junction,
+                            InstMethodsAdvice.class,
+                            method -> new InlineInstMethodsInter(interceptor, classLoader, method));
                     } else {
                         newClassBuilder = newClassBuilder.method(junction)
                                                          .intercept(MethodDelegation.withDefaultConfiguration()
@@ -222,6 +230,10 @@ public abstract class ClassEnhancePluginDefine extends AbstractClassEnhancePlugi
                     newClassBuilder = newClassBuilder.method(isStatic().and(staticMethodsInterceptPoint.getMethodsMatcher()))
                                                      .intercept(MethodDelegation.withDefaultConfiguration()
                                                                                 .to(BootstrapInstrumentBoost.forInternalDelegateClass(interceptor)));
+                } else if (isInlineInterception()) {
+                    newClassBuilder = inlineMethods(typeDescription, newClassBuilder,
+                        isStatic().and(staticMethodsInterceptPoint.getMethodsMatcher()), StaticMethodsAdvice.class,
+                        method -> new InlineStaticMethodsInter(interceptor, classLoader, method));
                 } else {
                     newClassBuilder = newClassBuilder.method(isStatic().and(staticMethodsInterceptPoint.getMethodsMatcher()))
                                                      .intercept(MethodDelegation.withDefaultConfiguration()
@@ -233,4 +245,39 @@ public abstract class ClassEnhancePluginDefine extends AbstractClassEnhancePlugi
 
         return newClassBuilder;
     }
+
+    /**
+     * Weave the advice into every matched method declared by the target class, each method with its own inline
+     * interceptor.
+     *
+     * @param advice      {@link InstMethodsAdvice} or {@link StaticMethodsAdvice}
+     * @param interceptor creates the inline interceptor of one method.
+     * @return new byte-buddy's builder for further manipulation.
+     */
+    private DynamicType.Builder<?> inlineMethods(TypeDescription typeDescription,
+        DynamicType.Builder<?> newClassBuilder, ElementMatcher<MethodDescription> matcher, Class<?> advice,
+        Function<MethodDescription, InlineMethodsInter> interceptor) {
+        ElementMatcher.Junction<MethodDescription> junction = ElementMatchers.<MethodDescription>not(isAbstract())
+            .and(ElementMatchers.<MethodDescription>not(isNative()))
+            .and(matcher);
+        for (MethodDescription method : typeDescription.getDeclaredMethods().filter(junction)) {
+            int index = InlineInterceptors.register(interceptor.apply(method));
+            newClassBuilder = newClassBuilder.visit(Advice.withCustomMapping()
+                                                          .bind(InterceptorIndex.class, index)
+                                                          .to(advice)
+                                                          .on(ElementMatchers.is(method)));
+        }
+        return newClassBuilder;
+    }
+
+    /**
+     * Plugins return true to get the instance and static methods interceptors inlined into the target methods by
+     * byte-buddy's {@link Advice}, instead of the delegation to {@link InstMethodsInter} and {@link
+     * StaticMethodsInter}, which allocates a super call and a {@link MethodInterceptResult} per call. The interceptors
+     * stay the same. Only the methods declared by the target class are woven. The override args points, the
+     * constructors and the bootstrap instrumentation keep the delegation.
+     */
+    protected boolean isInlineInterception() {
+        return false;
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import java.lang.reflect.Method;
+import net.bytebuddy.description.method.MethodDescription;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.plugin.PluginException;
+import org.apache.skywalking.apm.agent.core.plugin.loader.InterceptorInstanceLoader;
+
+/**
+ * The inline counterpart of {@link InstMethodsInter}, called by the code {@link InstMethodsAdvice} weaves into one
+ * class instance method.
+ */
+public class InlineInstMethodsInter extends InlineMethodsInter {
+    private static final ILog logger = LogManager.getLogger(InlineInstMethodsInter.class);
+
+    private InstanceMethodsAroundInterceptor interceptor;
+
+    public InlineInstMethodsInter(String instanceMethodsAroundInterceptorClassName, ClassLoader classLoader,
+        MethodDescription methodDescription) {
+        super(methodDescription);
+        try {
+            interceptor = InterceptorInstanceLoader.load(instanceMethodsAroundInterceptorClassName, classLoader);
+        } catch (Throwable t) {
+            throw new PluginException("Can't create InstanceMethodsAroundInterceptor.", t);
+        }
+    }
+
+    /**
+     * @return true, if the interceptor defined the return value and the origin method should be skipped.
+     */
+    public boolean beforeMethod(Class<?> clazz, Object obj, Object[] allArguments) {
+        MethodInterceptResult result = InlineInterceptors.frames().push(allArguments);
+        try {
+            Method method = method(clazz);
+            interceptor.beforeMethod((EnhancedInstance) obj, method, allArguments, parameterTypes(), result);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] before method[{}] intercept failure", clazz, methodName());
+        }
+        return !result.isContinue();
+    }
+
+    /**
+     * @param ret    the return value of the origin method, ignored if the method was skipped or threw.
+     * @param thrown the exception thrown by the origin method, null if nothing.
+     * @return the return value of the target instance method.
+     */
+    public Object afterMethod(Class<?> clazz, Object obj, Object ret, Throwable thrown) {
+        InlineInterceptors.Frames frames = InlineInterceptors.frames();
+        Object[] allArguments = frames.arguments();
+        MethodInterceptResult result = frames.result();
+        if (thrown != null) {
+            ret = null;
+        } else if (!result.isContinue()) {
+            ret = result._ret();
+        }
+        frames.pop();
+
+        Method method;
+        try {
+            method = method(clazz);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] after method[{}] intercept failure", clazz, methodName());
+            return ret;
+        }
+        EnhancedInstance targetObject = (EnhancedInstance) obj;
+        if (thrown != null) {
+            try {
+                interceptor.handleMethodException(targetObject, method, allArguments, parameterTypes(), thrown);
+            } catch (Throwable t) {
+                logger.error(t, "class[{}] handle method[{}] exception failure", clazz, methodName());
+            }
+        }
+        try {
+            ret = interceptor.afterMethod(targetObject, method, allArguments, parameterTypes(), ret);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] after method[{}] intercept failure", clazz, methodName());
+        }
+        return ret;
+    }
+}
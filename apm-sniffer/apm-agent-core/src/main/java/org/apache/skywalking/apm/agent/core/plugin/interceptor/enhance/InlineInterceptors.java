@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+/**
+ * The registry of the inline interceptors woven by {@link InstMethodsAdvice} and {@link StaticMethodsAdvice}. The
+ * advice code only carries the index of its interceptor, so the lookup is an array read instead of a field of the
+ * enhanced class.
+ * <p>
+ * It also keeps the per-thread stack of the intercepted calls, which hands the arguments and a reusable {@link
+ * MethodInterceptResult} from the enter advice to the exit advice of the same call.
+ */
+public class InlineInterceptors {
+    private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+
+    private static volatile Object[] INTERCEPTORS = new Object[64];
+    private static int SIZE = 0;
+
+    /**
+     * @return the index of the registered interceptor, which is woven into the advice code.
+     */
+    static synchronized int register(Object interceptor) {
+        Object[] interceptors = INTERCEPTORS;
+        if (SIZE == interceptors.length) {
+            Object[] grown = new Object[interceptors.length << 1];
+            System.arraycopy(interceptors, 0, grown, 0, SIZE);
+            interceptors = grown;
+        }
+        interceptors[SIZE] = interceptor;
+        INTERCEPTORS = interceptors;
+        return SIZE++;
+    }
+
+    public static Object get(int index) {
+        return INTERCEPTORS[index];
+    }
+
+    static Frames frames() {
+        return FRAMES.get();
+    }
+
+    /**
+     * The intercepted calls of one thread, from the outermost to the current one. The result holders are created
+     * once per depth and reset when a call is pushed.
+     */
+    static class Frames {
+        private Object[][] arguments = new Object[16][];
+        private MethodInterceptResult[] results = new MethodInterceptResult[16];
+        private int depth = 0;
+
+        MethodInterceptResult push(Object[] allArguments) {
+            if (depth == results.length) {
+                Object[][] grownArguments = new Object[depth << 1][];
+                System.arraycopy(arguments, 0, grownArguments, 0, depth);
+                arguments = grownArguments;
+                MethodInterceptResult[] grownResults = new MethodInterceptResult[depth << 1];
+                System.arraycopy(results, 0, grownResults, 0, depth);
+                results = grownResults;
+            }
+            MethodInterceptResult result = results[depth];
+            if (result == null) {
+                result = new MethodInterceptResult();
+                results[depth] = result;
+            } else {
+                result.reset();
+            }
+            arguments[depth++] = allArguments;
+            return result;
+        }
+
+        Object[] arguments() {
+            return arguments[depth - 1];
+        }
+
+        MethodInterceptResult result() {
+            return results[depth - 1];
+        }
+
+        void pop() {
+            arguments[--depth] = null;
+        }
+
+        int depth() {
+            return depth;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import java.lang.reflect.Method;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.jar.asm.Type;
+
+/**
+ * The base of the inline interceptors. One instance serves one woven method, so the {@link Method} and its parameter
+ * types are resolved once, at the first call, and the same parameter types array is passed to every interceptor
+ * call.
+ */
+public abstract class InlineMethodsInter {
+    private final String methodName;
+    private final String methodDescriptor;
+
+    private volatile Method method;
+    private Class<?>[] parameterTypes;
+
+    protected InlineMethodsInter(MethodDescription methodDescription) {
+        this.methodName = methodDescription.getInternalName();
+        this.methodDescriptor = methodDescription.getDescriptor();
+    }
+
+    /**
+     * @param clazz the class declaring the woven method.
+     * @return the woven method.
+     */
+    protected Method method(Class<?> clazz) throws NoSuchMethodException {
+        Method method = this.method;
+        if (method == null) {
+            for (Method declaredMethod : clazz.getDeclaredMethods()) {
+                if (declaredMethod.getName().equals(methodName)
+                    && Type.getMethodDescriptor(declaredMethod).equals(methodDescriptor)) {
+                    method = declaredMethod;
+                    break;
+                }
+            }
+            if (method == null) {
+                throw new NoSuchMethodException(clazz.getName() + "." + methodName + methodDescriptor);
+            }
+            parameterTypes = method.getParameterTypes();
+            this.method = method;
+        }
+        return method;
+    }
+
+    protected String methodName() {
+        return methodName;
+    }
+
+    /**
+     * @return the cached parameter types, only valid after {@link #method(Class)} returned.
+     */
+    protected Class<?>[] parameterTypes() {
+        return parameterTypes;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import java.lang.reflect.Method;
+import net.bytebuddy.description.method.MethodDescription;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.plugin.PluginException;
+import org.apache.skywalking.apm.agent.core.plugin.loader.InterceptorInstanceLoader;
+
+/**
+ * The inline counterpart of {@link StaticMethodsInter}, called by the code {@link StaticMethodsAdvice} weaves into one
+ * class static method.
+ */
+public class InlineStaticMethodsInter extends InlineMethodsInter {
+    private static final ILog logger = LogManager.getLogger(InlineStaticMethodsInter.class);
+
+    private StaticMethodsAroundInterceptor interceptor;
+
+    public InlineStaticMethodsInter(String staticMethodsAroundInterceptorClassName, ClassLoader classLoader,
+        MethodDescription methodDescription) {
+        super(methodDescription);
+        try {
+            interceptor = InterceptorInstanceLoader.load(staticMethodsAroundInterceptorClassName, classLoader);
+        } catch (Throwable t) {
+            throw new PluginException("Can't create StaticMethodsAroundInterceptor.", t);
+        }
+    }
+
+    /**
+     * @return true, if the interceptor defined the return value and the origin method should be skipped.
+     */
+    public boolean beforeMethod(Class<?> clazz, Object[] allArguments) {
+        MethodInterceptResult result = InlineInterceptors.frames().push(allArguments);
+        try {
+            Method method = method(clazz);
+            interceptor.beforeMethod(clazz, method, allArguments, parameterTypes(), result);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] before static method[{}] intercept failure", clazz, methodName());
+        }
+        return !result.isContinue();
+    }
+
+    /**
+     * @param ret    the return value of the origin method, ignored if the method was skipped or threw.
+     * @param thrown the exception thrown by the origin method, null if nothing.
+     * @return the return value of the target static method.
+     */
+    public Object afterMethod(Class<?> clazz, Object ret, Throwable thrown) {
+        InlineInterceptors.Frames frames = InlineInterceptors.frames();
+        Object[] allArguments = frames.arguments();
+        MethodInterceptResult result = frames.result();
+        if (thrown != null) {
+            ret = null;
+        } else if (!result.isContinue()) {
+            ret = result._ret();
+        }
+        frames.pop();
+
+        Method method;
+        try {
+            method = method(clazz);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] after static method[{}] intercept failure", clazz, methodName());
+            return ret;
+        }
+        if (thrown != null) {
+            try {
+                interceptor.handleMethodException(clazz, method, allArguments, parameterTypes(), thrown);
+            } catch (Throwable t) {
+                logger.error(t, "class[{}] handle static method[{}] exception failure", clazz, methodName());
+            }
+        }
+        try {
+            ret = interceptor.afterMethod(clazz, method, allArguments, parameterTypes(), ret);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] after static method[{}] intercept failure", clazz, methodName());
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+
+/**
+ * The byte-buddy's advice inlined into the class instance methods of the plugins opting in {@link
+ * ClassEnhancePluginDefine#isInlineInterception()}. Unlike {@link InstMethodsInter}, there is no super call {@link
+ * java.util.concurrent.Callable} and no new {@link MethodInterceptResult} per call. The origin method is skipped if
+ * the enter advice returns true.
+ */
+public class InstMethodsAdvice {
+    @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class)
+    public static boolean enter(@InterceptorIndex int index, @Advice.Origin Class<?> clazz, @Advice.This Object obj,
+        @Advice.AllArguments Object[] allArguments) {
+        return ((InlineInstMethodsInter) InlineInterceptors.get(index)).beforeMethod(clazz, obj, allArguments);
+    }
+
+    @Advice.OnMethodExit(onThrowable = Throwable.class)
+    public static void exit(@InterceptorIndex int index, @Advice.Origin Class<?> clazz, @Advice.This Object obj,
+        @Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object ret,
+        @Advice.Thrown Throwable thrown) {
+        ret = ((InlineInstMethodsInter) InlineInterceptors.get(index)).afterMethod(clazz, obj, ret, thrown);
+    }
+}
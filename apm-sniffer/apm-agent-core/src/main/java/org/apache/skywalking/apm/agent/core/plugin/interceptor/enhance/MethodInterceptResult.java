@@ -56,4 +56,12 @@ public class MethodInterceptResult {
     public Object _ret() {
         return ret;
     }
+
+    /**
+     * Clear the manipulation, so the holder can be reused by the next call of the inline interception.
+     */
+    void reset() {
+        this.isContinue = true;
+        this.ret = null;
+    }
 }
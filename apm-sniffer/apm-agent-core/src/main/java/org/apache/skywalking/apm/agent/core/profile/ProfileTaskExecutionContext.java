@@ -23,6 +23,7 @@ import org.apache.skywalking.apm.agent.core.context.TracingContext;
 import org.apache.skywalking.apm.agent.core.context.ids.ID;
 
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -48,6 +49,9 @@ public class ProfileTaskExecutionContext {
     // total started profiling tracing context count
     private final AtomicInteger totalStartedProfilingCount = new AtomicInteger(0);
 
+    // code signature dictionary of this task, the same frame is dumped many times, so reuse the built signature
+    private final ConcurrentHashMap<StackTraceElement, String> codeSignatures = new ConcurrentHashMap<>();
+
     public ProfileTaskExecutionContext(ProfileTask task) {
         this.task = task;
         profilingSegmentSlots = new AtomicReferenceArray<>(Config.Profile.MAX_PARALLEL);
@@ -146,6 +150,29 @@ public class ProfileTaskExecutionContext {
         return profilingSegmentSlots;
     }
 
+    /**
+     * find the code signature of the stack element in the dictionary of this task, build and keep it when absent. The
+     * dictionary stops growing when reach {@link Config.Profile#CODE_SIGNATURE_DICTIONARY_SIZE}, the signatures of the
+     * new elements are built every time after that.
+     *
+     * @return code sign: className.methodName:lineNumber
+     */
+    public String codeSignature(StackTraceElement element) {
+        String signature = codeSignatures.get(element);
+        if (signature != null) {
+            return signature;
+        }
+
+        signature = element.getClassName() + "." + element.getMethodName() + ":" + element.getLineNumber();
+        if (codeSignatures.size() < Config.Profile.CODE_SIGNATURE_DICTIONARY_SIZE) {
+            final String previous = codeSignatures.putIfAbsent(element, signature);
+            if (previous != null) {
+                signature = previous;
+            }
+        }
+        return signature;
+    }
+
     public boolean isStartProfileable() {
         // check is out of max sampling count check
         return totalStartedProfilingCount.incrementAndGet() <= task.getMaxSamplingCount();
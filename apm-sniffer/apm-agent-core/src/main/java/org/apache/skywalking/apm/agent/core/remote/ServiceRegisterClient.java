@@ -63,6 +63,7 @@ public class ServiceRegisterClient implements BootService, Runnable, GRPCChannel
 
     private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
     private volatile RegisterGrpc.RegisterBlockingStub registerBlockingStub;
+    private volatile RegisterGrpc.RegisterStub registerStub;
     private volatile ServiceInstancePingGrpc.ServiceInstancePingBlockingStub serviceInstancePingStub;
     private volatile ScheduledFuture<?> serviceRegisterFuture;
     private volatile long coolDownStartTime = -1;
@@ -72,9 +73,11 @@ public class ServiceRegisterClient implements BootService, Runnable, GRPCChannel
         if (GRPCChannelStatus.CONNECTED.equals(status)) {
             Channel channel = ServiceManager.INSTANCE.findService(GRPCChannelManager.class).getChannel();
             registerBlockingStub = RegisterGrpc.newBlockingStub(channel);
+            registerStub = RegisterGrpc.newStub(channel);
             serviceInstancePingStub = ServiceInstancePingGrpc.newBlockingStub(channel);
         } else {
             registerBlockingStub = null;
+            registerStub = null;
             serviceInstancePingStub = null;
         }
         this.status = status;
@@ -199,7 +202,7 @@ public class ServiceRegisterClient implements BootService, Runnable, GRPCChannel
                                                            .build());
 
                             NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(
-                                registerBlockingStub.withDeadlineAfter(GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS));
+                                registerStub.withDeadlineAfter(GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS));
                             ServiceManager.INSTANCE.findService(CommandService.class).receiveCommand(commands);
                         }
                     }
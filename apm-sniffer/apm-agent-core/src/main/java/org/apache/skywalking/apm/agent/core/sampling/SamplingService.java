@@ -18,19 +18,17 @@
 
 package org.apache.skywalking.apm.agent.core.sampling;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ObjectName;
 import org.apache.skywalking.apm.agent.core.boot.BootService;
 import org.apache.skywalking.apm.agent.core.boot.DefaultImplementor;
-import org.apache.skywalking.apm.agent.core.boot.DefaultNamedThreadFactory;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
-import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 
 /**
  * The <code>SamplingService</code> take charge of how to sample the {@link TraceSegment}. Every {@link TraceSegment}s
@@ -38,14 +36,37 @@ import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
  * send all of them to collector, if SAMPLING is on.
  * <p>
  * By default, SAMPLING is on, and  {@link Config.Agent#SAMPLE_N_PER_3_SECS }
+ * <p>
+ * The rates are limited by {@link TokenBucket}s, one for the instance and one for every endpoint, if {@link
+ * Config.Agent#SAMPLE_N_PER_3_SECS_PER_ENDPOINT} is set. The endpoint token is taken only after the instance one, and
+ * the instance token is given back if the endpoint rejects. The rates could be adjusted by the backend through {@link
+ * #updateRates(int, int)}. The unsampled segments could be deferred, then kept only if they are error or slow, see
+ * {@link Config.Agent#SAMPLE_DEFERRED_MAX_SEGMENTS}. The decision counters are registered as an MBean if {@link
+ * Config.Agent#SAMPLE_STATISTICS_MBEAN} is on.
  */
 @DefaultImplementor
-public class SamplingService implements BootService {
+public class SamplingService implements BootService, SamplingServiceMBean {
     private static final ILog logger = LogManager.getLogger(SamplingService.class);
+    private static final String MBEAN_NAME = "org.apache.skywalking.apm.agent:type=Sampling";
 
     private volatile boolean on = false;
-    private volatile AtomicInteger samplingFactorHolder;
-    private volatile ScheduledFuture<?> scheduledFuture;
+    private volatile TokenBucket instanceBucket;
+    private volatile TokenBucket deferredBucket;
+    /**
+     * The rates in use, zero means no limit, and -1 means not set yet.
+     */
+    private volatile int instanceRate = -1;
+    private volatile int endpointRate = -1;
+    private volatile ConcurrentHashMap<String, TokenBucket> endpointBuckets = new ConcurrentHashMap<>();
+    private final AtomicInteger deferredSegments = new AtomicInteger(0);
+
+    private final AtomicLong sampledCounter = new AtomicLong(0);
+    private final AtomicLong rejectedCounter = new AtomicLong(0);
+    private final AtomicLong forcedCounter = new AtomicLong(0);
+    private final AtomicLong deferredCounter = new AtomicLong(0);
+    private final AtomicLong deferredKeptCounter = new AtomicLong(0);
+    private final AtomicLong deferredDroppedCounter = new AtomicLong(0);
+    private volatile ObjectName mbeanName;
 
     @Override
     public void prepare() {
@@ -54,22 +75,21 @@ public class SamplingService implements BootService {
 
     @Override
     public void boot() {
-        if (scheduledFuture != null) {
-            /*
-             * If {@link #boot()} invokes twice, mostly in test cases,
-             * cancel the old one.
-             */
-            scheduledFuture.cancel(true);
-        }
-        if (Config.Agent.SAMPLE_N_PER_3_SECS > 0) {
-            on = true;
-            this.resetSamplingFactor();
-            ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor(
-                new DefaultNamedThreadFactory("SamplingService"));
-            scheduledFuture = service.scheduleAtFixedRate(new RunnableWithExceptionProtection(
-                this::resetSamplingFactor, t -> logger.error("unexpected exception.", t)), 0, 3, TimeUnit.SECONDS);
+        updateRates(Config.Agent.SAMPLE_N_PER_3_SECS, Config.Agent.SAMPLE_N_PER_3_SECS_PER_ENDPOINT);
+        if (on) {
             logger.debug(
-                "Agent sampling mechanism started. Sample {} traces in 3 seconds.", Config.Agent.SAMPLE_N_PER_3_SECS);
+                "Agent sampling mechanism started. Sample {} traces in 3 seconds, {} traces per endpoint.",
+                Config.Agent.SAMPLE_N_PER_3_SECS, Config.Agent.SAMPLE_N_PER_3_SECS_PER_ENDPOINT
+            );
+        }
+        if (Config.Agent.SAMPLE_STATISTICS_MBEAN) {
+            try {
+                ObjectName name = new ObjectName(MBEAN_NAME);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+                mbeanName = name;
+            } catch (Exception e) {
+                logger.warn(e, "Can't register the sampling statistics MBean {}.", MBEAN_NAME);
+            }
         }
     }
 
@@ -80,23 +100,72 @@ public class SamplingService implements BootService {
 
     @Override
     public void shutdown() {
-        if (scheduledFuture != null) {
-            scheduledFuture.cancel(true);
+        ObjectName name = mbeanName;
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (Exception e) {
+                logger.warn(e, "Can't unregister the sampling statistics MBean {}.", MBEAN_NAME);
+            }
+            mbeanName = null;
+        }
+    }
+
+    /**
+     * Replace the rate limits, the existing tokens are discarded. Nothing changes if the rates are the same as the
+     * current ones.
+     *
+     * @param nPer3Secs            sampled traces in 3 seconds of this instance, zero or negative means no limit.
+     * @param nPer3SecsPerEndpoint sampled traces in 3 seconds of every endpoint, zero or negative means no limit.
+     * @return true if the rates changed.
+     */
+    public synchronized boolean updateRates(int nPer3Secs, int nPer3SecsPerEndpoint) {
+        nPer3Secs = Math.max(nPer3Secs, 0);
+        nPer3SecsPerEndpoint = Math.max(nPer3SecsPerEndpoint, 0);
+        if (nPer3Secs == instanceRate && nPer3SecsPerEndpoint == endpointRate) {
+            return false;
         }
+        int deferredRate = Config.Agent.SAMPLE_DEFERRED_N_PER_3_SECS > 0
+            ? Config.Agent.SAMPLE_DEFERRED_N_PER_3_SECS : nPer3Secs;
+        instanceBucket = nPer3Secs > 0 ? new TokenBucket(nPer3Secs) : null;
+        deferredBucket = deferredRate > 0 ? new TokenBucket(deferredRate) : null;
+        instanceRate = nPer3Secs;
+        endpointRate = nPer3SecsPerEndpoint;
+        endpointBuckets = new ConcurrentHashMap<>();
+        on = nPer3Secs > 0 || nPer3SecsPerEndpoint > 0;
+        return true;
     }
 
     /**
-     * @return true, if sampling mechanism is on, and getDefault the sampling factor successfully.
+     * @return true, if sampling mechanism is off, or getDefault the token of the instance successfully.
      */
     public boolean trySampling() {
+        return trySampling(null);
+    }
+
+    /**
+     * @param operationName the operation name of the first span, the endpoint rate limit is ignored if it is null.
+     * @return true, if sampling mechanism is off, or getDefault the tokens of the endpoint and the instance
+     * successfully.
+     */
+    public boolean trySampling(String operationName) {
         if (on) {
-            int factor = samplingFactorHolder.get();
-            if (factor < Config.Agent.SAMPLE_N_PER_3_SECS) {
-                return samplingFactorHolder.compareAndSet(factor, factor + 1);
-            } else {
+            TokenBucket bucket = instanceBucket;
+            if (bucket != null && !bucket.tryAcquire()) {
+                rejectedCounter.incrementAndGet();
+                return false;
+            }
+            TokenBucket endpointBucket = endpointBucket(operationName);
+            if (endpointBucket != null && !endpointBucket.tryAcquire()) {
+                // the instance token isn't used by this trace
+                if (bucket != null) {
+                    bucket.release();
+                }
+                rejectedCounter.incrementAndGet();
                 return false;
             }
         }
+        sampledCounter.incrementAndGet();
         return true;
     }
 
@@ -106,11 +175,110 @@ public class SamplingService implements BootService {
      */
     public void forceSampled() {
         if (on) {
-            samplingFactorHolder.incrementAndGet();
+            TokenBucket bucket = instanceBucket;
+            if (bucket != null) {
+                bucket.forceAcquire();
+            }
+            forcedCounter.incrementAndGet();
+        }
+    }
+
+    /**
+     * Try to trace the unsampled segment in deferred mode, the number of deferred segments at the same time is limited
+     * by {@link Config.Agent#SAMPLE_DEFERRED_MAX_SEGMENTS}, and the rate is limited by {@link
+     * Config.Agent#SAMPLE_DEFERRED_N_PER_3_SECS}. {@link #finishDeferred(boolean, long)} must be called when it
+     * finished.
+     *
+     * @return true if the segment could be deferred.
+     */
+    public boolean tryDeferring() {
+        TokenBucket bucket = deferredBucket;
+        if (!on || bucket == null) {
+            return false;
+        }
+        int max = Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS;
+        while (true) {
+            int current = deferredSegments.get();
+            if (current >= max) {
+                return false;
+            }
+            if (deferredSegments.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        if (!bucket.tryAcquire()) {
+            deferredSegments.decrementAndGet();
+            return false;
         }
+        deferredCounter.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @param errorOccurred error occurred in any span of the segment.
+     * @param duration      of the segment, in milliseconds.
+     * @return true if the deferred segment should be kept.
+     */
+    public boolean finishDeferred(boolean errorOccurred, long duration) {
+        deferredSegments.decrementAndGet();
+        if (errorOccurred || duration >= Config.Agent.SAMPLE_DEFERRED_SLOW_THRESHOLD) {
+            deferredKeptCounter.incrementAndGet();
+            return true;
+        }
+        deferredDroppedCounter.incrementAndGet();
+        return false;
+    }
+
+    @Override
+    public long getSampledCount() {
+        return sampledCounter.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCounter.get();
+    }
+
+    @Override
+    public long getForcedCount() {
+        return forcedCounter.get();
+    }
+
+    @Override
+    public long getDeferredCount() {
+        return deferredCounter.get();
+    }
+
+    @Override
+    public long getDeferredKeptCount() {
+        return deferredKeptCounter.get();
+    }
+
+    @Override
+    public long getDeferredDroppedCount() {
+        return deferredDroppedCounter.get();
     }
 
-    private void resetSamplingFactor() {
-        samplingFactorHolder = new AtomicInteger(0);
+    @Override
+    public int getInstanceRate() {
+        return Math.max(instanceRate, 0);
+    }
+
+    @Override
+    public int getEndpointRate() {
+        return Math.max(endpointRate, 0);
+    }
+
+    private TokenBucket endpointBucket(String operationName) {
+        int rate = endpointRate;
+        if (rate <= 0 || operationName == null) {
+            return null;
+        }
+        ConcurrentHashMap<String, TokenBucket> buckets = endpointBuckets;
+        TokenBucket bucket = buckets.get(operationName);
+        if (bucket == null && buckets.size() < Config.Agent.SAMPLE_ENDPOINT_MAX_SIZE) {
+            bucket = buckets.computeIfAbsent(operationName, name -> new TokenBucket(rate));
+        }
+        return bucket;
     }
 }
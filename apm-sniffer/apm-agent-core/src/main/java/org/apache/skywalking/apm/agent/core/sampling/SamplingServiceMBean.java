@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+/**
+ * The sampling decisions and the rates in use, exposed through JMX when {@link
+ * org.apache.skywalking.apm.agent.core.conf.Config.Agent#SAMPLE_STATISTICS_MBEAN} is on.
+ */
+public interface SamplingServiceMBean {
+    long getSampledCount();
+
+    long getRejectedCount();
+
+    long getForcedCount();
+
+    long getDeferredCount();
+
+    long getDeferredKeptCount();
+
+    long getDeferredDroppedCount();
+
+    /**
+     * @return the sampled traces in 3 seconds of the instance, set locally or by the backend, zero means no limit.
+     */
+    int getInstanceRate();
+
+    /**
+     * @return the sampled traces in 3 seconds of every endpoint, set locally or by the backend, zero means no limit.
+     */
+    int getEndpointRate();
+}
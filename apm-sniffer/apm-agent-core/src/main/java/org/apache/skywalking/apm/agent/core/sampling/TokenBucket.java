@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket, implemented as the generic cell rate algorithm. The tokens refill continuously, one token
+ * every {@code 3s / N}, and at most N tokens could be taken in a burst. Compared to a counter reset every 3 seconds,
+ * the samples spread over the window, rather than all land at the beginning of it.
+ */
+public class TokenBucket {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    private final long intervalNanos;
+    /**
+     * The theoretical arrival time of the next token, in {@link System#nanoTime()}.
+     */
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * @param nPer3Secs the number of tokens in 3 seconds, must be positive.
+     */
+    public TokenBucket(int nPer3Secs) {
+        this.intervalNanos = WINDOW_NANOS / nPer3Secs;
+        this.theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return true if a token is taken.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat, now) + intervalNanos;
+            if (newTat - now > WINDOW_NANOS) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken by {@link #tryAcquire()}, when the sampling is rejected by another bucket.
+     */
+    public void release() {
+        theoreticalArrivalTime.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * Take a token by force, even there is none left. The debt is capped at one window, so the forced ones can't
+     * starve the others for longer than 3 seconds.
+     */
+    public void forceAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.min(Math.max(tat, now) + intervalNanos, now + WINDOW_NANOS * 2);
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return;
+            }
+        }
+    }
+}
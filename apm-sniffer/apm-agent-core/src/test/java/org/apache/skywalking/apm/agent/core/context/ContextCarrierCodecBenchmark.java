@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.apm.agent.core.context;
+
+import java.util.Collections;
+import org.apache.skywalking.apm.agent.core.base64.Base64;
+import org.apache.skywalking.apm.agent.core.context.ids.ID;
+import org.apache.skywalking.apm.agent.core.context.ids.PropagatedTraceId;
+import org.apache.skywalking.apm.util.StringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the {@link SW6HeaderCodec} with the previous join/split based codec of the sw6 header. The carrier is
+ * serialized many times with the same segment, as an RPC heavy service does. Run it with the {@link GCProfiler} to see
+ * the allocation per operation.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class ContextCarrierCodecBenchmark {
+
+    private ContextCarrier carrier;
+    private String header;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        carrier = new ContextCarrier();
+        carrier.setTraceSegmentId(new ID(1001, 38, 15870000000000001L));
+        carrier.setDistributedTraceIds(Collections.singletonList(new PropagatedTraceId("1001.38.15870000000000000")));
+        carrier.setSpanId(4);
+        carrier.setEntryServiceInstanceId(1001);
+        carrier.setParentServiceInstanceId(1001);
+        carrier.setPeerHost("order-service.default.svc.cluster.local:8080");
+        carrier.setEntryEndpointName("/api/v1/orders/{orderId}/items");
+        carrier.setParentEndpointName("/api/v1/orders/{orderId}/items");
+        header = carrier.serialize(ContextCarrier.HeaderVersion.v2);
+    }
+
+    @Benchmark
+    public void serialize(Blackhole blackhole) {
+        blackhole.consume(carrier.serialize(ContextCarrier.HeaderVersion.v2));
+    }
+
+    @Benchmark
+    public void legacySerialize(Blackhole blackhole) {
+        blackhole.consume(legacySerialize(carrier));
+    }
+
+    @Benchmark
+    public void deserialize(Blackhole blackhole) {
+        blackhole.consume(new ContextCarrier().deserialize(header, ContextCarrier.HeaderVersion.v2));
+    }
+
+    @Benchmark
+    public void legacyDeserialize(Blackhole blackhole) {
+        blackhole.consume(legacyDeserialize(header));
+    }
+
+    private static String legacySerialize(ContextCarrier carrier) {
+        return StringUtil.join(
+            '-',
+            "1",
+            Base64.encode(carrier.getDistributedTraceId().encode()),
+            Base64.encode(carrier.getTraceSegmentId().encode()),
+            carrier.getSpanId() + "",
+            carrier.getParentServiceInstanceId() + "",
+            carrier.getEntryServiceInstanceId() + "",
+            Base64.encode(carrier.getPeerHost()),
+            Base64.encode(carrier.getEntryEndpointName()),
+            Base64.encode(carrier.getParentEndpointName())
+        );
+    }
+
+    private static ContextCarrier legacyDeserialize(String text) {
+        ContextCarrier carrier = new ContextCarrier();
+        String[] parts = text.split("-", 9);
+        if (parts.length == 9) {
+            carrier.setDistributedTraceIds(
+                Collections.singletonList(new PropagatedTraceId(Base64.decode2UTFString(parts[1]))));
+            carrier.setTraceSegmentId(new ID(Base64.decode2UTFString(parts[2])));
+            carrier.setSpanId(Integer.parseInt(parts[3]));
+            carrier.setParentServiceInstanceId(Integer.parseInt(parts[4]));
+            carrier.setEntryServiceInstanceId(Integer.parseInt(parts[5]));
+            carrier.setPeerHost(Base64.decode2UTFString(parts[6]));
+            carrier.setEntryEndpointName(Base64.decode2UTFString(parts[7]));
+            carrier.setParentEndpointName(Base64.decode2UTFString(parts[8]));
+        }
+        return carrier;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(ContextCarrierCodecBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
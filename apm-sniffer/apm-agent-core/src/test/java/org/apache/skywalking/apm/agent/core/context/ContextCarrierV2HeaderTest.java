@@ -19,6 +19,7 @@
 package org.apache.skywalking.apm.agent.core.context;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.context.ids.DistributedTraceId;
 import org.apache.skywalking.apm.agent.core.context.ids.ID;
@@ -100,6 +101,32 @@ public class ContextCarrierV2HeaderTest {
         Assert.assertTrue(contextCarrier.isValid());
     }
 
+    @Test
+    public void testDeferredSampleFlag() {
+        ContextCarrier contextCarrier = new ContextCarrier();
+        contextCarrier.setTraceSegmentId(new ID(1, 2, 3));
+        contextCarrier.setDistributedTraceIds(Collections.singletonList(new PropagatedTraceId("3.4.5")));
+        contextCarrier.setSpanId(4);
+        contextCarrier.setEntryServiceInstanceId(1);
+        contextCarrier.setParentServiceInstanceId(1);
+        contextCarrier.setPeerHost("127.0.0.1:8080");
+        contextCarrier.setEntryEndpointName("/portal");
+        contextCarrier.setParentEndpointName("/app");
+        contextCarrier.setDeferred(true);
+
+        String header = contextCarrier.serialize(ContextCarrier.HeaderVersion.v2);
+        Assert.assertEquals("0-My40LjU=-MS4yLjM=-4-1-1-IzEyNy4wLjAuMTo4MDgw-Iy9wb3J0YWw=-Iy9hcHA=", header);
+
+        ContextCarrier deferred = new ContextCarrier().deserialize(header, ContextCarrier.HeaderVersion.v2);
+        Assert.assertTrue(deferred.isValid());
+        Assert.assertTrue(deferred.isDeferred());
+
+        ContextCarrier sampled = new ContextCarrier().deserialize(
+            "1-My40LjU=-MS4yLjM=-4-1-1-IzEyNy4wLjAuMTo4MDgw-Iy9wb3J0YWw=-Iy9hcHA=", ContextCarrier.HeaderVersion.v2);
+        Assert.assertTrue(sampled.isValid());
+        Assert.assertFalse(sampled.isDeferred());
+    }
+
     @Test
     public void testV2HeaderAccurate() {
         List<DistributedTraceId> distributedTraceIds = new ArrayList<>();
@@ -154,4 +181,40 @@ public class ContextCarrierV2HeaderTest {
         Assert.assertEquals(contextCarrier.getParentServiceInstanceId(), contextCarrier2.getParentServiceInstanceId());
         Assert.assertEquals(contextCarrier.getCorrelationContext(), contextCarrier2.getCorrelationContext());
     }
+
+    @Test
+    public void testV2HeaderWithNonAsciiNames() {
+        List<DistributedTraceId> distributedTraceIds = new ArrayList<>();
+        distributedTraceIds.add(new PropagatedTraceId("3.4.5"));
+
+        ContextCarrier contextCarrier = new ContextCarrier();
+        contextCarrier.setTraceSegmentId(new ID(1, 2, 3));
+        contextCarrier.setDistributedTraceIds(distributedTraceIds);
+        contextCarrier.setSpanId(4);
+        contextCarrier.setEntryServiceInstanceId(1);
+        contextCarrier.setParentServiceInstanceId(1);
+        contextCarrier.setPeerHost("127.0.0.1:8080");
+        contextCarrier.setEntryEndpointName("/订单/查询");
+        contextCarrier.setParentEndpointName("/app");
+
+        String header = contextCarrier.serialize(ContextCarrier.HeaderVersion.v2);
+        // The cached Base64 forms are used in the second serialization.
+        Assert.assertEquals(header, contextCarrier.serialize(ContextCarrier.HeaderVersion.v2));
+
+        ContextCarrier contextCarrier2 = new ContextCarrier().deserialize(header, ContextCarrier.HeaderVersion.v2);
+        Assert.assertTrue(contextCarrier2.isValid());
+        Assert.assertEquals("#/订单/查询", contextCarrier2.getEntryEndpointName());
+        Assert.assertEquals("#/app", contextCarrier2.getParentEndpointName());
+        Assert.assertEquals(contextCarrier.getTraceSegmentId(), contextCarrier2.getTraceSegmentId());
+    }
+
+    @Test
+    public void testDeserializeIllegalV2Header() {
+        Assert.assertFalse(new ContextCarrier().deserialize("1-My40LjU=-MS4yLjM=-4-1-1", ContextCarrier.HeaderVersion.v2)
+                                               .isValid());
+        Assert.assertFalse(new ContextCarrier().deserialize("1-My40LjU=-MS4yLjM=-x-1-1-IzEyNy4wLjAuMTo4MDgw--", ContextCarrier.HeaderVersion.v2)
+                                               .isValid());
+        Assert.assertFalse(new ContextCarrier().deserialize("1-My40LjU=-MS4yLjM=-4-1-1-!!!--", ContextCarrier.HeaderVersion.v2)
+                                               .isValid());
+    }
 }
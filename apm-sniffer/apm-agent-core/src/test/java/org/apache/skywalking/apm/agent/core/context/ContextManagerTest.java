@@ -22,6 +22,7 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import java.util.List;
 import java.util.Objects;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
 import org.apache.skywalking.apm.agent.core.context.tag.Tags;
 import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
@@ -35,6 +36,7 @@ import org.apache.skywalking.apm.agent.core.context.util.SegmentHelper;
 import org.apache.skywalking.apm.agent.core.context.util.SpanHelper;
 import org.apache.skywalking.apm.agent.core.context.util.TraceSegmentRefHelper;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingService;
 import org.apache.skywalking.apm.agent.core.test.tools.AgentServiceRule;
 import org.apache.skywalking.apm.agent.core.test.tools.SegmentStorage;
 import org.apache.skywalking.apm.agent.core.test.tools.SegmentStoragePoint;
@@ -221,6 +223,57 @@ public class ContextManagerTest {
 
     }
 
+    @Test
+    public void ignoreDeferredContextCarrierWithoutDeferring() {
+        ContextCarrier contextCarrier = new ContextCarrier().deserialize("0-MS4yMzQzLjIzNDIzNDIzNA==-MS4yMzQzLjIzNDIzNDIzNA==-1-1-1-IzEyNy4wLjAuMTo4MDgw-Iy9wb3J0YWwv-Iy90ZXN0RW50cnlTcGFu", ContextCarrier.HeaderVersion.v2);
+        assertTrue(contextCarrier.isValid());
+        assertTrue(contextCarrier.isDeferred());
+        SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
+        long forcedCount = samplingService.getForcedCount();
+
+        ContextManager.createEntrySpan("/testDeferredEntry", contextCarrier);
+        ContextManager.stopSpan();
+
+        // the upstream isn't sampled, it isn't forced to be sampled here
+        assertThat(tracingData.getTraceSegments().size(), is(0));
+        assertThat(tracingData.getIgnoredTracerContexts().size(), is(1));
+        assertThat(samplingService.getForcedCount(), is(forcedCount));
+    }
+
+    @Test
+    public void deferDeferredContextCarrier() {
+        Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = 10;
+        try {
+            SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
+            samplingService.updateRates(100, 0);
+
+            ContextCarrier contextCarrier = new ContextCarrier().deserialize("0-MS4yMzQzLjIzNDIzNDIzNA==-MS4yMzQzLjIzNDIzNDIzNA==-1-1-1-IzEyNy4wLjAuMTo4MDgw-Iy9wb3J0YWwv-Iy90ZXN0RW50cnlTcGFu", ContextCarrier.HeaderVersion.v2);
+            AbstractSpan entrySpan = ContextManager.createEntrySpan("/testDeferredEntry", contextCarrier);
+            entrySpan.errorOccurred();
+            ContextCarrier injectContextCarrier = new ContextCarrier();
+            ContextManager.createExitSpan("/testExitSpan", injectContextCarrier, "127.0.0.1:12800");
+            ContextManager.stopSpan();
+            ContextManager.stopSpan();
+
+            contextCarrier = new ContextCarrier().deserialize("0-MS4yMzQzLjIzNDIzNDIzNA==-MS4yMzQzLjIzNDIzNDIzNA==-1-1-1-IzEyNy4wLjAuMTo4MDgw-Iy9wb3J0YWwv-Iy90ZXN0RW50cnlTcGFu", ContextCarrier.HeaderVersion.v2);
+            ContextManager.createEntrySpan("/testDeferredEntry", contextCarrier);
+            ContextManager.stopSpan();
+
+            assertThat(samplingService.getDeferredCount(), is(2L));
+            assertThat(samplingService.getSampledCount(), is(0L));
+            // the deferred context is still propagated as deferred
+            assertTrue(injectContextCarrier.isDeferred());
+
+            assertThat(tracingData.getTraceSegments().size(), is(2));
+            TraceSegment errorSegment = tracingData.getTraceSegments().get(0);
+            assertThat(errorSegment.isIgnore(), is(false));
+            assertThat(errorSegment.getRefs().size(), is(1));
+            assertThat(tracingData.getTraceSegments().get(1).isIgnore(), is(true));
+        } finally {
+            Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = -1;
+        }
+    }
+
     @After
     public void tearDown() throws Exception {
         RemoteDownstreamConfig.Agent.SERVICE_ID = DictionaryUtil.nullValue();
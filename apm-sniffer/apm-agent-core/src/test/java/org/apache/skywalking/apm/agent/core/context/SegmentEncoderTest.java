@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.List;
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
+import org.apache.skywalking.apm.agent.core.context.tag.Tags;
+import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
+import org.apache.skywalking.apm.agent.core.context.trace.SegmentEncoder;
+import org.apache.skywalking.apm.agent.core.context.trace.SpanLayer;
+import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
+import org.apache.skywalking.apm.agent.core.test.tools.AgentServiceRule;
+import org.apache.skywalking.apm.agent.core.test.tools.SegmentStorage;
+import org.apache.skywalking.apm.agent.core.test.tools.SegmentStoragePoint;
+import org.apache.skywalking.apm.agent.core.test.tools.TracingSegmentRunner;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
+import org.apache.skywalking.apm.network.trace.component.ComponentsDefine;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@RunWith(TracingSegmentRunner.class)
+public class SegmentEncoderTest {
+
+    @SegmentStoragePoint
+    private SegmentStorage tracingData;
+
+    @Rule
+    public AgentServiceRule agentServiceRule = new AgentServiceRule();
+
+    @Before
+    public void setUp() throws Exception {
+        RemoteDownstreamConfig.Agent.SERVICE_ID = 1;
+        RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID = 1;
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        ServiceManager.INSTANCE.shutdown();
+    }
+
+    @Test
+    public void testEncodeSameAsTransform() throws InvalidProtocolBufferException {
+        ContextCarrier contextCarrier = new ContextCarrier().deserialize("1-MS4yMzQzLjIzNDIzNDIzNA==-MS4yMzQzLjIzNDIzNDIzNA==-1-1-1-IzEyNy4wLjAuMTo4MDgw-Iy9wb3J0YWwv-Iy90ZXN0RW50cnlTcGFu", ContextCarrier.HeaderVersion.v2);
+
+        AbstractSpan entrySpan = ContextManager.createEntrySpan("/testEntrySpan", contextCarrier);
+        entrySpan.setComponent(ComponentsDefine.TOMCAT);
+        Tags.HTTP.METHOD.set(entrySpan, "GET");
+        Tags.URL.set(entrySpan, "127.0.0.1:8080/\u6d4b\u8bd5");
+        SpanLayer.asHttp(entrySpan);
+
+        AbstractSpan localSpan = ContextManager.createLocalSpan("/testLocalSpan");
+        localSpan.tag("custom", null);
+
+        AbstractSpan exitSpan = ContextManager.createExitSpan("/testExitSpan", new ContextCarrier(), "127.0.0.1:12800");
+        exitSpan.setComponent("custom-client");
+        exitSpan.errorOccurred();
+        exitSpan.log(new RuntimeException("exception"));
+
+        ContextManager.stopSpan();
+        ContextManager.stopSpan();
+        ContextManager.stopSpan();
+
+        assertEncodedSameAsTransformed(tracingData.getTraceSegments().get(0));
+    }
+
+    @Test
+    public void testEncodeCrossThreadSegment() throws InvalidProtocolBufferException {
+        ContextManager.createLocalSpan("/parent");
+        ContextSnapshot snapshot = ContextManager.capture();
+        ContextManager.stopSpan();
+
+        ContextManager.createLocalSpan("/child");
+        ContextManager.continued(snapshot);
+        ContextManager.stopSpan();
+
+        assertThat(tracingData.getTraceSegments().size(), is(2));
+        for (TraceSegment segment : tracingData.getTraceSegments()) {
+            assertEncodedSameAsTransformed(segment);
+        }
+    }
+
+    @Test
+    public void testEncodeTags() throws InvalidProtocolBufferException {
+        AbstractSpan entrySpan = ContextManager.createEntrySpan("/testEntrySpan", null);
+        Tags.URL.set(entrySpan, "127.0.0.1:8080/outer");
+        // the tags of the outer entry span are cleared when it restarts
+        entrySpan = ContextManager.createEntrySpan("/testEntrySpan", null);
+        Tags.HTTP.METHOD.set(entrySpan, "GET");
+
+        AbstractSpan localSpan = ContextManager.createLocalSpan("/testLocalSpan");
+        Tags.STATUS_CODE.set(localSpan, "500");
+        for (int i = 0; i < 9; i++) {
+            localSpan.tag("custom" + i, String.valueOf(i));
+        }
+        Tags.STATUS_CODE.set(localSpan, "200");
+
+        ContextManager.stopSpan();
+        ContextManager.stopSpan();
+        ContextManager.stopSpan();
+
+        TraceSegment segment = tracingData.getTraceSegments().get(0);
+        SegmentObject segmentObject = SegmentObject.parseFrom(segment.transform().getSegment());
+        List<KeyStringValuePair> localTags = segmentObject.getSpans(0).getTagsList();
+        assertThat(localTags.size(), is(10));
+        assertThat(localTags.get(0).getKey(), is("status_code"));
+        assertThat(localTags.get(0).getValue(), is("200"));
+        for (int i = 0; i < 9; i++) {
+            assertThat(localTags.get(i + 1).getKey(), is("custom" + i));
+            assertThat(localTags.get(i + 1).getValue(), is(String.valueOf(i)));
+        }
+        List<KeyStringValuePair> entryTags = segmentObject.getSpans(1).getTagsList();
+        assertThat(entryTags.size(), is(1));
+        assertThat(entryTags.get(0).getKey(), is("http.method"));
+
+        assertEncodedSameAsTransformed(segment);
+    }
+
+    private void assertEncodedSameAsTransformed(TraceSegment segment) throws InvalidProtocolBufferException {
+        UpstreamSegment expected = segment.transform();
+        UpstreamSegment actual = new SegmentEncoder().encode(segment);
+
+        assertThat(SegmentObject.parseFrom(actual.getSegment()), is(SegmentObject.parseFrom(expected.getSegment())));
+        assertThat(actual, is(expected));
+    }
+}
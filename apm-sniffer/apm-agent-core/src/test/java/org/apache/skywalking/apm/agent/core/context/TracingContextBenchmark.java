@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context;
+
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
+import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
+import org.apache.skywalking.apm.agent.core.context.trace.SegmentEncoder;
+import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry -> exit -> finish cycles of {@link TracingContext}, the allocation rate per cycle is the key result, run it
+ * with the {@link GCProfiler}.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Benchmark)
+public class TracingContextBenchmark {
+
+    private TracingContextListener listener;
+    private TraceSegment finishedSegment;
+    private final SegmentEncoder segmentEncoder = new SegmentEncoder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ServiceManager.INSTANCE.boot();
+        RemoteDownstreamConfig.Agent.SERVICE_ID = 1;
+        RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID = 1;
+        listener = new TracingContextListener() {
+            @Override
+            public void afterFinished(TraceSegment traceSegment) {
+                finishedSegment = traceSegment;
+            }
+        };
+        TracingContext.ListenerManager.add(listener);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TracingContext.ListenerManager.remove(listener);
+        RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID = 0;
+        ServiceManager.INSTANCE.shutdown();
+    }
+
+    @Benchmark
+    public void entryExitFinish(Blackhole blackhole) {
+        TracingContext context = new TracingContext("/benchmark");
+        AbstractSpan entrySpan = context.createEntrySpan("/benchmark");
+        entrySpan.tag("url", "http://localhost:8080/benchmark");
+
+        AbstractSpan exitSpan = context.createExitSpan("/exit", "localhost:8081");
+        exitSpan.tag("db.statement", "select 1");
+        blackhole.consume(context.stopSpan(exitSpan));
+
+        blackhole.consume(context.stopSpan(entrySpan));
+    }
+
+    @Benchmark
+    public void entryNestedLocalExitFinish(Blackhole blackhole) {
+        TracingContext context = new TracingContext("/benchmark");
+        AbstractSpan entrySpan = context.createEntrySpan("/benchmark");
+
+        for (int i = 0; i < 5; i++) {
+            AbstractSpan localSpan = context.createLocalSpan("/local");
+            for (int j = 0; j < 4; j++) {
+                AbstractSpan exitSpan = context.createExitSpan("/exit", "localhost:8081");
+                blackhole.consume(context.stopSpan(exitSpan));
+            }
+            blackhole.consume(context.stopSpan(localSpan));
+        }
+
+        blackhole.consume(context.stopSpan(entrySpan));
+    }
+
+    @Benchmark
+    public void entryExitFinishAndTransform(Blackhole blackhole) {
+        TracingContext context = new TracingContext("/benchmark");
+        AbstractSpan entrySpan = context.createEntrySpan("/benchmark");
+        entrySpan.tag("url", "http://localhost:8080/benchmark");
+
+        AbstractSpan exitSpan = context.createExitSpan("/exit", "localhost:8081");
+        context.stopSpan(exitSpan);
+        context.stopSpan(entrySpan);
+
+        blackhole.consume(finishedSegment.transform());
+    }
+
+    @Benchmark
+    public void entryExitFinishAndEncode(Blackhole blackhole) {
+        TracingContext context = new TracingContext("/benchmark");
+        AbstractSpan entrySpan = context.createEntrySpan("/benchmark");
+        entrySpan.tag("url", "http://localhost:8080/benchmark");
+
+        AbstractSpan exitSpan = context.createExitSpan("/exit", "localhost:8081");
+        context.stopSpan(exitSpan);
+        context.stopSpan(entrySpan);
+
+        blackhole.consume(segmentEncoder.encode(finishedSegment));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(TracingContextBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.dictionary;
+
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcServerRule;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.network.common.KeyIntValuePair;
+import org.apache.skywalking.apm.network.register.v2.NetAddressMapping;
+import org.apache.skywalking.apm.network.register.v2.NetAddresses;
+import org.apache.skywalking.apm.network.register.v2.RegisterGrpc;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NetworkAddressDictionaryTest {
+
+    @Rule
+    public GrpcServerRule grpcServerRule = new GrpcServerRule().directExecutor();
+
+    private final List<NetAddresses> requests = new ArrayList<>();
+    /**
+     * Addresses the backend has registered, the others are absent in the mapping.
+     */
+    private final List<String> registered = new ArrayList<>();
+    /**
+     * Hold the response, as the backend is slow.
+     */
+    private StreamObserver<NetAddressMapping> pending;
+    private boolean hold;
+
+    private RegisterGrpc.RegisterStub stub;
+
+    private int serviceCodeBufferSize;
+    private int maxAttempts;
+    private int notFoundExpire;
+
+    @Before
+    public void setUp() {
+        serviceCodeBufferSize = Config.Dictionary.SERVICE_CODE_BUFFER_SIZE;
+        maxAttempts = Config.Dictionary.NETWORK_ADDRESS_REGISTER_MAX_ATTEMPTS;
+        notFoundExpire = Config.Dictionary.NETWORK_ADDRESS_NOT_FOUND_EXPIRE;
+
+        grpcServerRule.getServiceRegistry().addService(new RegisterGrpc.RegisterImplBase() {
+            @Override
+            public void doNetworkAddressRegister(NetAddresses request,
+                                                 StreamObserver<NetAddressMapping> responseObserver) {
+                requests.add(request);
+                NetAddressMapping.Builder mapping = NetAddressMapping.newBuilder();
+                for (String address : request.getAddressesList()) {
+                    if (registered.contains(address)) {
+                        mapping.addAddressIds(KeyIntValuePair.newBuilder()
+                                                             .setKey(address)
+                                                             .setValue(registered.indexOf(address) + 1));
+                    }
+                }
+                if (hold) {
+                    pending = responseObserver;
+                    return;
+                }
+                responseObserver.onNext(mapping.build());
+                responseObserver.onCompleted();
+            }
+        });
+        stub = RegisterGrpc.newStub(grpcServerRule.getChannel());
+        NetworkAddressDictionary.INSTANCE.clear();
+    }
+
+    @After
+    public void tearDown() {
+        Config.Dictionary.SERVICE_CODE_BUFFER_SIZE = serviceCodeBufferSize;
+        Config.Dictionary.NETWORK_ADDRESS_REGISTER_MAX_ATTEMPTS = maxAttempts;
+        Config.Dictionary.NETWORK_ADDRESS_NOT_FOUND_EXPIRE = notFoundExpire;
+        NetworkAddressDictionary.INSTANCE.clear();
+    }
+
+    @Test
+    public void testRegister() {
+        registered.add("127.0.0.1:8080");
+
+        assertThat(NetworkAddressDictionary.INSTANCE.find("127.0.0.1:8080"), instanceOf(NotFound.class));
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+
+        assertThat(requests.size(), is(1));
+        assertThat(NetworkAddressDictionary.INSTANCE.find("127.0.0.1:8080"), instanceOf(Found.class));
+        assertThat(NetworkAddressDictionary.INSTANCE.size(), is(1));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        Config.Dictionary.SERVICE_CODE_BUFFER_SIZE = 2;
+        registered.add("peer-a");
+        registered.add("peer-b");
+        registered.add("peer-c");
+
+        NetworkAddressDictionary.INSTANCE.find("peer-a");
+        NetworkAddressDictionary.INSTANCE.find("peer-b");
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        assertThat(NetworkAddressDictionary.INSTANCE.size(), is(2));
+
+        // peer-a is accessed in the later round, peer-b isn't
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        assertThat(NetworkAddressDictionary.INSTANCE.find("peer-a"), instanceOf(Found.class));
+        NetworkAddressDictionary.INSTANCE.find("peer-c");
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+
+        assertThat(NetworkAddressDictionary.INSTANCE.size(), is(2));
+        assertThat(NetworkAddressDictionary.INSTANCE.find("peer-a"), instanceOf(Found.class));
+        assertThat(NetworkAddressDictionary.INSTANCE.find("peer-c"), instanceOf(Found.class));
+        assertThat(NetworkAddressDictionary.INSTANCE.find("peer-b"), instanceOf(NotFound.class));
+    }
+
+    @Test
+    public void testGiveUpAfterMaxAttempts() {
+        Config.Dictionary.NETWORK_ADDRESS_REGISTER_MAX_ATTEMPTS = 3;
+
+        NetworkAddressDictionary.INSTANCE.find("unknown-peer");
+        for (int i = 0; i < 5; i++) {
+            NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        }
+        assertThat(requests.size(), is(3));
+
+        // given up, not queued again before expired
+        NetworkAddressDictionary.INSTANCE.find("unknown-peer");
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        assertThat(requests.size(), is(3));
+    }
+
+    @Test
+    public void testRegisterAgainAfterNotFoundExpired() {
+        Config.Dictionary.NETWORK_ADDRESS_REGISTER_MAX_ATTEMPTS = 1;
+        Config.Dictionary.NETWORK_ADDRESS_NOT_FOUND_EXPIRE = 0;
+
+        NetworkAddressDictionary.INSTANCE.find("unknown-peer");
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        assertThat(requests.size(), is(1));
+
+        registered.add("unknown-peer");
+        NetworkAddressDictionary.INSTANCE.find("unknown-peer");
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        assertThat(requests.size(), is(2));
+        assertThat(NetworkAddressDictionary.INSTANCE.find("unknown-peer"), instanceOf(Found.class));
+    }
+
+    @Test
+    public void testOneBatchInFlight() {
+        hold = true;
+        registered.add("peer-a");
+
+        NetworkAddressDictionary.INSTANCE.find("peer-a");
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        assertThat(requests.size(), is(1));
+        assertThat(NetworkAddressDictionary.INSTANCE.find("peer-a"), instanceOf(NotFound.class));
+
+        pending.onNext(NetAddressMapping.newBuilder()
+                                        .addAddressIds(KeyIntValuePair.newBuilder().setKey("peer-a").setValue(1))
+                                        .build());
+        pending.onCompleted();
+        assertThat(NetworkAddressDictionary.INSTANCE.find("peer-a"), instanceOf(Found.class));
+
+        NetworkAddressDictionary.INSTANCE.find("peer-b");
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        assertThat(requests.size(), is(2));
+    }
+
+    @Test
+    public void testRetryAfterError() {
+        hold = true;
+
+        NetworkAddressDictionary.INSTANCE.find("peer-a");
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        pending.onError(new IllegalStateException("backend is down"));
+
+        NetworkAddressDictionary.INSTANCE.syncRemoteDictionary(stub);
+        assertThat(requests.size(), is(2));
+        assertThat(requests.get(1).getAddressesList().get(0), is("peer-a"));
+    }
+}
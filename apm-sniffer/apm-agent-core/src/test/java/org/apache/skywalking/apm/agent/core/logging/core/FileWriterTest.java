@@ -24,13 +24,20 @@ import org.junit.Test;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.conf.Constants;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class FileWriterTest {
 
@@ -73,6 +80,98 @@ public class FileWriterTest {
         assertEquals(3, pathArr.length);
     }
 
+    @Test
+    public void testConcurrentWrite() throws InterruptedException, IOException {
+        Config.Logging.MAX_FILE_SIZE = 300 * 1024 * 1024;
+        try {
+            final FileWriter writer = FileWriter.get();
+            final String prefix = UUID.randomUUID().toString();
+            final int threadCount = 8;
+            final int lineCount = 200;
+            long droppedBefore = writer.getDroppedCount();
+
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                final int threadIndex = i;
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int j = 0; j < lineCount; j++) {
+                            writer.write(prefix + "-" + threadIndex + "-" + j);
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            long expected = threadCount * lineCount - (writer.getDroppedCount() - droppedBefore);
+            assertEquals(expected, waitForLines(prefix, expected));
+        } finally {
+            Config.Logging.MAX_FILE_SIZE = 10;
+        }
+    }
+
+    @Test
+    public void testWriteAfterEncodingFailure() throws InterruptedException, IOException {
+        Config.Logging.MAX_FILE_SIZE = 300 * 1024 * 1024;
+        try {
+            FileWriter writer = FileWriter.get();
+            try {
+                writer.write(null);
+                fail();
+            } catch (NullPointerException e) {
+                // The claimed slot is published as empty.
+            }
+
+            String prefix = UUID.randomUUID().toString();
+            for (int i = 0; i < 3; i++) {
+                writer.write(prefix + "-" + i);
+            }
+            assertEquals(3, waitForLines(prefix, 3));
+        } finally {
+            Config.Logging.MAX_FILE_SIZE = 10;
+        }
+    }
+
+    /**
+     * @return the number of the intact lines starting with the prefix, in all the log files.
+     */
+    private static long waitForLines(String prefix, long expected) throws InterruptedException, IOException {
+        Pattern linePattern = Pattern.compile(Pattern.quote(prefix) + "-\\d+(-\\d+)?");
+        long count = 0;
+        for (int i = 0; i < 50 && count < expected; i++) {
+            Thread.sleep(200);
+            count = 0;
+            File[] files = new File(Config.Logging.DIR).listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.startsWith(prefix)) {
+                            assertTrue(line, linePattern.matcher(line).matches());
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
     @AfterClass
     public static void clear() {
         Config.Logging.MAX_FILE_SIZE = 300 * 1024 * 1024;
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.apm.agent.core.logging.core.coverts;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DateConverterTest {
+
+    @Test
+    public void testConvert() throws ParseException {
+        DateConverter converter = new DateConverter();
+        long before = System.currentTimeMillis();
+        String first = converter.convert(null);
+        String second = converter.convert(null);
+        long after = System.currentTimeMillis();
+
+        Assert.assertTrue(first.matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}:\\d{3}"));
+        Assert.assertTrue(second.matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}:\\d{3}"));
+
+        long parsed = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:SSS").parse(first).getTime();
+        Assert.assertTrue(parsed >= before && parsed <= after);
+    }
+}
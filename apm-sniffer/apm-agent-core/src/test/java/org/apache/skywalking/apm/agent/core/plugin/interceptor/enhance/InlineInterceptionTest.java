@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.skywalking.apm.agent.core.plugin.EnhanceContext;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.ConstructorInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.InstanceMethodsInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.StaticMethodsInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.match.ClassMatch;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+public class InlineInterceptionTest {
+    private static final List<String> EVENTS = new ArrayList<>();
+    private static final List<Class<?>[]> PARAMETER_TYPES = new ArrayList<>();
+
+    private static Class<?> ENHANCED_TYPE;
+
+    private Service service;
+
+    @BeforeClass
+    public static void enhance() throws Exception {
+        ClassLoader classLoader = InlineInterceptionTest.class.getClassLoader();
+        ENHANCED_TYPE = new InlinePluginDefine().enhance(
+            new TypeDescription.ForLoadedType(Target.class), new ByteBuddy().redefine(Target.class), classLoader,
+            new EnhanceContext()
+        ).make().load(classLoader, ClassLoadingStrategy.Default.CHILD_FIRST).getLoaded();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        EVENTS.clear();
+        PARAMETER_TYPES.clear();
+        service = (Service) ENHANCED_TYPE.newInstance();
+    }
+
+    @Test
+    public void testBeforeAndAfterMethod() {
+        Assert.assertTrue(service instanceof EnhancedInstance);
+        Assert.assertEquals("hello skywalking!", service.greet("skywalking"));
+        Assert.assertEquals(3, service.add(1, 2));
+
+        Assert.assertArrayEquals(new String[] {
+            "before greet[skywalking]",
+            "after greet[hello skywalking]",
+            "before add[1, 2]",
+            "after add[3]"
+        }, EVENTS.toArray());
+        Assert.assertEquals(0, InlineInterceptors.frames().depth());
+    }
+
+    @Test
+    public void testDefineReturnValue() {
+        Assert.assertEquals(-1, service.add(0, 2));
+
+        Assert.assertArrayEquals(new String[] {
+            "before add[0, 2]",
+            "after add[-1]"
+        }, EVENTS.toArray());
+    }
+
+    @Test
+    public void testHandleMethodException() {
+        try {
+            service.fail();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("failure", e.getMessage());
+        }
+
+        Assert.assertArrayEquals(new String[] {
+            "before fail[]",
+            "exception fail[failure]",
+            "after fail[null]"
+        }, EVENTS.toArray());
+        Assert.assertEquals(0, InlineInterceptors.frames().depth());
+    }
+
+    @Test
+    public void testNestedCalls() {
+        Assert.assertEquals("[hello skywalking!]", service.nested("skywalking"));
+
+        Assert.assertArrayEquals(new String[] {
+            "before nested[skywalking]",
+            "before greet[skywalking]",
+            "after greet[hello skywalking]",
+            "after nested[[hello skywalking!]]"
+        }, EVENTS.toArray());
+        Assert.assertEquals(0, InlineInterceptors.frames().depth());
+    }
+
+    @Test
+    public void testStaticMethod() throws Exception {
+        Method hello = ENHANCED_TYPE.getMethod("hello", String.class);
+        Assert.assertEquals("hello skywalking?", hello.invoke(null, "skywalking"));
+        Assert.assertEquals("nobody?", hello.invoke(null, new Object[] {null}));
+
+        Assert.assertArrayEquals(new String[] {
+            "before static hello[skywalking]",
+            "after static hello[hello skywalking]",
+            "before static hello[null]",
+            "after static hello[nobody]"
+        }, EVENTS.toArray());
+    }
+
+    @Test
+    public void testCachedParameterTypes() {
+        service.greet("a");
+        service.greet("b");
+
+        Assert.assertEquals(4, PARAMETER_TYPES.size());
+        Assert.assertArrayEquals(new Class<?>[] {String.class}, PARAMETER_TYPES.get(0));
+        for (Class<?>[] parameterTypes : PARAMETER_TYPES) {
+            Assert.assertSame(PARAMETER_TYPES.get(0), parameterTypes);
+        }
+    }
+
+    public interface Service {
+        String greet(String name);
+
+        int add(int a, int b);
+
+        void fail();
+
+        String nested(String name);
+    }
+
+    public static class Target implements Service {
+        @Override
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public void fail() {
+            throw new IllegalStateException("failure");
+        }
+
+        @Override
+        public String nested(String name) {
+            return "[" + greet(name) + "]";
+        }
+
+        public static String hello(String name) {
+            return "hello " + name;
+        }
+    }
+
+    public static class RecordingInterceptor implements InstanceMethodsAroundInterceptor {
+        @Override
+        public void beforeMethod(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, MethodInterceptResult result) {
+            EVENTS.add("before " + method.getName() + join(allArguments));
+            PARAMETER_TYPES.add(argumentsTypes);
+            if ("add".equals(method.getName()) && Integer.valueOf(0).equals(allArguments[0])) {
+                result.defineReturnValue(-1);
+            }
+        }
+
+        @Override
+        public Object afterMethod(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, Object ret) {
+            EVENTS.add("after " + method.getName() + "[" + ret + "]");
+            PARAMETER_TYPES.add(argumentsTypes);
+            return "greet".equals(method.getName()) ? ret + "!" : ret;
+        }
+
+        @Override
+        public void handleMethodException(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, Throwable t) {
+            EVENTS.add("exception " + method.getName() + "[" + t.getMessage() + "]");
+        }
+    }
+
+    public static class RecordingStaticInterceptor implements StaticMethodsAroundInterceptor {
+        @Override
+        public void beforeMethod(Class clazz, Method method, Object[] allArguments, Class<?>[] parameterTypes,
+            MethodInterceptResult result) {
+            EVENTS.add("before static " + method.getName() + join(allArguments));
+            if (allArguments[0] == null) {
+                result.defineReturnValue("nobody");
+            }
+        }
+
+        @Override
+        public Object afterMethod(Class clazz, Method method, Object[] allArguments, Class<?>[] parameterTypes,
+            Object ret) {
+            EVENTS.add("after static " + method.getName() + "[" + ret + "]");
+            return ret + "?";
+        }
+
+        @Override
+        public void handleMethodException(Class clazz, Method method, Object[] allArguments,
+            Class<?>[] parameterTypes, Throwable t) {
+            EVENTS.add("exception static " + method.getName() + "[" + t.getMessage() + "]");
+        }
+    }
+
+    private static String join(Object[] allArguments) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < allArguments.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(allArguments[i]);
+        }
+        return builder.append("]").toString();
+    }
+
+    private static class InlinePluginDefine extends ClassEnhancePluginDefine {
+        @Override
+        protected ClassMatch enhanceClass() {
+            return null;
+        }
+
+        @Override
+        protected boolean isInlineInterception() {
+            return true;
+        }
+
+        @Override
+        public ConstructorInterceptPoint[] getConstructorsInterceptPoints() {
+            return new ConstructorInterceptPoint[0];
+        }
+
+        @Override
+        public InstanceMethodsInterceptPoint[] getInstanceMethodsInterceptPoints() {
+            return new InstanceMethodsInterceptPoint[] {
+                new InstanceMethodsInterceptPoint() {
+                    @Override
+                    public ElementMatcher<MethodDescription> getMethodsMatcher() {
+                        return named("greet").or(named("add")).or(named("fail")).or(named("nested"));
+                    }
+
+                    @Override
+                    public String getMethodsInterceptor() {
+                        return RecordingInterceptor.class.getName();
+                    }
+
+                    @Override
+                    public boolean isOverrideArgs() {
+                        return false;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public StaticMethodsInterceptPoint[] getStaticMethodsInterceptPoints() {
+            return new StaticMethodsInterceptPoint[] {
+                new StaticMethodsInterceptPoint() {
+                    @Override
+                    public ElementMatcher<MethodDescription> getMethodsMatcher() {
+                        return named("hello");
+                    }
+
+                    @Override
+                    public String getMethodsInterceptor() {
+                        return RecordingStaticInterceptor.class.getName();
+                    }
+
+                    @Override
+                    public boolean isOverrideArgs() {
+                        return false;
+                    }
+                }
+            };
+        }
+    }
+}
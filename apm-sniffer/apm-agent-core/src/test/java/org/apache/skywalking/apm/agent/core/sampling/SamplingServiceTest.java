@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SamplingServiceTest {
+
+    @After
+    public void tearDown() {
+        Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = -1;
+        Config.Agent.SAMPLE_DEFERRED_N_PER_3_SECS = -1;
+        Config.Agent.SAMPLE_DEFERRED_SLOW_THRESHOLD = 1000;
+        Config.Agent.SAMPLE_STATISTICS_MBEAN = false;
+    }
+
+    @Test
+    public void testSamplingOff() {
+        SamplingService service = new SamplingService();
+        service.updateRates(-1, -1);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(service.trySampling("/a"));
+        }
+        Assert.assertFalse(service.tryDeferring());
+    }
+
+    @Test
+    public void testInstanceRate() {
+        SamplingService service = new SamplingService();
+        service.updateRates(2, -1);
+
+        Assert.assertTrue(service.trySampling("/a"));
+        Assert.assertTrue(service.trySampling("/b"));
+        Assert.assertFalse(service.trySampling("/c"));
+        Assert.assertEquals(2, service.getSampledCount());
+        Assert.assertEquals(1, service.getRejectedCount());
+    }
+
+    @Test
+    public void testInstanceTokenReleasedWhenEndpointRejects() {
+        SamplingService service = new SamplingService();
+        service.updateRates(2, 1);
+
+        Assert.assertTrue(service.trySampling("/a"));
+        Assert.assertFalse(service.trySampling("/a"));
+        // the instance token is given back by the rejected one
+        Assert.assertTrue(service.trySampling("/b"));
+        Assert.assertFalse(service.trySampling("/c"));
+    }
+
+    @Test
+    public void testEndpointTokenKeptWhenInstanceRejects() throws InterruptedException {
+        SamplingService service = new SamplingService();
+        service.updateRates(300, 1);
+        while (service.trySampling()) {
+        }
+
+        Assert.assertFalse(service.trySampling("/a"));
+        // One instance token every 10ms, the endpoint one isn't taken by the rejected trace.
+        Thread.sleep(50);
+        Assert.assertTrue(service.trySampling("/a"));
+        Assert.assertFalse(service.trySampling("/a"));
+    }
+
+    @Test
+    public void testUpdateRates() {
+        SamplingService service = new SamplingService();
+        Assert.assertTrue(service.updateRates(1, -1));
+        Assert.assertTrue(service.trySampling());
+        Assert.assertFalse(service.trySampling());
+
+        // the same rates don't refill the tokens
+        Assert.assertFalse(service.updateRates(1, 0));
+        Assert.assertFalse(service.trySampling());
+
+        Assert.assertTrue(service.updateRates(2, 0));
+        Assert.assertTrue(service.trySampling());
+    }
+
+    @Test
+    public void testDeferringLimitedByConcurrentSegments() {
+        Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = 2;
+        Config.Agent.SAMPLE_DEFERRED_N_PER_3_SECS = 100;
+        SamplingService service = new SamplingService();
+        service.updateRates(1, -1);
+
+        Assert.assertTrue(service.tryDeferring());
+        Assert.assertTrue(service.tryDeferring());
+        Assert.assertFalse(service.tryDeferring());
+
+        service.finishDeferred(false, 0);
+        Assert.assertTrue(service.tryDeferring());
+    }
+
+    @Test
+    public void testDeferringLimitedByRate() {
+        Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = 100;
+        Config.Agent.SAMPLE_DEFERRED_N_PER_3_SECS = 2;
+        SamplingService service = new SamplingService();
+        service.updateRates(1, -1);
+
+        Assert.assertTrue(service.tryDeferring());
+        Assert.assertTrue(service.tryDeferring());
+        Assert.assertFalse(service.tryDeferring());
+
+        // the rejected one doesn't hold a slot of the concurrent segments
+        service.finishDeferred(false, 0);
+        service.finishDeferred(false, 0);
+        Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = 1;
+        Config.Agent.SAMPLE_DEFERRED_N_PER_3_SECS = 100;
+        service.updateRates(2, -1);
+        Assert.assertTrue(service.tryDeferring());
+    }
+
+    @Test
+    public void testDeferredRateFallsBackToInstanceRate() {
+        Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = 100;
+        SamplingService service = new SamplingService();
+        service.updateRates(1, -1);
+
+        Assert.assertTrue(service.tryDeferring());
+        Assert.assertFalse(service.tryDeferring());
+    }
+
+    @Test
+    public void testNoDeferringWithoutRate() {
+        Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = 100;
+        SamplingService service = new SamplingService();
+        service.updateRates(-1, 5);
+
+        Assert.assertFalse(service.tryDeferring());
+    }
+
+    @Test
+    public void testFinishDeferred() {
+        Config.Agent.SAMPLE_DEFERRED_MAX_SEGMENTS = 100;
+        Config.Agent.SAMPLE_DEFERRED_SLOW_THRESHOLD = 500;
+        SamplingService service = new SamplingService();
+        service.updateRates(10, -1);
+
+        Assert.assertTrue(service.tryDeferring());
+        Assert.assertTrue(service.finishDeferred(true, 10));
+        Assert.assertTrue(service.tryDeferring());
+        Assert.assertTrue(service.finishDeferred(false, 500));
+        Assert.assertTrue(service.tryDeferring());
+        Assert.assertFalse(service.finishDeferred(false, 10));
+
+        Assert.assertEquals(3, service.getDeferredCount());
+        Assert.assertEquals(2, service.getDeferredKeptCount());
+        Assert.assertEquals(1, service.getDeferredDroppedCount());
+    }
+
+    @Test
+    public void testStatisticsMBean() throws Exception {
+        Config.Agent.SAMPLE_STATISTICS_MBEAN = true;
+        Config.Agent.SAMPLE_N_PER_3_SECS = 1;
+        SamplingService service = new SamplingService();
+        try {
+            service.boot();
+        } finally {
+            Config.Agent.SAMPLE_N_PER_3_SECS = -1;
+        }
+        service.trySampling("/a");
+        service.trySampling("/a");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.apache.skywalking.apm.agent:type=Sampling");
+        try {
+            Assert.assertEquals(1L, server.getAttribute(name, "SampledCount"));
+            Assert.assertEquals(1L, server.getAttribute(name, "RejectedCount"));
+            Assert.assertEquals(1, server.getAttribute(name, "InstanceRate"));
+        } finally {
+            service.shutdown();
+        }
+        Assert.assertFalse(server.isRegistered(name));
+    }
+}
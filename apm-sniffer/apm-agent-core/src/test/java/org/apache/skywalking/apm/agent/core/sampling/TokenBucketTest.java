@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+    @Test
+    public void testBurstLimitedByRate() {
+        TokenBucket bucket = new TokenBucket(3);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testRefill() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(300);
+        while (bucket.tryAcquire()) {
+        }
+        // One token every 10ms.
+        Thread.sleep(50);
+        Assert.assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testForceAcquire() {
+        TokenBucket bucket = new TokenBucket(1);
+        bucket.forceAcquire();
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testRelease() {
+        TokenBucket bucket = new TokenBucket(1);
+        Assert.assertTrue(bucket.tryAcquire());
+        bucket.release();
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+}
@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.apm.agent.test.helper;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.apache.skywalking.apm.agent.core.context.tag.AbstractTag;
 import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
 import org.apache.skywalking.apm.agent.core.context.trace.LogDataEntity;
 import org.apache.skywalking.apm.agent.core.context.trace.SpanLayer;
@@ -62,16 +64,10 @@ public class SpanHelper {
 
     public static List<TagValuePair> getTags(AbstractSpan tracingSpan) {
         try {
-            List<TagValuePair> tags = FieldGetter.get2LevelParentFieldValue(tracingSpan, "tags");
-            if (tags != null) {
-                return tags;
-            }
+            return getTags(tracingSpan, 2);
         } catch (Exception e) {
             try {
-                List<TagValuePair> tags = FieldGetter.getParentFieldValue(tracingSpan, "tags");
-                if (tags != null) {
-                    return tags;
-                }
+                return getTags(tracingSpan, 1);
             } catch (Exception e1) {
 
             }
@@ -80,6 +76,28 @@ public class SpanHelper {
         return Collections.emptyList();
     }
 
+    /**
+     * The tags are kept in the key and value arrays of the span, rebuild them as pairs.
+     */
+    private static List<TagValuePair> getTags(AbstractSpan tracingSpan,
+        int parentLevel) throws IllegalAccessException, NoSuchFieldException {
+        AbstractTag<?>[] keys = getParentFieldValue(tracingSpan, parentLevel, "tagKeys");
+        String[] values = getParentFieldValue(tracingSpan, parentLevel, "tagValues");
+        int count = getParentFieldValue(tracingSpan, parentLevel, "tagCount");
+        List<TagValuePair> tags = new ArrayList<TagValuePair>(count);
+        for (int i = 0; i < count; i++) {
+            tags.add(new TagValuePair(keys[i], values[i]));
+        }
+        return tags;
+    }
+
+    private static <T> T getParentFieldValue(AbstractSpan tracingSpan, int parentLevel,
+        String fieldName) throws IllegalAccessException, NoSuchFieldException {
+        return parentLevel == 2
+            ? FieldGetter.<T>get2LevelParentFieldValue(tracingSpan, fieldName)
+            : FieldGetter.<T>getParentFieldValue(tracingSpan, fieldName);
+    }
+
     public static SpanLayer getLayer(AbstractSpan tracingSpan) {
         try {
             return FieldGetter.get2LevelParentFieldValue(tracingSpan, "layer");
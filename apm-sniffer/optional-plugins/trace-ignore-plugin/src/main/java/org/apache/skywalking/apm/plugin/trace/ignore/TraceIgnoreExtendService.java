@@ -51,14 +51,27 @@ public class TraceIgnoreExtendService extends ContextManagerExtendService {
 
     @Override
     public AbstractTracerContext createTraceContext(String operationName, boolean forceSampling) {
-        if (patterns.length > 0 && !forceSampling) {
-            for (String pattern : patterns) {
-                if (pathMatcher.match(pattern, operationName)) {
-                    LOGGER.debug("operationName : " + operationName + " Ignore tracking");
-                    return new IgnoredTracerContext();
-                }
-            }
+        if (!forceSampling && isIgnored(operationName)) {
+            return new IgnoredTracerContext();
         }
         return super.createTraceContext(operationName, forceSampling);
     }
+
+    @Override
+    public AbstractTracerContext createDeferredTraceContext(String operationName) {
+        if (isIgnored(operationName)) {
+            return new IgnoredTracerContext();
+        }
+        return super.createDeferredTraceContext(operationName);
+    }
+
+    private boolean isIgnored(String operationName) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, operationName)) {
+                LOGGER.debug("operationName : " + operationName + " Ignore tracking");
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -19,14 +19,20 @@
 package org.apache.skywalking.oap.server.exporter.provider.grpc;
 
 import io.grpc.ManagedChannel;
-import io.grpc.stub.StreamObserver;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DoubleValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
@@ -45,10 +51,25 @@ import org.apache.skywalking.oap.server.exporter.grpc.SubscriptionsResp;
 import org.apache.skywalking.oap.server.exporter.grpc.ValueType;
 import org.apache.skywalking.oap.server.exporter.provider.MetricFormatter;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
-import org.apache.skywalking.oap.server.library.util.GRPCStreamStatus;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * GRPCExporter sends the subscribed metrics to the target through one long-lived client stream. The stream is completed
+ * and renewed after {@link GRPCExporterSetting#getMaxMessagesPerStream()} messages or {@link
+ * GRPCExporterSetting#getStreamLifetime()} milliseconds, and the completion is the confirmation of the sent messages.
+ * The confirmation is checked in the next rounds, rather than waited for, the rounds run when the metrics arrive and
+ * every second by the flush timer. The messages which are not confirmed, or can't be sent because the stream is not
+ * ready, are kept in a bounded retry buffer. The retry buffer and the messages waiting for the confirmation share the
+ * {@link GRPCExporterSetting#getRetryBufferSize()}, the oldest ones in the retry buffer are dropped and counted when it
+ * is full.
+ * <p>
+ * After a stream fails, nothing is sent until the backoff interval passes, the interval is doubled by every failure in
+ * a row, and reset by a confirmation.
+ */
 public class GRPCExporter extends MetricFormatter implements MetricValuesExportService, IConsumer<ExportData> {
     private static final Logger logger = LoggerFactory.getLogger(GRPCExporter.class);
 
@@ -56,18 +77,77 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
     private final MetricExportServiceGrpc.MetricExportServiceStub exportServiceFutureStub;
     private final MetricExportServiceGrpc.MetricExportServiceBlockingStub blockingStub;
     private final DataCarrier exportBuffer;
-    private final Set<String> subscriptionSet;
+    private volatile Set<String> subscriptionSet;
+
+    /**
+     * The fields below are only accessed in the rounds, which are synchronized between the export consumer thread and
+     * the flush timer.
+     */
+    private final ExportMetricValue.Builder valueBuilder;
+    private final ArrayDeque<ExportMetricValue> retryBuffer;
+    private ExportStream exportStream;
+    private final ArrayDeque<ExportStream> completedStreams;
+    /**
+     * The number of the messages sent by the open and completed streams, waiting for the confirmation.
+     */
+    private int unconfirmedCount;
+    private long backoffInterval;
+    private long backoffUntil;
+
+    private CounterMetrics exportedCounter;
+    private CounterMetrics retriedCounter;
+    private CounterMetrics droppedCounter;
 
     public GRPCExporter(GRPCExporterSetting setting) {
         this.setting = setting;
         GRPCClient client = new GRPCClient(setting.getTargetHost(), setting.getTargetPort());
         client.connect();
         ManagedChannel channel = client.getChannel();
-        exportServiceFutureStub = MetricExportServiceGrpc.newStub(channel);
+        MetricExportServiceGrpc.MetricExportServiceStub stub = MetricExportServiceGrpc.newStub(channel);
+        if (setting.isEnableCompression()) {
+            stub = stub.withCompression("gzip");
+        }
+        exportServiceFutureStub = stub;
         blockingStub = MetricExportServiceGrpc.newBlockingStub(channel);
+        valueBuilder = ExportMetricValue.newBuilder();
+        retryBuffer = new ArrayDeque<>();
+        completedStreams = new ArrayDeque<>();
+        subscriptionSet = Collections.emptySet();
         exportBuffer = new DataCarrier<ExportData>(setting.getBufferChannelNum(), setting.getBufferChannelSize());
         exportBuffer.consume(this, 1, 200);
-        subscriptionSet = new HashSet<>();
+    }
+
+    /**
+     * Start the flush timer, which checks the confirmations and resends the retry buffer when no metrics arrive.
+     */
+    public void startFlushTimer() {
+        Executors.newSingleThreadScheduledExecutor()
+                 .scheduleWithFixedDelay(new RunnableWithExceptionProtection(this::flush, t -> logger.error(
+                     "Export flush failure.", t)), 1, 1, TimeUnit.SECONDS);
+    }
+
+    public void initMetrics(MetricsCreator metricsCreator) {
+        exportedCounter = metricsCreator.createCounter(
+            "exporter_metrics_exported_count", "The number of metrics confirmed by the export target",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        retriedCounter = metricsCreator.createCounter(
+            "exporter_metrics_retried_count", "The number of metrics resent as the export stream failed or timed out",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        droppedCounter = metricsCreator.createCounter(
+            "exporter_metrics_dropped_count", "The number of metrics dropped because the export retry buffer is full",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+    }
+
+    @Override
+    public boolean isSubscribed(String metricsName, ExportEvent.EventType type) {
+        if (ExportEvent.EventType.TOTAL != type) {
+            return false;
+        }
+        Set<String> subscriptions = subscriptionSet;
+        return subscriptions.isEmpty() || subscriptions.contains(metricsName);
     }
 
     @Override
@@ -76,7 +156,7 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
             Metrics metrics = event.getMetrics();
             if (metrics instanceof WithMetadata) {
                 MetricsMetaInfo meta = ((WithMetadata) metrics).getMeta();
-                if (subscriptionSet.size() == 0 || subscriptionSet.contains(meta.getMetricsName())) {
+                if (isSubscribed(meta.getMetricsName(), event.getType())) {
                     exportBuffer.produce(new ExportData(meta, metrics));
                 }
             }
@@ -86,7 +166,7 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
     public void initSubscriptionList() {
         SubscriptionsResp subscription = blockingStub.withDeadlineAfter(10, TimeUnit.SECONDS)
                                                      .subscription(SubscriptionReq.newBuilder().build());
-        subscription.getMetricNamesList().forEach(subscriptionSet::add);
+        subscriptionSet = new HashSet<>(subscription.getMetricNamesList());
         logger.debug("Get exporter subscription list, {}", subscriptionSet);
     }
 
@@ -96,101 +176,221 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
     }
 
     @Override
-    public void consume(List<ExportData> data) {
-        if (data.size() == 0) {
-            return;
-        }
+    public synchronized void consume(List<ExportData> data) {
+        flush();
 
-        GRPCStreamStatus status = new GRPCStreamStatus();
-        StreamObserver<ExportMetricValue> streamObserver = exportServiceFutureStub.withDeadlineAfter(
-            10, TimeUnit.SECONDS)
-                                                                                  .export(
-                                                                                      new StreamObserver<ExportResponse>() {
-                                                                                          @Override
-                                                                                          public void onNext(
-                                                                                              ExportResponse response) {
-
-                                                                                          }
-
-                                                                                          @Override
-                                                                                          public void onError(
-                                                                                              Throwable throwable) {
-                                                                                              status.done();
-                                                                                          }
-
-                                                                                          @Override
-                                                                                          public void onCompleted() {
-                                                                                              status.done();
-                                                                                          }
-                                                                                      });
-        AtomicInteger exportNum = new AtomicInteger();
-        data.forEach(row -> {
-            ExportMetricValue.Builder builder = ExportMetricValue.newBuilder();
-
-            Metrics metrics = row.getMetrics();
-            if (metrics instanceof LongValueHolder) {
-                long value = ((LongValueHolder) metrics).getValue();
-                builder.setLongValue(value);
-                builder.setType(ValueType.LONG);
-            } else if (metrics instanceof IntValueHolder) {
-                long value = ((IntValueHolder) metrics).getValue();
-                builder.setLongValue(value);
-                builder.setType(ValueType.LONG);
-            } else if (metrics instanceof DoubleValueHolder) {
-                double value = ((DoubleValueHolder) metrics).getValue();
-                builder.setDoubleValue(value);
-                builder.setType(ValueType.DOUBLE);
-            } else if (metrics instanceof MultiIntValuesHolder) {
-                int[] values = ((MultiIntValuesHolder) metrics).getValues();
-                for (int value : values) {
-                    builder.addLongValues(value);
-                }
-                builder.setType(ValueType.MULTI_LONG);
-            } else {
-                return;
+        for (ExportData row : data) {
+            ExportMetricValue value = transform(row);
+            if (value != null) {
+                send(value);
             }
+        }
+    }
 
-            MetricsMetaInfo meta = row.getMeta();
-            builder.setMetricName(meta.getMetricsName());
-            String entityName = getEntityName(meta);
-            if (entityName == null) {
-                return;
+    /**
+     * Check the confirmations and the current stream, and resend the retry buffer unless backing off.
+     */
+    synchronized void flush() {
+        checkConfirmations();
+
+        if (exportStream != null) {
+            if (exportStream.failed) {
+                failStream();
+            } else if (System.currentTimeMillis() - exportStream.createTime > setting.getStreamLifetime()) {
+                completeStream();
             }
-            builder.setEntityName(entityName);
-            builder.setEntityId(meta.getId());
+        }
 
-            builder.setTimeBucket(metrics.getTimeBucket());
+        int retrySize = retryBuffer.size();
+        for (int i = 0; i < retrySize && !isBackingOff() && unconfirmedCount < setting.getRetryBufferSize(); i++) {
+            send(retryBuffer.pollFirst());
+        }
+    }
 
-            streamObserver.onNext(builder.build());
-            exportNum.getAndIncrement();
-        });
+    private ExportMetricValue transform(ExportData row) {
+        ExportMetricValue.Builder builder = valueBuilder.clear();
 
-        streamObserver.onCompleted();
+        Metrics metrics = row.getMetrics();
+        if (metrics instanceof LongValueHolder) {
+            long value = ((LongValueHolder) metrics).getValue();
+            builder.setLongValue(value);
+            builder.setType(ValueType.LONG);
+        } else if (metrics instanceof IntValueHolder) {
+            long value = ((IntValueHolder) metrics).getValue();
+            builder.setLongValue(value);
+            builder.setType(ValueType.LONG);
+        } else if (metrics instanceof DoubleValueHolder) {
+            double value = ((DoubleValueHolder) metrics).getValue();
+            builder.setDoubleValue(value);
+            builder.setType(ValueType.DOUBLE);
+        } else if (metrics instanceof MultiIntValuesHolder) {
+            int[] values = ((MultiIntValuesHolder) metrics).getValues();
+            for (int value : values) {
+                builder.addLongValues(value);
+            }
+            builder.setType(ValueType.MULTI_LONG);
+        } else {
+            return null;
+        }
 
-        long sleepTime = 0;
-        long cycle = 100L;
+        MetricsMetaInfo meta = row.getMeta();
+        builder.setMetricName(meta.getMetricsName());
+        String entityName = getEntityName(meta);
+        if (entityName == null) {
+            return null;
+        }
+        builder.setEntityName(entityName);
+        builder.setEntityId(meta.getId());
 
-        //For memory safe of oap, we must wait for the peer confirmation.
-        while (!status.isDone()) {
-            try {
-                sleepTime += cycle;
-                Thread.sleep(cycle);
-            } catch (InterruptedException e) {
+        builder.setTimeBucket(metrics.getTimeBucket());
+
+        return builder.build();
+    }
+
+    private void send(ExportMetricValue value) {
+        if (isBackingOff() || unconfirmedCount >= setting.getRetryBufferSize()) {
+            keep(value);
+            return;
+        }
+        if (exportStream != null && exportStream.failed) {
+            failStream();
+            keep(value);
+            return;
+        }
+        if (exportStream == null) {
+            exportStream = new ExportStream();
+            exportServiceFutureStub.export(exportStream);
+            // A new stream isn't ready until the call starts on the transport.
+            if (!exportStream.awaitReady() || exportStream.failed) {
+                exportStream.requestStream.cancel("Export stream isn't ready", null);
+                failStream();
+                keep(value);
+                return;
             }
+        }
+
+        if (!exportStream.requestStream.isReady()) {
+            // Flow control, the target can't accept more for now, keep it for the next round.
+            keep(value);
+            return;
+        }
+        exportStream.requestStream.onNext(value);
+        exportStream.unconfirmed.add(value);
+        unconfirmedCount++;
+
+        if (exportStream.unconfirmed.size() >= setting.getMaxMessagesPerStream()) {
+            completeStream();
+        }
+    }
+
+    /**
+     * Complete the current stream, its confirmation is checked in the next rounds. For memory safe of oap, the
+     * unconfirmed metrics are kept until the confirmation arrives.
+     */
+    private void completeStream() {
+        ExportStream stream = exportStream;
+        exportStream = null;
+        stream.requestStream.onCompleted();
+        stream.completeTime = System.currentTimeMillis();
+        completedStreams.addLast(stream);
+    }
 
-            if (sleepTime > 2000L) {
+    /**
+     * Check the completed streams in the order of their completion, without waiting for the ones not confirmed yet.
+     */
+    private void checkConfirmations() {
+        while (!completedStreams.isEmpty()) {
+            ExportStream stream = completedStreams.peekFirst();
+            if (stream.closed.getCount() > 0) {
+                if (System.currentTimeMillis() - stream.completeTime <= setting.getConfirmTimeout()) {
+                    return;
+                }
                 logger.warn(
-                    "Export {} metrics to {}:{}, wait {} milliseconds.", exportNum.get(), setting.getTargetHost(),
-                    setting
-                        .getTargetPort(), sleepTime
+                    "Export {} metrics to {}:{}, no confirmation in {} milliseconds.", stream.unconfirmed.size(),
+                    setting.getTargetHost(), setting.getTargetPort(), setting.getConfirmTimeout()
                 );
-                cycle = 2000L;
+                stream.requestStream.cancel("Export confirmation timeout", null);
+                retryAll(stream.unconfirmed);
+                backOff();
+            } else if (stream.failed) {
+                retryAll(stream.unconfirmed);
+                backOff();
+            } else {
+                unconfirmedCount -= stream.unconfirmed.size();
+                if (exportedCounter != null) {
+                    exportedCounter.inc(stream.unconfirmed.size());
+                }
+                logger.debug(
+                    "Exported {} metrics to {}:{}.", stream.unconfirmed.size(), setting.getTargetHost(),
+                    setting.getTargetPort()
+                );
+                backoffInterval = 0;
             }
+            completedStreams.pollFirst();
+        }
+    }
+
+    /**
+     * Abandon the current stream, resend its messages after the backoff interval.
+     */
+    private void failStream() {
+        ExportStream stream = exportStream;
+        exportStream = null;
+        retryAll(stream.unconfirmed);
+        backOff();
+    }
+
+    private void backOff() {
+        if (backoffInterval == 0) {
+            backoffInterval = setting.getMinRetryBackoff();
+        } else {
+            backoffInterval = Math.min(backoffInterval * 2, setting.getMaxRetryBackoff());
         }
+        backoffUntil = System.currentTimeMillis() + backoffInterval;
+        logger.warn(
+            "Export to {}:{} failed, retry in {} milliseconds.", setting.getTargetHost(), setting.getTargetPort(),
+            backoffInterval
+        );
+    }
+
+    private boolean isBackingOff() {
+        return System.currentTimeMillis() < backoffUntil;
+    }
 
-        logger.debug(
-            "Exported {} metrics to {}:{} in {} milliseconds.", exportNum.get(), setting.getTargetHost(), setting
-                .getTargetPort(), sleepTime);
+    private void retryAll(List<ExportMetricValue> values) {
+        unconfirmedCount -= values.size();
+        for (ExportMetricValue value : values) {
+            retry(value);
+        }
+    }
+
+    private void retry(ExportMetricValue value) {
+        keep(value);
+        if (retriedCounter != null) {
+            retriedCounter.inc();
+        }
+    }
+
+    /**
+     * Keep the value in the retry buffer, for sending in the next round. The value is dropped if the messages waiting
+     * for the confirmation take the whole buffer size.
+     */
+    private void keep(ExportMetricValue value) {
+        while (!retryBuffer.isEmpty() && retryBuffer.size() + unconfirmedCount >= setting.getRetryBufferSize()) {
+            retryBuffer.pollFirst();
+            drop();
+        }
+        if (unconfirmedCount >= setting.getRetryBufferSize()) {
+            drop();
+            return;
+        }
+        retryBuffer.addLast(value);
+    }
+
+    private void drop() {
+        if (droppedCounter != null) {
+            droppedCounter.inc();
+        }
     }
 
     @Override
@@ -202,4 +402,59 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
     public void onExit() {
 
     }
+
+    /**
+     * One client stream to the target, the response observer records the final status of it.
+     */
+    private class ExportStream implements ClientResponseObserver<ExportMetricValue, ExportResponse> {
+        private final long createTime = System.currentTimeMillis();
+        private final List<ExportMetricValue> unconfirmed = new ArrayList<>();
+        private final CountDownLatch ready = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private ClientCallStreamObserver<ExportMetricValue> requestStream;
+        private volatile boolean failed = false;
+        private long completeTime;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<ExportMetricValue> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(ready::countDown);
+        }
+
+        /**
+         * Wait until the stream is ready or closed, at most the confirm timeout.
+         *
+         * @return false if the stream is neither ready nor closed in time.
+         */
+        private boolean awaitReady() {
+            try {
+                return ready.await(setting.getConfirmTimeout(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public void onNext(ExportResponse response) {
+
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            logger.warn(
+                "Export stream to {}:{} failed, {}", setting.getTargetHost(), setting.getTargetPort(),
+                throwable.getMessage()
+            );
+            failed = true;
+            ready.countDown();
+            closed.countDown();
+        }
+
+        @Override
+        public void onCompleted() {
+            ready.countDown();
+            closed.countDown();
+        }
+    }
 }
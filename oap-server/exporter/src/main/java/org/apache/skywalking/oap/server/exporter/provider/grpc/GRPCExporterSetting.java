@@ -29,4 +29,34 @@ public class GRPCExporterSetting extends ModuleConfig {
     private int targetPort;
     private int bufferChannelSize = 20000;
     private int bufferChannelNum = 2;
+    /**
+     * Compress the export stream by gzip.
+     */
+    private boolean enableCompression = true;
+    /**
+     * The export stream is completed and renewed after this number of messages, or after {@link #streamLifetime}.
+     */
+    private int maxMessagesPerStream = 2000;
+    /**
+     * Unit is millisecond.
+     */
+    private long streamLifetime = 30000;
+    /**
+     * The max time waiting for the target confirmation when completing a stream. Unit is millisecond.
+     */
+    private long confirmTimeout = 10000;
+    /**
+     * The max number of metrics kept for retry or waiting for the confirmation, the oldest ones waiting for retry are
+     * dropped when it is full.
+     */
+    private int retryBufferSize = 10000;
+    /**
+     * The first interval of not sending after the export stream fails, doubled by every failure in a row up to {@link
+     * #maxRetryBackoff}. Unit is millisecond.
+     */
+    private long minRetryBackoff = 1000;
+    /**
+     * Unit is millisecond.
+     */
+    private long maxRetryBackoff = 60000;
 }
@@ -108,7 +108,8 @@ public class GRPCExporterProviderTest {
     public void requiredModules() {
         String[] requireModules = grpcExporterProvider.requiredModules();
         assertNotNull(requireModules);
-        assertEquals(1, requireModules.length);
+        assertEquals(2, requireModules.length);
         assertEquals("core", requireModules[0]);
+        assertEquals("telemetry", requireModules[1]);
     }
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.exporter.provider.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcServerRule;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsMetaInfo;
+import org.apache.skywalking.oap.server.core.exporter.ExportData;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.exporter.grpc.ExportMetricValue;
+import org.apache.skywalking.oap.server.exporter.grpc.ExportResponse;
+import org.apache.skywalking.oap.server.exporter.grpc.MetricExportServiceGrpc;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GRPCExporterStreamTest {
+
+    @Rule
+    public final GrpcServerRule grpcServerRule = new GrpcServerRule().directExecutor();
+
+    private final ExportService service = new ExportService();
+    private final Map<String, TestCounter> counters = new HashMap<>();
+    private final MetricsMetaInfo metaInfo = new MetricsMetaInfo("mock-metrics", DefaultScopeDefine.ALL);
+    private GRPCExporter exporter;
+
+    @Before
+    public void setUp() {
+        GRPCExporterSetting setting = new GRPCExporterSetting();
+        setting.setTargetHost("localhost");
+        setting.setTargetPort(9870);
+        setting.setEnableCompression(false);
+        setting.setMaxMessagesPerStream(2);
+        setting.setConfirmTimeout(100);
+        setting.setRetryBufferSize(4);
+        setting.setMinRetryBackoff(50);
+        setting.setMaxRetryBackoff(200);
+        exporter = new GRPCExporter(setting);
+
+        grpcServerRule.getServiceRegistry().addService(service);
+        Whitebox.setInternalState(
+            exporter, "exportServiceFutureStub", MetricExportServiceGrpc.newStub(grpcServerRule.getChannel()));
+
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+            TestCounter counter = new TestCounter();
+            counters.put((String) invocation.getArguments()[0], counter);
+            return counter;
+        });
+        exporter.initMetrics(metricsCreator);
+    }
+
+    @Test
+    public void testConfirm() {
+        exporter.consume(dataList(4));
+        exporter.flush();
+
+        Assert.assertEquals(2, service.streams.get());
+        Assert.assertEquals(4, service.received.size());
+        Assert.assertEquals(4, counter("exporter_metrics_exported_count"));
+        Assert.assertEquals(0, counter("exporter_metrics_retried_count"));
+        Assert.assertEquals(0, retryBuffer().size());
+    }
+
+    @Test
+    public void testConfirmTimeout() throws InterruptedException {
+        service.mode = Mode.HOLD;
+        exporter.consume(dataList(2));
+        exporter.flush();
+        Assert.assertEquals(0, counter("exporter_metrics_retried_count"));
+
+        Thread.sleep(150);
+        exporter.flush();
+        Assert.assertEquals(2, counter("exporter_metrics_retried_count"));
+        Assert.assertEquals(2, retryBuffer().size());
+
+        // Backing off, nothing is resent.
+        service.mode = Mode.CONFIRM;
+        exporter.flush();
+        Assert.assertEquals(1, service.streams.get());
+
+        Thread.sleep(60);
+        exporter.flush();
+        exporter.flush();
+        Assert.assertEquals(2, service.streams.get());
+        Assert.assertEquals(2, counter("exporter_metrics_exported_count"));
+        Assert.assertEquals(0, retryBuffer().size());
+    }
+
+    @Test
+    public void testAbandonFailedStream() {
+        service.mode = Mode.FAIL_ON_NEXT;
+        exporter.consume(dataList(1));
+        exporter.flush();
+
+        Assert.assertEquals(1, counter("exporter_metrics_retried_count"));
+        Assert.assertEquals(1, retryBuffer().size());
+        Assert.assertNull(Whitebox.getInternalState(exporter, "exportStream"));
+    }
+
+    @Test
+    public void testBackoffAfterFailure() throws InterruptedException {
+        service.mode = Mode.FAIL;
+        exporter.consume(dataList(3));
+        exporter.consume(dataList(1));
+        exporter.flush();
+
+        // One failed stream only, the others are kept until the backoff passes.
+        Assert.assertEquals(1, service.streams.get());
+        Assert.assertEquals(4, retryBuffer().size());
+        Assert.assertEquals(50L, (long) Whitebox.getInternalState(exporter, "backoffInterval"));
+
+        Thread.sleep(60);
+        exporter.flush();
+        Assert.assertEquals(2, service.streams.get());
+        Assert.assertEquals(100L, (long) Whitebox.getInternalState(exporter, "backoffInterval"));
+
+        service.mode = Mode.CONFIRM;
+        Thread.sleep(110);
+        exporter.flush();
+        exporter.flush();
+        Assert.assertEquals(4, counter("exporter_metrics_exported_count"));
+        Assert.assertEquals(0L, (long) Whitebox.getInternalState(exporter, "backoffInterval"));
+    }
+
+    @Test
+    public void testDropWhenRetryBufferFull() {
+        service.mode = Mode.FAIL;
+        exporter.consume(dataList(6));
+
+        Assert.assertEquals(4, retryBuffer().size());
+        Assert.assertEquals(2, counter("exporter_metrics_dropped_count"));
+    }
+
+    @Test
+    public void testUnconfirmedCountedInRetryBuffer() {
+        service.mode = Mode.HOLD;
+        exporter.consume(dataList(6));
+
+        Assert.assertEquals(4, service.received.size());
+        Assert.assertEquals(0, retryBuffer().size());
+        Assert.assertEquals(2, counter("exporter_metrics_dropped_count"));
+    }
+
+    @Test
+    public void testKeepByFlowControl() {
+        service.mode = Mode.FLOW_CONTROL;
+        GRPCExporterSetting setting = Whitebox.getInternalState(exporter, "setting");
+        setting.setMaxMessagesPerStream(10);
+        exporter.consume(dataList(3));
+
+        Assert.assertEquals(1, service.received.size());
+        Assert.assertEquals(2, retryBuffer().size());
+        Assert.assertEquals(0, counter("exporter_metrics_retried_count"));
+        Assert.assertEquals(0, counter("exporter_metrics_dropped_count"));
+        Assert.assertEquals(0L, (long) Whitebox.getInternalState(exporter, "backoffInterval"));
+    }
+
+    private ArrayDeque<?> retryBuffer() {
+        return Whitebox.getInternalState(exporter, "retryBuffer");
+    }
+
+    private long counter(String name) {
+        return counters.get(name).value;
+    }
+
+    private List<ExportData> dataList(int size) {
+        List<ExportData> dataList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dataList.add(new ExportData(metaInfo, new MockLongValueMetrics()));
+        }
+        return dataList;
+    }
+
+    private enum Mode {
+        /**
+         * Confirm the stream when it is completed.
+         */
+        CONFIRM,
+        /**
+         * Never confirm the stream.
+         */
+        HOLD,
+        /**
+         * Fail the stream when it starts.
+         */
+        FAIL,
+        /**
+         * Fail the stream when the first message arrives.
+         */
+        FAIL_ON_NEXT,
+        /**
+         * Accept only the first message of the stream.
+         */
+        FLOW_CONTROL
+    }
+
+    private static class ExportService extends MetricExportServiceGrpc.MetricExportServiceImplBase {
+        private volatile Mode mode = Mode.CONFIRM;
+        private final AtomicInteger streams = new AtomicInteger();
+        private final List<ExportMetricValue> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public StreamObserver<ExportMetricValue> export(StreamObserver<ExportResponse> responseObserver) {
+            streams.incrementAndGet();
+            final Mode streamMode = mode;
+            if (streamMode == Mode.FAIL) {
+                responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+            } else if (streamMode == Mode.FLOW_CONTROL) {
+                ServerCallStreamObserver<ExportResponse> serverObserver =
+                    (ServerCallStreamObserver<ExportResponse>) responseObserver;
+                serverObserver.disableAutoInboundFlowControl();
+                serverObserver.request(1);
+            }
+            return new StreamObserver<ExportMetricValue>() {
+                @Override
+                public void onNext(ExportMetricValue value) {
+                    received.add(value);
+                    if (streamMode == Mode.FAIL_ON_NEXT) {
+                        responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    if (streamMode == Mode.CONFIRM) {
+                        responseObserver.onNext(ExportResponse.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                }
+            };
+        }
+    }
+
+    private static class TestCounter implements CounterMetrics {
+        private long value;
+
+        @Override
+        public void inc() {
+            value++;
+        }
+
+        @Override
+        public void inc(double value) {
+            this.value += (long) value;
+        }
+    }
+}
@@ -33,6 +33,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.powermock.reflect.Whitebox;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class GRPCExporterTest {
 
     private GRPCExporter exporter;
@@ -74,6 +77,17 @@ public class GRPCExporterTest {
         exporter.initSubscriptionList();
     }
 
+    @Test
+    public void isSubscribed() {
+        assertTrue(exporter.isSubscribed("mock-metrics", ExportEvent.EventType.TOTAL));
+        assertFalse(exporter.isSubscribed("mock-metrics", ExportEvent.EventType.INCREMENT));
+
+        Whitebox.setInternalState(exporter, "blockingStub", stub);
+        exporter.initSubscriptionList();
+        assertTrue(exporter.isSubscribed("first", ExportEvent.EventType.TOTAL));
+        assertFalse(exporter.isSubscribed("mock-metrics", ExportEvent.EventType.TOTAL));
+    }
+
     @Test
     public void init() {
         exporter.init();
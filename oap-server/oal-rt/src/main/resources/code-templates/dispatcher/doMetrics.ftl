@@ -13,6 +13,7 @@ metrics.setTimeBucket(source.getTimeBucket());
 <#list fieldsFromSource as field>
     metrics.${field.fieldSetter}(source.${field.fieldGetter}());
 </#list>
+for (long i = source.getWeight(); i > 0L; i--) {
 metrics.${entryMethod.methodName}(
 <#list entryMethod.argsExpressions as arg>
     <#if entryMethod.argTypes[arg_index] < 3>
@@ -21,6 +22,7 @@ metrics.${entryMethod.methodName}(
         new org.apache.skywalking.oap.server.core.analysis.metrics.expression.${arg.expressionObject}().match(${arg.left}, ${arg.right})
     </#if><#if arg_has_next>, </#if>
 </#list>);
+}
 
 org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor.getInstance().in(metrics);
 }
@@ -46,7 +46,9 @@ public class ServiceDispatcher implements SourceDispatcher<Service> {
 
         metrics.setTimeBucket(source.getTimeBucket());
         metrics.setEntityId(source.getEntityId());
-        metrics.combine(source.getLatency(), 1);
+        for (long i = source.getWeight(); i > 0L; i--) {
+            metrics.combine(source.getLatency(), 1);
+        }
 
         MetricsStreamProcessor.getInstance().in(metrics);
     }
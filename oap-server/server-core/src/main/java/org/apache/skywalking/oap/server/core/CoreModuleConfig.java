@@ -57,6 +57,30 @@ public class CoreModuleConfig extends ModuleConfig {
     private int maxMessageSize;
     @Setter
     private boolean enableDatabaseSession;
+    /**
+     * Cache the rows of the database session out of the heap, in their serialized form. It only works when the
+     * {@link #enableDatabaseSession} is true.
+     */
+    @Setter
+    private boolean databaseSessionOffHeap = false;
+    /**
+     * The max size of the direct memory shared by all the off-heap database sessions, in MB. The rows beyond it are
+     * cached in the heap.
+     */
+    @Setter
+    private int databaseSessionOffHeapMaxSize = 256;
+    /**
+     * The max time of holding the hour, day and month metrics in memory before persisting them, unit is second. They
+     * are persisted when their time bucket closes anyway. The held rows are lost if the OAP crashes or restarts, so it is
+     * off by default, 0 means persisting them in every persistence period.
+     */
+    @Setter
+    private long downsamplingFlushInterval = 0;
+    /**
+     * The segment binaries larger than this are compressed in the storage, unit is byte. 0 means no compression.
+     */
+    @Setter
+    private int segmentDataCompressThreshold = 512;
     @Setter
     private int topNReportPeriod;
     private final List<String> downsampling;
@@ -69,6 +93,11 @@ public class CoreModuleConfig extends ModuleConfig {
     private boolean enableDataKeeperExecutor = true;
     @Setter
     private int dataKeeperExecutePeriod = 5;
+    /**
+     * The threads of deleting the expired data of the models assigned to this OAP node in parallel.
+     */
+    @Setter
+    private int dataKeeperExecuteThreads = 2;
     @Setter
     private int recordDataTTL;
     @Setter
@@ -88,6 +117,17 @@ public class CoreModuleConfig extends ModuleConfig {
      */
     @Setter
     private int remoteTimeout = 20;
+    /**
+     * The local file keeping the stream data when no OAP node is reachable, replayed once there are nodes again. Empty
+     * means the stream data is dropped.
+     */
+    @Setter
+    private String remoteSpillPath = "";
+    /**
+     * The max size of the remote spill file, in MB.
+     */
+    @Setter
+    private int remoteSpillMaxSize = 256;
 
     /**
      * Following are cache settings for inventory(s)
@@ -97,6 +137,13 @@ public class CoreModuleConfig extends ModuleConfig {
     private long maxSizeOfEndpointInventory = 1_000_000L;
     private long maxSizeOfNetworkInventory = 1_000_000L;
 
+    /**
+     * The page size of loading the whole inventory into the caches after the OAP starts. 0 means no warm up, the
+     * caches are filled when the inventory is required.
+     */
+    @Setter
+    private int inventoryCacheWarmUpPageSize = 1000;
+
     /**
      * Following are cache setting for none stream(s)
      */
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core;
 
+import com.google.common.base.Strings;
 import java.io.IOException;
 import java.nio.file.Paths;
 import org.apache.skywalking.oap.server.configuration.api.ConfigurationModule;
@@ -25,6 +26,7 @@ import org.apache.skywalking.oap.server.configuration.api.DynamicConfigurationSe
 import org.apache.skywalking.oap.server.core.analysis.ApdexThresholdConfig;
 import org.apache.skywalking.oap.server.core.analysis.DisableRegister;
 import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentDataCodec;
 import org.apache.skywalking.oap.server.core.analysis.metrics.ApdexMetrics;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
@@ -64,6 +66,7 @@ import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.client.Address;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteMessageSpill;
 import org.apache.skywalking.oap.server.core.remote.health.HealthCheckServiceHandler;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegister;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegisterImpl;
@@ -90,6 +93,7 @@ import org.apache.skywalking.oap.server.library.server.ServerException;
 import org.apache.skywalking.oap.server.library.server.grpc.GRPCServer;
 import org.apache.skywalking.oap.server.library.server.jetty.JettyServer;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 /**
  * Core module provider includes the recommended and default implementations of {@link CoreModule#services()}. All
@@ -253,12 +257,23 @@ public class CoreModuleProvider extends ModuleProvider {
         } else {
             this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.getRemoteTimeout());
         }
+        if (!Strings.isNullOrEmpty(moduleConfig.getRemoteSpillPath())) {
+            this.remoteClientManager.setSpill(new RemoteMessageSpill(
+                Paths.get(moduleConfig.getRemoteSpillPath()).toFile(),
+                moduleConfig.getRemoteSpillMaxSize() * 1024L * 1024L
+            ));
+        }
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
 
         MetricsStreamProcessor.getInstance().setEnableDatabaseSession(moduleConfig.isEnableDatabaseSession());
+        MetricsStreamProcessor.getInstance().setDatabaseSessionOffHeap(moduleConfig.isDatabaseSessionOffHeap());
+        MetricsStreamProcessor.getInstance()
+                              .setDatabaseSessionOffHeapMaxSize(moduleConfig.getDatabaseSessionOffHeapMaxSize());
+        MetricsStreamProcessor.getInstance().setDownsamplingFlushInterval(moduleConfig.getDownsamplingFlushInterval());
         TopNStreamProcessor.getInstance().setTopNWorkerReportCycle(moduleConfig.getTopNReportPeriod());
         apdexThresholdConfig = new ApdexThresholdConfig(this);
         ApdexMetrics.setDICT(apdexThresholdConfig);
+        SegmentDataCodec.setCompressThreshold(moduleConfig.getSegmentDataCompressThreshold());
     }
 
     @Override
@@ -276,6 +291,8 @@ public class CoreModuleProvider extends ModuleProvider {
         } catch (IOException | IllegalAccessException | InstantiationException e) {
             throw new ModuleStartException(e.getMessage(), e);
         }
+        receiver.getDispatcherManager().buildDispatchTable(
+            getManager().find(TelemetryModule.NAME).provider().getService(MetricsCreator.class));
 
         if (CoreModuleConfig.Role.Mixed.name()
                                        .equalsIgnoreCase(
@@ -314,7 +331,7 @@ public class CoreModuleProvider extends ModuleProvider {
             DataTTLKeeperTimer.INSTANCE.start(getManager(), moduleConfig);
         }
 
-        CacheUpdateTimer.INSTANCE.start(getManager());
+        CacheUpdateTimer.INSTANCE.start(getManager(), moduleConfig);
     }
 
     @Override
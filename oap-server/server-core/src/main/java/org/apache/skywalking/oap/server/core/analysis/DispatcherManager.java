@@ -21,14 +21,26 @@ package org.apache.skywalking.oap.server.core.analysis;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.ClassPath;
 import java.io.IOException;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.source.Source;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,10 +48,30 @@ public class DispatcherManager implements DispatcherDetectorListener {
 
     private static final Logger logger = LoggerFactory.getLogger(DispatcherManager.class);
 
+    private static final String COMPOSITE_DISPATCHER_PACKAGE = "org.apache.skywalking.oap.server.core.analysis.generated.dispatcher.";
+    /**
+     * Keep the generated class names unique in the class loader, even if more than one manager is built.
+     */
+    private static final AtomicInteger COMPOSITE_DISPATCHER_SEQ = new AtomicInteger();
+
     private Map<Integer, List<SourceDispatcher>> dispatcherMap;
+    private Map<Integer, Class<?>> sourceClassMap;
+
+    /**
+     * The composite dispatchers indexed by the scope id, built by {@link #buildDispatchTable(MetricsCreator)} once all
+     * dispatchers are added. The scope of a dispatcher added after that is rebuilt.
+     */
+    private volatile SourceDispatcher[] dispatchTable = new SourceDispatcher[0];
+    private volatile CounterMetrics[] dispatchCounters = new CounterMetrics[0];
+    /**
+     * Not null once the dispatch table is built.
+     */
+    private volatile MetricsCreator metricsCreator;
+    private final AtomicBoolean forwardedBeforeBuilt = new AtomicBoolean(false);
 
     public DispatcherManager() {
         this.dispatcherMap = new HashMap<>();
+        this.sourceClassMap = new HashMap<>();
     }
 
     public void forward(Source source) {
@@ -47,17 +79,19 @@ public class DispatcherManager implements DispatcherDetectorListener {
             return;
         }
 
-        List<SourceDispatcher> dispatchers = dispatcherMap.get(source.scope());
+        int scope = source.scope();
+        SourceDispatcher[] table = dispatchTable;
 
         /**
          * Dispatcher is only generated by oal script analysis result.
          * So these will/could be possible, the given source doesn't have the dispatcher,
          * when the receiver is open, and oal script doesn't ask for analysis.
          */
-        if (dispatchers != null) {
-            for (SourceDispatcher dispatcher : dispatchers) {
-                dispatcher.dispatch(source);
-            }
+        if (scope >= 0 && scope < table.length && table[scope] != null) {
+            dispatchCounters[scope].inc();
+            table[scope].dispatch(source);
+        } else if (metricsCreator == null && forwardedBeforeBuilt.compareAndSet(false, true)) {
+            logger.warn("The source of scope {} is forwarded before the dispatch table is built, and dropped.", scope);
         }
     }
 
@@ -78,7 +112,7 @@ public class DispatcherManager implements DispatcherDetectorListener {
     }
 
     @Override
-    public void addIfAsSourceDispatcher(Class aClass) throws IllegalAccessException, InstantiationException {
+    public synchronized void addIfAsSourceDispatcher(Class aClass) throws IllegalAccessException, InstantiationException {
         if (!aClass.isInterface() && SourceDispatcher.class.isAssignableFrom(aClass)) {
             Type[] genericInterfaces = aClass.getGenericInterfaces();
             for (Type genericInterface : genericInterfaces) {
@@ -101,6 +135,7 @@ public class DispatcherManager implements DispatcherDetectorListener {
                     SourceDispatcher dispatcher = (SourceDispatcher) aClass.newInstance();
 
                     int scopeId = dispatcherSource.scope();
+                    sourceClassMap.put(scopeId, dispatcherSource.getClass());
 
                     List<SourceDispatcher> dispatchers = this.dispatcherMap.get(scopeId);
                     if (dispatchers == null) {
@@ -112,8 +147,126 @@ public class DispatcherManager implements DispatcherDetectorListener {
 
                     logger.info("Dispatcher {} is added into DefaultScopeDefine {}.", dispatcher.getClass()
                                                                                                 .getName(), scopeId);
+
+                    if (metricsCreator != null) {
+                        logger.info(
+                            "Rebuild the dispatch table of DefaultScopeDefine {}, as it is built already.", scopeId);
+                        rebuildScope(scopeId);
+                    }
                 }
             }
         }
     }
+
+    /**
+     * Build the dispatch table after all dispatchers are added. For every scope, a composite dispatcher is generated,
+     * which calls the dispatchers of the scope one by one through their own classes, rather than the {@link
+     * SourceDispatcher} interface, so each call site only sees one dispatcher class.
+     */
+    public synchronized void buildDispatchTable(MetricsCreator metricsCreator) {
+        int maxScopeId = -1;
+        for (Integer scopeId : dispatcherMap.keySet()) {
+            maxScopeId = Math.max(maxScopeId, scopeId);
+        }
+
+        SourceDispatcher[] table = new SourceDispatcher[maxScopeId + 1];
+        CounterMetrics[] counters = new CounterMetrics[maxScopeId + 1];
+        for (Integer scopeId : dispatcherMap.keySet()) {
+            buildScope(table, counters, scopeId, metricsCreator);
+        }
+
+        dispatchCounters = counters;
+        dispatchTable = table;
+        this.metricsCreator = metricsCreator;
+    }
+
+    /**
+     * Regenerate the composite dispatcher of the scope in a copy of the dispatch table, and publish the copy. The
+     * counters are published first, so they always cover the table read by {@link #forward(Source)}.
+     */
+    private void rebuildScope(int scopeId) {
+        SourceDispatcher[] table = Arrays.copyOf(dispatchTable, Math.max(dispatchTable.length, scopeId + 1));
+        CounterMetrics[] counters = Arrays.copyOf(dispatchCounters, table.length);
+        buildScope(table, counters, scopeId, metricsCreator);
+
+        dispatchCounters = counters;
+        dispatchTable = table;
+    }
+
+    private void buildScope(SourceDispatcher[] table, CounterMetrics[] counters, int scopeId,
+                            MetricsCreator metricsCreator) {
+        Class<?> sourceClass = sourceClassMap.get(scopeId);
+        table[scopeId] = generateCompositeDispatcher(scopeId, sourceClass, dispatcherMap.get(scopeId));
+        if (counters[scopeId] == null) {
+            counters[scopeId] = metricsCreator.createCounter(
+                "source_dispatch_count", "The number of sources dispatched",
+                new MetricsTag.Keys("scope"), new MetricsTag.Values(sourceClass.getSimpleName())
+            );
+        }
+    }
+
+    /**
+     * Generate the composite dispatcher class through Javassist, as the OAL engine does, such as
+     *
+     * <pre>
+     * public class Scope1CompositeDispatcher_0 implements SourceDispatcher {
+     *     private final ServiceDispatcher d0;
+     *     private final ServiceCallRelationDispatcher d1;
+     *
+     *     public Scope1CompositeDispatcher_0(SourceDispatcher[] dispatchers) {
+     *         d0 = (ServiceDispatcher) dispatchers[0];
+     *         d1 = (ServiceCallRelationDispatcher) dispatchers[1];
+     *     }
+     *
+     *     public void dispatch(Source source) {
+     *         Service s = (Service) source;
+     *         d0.dispatch(s);
+     *         d1.dispatch(s);
+     *     }
+     * }
+     * </pre>
+     */
+    private SourceDispatcher generateCompositeDispatcher(int scopeId, Class<?> sourceClass,
+                                                         List<SourceDispatcher> dispatchers) {
+        String className = COMPOSITE_DISPATCHER_PACKAGE + "Scope" + scopeId + "CompositeDispatcher_"
+            + COMPOSITE_DISPATCHER_SEQ.getAndIncrement();
+        String dispatcherInterface = SourceDispatcher.class.getName();
+        boolean publicSource = Modifier.isPublic(sourceClass.getModifiers());
+        String sourceType = publicSource ? sourceClass.getName() : Source.class.getName();
+
+        StringBuilder constructorBody = new StringBuilder();
+        StringBuilder dispatchBody = new StringBuilder();
+        dispatchBody.append(sourceType).append(" s = (").append(sourceType).append(") $1;");
+        try {
+            ClassPool classPool = ClassPool.getDefault();
+            CtClass compositeClass = classPool.makeClass(className);
+            compositeClass.addInterface(classPool.get(dispatcherInterface));
+
+            for (int i = 0; i < dispatchers.size(); i++) {
+                Class<?> dispatcherClass = dispatchers.get(i).getClass();
+                // The not public dispatcher or source could only be called through the interface.
+                String fieldType = publicSource && Modifier.isPublic(dispatcherClass.getModifiers())
+                    ? dispatcherClass.getName() : dispatcherInterface;
+                compositeClass.addField(CtField.make("private final " + fieldType + " d" + i + ";", compositeClass));
+                constructorBody.append("d").append(i).append(" = (").append(fieldType).append(") $1[").append(i)
+                               .append("];");
+                dispatchBody.append("d").append(i).append(".dispatch(s);");
+            }
+
+            compositeClass.addConstructor(CtNewConstructor.make(
+                "public " + compositeClass.getSimpleName() + "(" + dispatcherInterface + "[] dispatchers) {"
+                    + constructorBody + "}", compositeClass));
+            compositeClass.addMethod(CtNewMethod.make(
+                "public void dispatch(" + Source.class.getName() + " source) {" + dispatchBody + "}",
+                compositeClass
+            ));
+
+            Class<?> targetClass = compositeClass.toClass(DispatcherManager.class.getClassLoader(), null);
+            compositeClass.detach();
+            return (SourceDispatcher) targetClass.getConstructor(SourceDispatcher[].class)
+                                                 .newInstance((Object) dispatchers.toArray(new SourceDispatcher[0]));
+        } catch (Exception e) {
+            throw new UnexpectedException("Can't generate the composite dispatcher of scope " + scopeId + ".", e);
+        }
+    }
 }
@@ -22,7 +22,7 @@ import org.apache.skywalking.oap.server.core.storage.ComparableStorageData;
 
 public class LimitedSizeDataCache<STORAGE_DATA extends ComparableStorageData> extends Window<STORAGE_DATA> implements DataCache {
 
-    private SWCollection<STORAGE_DATA> limitedSizeDataCollection;
+    private LimitedSizeDataCollection<STORAGE_DATA> limitedSizeDataCollection;
     private final int limitSize;
 
     public LimitedSizeDataCache(int limitSize) {
@@ -36,13 +36,18 @@ public class LimitedSizeDataCache<STORAGE_DATA extends ComparableStorageData> ex
         return new LimitedSizeDataCollection<>(limitSize);
     }
 
-    public void add(STORAGE_DATA data) {
+    /**
+     * @return the smallest data of the group after adding, if the group has been full, see {@link
+     * LimitedSizeDataCollection#smallestOfFullGroup(ComparableStorageData)}
+     */
+    public STORAGE_DATA add(STORAGE_DATA data) {
         limitedSizeDataCollection.put(data);
+        return limitedSizeDataCollection.smallestOfFullGroup(data);
     }
 
     @Override
     public void writing() {
-        limitedSizeDataCollection = getCurrentAndWriting();
+        limitedSizeDataCollection = (LimitedSizeDataCollection<STORAGE_DATA>) getCurrentAndWriting();
     }
 
     @Override
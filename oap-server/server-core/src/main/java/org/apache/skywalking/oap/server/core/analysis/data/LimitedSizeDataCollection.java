@@ -19,15 +19,20 @@
 package org.apache.skywalking.oap.server.core.analysis.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import org.apache.skywalking.oap.server.core.storage.ComparableStorageData;
 
+/**
+ * Keep the top N of each group of the data, the group is decided by {@link Object#equals(Object)} of the data. Each
+ * group is a bounded min-heap, so a new data costs O(log N) at most, and the one not greater than the smallest of a full
+ * group is rejected by a single comparison.
+ */
 public class LimitedSizeDataCollection<STORAGE_DATA extends ComparableStorageData> implements SWCollection<STORAGE_DATA> {
 
-    private final HashMap<STORAGE_DATA, LinkedList<STORAGE_DATA>> data;
+    private final HashMap<STORAGE_DATA, TopNHeap<STORAGE_DATA>> data;
     private final int limitedSize;
     private volatile boolean writing;
     private volatile boolean reading;
@@ -91,41 +96,105 @@ public class LimitedSizeDataCollection<STORAGE_DATA extends ComparableStorageDat
 
     @Override
     public void put(STORAGE_DATA value) {
-        LinkedList<STORAGE_DATA> storageDataList = this.data.get(value);
-        if (storageDataList == null) {
-            storageDataList = new LinkedList<>();
-            data.put(value, storageDataList);
+        TopNHeap<STORAGE_DATA> heap = this.data.get(value);
+        if (heap == null) {
+            heap = new TopNHeap<>(limitedSize);
+            data.put(value, heap);
         }
+        heap.offer(value);
+    }
+
+    /**
+     * @return the smallest data of the group which the key belongs to, if the group has been full. Any data not greater
+     * than it would be rejected. Null if the group is not full.
+     */
+    public STORAGE_DATA smallestOfFullGroup(STORAGE_DATA key) {
+        TopNHeap<STORAGE_DATA> heap = this.data.get(key);
+        return heap == null ? null : heap.smallestIfFull();
+    }
+
+    /**
+     * @return all data, in ascending order in each group.
+     */
+    @Override
+    public Collection<STORAGE_DATA> collection() {
+        List<STORAGE_DATA> collection = new ArrayList<>();
+        data.values().forEach(heap -> heap.sortedTo(collection));
+        return collection;
+    }
 
-        if (storageDataList.size() < limitedSize) {
-            storageDataList.add(value);
-            return;
+    /**
+     * Array based min-heap, the root is the smallest one of the top N.
+     */
+    private static class TopNHeap<STORAGE_DATA extends ComparableStorageData> {
+        private final Object[] elements;
+        private int size;
+
+        private TopNHeap(int limitedSize) {
+            this.elements = new Object[Math.max(limitedSize, 0)];
         }
 
-        for (int i = 0; i < storageDataList.size(); i++) {
-            STORAGE_DATA storageData = storageDataList.get(i);
-            if (value.compareTo(storageData) <= 0) {
-                if (i == 0) {
-                    // input value is less than the smallest in top N list, ignore
-                } else {
-                    // Remove the smallest in top N list
-                    // add the current value into the right position
-                    storageDataList.add(i, value);
-                    storageDataList.removeFirst();
-                }
+        private void offer(STORAGE_DATA value) {
+            if (size < elements.length) {
+                elements[size] = value;
+                siftUp(size++);
                 return;
             }
+
+            // input value is not greater than the smallest in top N, ignore
+            if (elements.length == 0 || value.compareTo(elements[0]) <= 0) {
+                return;
+            }
+            // replace the smallest in top N
+            elements[0] = value;
+            siftDown(0);
         }
 
-        // Add the value as biggest in top N list
-        storageDataList.addLast(value);
-        storageDataList.removeFirst();
-    }
+        @SuppressWarnings("unchecked")
+        private STORAGE_DATA smallestIfFull() {
+            return size > 0 && size == elements.length ? (STORAGE_DATA) elements[0] : null;
+        }
 
-    @Override
-    public Collection<STORAGE_DATA> collection() {
-        List<STORAGE_DATA> collection = new ArrayList<>();
-        data.values().forEach(e -> e.forEach(collection::add));
-        return collection;
+        @SuppressWarnings("unchecked")
+        private void sortedTo(List<STORAGE_DATA> collection) {
+            Object[] sorted = Arrays.copyOf(elements, size);
+            Arrays.sort(sorted, (o1, o2) -> ((STORAGE_DATA) o1).compareTo(o2));
+            for (Object element : sorted) {
+                collection.add((STORAGE_DATA) element);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void siftUp(int index) {
+            Object value = elements[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (((STORAGE_DATA) value).compareTo(elements[parent]) >= 0) {
+                    break;
+                }
+                elements[index] = elements[parent];
+                index = parent;
+            }
+            elements[index] = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void siftDown(int index) {
+            Object value = elements[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = (index << 1) + 1;
+                int right = child + 1;
+                if (right < size && ((STORAGE_DATA) elements[right]).compareTo(elements[child]) < 0) {
+                    child = right;
+                }
+                if (((STORAGE_DATA) value).compareTo(elements[child]) <= 0) {
+                    break;
+                }
+                elements[index] = elements[child];
+                index = child;
+            }
+            elements[index] = value;
+        }
     }
 }
@@ -26,6 +26,11 @@ public class DatabaseStatementDispatcher implements SourceDispatcher<DatabaseSlo
 
     @Override
     public void dispatch(DatabaseSlowStatement source) {
+        if (!TopNStreamProcessor.getInstance()
+                                .isCandidate(TopNDatabaseStatement.class, source.getDatabaseServiceId(), source.getLatency())) {
+            return;
+        }
+
         TopNDatabaseStatement statement = new TopNDatabaseStatement();
         statement.setId(source.getId());
         statement.setServiceId(source.getDatabaseServiceId());
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.analysis.manual.endpointrelation;
 
 import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
 import org.apache.skywalking.oap.server.core.analysis.manual.endpoint.EndpointTraffic;
+import org.apache.skywalking.oap.server.core.analysis.manual.topology.TopologyEdgeSet;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.apache.skywalking.oap.server.core.source.DetectPoint;
 import org.apache.skywalking.oap.server.core.source.EndpointRelation;
@@ -45,5 +46,17 @@ public class EndpointCallRelationDispatcher implements SourceDispatcher<Endpoint
         metrics.setComponentId(source.getComponentId());
         metrics.setEntityId(source.getEntityId());
         MetricsStreamProcessor.getInstance().in(metrics);
+
+        // The edge is in the sets of the endpoints of both sides, so it could be found by either endpoint.
+        String sourceEntityId = TopologyEdgeSet.buildEndpointEntityId(
+            DetectPoint.SERVER, source.getServiceId(), source.getEndpoint());
+        String destEntityId = TopologyEdgeSet.buildEndpointEntityId(
+            DetectPoint.SERVER, source.getChildServiceId(), source.getChildEndpoint());
+        MetricsStreamProcessor.getInstance().in(TopologyEdgeSet.of(
+            source.getTimeBucket(), sourceEntityId, metrics.getEntityId()));
+        if (!destEntityId.equals(sourceEntityId)) {
+            MetricsStreamProcessor.getInstance().in(TopologyEdgeSet.of(
+                source.getTimeBucket(), destEntityId, metrics.getEntityId()));
+        }
     }
 }
@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.analysis.manual.relation.instance;
 
 import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.manual.topology.TopologyEdgeSet;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.apache.skywalking.oap.server.core.source.ServiceInstanceRelation;
 
@@ -46,6 +47,7 @@ public class ServiceInstanceCallRelationDispatcher implements SourceDispatcher<S
         metrics.setComponentId(source.getComponentId());
         metrics.buildEntityId();
         MetricsStreamProcessor.getInstance().in(metrics);
+        edge(source, metrics.getEntityId());
     }
 
     private void clientSide(ServiceInstanceRelation source) {
@@ -58,5 +60,13 @@ public class ServiceInstanceCallRelationDispatcher implements SourceDispatcher<S
         metrics.setComponentId(source.getComponentId());
         metrics.buildEntityId();
         MetricsStreamProcessor.getInstance().in(metrics);
+        edge(source, metrics.getEntityId());
+    }
+
+    private void edge(ServiceInstanceRelation source, String relationEntityId) {
+        String entityId = TopologyEdgeSet.buildServiceInstanceEntityId(
+            source.getDetectPoint(), source.getSourceServiceId(), source.getDestServiceId());
+        MetricsStreamProcessor.getInstance().in(
+            TopologyEdgeSet.of(source.getTimeBucket(), entityId, relationEntityId));
     }
 }
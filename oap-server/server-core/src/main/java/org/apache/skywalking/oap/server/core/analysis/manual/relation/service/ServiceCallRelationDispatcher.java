@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.analysis.manual.relation.service;
 
 import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.manual.topology.TopologyEdgeSet;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.apache.skywalking.oap.server.core.source.ServiceRelation;
 
@@ -44,6 +45,7 @@ public class ServiceCallRelationDispatcher implements SourceDispatcher<ServiceRe
         metrics.setComponentId(source.getComponentId());
         metrics.buildEntityId();
         MetricsStreamProcessor.getInstance().in(metrics);
+        edge(source, metrics.getEntityId());
     }
 
     private void clientSide(ServiceRelation source) {
@@ -54,5 +56,12 @@ public class ServiceCallRelationDispatcher implements SourceDispatcher<ServiceRe
         metrics.setComponentId(source.getComponentId());
         metrics.buildEntityId();
         MetricsStreamProcessor.getInstance().in(metrics);
+        edge(source, metrics.getEntityId());
+    }
+
+    private void edge(ServiceRelation source, String relationEntityId) {
+        MetricsStreamProcessor.getInstance().in(TopologyEdgeSet.of(
+            source.getTimeBucket(), TopologyEdgeSet.buildServiceEntityId(
+                source.getDetectPoint(), source.getSourceServiceId()), relationEntityId));
     }
 }
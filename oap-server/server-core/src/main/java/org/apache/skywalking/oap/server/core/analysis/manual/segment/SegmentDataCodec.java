@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.analysis.manual.segment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * SegmentDataCodec compresses the {@link SegmentRecord#DATA_BINARY} in the storage, and decompresses it for the
+ * queries.
+ *
+ * A compressed binary starts with {@link #MAGIC}, which can't be the first byte of a serialized segment, because the
+ * field number 0 is illegal in the protobuf. So the binaries stored uncompressed, by the old versions or under the
+ * threshold, are returned as they are.
+ */
+public class SegmentDataCodec {
+    private static final byte MAGIC = 0;
+    private static final byte DEFLATE = 1;
+    private static final int HEADER_SIZE = 2;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    /**
+     * The binaries smaller than this are stored uncompressed. 0 means no compression.
+     */
+    private static int COMPRESS_THRESHOLD = 0;
+
+    public static void setCompressThreshold(int compressThreshold) {
+        COMPRESS_THRESHOLD = compressThreshold;
+    }
+
+    /**
+     * @return the compressed binary, or the given one if it is under the threshold or doesn't get smaller.
+     */
+    public static byte[] compress(byte[] data) {
+        if (COMPRESS_THRESHOLD <= 0 || data.length < COMPRESS_THRESHOLD) {
+            return data;
+        }
+
+        Deflater deflater = DEFLATER.get();
+        byte[] buffer = BUFFER.get();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2);
+            output.write(MAGIC);
+            output.write(DEFLATE);
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+                if (output.size() >= data.length) {
+                    return data;
+                }
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * @return the original binary of a compressed one, or the given one if it isn't compressed.
+     */
+    public static byte[] decompress(byte[] data) throws IOException {
+        if (data.length < HEADER_SIZE || data[0] != MAGIC) {
+            return data;
+        }
+        if (data[1] != DEFLATE) {
+            throw new IOException("Unknown segment data compression: " + data[1]);
+        }
+
+        Inflater inflater = INFLATER.get();
+        byte[] buffer = BUFFER.get();
+        try {
+            inflater.setInput(data, HEADER_SIZE, data.length - HEADER_SIZE);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length * 3);
+            while (!inflater.finished()) {
+                int size = inflater.inflate(buffer);
+                if (size == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated segment data.");
+                }
+                output.write(buffer, 0, size);
+            }
+            return output.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
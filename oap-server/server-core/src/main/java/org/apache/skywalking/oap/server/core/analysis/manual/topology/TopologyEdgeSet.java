@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.topology;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.Stream;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.StringHashSet;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.source.ScopeDeclaration;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.annotation.IDColumn;
+
+import static org.apache.skywalking.oap.server.core.source.DefaultScopeDefine.TOPOLOGY_EDGE_SET;
+
+/**
+ * TopologyEdgeSet holds all the edges, the relation entity ids, of a part of the topology in one time bucket. It is
+ * generated along with the relation metrics, and the set of the stored row is merged with the new edges in the L2
+ * persistence, so the topology query reads a few rows per time bucket, rather than aggregating all relation metrics.
+ *
+ * The service edges are split by the source service into {@link #SERVICE_EDGE_SET_SHARDS} sets per detect point, so
+ * that no single set is routed to one L2 node and rewritten with all the service edges in every flush. The instance
+ * edges are split by the services of both sides. The endpoint edges are split by the service and the endpoint into
+ * {@link #ENDPOINT_EDGE_SET_SHARDS} sets per service, each endpoint edge is in the sets of both its source and dest
+ * endpoints, so the endpoint topology reads only the set of the queried endpoint.
+ */
+@ScopeDeclaration(id = TOPOLOGY_EDGE_SET, name = "TopologyEdgeSet")
+@Stream(name = TopologyEdgeSet.INDEX_NAME, scopeId = DefaultScopeDefine.TOPOLOGY_EDGE_SET,
+    builder = TopologyEdgeSet.Builder.class, processor = MetricsStreamProcessor.class)
+public class TopologyEdgeSet extends Metrics {
+
+    public static final String INDEX_NAME = "topology_edge_set";
+    public static final String EDGES = "edges";
+    public static final int SERVICE_EDGE_SET_SHARDS = 16;
+    public static final int ENDPOINT_EDGE_SET_SHARDS = 16;
+
+    @Setter
+    @Getter
+    @Column(columnName = ENTITY_ID)
+    @IDColumn
+    private String entityId;
+    @Getter
+    @Column(columnName = EDGES, content = true)
+    private StringHashSet edges = new StringHashSet();
+
+    /**
+     * @return the entity id of the service edge set, which the edges from the source service are in.
+     */
+    public static String buildServiceEntityId(DetectPoint detectPoint, int sourceServiceId) {
+        return buildServiceShardEntityId(detectPoint, Math.floorMod(sourceServiceId, SERVICE_EDGE_SET_SHARDS));
+    }
+
+    /**
+     * @return the entity ids of all the service edge sets of the detect point.
+     */
+    public static String[] buildServiceEntityIds(DetectPoint detectPoint) {
+        String[] entityIds = new String[SERVICE_EDGE_SET_SHARDS];
+        for (int shard = 0; shard < SERVICE_EDGE_SET_SHARDS; shard++) {
+            entityIds[shard] = buildServiceShardEntityId(detectPoint, shard);
+        }
+        return entityIds;
+    }
+
+    private static String buildServiceShardEntityId(DetectPoint detectPoint, int shard) {
+        return DefaultScopeDefine.SERVICE_RELATION + Const.ID_SPLIT + detectPoint.value() + Const.ID_SPLIT + shard;
+    }
+
+    /**
+     * @return the entity id of the instance edge set, between the instances of the source and dest services.
+     */
+    public static String buildServiceInstanceEntityId(DetectPoint detectPoint, int sourceServiceId,
+                                                      int destServiceId) {
+        return DefaultScopeDefine.SERVICE_INSTANCE_RELATION + Const.ID_SPLIT + detectPoint.value()
+            + Const.ID_SPLIT + sourceServiceId + Const.ID_SPLIT + destServiceId;
+    }
+
+    /**
+     * @return the entity id of the endpoint edge set, which the edges of the endpoint are in.
+     */
+    public static String buildEndpointEntityId(DetectPoint detectPoint, int serviceId, String endpointName) {
+        return DefaultScopeDefine.ENDPOINT_RELATION + Const.ID_SPLIT + detectPoint.value()
+            + Const.ID_SPLIT + serviceId + Const.ID_SPLIT
+            + Math.floorMod(endpointName.hashCode(), ENDPOINT_EDGE_SET_SHARDS);
+    }
+
+    public static TopologyEdgeSet of(long timeBucket, String entityId, String edge) {
+        TopologyEdgeSet edgeSet = new TopologyEdgeSet();
+        edgeSet.setTimeBucket(timeBucket);
+        edgeSet.setEntityId(entityId);
+        edgeSet.getEdges().add(edge);
+        return edgeSet;
+    }
+
+    @Override
+    public String id() {
+        return getTimeBucket() + Const.ID_SPLIT + entityId;
+    }
+
+    @Override
+    public void combine(Metrics metrics) {
+        edges.addAll(((TopologyEdgeSet) metrics).getEdges());
+    }
+
+    @Override
+    public void calculate() {
+
+    }
+
+    @Override
+    public Metrics toHour() {
+        return copy(toTimeBucketInHour());
+    }
+
+    @Override
+    public Metrics toDay() {
+        return copy(toTimeBucketInDay());
+    }
+
+    @Override
+    public Metrics toMonth() {
+        return copy(toTimeBucketInMonth());
+    }
+
+    private TopologyEdgeSet copy(long timeBucket) {
+        TopologyEdgeSet edgeSet = new TopologyEdgeSet();
+        edgeSet.setTimeBucket(timeBucket);
+        edgeSet.setEntityId(getEntityId());
+        edgeSet.getEdges().addAll(getEdges());
+        return edgeSet;
+    }
+
+    @Override
+    public int remoteHashCode() {
+        return entityId.hashCode();
+    }
+
+    @Override
+    public void deserialize(RemoteData remoteData) {
+        setEntityId(remoteData.getDataStrings(0));
+        for (int i = 1; i < remoteData.getDataStringsCount(); i++) {
+            edges.add(remoteData.getDataStrings(i));
+        }
+
+        setTimeBucket(remoteData.getDataLongs(0));
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataStrings(getEntityId());
+        remoteBuilder.addAllDataStrings(getEdges());
+
+        remoteBuilder.addDataLongs(getTimeBucket());
+        return remoteBuilder;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 17;
+        result = 31 * result + entityId.hashCode();
+        result = 31 * result + (int) getTimeBucket();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+
+        TopologyEdgeSet edgeSet = (TopologyEdgeSet) obj;
+        if (!entityId.equals(edgeSet.getEntityId()))
+            return false;
+
+        return getTimeBucket() == edgeSet.getTimeBucket();
+    }
+
+    public static class Builder implements StorageBuilder<TopologyEdgeSet> {
+
+        @Override
+        public TopologyEdgeSet map2Data(Map<String, Object> dbMap) {
+            TopologyEdgeSet edgeSet = new TopologyEdgeSet();
+            edgeSet.setEntityId((String) dbMap.get(ENTITY_ID));
+            edgeSet.getEdges().toObject((String) dbMap.get(EDGES));
+            edgeSet.setTimeBucket(((Number) dbMap.get(TIME_BUCKET)).longValue());
+            return edgeSet;
+        }
+
+        @Override
+        public Map<String, Object> data2Map(TopologyEdgeSet storageData) {
+            Map<String, Object> map = new HashMap<>();
+            map.put(ENTITY_ID, storageData.getEntityId());
+            map.put(EDGES, storageData.getEdges().toStorageData());
+            map.put(TIME_BUCKET, storageData.getTimeBucket());
+            return map;
+        }
+    }
+}
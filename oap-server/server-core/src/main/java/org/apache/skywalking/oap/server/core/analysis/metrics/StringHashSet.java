@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import com.google.common.base.Strings;
+import java.util.Collections;
+import java.util.HashSet;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+
+/**
+ * A set of strings, which must not include the {@link Const#ARRAY_SPLIT}.
+ */
+public class StringHashSet extends HashSet<String> implements StorageDataType {
+
+    public StringHashSet() {
+        super();
+    }
+
+    public StringHashSet(String data) {
+        super();
+        toObject(data);
+    }
+
+    @Override
+    public String toStorageData() {
+        return String.join(Const.ARRAY_SPLIT, this);
+    }
+
+    @Override
+    public void toObject(String data) {
+        if (Strings.isNullOrEmpty(data)) {
+            return;
+        }
+        Collections.addAll(this, data.split(Const.ARRAY_PARSER_SPLIT));
+    }
+
+    @Override
+    public void copyFrom(Object source) {
+        addAll((StringHashSet) source);
+    }
+}
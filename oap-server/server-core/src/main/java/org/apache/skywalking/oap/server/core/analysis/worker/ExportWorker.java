@@ -30,6 +30,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
  */
 public class ExportWorker extends AbstractWorker<ExportEvent> {
     private MetricValuesExportService exportService;
+    private boolean exporterResolved = false;
 
     public ExportWorker(ModuleDefineHolder moduleDefineHolder) {
         super(moduleDefineHolder);
@@ -37,14 +38,33 @@ public class ExportWorker extends AbstractWorker<ExportEvent> {
 
     @Override
     public void in(ExportEvent event) {
-        if (exportService != null || getModuleDefineHolder().has(ExporterModule.NAME)) {
-            if (exportService == null) {
+        MetricValuesExportService service = exportService();
+        if (service != null) {
+            service.export(event);
+        }
+    }
+
+    /**
+     * Subscription filter at the entry of the export worker. The caller checks it before creating the {@link
+     * ExportEvent}, then the metrics without subscriber or without exporter allocate nothing.
+     *
+     * @param metricsName the name of the metrics, as defined in the OAL script.
+     * @return true if the exporter exists and subscribes the metrics of this type.
+     */
+    public boolean isSubscribed(String metricsName, ExportEvent.EventType type) {
+        MetricValuesExportService service = exportService();
+        return service != null && service.isSubscribed(metricsName, type);
+    }
+
+    private MetricValuesExportService exportService() {
+        if (!exporterResolved) {
+            if (getModuleDefineHolder().has(ExporterModule.NAME)) {
                 exportService = getModuleDefineHolder().find(ExporterModule.NAME)
                                                        .provider()
                                                        .getService(MetricValuesExportService.class);
             }
-            exportService.export(event);
+            exporterResolved = true;
         }
+        return exportService;
     }
-
 }
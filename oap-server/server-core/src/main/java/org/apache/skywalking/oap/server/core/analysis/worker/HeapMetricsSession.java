@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * Cache the rows as the {@link Metrics} objects in the heap.
+ */
+class HeapMetricsSession implements MetricsSession {
+    private final Map<Metrics, Metrics> session = new HashMap<>(100);
+
+    @Override
+    public boolean containsKey(Metrics key) {
+        return session.containsKey(key);
+    }
+
+    @Override
+    public Metrics get(Metrics key) {
+        return session.get(key);
+    }
+
+    @Override
+    public void put(Metrics metrics) {
+        session.put(metrics, metrics);
+    }
+
+    @Override
+    public void clear() {
+        session.clear();
+    }
+
+    @Override
+    public void expire(long tookTime, long maxSurvivalTime) {
+        Iterator<Metrics> iterator = session.values().iterator();
+        while (iterator.hasNext()) {
+            Metrics metrics = iterator.next();
+            metrics.extendSurvivalTime(tookTime);
+            if (metrics.getSurvivalTime() > maxSurvivalTime) {
+                iterator.remove();
+            }
+        }
+    }
+}
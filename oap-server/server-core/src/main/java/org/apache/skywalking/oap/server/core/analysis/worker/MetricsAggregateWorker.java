@@ -28,6 +28,7 @@ import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.DataCarrierMetrics;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
@@ -50,6 +51,8 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
     private final DataCarrier<Metrics> dataCarrier;
     private final MergeDataCache<Metrics> mergeDataCache;
     private CounterMetrics aggregationCounter;
+    private CounterMetrics aggregationOutputCounter;
+    private final DataCarrierMetrics dataCarrierMetrics;
 
     MetricsAggregateWorker(ModuleDefineHolder moduleDefineHolder, AbstractWorker<Metrics> nextWorker,
                            String modelName) {
@@ -75,6 +78,11 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
             "metrics_aggregation", "The number of rows in aggregation",
             new MetricsTag.Keys("metricName", "level", "dimensionality"), new MetricsTag.Values(modelName, "1", "min")
         );
+        aggregationOutputCounter = metricsCreator.createCounter(
+            "metrics_aggregation_output", "The number of rows after aggregation",
+            new MetricsTag.Keys("metricName", "level", "dimensionality"), new MetricsTag.Values(modelName, "1", "min")
+        );
+        dataCarrierMetrics = new DataCarrierMetrics(moduleDefineHolder, dataCarrier, dataCarrier.getName());
     }
 
     @Override
@@ -84,7 +92,6 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
     }
 
     private void onWork(Metrics metrics) {
-        aggregationCounter.inc();
         aggregate(metrics);
 
         if (metrics.isEndOfBatch()) {
@@ -102,6 +109,7 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
             }
         }
 
+        aggregationOutputCounter.inc(mergeDataCache.getLast().collection().size());
         mergeDataCache.getLast().collection().forEach(data -> {
             if (logger.isDebugEnabled()) {
                 logger.debug(data.toString());
@@ -138,6 +146,8 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
 
         @Override
         public void consume(List<Metrics> data) {
+            aggregationCounter.inc(data.size());
+            dataCarrierMetrics.observe();
             Iterator<Metrics> inputIterator = data.iterator();
 
             int i = 0;
@@ -21,17 +21,16 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerPoolFactory;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
 import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
@@ -39,8 +38,14 @@ import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
 import org.apache.skywalking.oap.server.core.storage.annotation.IDColumn;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.DataCarrierMetrics;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * MetricsPersistentWorker is an extension of {@link PersistenceWorker} and focuses on the Metrics data persistent.
@@ -48,27 +53,40 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 @Slf4j
 public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDataCache<Metrics>> {
     private final Model model;
-    private final Map<Metrics, Metrics> databaseSession;
+    /**
+     * The name of the metrics as defined in the OAL script, without the downsampling suffix of the model name.
+     */
+    private final String metricsName;
+    private final MetricsSession databaseSession;
     private final MergeDataCache<Metrics> mergeDataCache;
     private final IMetricsDAO metricsDAO;
     private final AbstractWorker<Metrics> nextAlarmWorker;
-    private final AbstractWorker<ExportEvent> nextExportWorker;
+    private final ExportWorker nextExportWorker;
     private final DataCarrier<Metrics> dataCarrier;
     private final MetricsTransWorker transWorker;
+    private final MetricsRollup rollup;
     private final boolean enableDatabaseSession;
+    private final DataCarrierMetrics dataCarrierMetrics;
+    private final CounterMetrics aggregationCounter;
+    private final CounterMetrics aggregationOutputCounter;
+    private final HistogramMetrics batchSizeHistogram;
 
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
-                            AbstractWorker<Metrics> nextAlarmWorker, AbstractWorker<ExportEvent> nextExportWorker,
-                            MetricsTransWorker transWorker, boolean enableDatabaseSession) {
+                            AbstractWorker<Metrics> nextAlarmWorker, ExportWorker nextExportWorker,
+                            MetricsTransWorker transWorker, MetricsRollup rollup, boolean enableDatabaseSession,
+                            OffHeapSlabPool offHeapSlabPool) {
         super(moduleDefineHolder);
         this.model = model;
-        this.databaseSession = new HashMap<>(100);
+        this.metricsName = metricsName(model);
+        this.databaseSession = enableDatabaseSession && offHeapSlabPool != null
+            ? new OffHeapMetricsSession(offHeapSlabPool) : new HeapMetricsSession();
         this.enableDatabaseSession = enableDatabaseSession;
         this.mergeDataCache = new MergeDataCache<>();
         this.metricsDAO = metricsDAO;
         this.nextAlarmWorker = nextAlarmWorker;
         this.nextExportWorker = nextExportWorker;
         this.transWorker = transWorker;
+        this.rollup = rollup;
 
         String name = "METRICS_L2_AGGREGATION";
         int size = BulkConsumePool.Creator.recommendMaxSize() / 8;
@@ -84,6 +102,26 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
 
         this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + model.getName(), name, 1, 2000);
         this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new PersistentConsumer(this));
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        boolean minute = Downsampling.Minute.equals(model.getDownsampling());
+        String dimensionality = minute ? "min" : model.getDownsampling().getName();
+        // Keep the metric name label same as the L1 and the MetricsTransWorker, without the downsampling suffix.
+        MetricsTag.Keys keys = new MetricsTag.Keys("metricName", "level", "dimensionality");
+        MetricsTag.Values values = new MetricsTag.Values(metricsName, "2", dimensionality);
+        // The hour, day and month inputs of the L2 aggregation have been counted in the MetricsTransWorker.
+        aggregationCounter = minute
+            ? metricsCreator.createCounter("metrics_aggregation", "The number of rows in aggregation", keys, values)
+            : null;
+        aggregationOutputCounter = metricsCreator.createCounter(
+            "metrics_aggregation_output", "The number of rows after aggregation", keys, values);
+        batchSizeHistogram = metricsCreator.createHistogramMetric(
+            "metrics_persistence_batch_size", "The number of rows prepared in one persistence batch",
+            keys, values, 10, 100, 1000, 10000, 50000
+        );
+        dataCarrierMetrics = new DataCarrierMetrics(moduleDefineHolder, dataCarrier, dataCarrier.getName());
     }
 
     @Override
@@ -107,12 +145,19 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
     @Override
     public void prepareBatch(Collection<Metrics> lastCollection, List<PrepareRequest> prepareRequests) {
         long start = System.currentTimeMillis();
+        if (Objects.nonNull(rollup)) {
+            lastCollection = prepareRollup(lastCollection, start, prepareRequests);
+        }
+        aggregationOutputCounter.inc(lastCollection.size());
+        batchSizeHistogram.observe(lastCollection.size());
 
         int i = 0;
         int batchGetSize = 2000;
         Metrics[] metrics = null;
+        boolean exportIncrement = isExportSubscribed(ExportEvent.EventType.INCREMENT);
+        boolean exportTotal = isExportSubscribed(ExportEvent.EventType.TOTAL);
         for (Metrics data : lastCollection) {
-            if (Objects.nonNull(nextExportWorker)) {
+            if (exportIncrement) {
                 ExportEvent event = new ExportEvent(data, ExportEvent.EventType.INCREMENT);
                 nextExportWorker.in(event);
             }
@@ -140,11 +185,12 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
                         if (cacheMetric != null) {
                             cacheMetric.combine(metric);
                             cacheMetric.calculate();
+                            databaseSession.put(cacheMetric);
                             prepareRequests.add(metricsDAO.prepareBatchUpdate(model, cacheMetric));
-                            nextWorker(cacheMetric);
+                            nextWorker(cacheMetric, exportTotal);
                         } else {
                             prepareRequests.add(metricsDAO.prepareBatchInsert(model, metric));
-                            nextWorker(metric);
+                            nextWorker(metric, exportTotal);
                         }
                     }
                 } catch (Throwable t) {
@@ -163,11 +209,65 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         }
     }
 
-    private void nextWorker(Metrics metric) {
+    /**
+     * Hold the rows of this round in the {@link #rollup}, and prepare the rebuilt rows of it.
+     *
+     * @return the released rows, which should be merged with the stored ones.
+     */
+    private Collection<Metrics> prepareRollup(Collection<Metrics> lastCollection, long now,
+                                              List<PrepareRequest> prepareRequests) {
+        rollup.hold(lastCollection, now);
+        List<Metrics> released = new ArrayList<>();
+        List<Metrics> rebuilding = new ArrayList<>();
+        rollup.release(now, released, rebuilding);
+        if (rebuilding.isEmpty()) {
+            return released;
+        }
+
+        try {
+            List<Metrics> notRebuilt = new ArrayList<>();
+            List<Metrics> rebuilt = rollup.rebuild(rebuilding, notRebuilt);
+            if (!rebuilt.isEmpty()) {
+                syncStorageToCache(rebuilt.toArray(new Metrics[0]));
+                boolean exportTotal = isExportSubscribed(ExportEvent.EventType.TOTAL);
+                for (Metrics metric : rebuilt) {
+                    if (databaseSession.containsKey(metric)) {
+                        prepareRequests.add(metricsDAO.prepareBatchUpdate(model, metric));
+                    } else {
+                        prepareRequests.add(metricsDAO.prepareBatchInsert(model, metric));
+                    }
+                    databaseSession.put(metric);
+                    nextWorker(metric, exportTotal);
+                }
+            }
+            released.addAll(notRebuilt);
+        } catch (Throwable t) {
+            log.error("Rebuild metrics of model {} failure, merge them with the stored rows.", model.getName(), t);
+            released.addAll(rebuilding);
+        }
+        return released;
+    }
+
+    private boolean isExportSubscribed(ExportEvent.EventType type) {
+        return Objects.nonNull(nextExportWorker) && nextExportWorker.isSubscribed(metricsName, type);
+    }
+
+    /**
+     * @return the model name without the downsampling suffix, such as `service_cpm` of `service_cpm_hour`.
+     */
+    static String metricsName(Model model) {
+        String suffix = Const.ID_SPLIT + model.getDownsampling().getName();
+        if (Downsampling.Minute.equals(model.getDownsampling()) || !model.getName().endsWith(suffix)) {
+            return model.getName();
+        }
+        return model.getName().substring(0, model.getName().length() - suffix.length());
+    }
+
+    private void nextWorker(Metrics metric, boolean exportTotal) {
         if (Objects.nonNull(nextAlarmWorker)) {
             nextAlarmWorker.in(metric);
         }
-        if (Objects.nonNull(nextExportWorker)) {
+        if (exportTotal) {
             ExportEvent event = new ExportEvent(metric, ExportEvent.EventType.TOTAL);
             nextExportWorker.in(event);
         }
@@ -206,7 +306,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         if (notInCacheIds.size() > 0) {
             List<Metrics> metricsList = metricsDAO.multiGet(model, notInCacheIds);
             for (Metrics metric : metricsList) {
-                databaseSession.put(metric, metric);
+                databaseSession.put(metric);
             }
         }
     }
@@ -214,15 +314,8 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
     @Override
     public void endOfRound(long tookTime) {
         if (enableDatabaseSession) {
-            Iterator<Metrics> iterator = databaseSession.values().iterator();
-            while (iterator.hasNext()) {
-                Metrics metrics = iterator.next();
-                metrics.extendSurvivalTime(tookTime);
-                // 70,000ms means more than one minute.
-                if (metrics.getSurvivalTime() > 70000) {
-                    iterator.remove();
-                }
-            }
+            // 70,000ms means more than one minute.
+            databaseSession.expire(tookTime, 70000);
         }
     }
 
@@ -246,6 +339,10 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
 
         @Override
         public void consume(List<Metrics> data) {
+            if (Objects.nonNull(aggregationCounter)) {
+                aggregationCounter.inc(data.size());
+            }
+            dataCarrierMetrics.observe();
             data.forEach(persistent::onWork);
         }
 
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+
+/**
+ * MetricsRollup holds the hour, day and month metrics of a {@link MetricsPersistentWorker} in memory, rather than
+ * reading and writing the same row in every persistence round. A row is released for persistence once its time bucket
+ * closes, or when it has been held longer than the flush interval.
+ *
+ * The held rows are lost if the OAP crashes. So the rows of the time buckets which were open around the startup are
+ * rebuilt from the stored rows of the finer precision after the buckets close, see {@link #rebuild(List, List)}. The
+ * other OAP nodes could hold the increments of the same rows, as the routing changes when nodes join or leave. They
+ * release the rows of a closed bucket in their next persistence round, so the rebuild waits another flush interval,
+ * which should be longer than the persistence period, and then the rebuilt row includes their increments.
+ */
+class MetricsRollup {
+    /**
+     * The delay of closing a time bucket per precision level, so the closed rows of the finer precision have been
+     * persisted before the coarser ones are rebuilt from them.
+     */
+    private static final long CLOSE_DELAY_PER_LEVEL = 60_000L;
+    /**
+     * The max number of the finer precision rows read in one query while rebuilding.
+     */
+    private static final int MAX_SOURCE_IDS_PER_READ = 2000;
+
+    private final Downsampling downsampling;
+    private final long flushInterval;
+    private final long closeDelay;
+    private final IMetricsDAO metricsDAO;
+    private final Model sourceModel;
+    private final long replayFromBucket;
+    private final long replayToBucket;
+    private final Map<Metrics, HeldMetrics> heldMetrics = new HashMap<>();
+
+    /**
+     * @param model         of the hour, day or month metrics.
+     * @param flushInterval the max time of holding a row, in millisecond.
+     * @param metricsDAO    to read the rows of the finer precision.
+     * @param sourceModel   of the finer precision to rebuild the rows from, null means no rebuild.
+     * @param startTime     of the OAP.
+     */
+    MetricsRollup(Model model, long flushInterval, IMetricsDAO metricsDAO, Model sourceModel, long startTime) {
+        this.downsampling = model.getDownsampling();
+        this.flushInterval = flushInterval;
+        switch (downsampling) {
+            case Hour:
+                this.closeDelay = CLOSE_DELAY_PER_LEVEL;
+                break;
+            case Day:
+                this.closeDelay = CLOSE_DELAY_PER_LEVEL * 2;
+                break;
+            case Month:
+                this.closeDelay = CLOSE_DELAY_PER_LEVEL * 3;
+                break;
+            default:
+                throw new UnexpectedException("Metrics rollup doesn't support " + downsampling.getName());
+        }
+        this.metricsDAO = metricsDAO;
+        this.sourceModel = sourceModel;
+        // Any row held before the crash belongs to a time bucket which was open or not flushed yet in this range.
+        this.replayFromBucket = TimeBucket.getTimeBucket(startTime - flushInterval - closeDelay, downsampling);
+        this.replayToBucket = TimeBucket.getTimeBucket(startTime, downsampling);
+    }
+
+    /**
+     * Merge the rows of this round into the held rows.
+     */
+    void hold(Collection<Metrics> metrics, long now) {
+        for (Metrics metric : metrics) {
+            HeldMetrics held = heldMetrics.get(metric);
+            if (held == null) {
+                heldMetrics.put(metric, new HeldMetrics(metric, now));
+            } else {
+                held.metrics.combine(metric);
+                held.metrics.calculate();
+            }
+        }
+    }
+
+    /**
+     * Release the rows whose time bucket closed, or which have been held longer than the flush interval.
+     *
+     * @param released the rows to persist as usual, merged with the stored ones.
+     * @param rebuilt  the rows to be rebuilt from the finer precision, see {@link #rebuild(List, List)}.
+     */
+    void release(long now, List<Metrics> released, List<Metrics> rebuilt) {
+        long openBucket = TimeBucket.getTimeBucket(now - closeDelay, downsampling);
+        long rebuildBucket = TimeBucket.getTimeBucket(now - closeDelay - flushInterval, downsampling);
+        Iterator<HeldMetrics> iterator = heldMetrics.values().iterator();
+        while (iterator.hasNext()) {
+            HeldMetrics held = iterator.next();
+            long timeBucket = held.metrics.getTimeBucket();
+            boolean closed = timeBucket < openBucket;
+            if (closed && sourceModel != null && timeBucket >= replayFromBucket && timeBucket <= replayToBucket) {
+                // Wait for the other nodes to release their rows of the closed bucket, which are merged with the
+                // stored row. The rebuilt row replaces it afterwards, so their increments are not counted twice.
+                if (timeBucket < rebuildBucket) {
+                    iterator.remove();
+                    rebuilt.add(held.metrics);
+                }
+            } else if (closed || now - held.since >= flushInterval) {
+                iterator.remove();
+                released.add(held.metrics);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the rows from all the stored rows of the finer precision in their time buckets. The results replace the
+     * stored rows, the held increments are included in the finer rows already.
+     *
+     * @param metrics    the rows to rebuild.
+     * @param notRebuilt the rows without any stored row of the finer precision, which should be persisted as usual.
+     * @return the rebuilt rows.
+     */
+    List<Metrics> rebuild(List<Metrics> metrics, List<Metrics> notRebuilt) throws IOException {
+        Map<String, Metrics> rebuiltRows = new HashMap<>();
+        List<String> sourceIds = new ArrayList<>();
+        for (Metrics metric : metrics) {
+            sourceIds.addAll(sourceIds(metric));
+            if (sourceIds.size() >= MAX_SOURCE_IDS_PER_READ) {
+                readSources(sourceIds, rebuiltRows);
+                sourceIds.clear();
+            }
+        }
+        if (!sourceIds.isEmpty()) {
+            readSources(sourceIds, rebuiltRows);
+        }
+
+        List<Metrics> rebuilt = new ArrayList<>(metrics.size());
+        for (Metrics metric : metrics) {
+            Metrics rebuiltRow = rebuiltRows.get(metric.id());
+            if (rebuiltRow == null) {
+                notRebuilt.add(metric);
+            } else {
+                rebuiltRow.calculate();
+                rebuilt.add(rebuiltRow);
+            }
+        }
+        return rebuilt;
+    }
+
+    private void readSources(List<String> sourceIds, Map<String, Metrics> rebuiltRows) throws IOException {
+        for (Metrics source : metricsDAO.multiGet(sourceModel, sourceIds)) {
+            Metrics downsampled = downsample(source);
+            Metrics rebuiltRow = rebuiltRows.putIfAbsent(downsampled.id(), downsampled);
+            if (rebuiltRow != null) {
+                rebuiltRow.combine(downsampled);
+            }
+        }
+    }
+
+    private List<String> sourceIds(Metrics metrics) {
+        // The metrics id always starts with the time bucket.
+        String entity = metrics.id().substring(String.valueOf(metrics.getTimeBucket()).length());
+        Downsampling sourceDownsampling = sourceModel.getDownsampling();
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(TimeBucket.getTimestamp(metrics.getTimeBucket(), downsampling));
+        Calendar end = (Calendar) calendar.clone();
+        end.add(calendarField(downsampling), 1);
+
+        Set<String> ids = new LinkedHashSet<>();
+        while (calendar.before(end)) {
+            ids.add(TimeBucket.getTimeBucket(calendar.getTimeInMillis(), sourceDownsampling) + entity);
+            calendar.add(calendarField(sourceDownsampling), 1);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private Metrics downsample(Metrics source) {
+        switch (downsampling) {
+            case Hour:
+                return source.toHour();
+            case Day:
+                return source.toDay();
+            default:
+                return source.toMonth();
+        }
+    }
+
+    private static int calendarField(Downsampling downsampling) {
+        switch (downsampling) {
+            case Minute:
+                return Calendar.MINUTE;
+            case Hour:
+                return Calendar.HOUR_OF_DAY;
+            case Day:
+                return Calendar.DAY_OF_MONTH;
+            case Month:
+                return Calendar.MONTH;
+            default:
+                throw new UnexpectedException("Unknown downsampling value.");
+        }
+    }
+
+    private static class HeldMetrics {
+        private final Metrics metrics;
+        private final long since;
+
+        private HeldMetrics(Metrics metrics, long since) {
+            this.metrics = metrics;
+            this.since = since;
+        }
+    }
+}
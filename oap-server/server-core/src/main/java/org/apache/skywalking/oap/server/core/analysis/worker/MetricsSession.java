@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * MetricsSession caches the stored rows of a {@link MetricsPersistentWorker}, so the rows updated in the continuous
+ * persistence rounds are not read from the storage again.
+ */
+interface MetricsSession {
+    boolean containsKey(Metrics key);
+
+    /**
+     * @return the cached row with the same id, or null if not cached. The row should be put back after being changed.
+     */
+    Metrics get(Metrics key);
+
+    void put(Metrics metrics);
+
+    void clear();
+
+    /**
+     * Extend the time in the cache of all rows, and remove the rows cached longer than the max survival time.
+     */
+    void expire(long tookTime, long maxSurvivalTime);
+}
@@ -72,6 +72,29 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
     @Getter
     private boolean enableDatabaseSession;
 
+    /**
+     * Hold and forward CoreModuleConfig#databaseSessionOffHeap to the persistent worker.
+     */
+    @Setter
+    @Getter
+    private boolean databaseSessionOffHeap;
+
+    /**
+     * Hold CoreModuleConfig#databaseSessionOffHeapMaxSize, the budget of the slab pool shared by the persistent workers.
+     */
+    @Setter
+    @Getter
+    private int databaseSessionOffHeapMaxSize;
+
+    private OffHeapSlabPool offHeapSlabPool;
+
+    /**
+     * Hold and forward CoreModuleConfig#downsamplingFlushInterval to the hour, day and month persistent workers.
+     */
+    @Setter
+    @Getter
+    private long downsamplingFlushInterval;
+
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
     }
@@ -113,32 +136,38 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
         MetricsPersistentWorker dayPersistentWorker = null;
         MetricsPersistentWorker monthPersistentWorker = null;
 
+        Model minuteModel = modelSetter.putIfAbsent(
+            metricsClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Minute), false);
+
         MetricsTransWorker transWorker = null;
         if (stream.supportDownSampling()) {
+            Model hourModel = null;
+            Model dayModel = null;
             if (configService.shouldToHour()) {
-                Model model = modelSetter.putIfAbsent(
+                hourModel = modelSetter.putIfAbsent(
                     metricsClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Hour), false);
-                hourPersistentWorker = worker(moduleDefineHolder, metricsDAO, model);
+                hourPersistentWorker = worker(moduleDefineHolder, metricsDAO, hourModel, minuteModel);
             }
             if (configService.shouldToDay()) {
-                Model model = modelSetter.putIfAbsent(
+                dayModel = modelSetter.putIfAbsent(
                     metricsClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Day), false);
-                dayPersistentWorker = worker(moduleDefineHolder, metricsDAO, model);
+                dayPersistentWorker = worker(
+                    moduleDefineHolder, metricsDAO, dayModel, hourModel != null ? hourModel : minuteModel);
             }
             if (configService.shouldToMonth()) {
                 Model model = modelSetter.putIfAbsent(
                     metricsClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Month), false);
-                monthPersistentWorker = worker(moduleDefineHolder, metricsDAO, model);
+                // Rebuilding a month from the minutes reads too many rows, don't rebuild in that case.
+                monthPersistentWorker = worker(
+                    moduleDefineHolder, metricsDAO, model, dayModel != null ? dayModel : hourModel);
             }
-            
+
             transWorker = new MetricsTransWorker(
                 moduleDefineHolder, stream.name(), hourPersistentWorker, dayPersistentWorker, monthPersistentWorker);
         }
 
-        Model model = modelSetter.putIfAbsent(
-            metricsClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Minute), false);
         MetricsPersistentWorker minutePersistentWorker = minutePersistentWorker(
-            moduleDefineHolder, metricsDAO, model, transWorker);
+            moduleDefineHolder, metricsDAO, minuteModel, transWorker);
 
         String remoteReceiverWorkerName = stream.name() + "_rec";
         IWorkerInstanceSetter workerInstanceSetter = moduleDefineHolder.find(CoreModule.NAME)
@@ -161,17 +190,45 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
         ExportWorker exportWorker = new ExportWorker(moduleDefineHolder);
 
         MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(
-            moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker, enableDatabaseSession);
+            moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker, null,
+            enableDatabaseSession, offHeapSlabPool()
+        );
         persistentWorkers.add(minutePersistentWorker);
 
         return minutePersistentWorker;
     }
 
-    private MetricsPersistentWorker worker(ModuleDefineHolder moduleDefineHolder, IMetricsDAO metricsDAO, Model model) {
+    /**
+     * Create the persistent worker of hour, day or month metrics.
+     *
+     * @param sourceModel the finer precision model, which the metrics could be rebuilt from.
+     */
+    private MetricsPersistentWorker worker(ModuleDefineHolder moduleDefineHolder, IMetricsDAO metricsDAO, Model model,
+                                           Model sourceModel) {
+        MetricsRollup rollup = null;
+        if (downsamplingFlushInterval > 0) {
+            rollup = new MetricsRollup(
+                model, downsamplingFlushInterval * 1000, metricsDAO, sourceModel, System.currentTimeMillis());
+        }
         MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(
-            moduleDefineHolder, model, metricsDAO, null, null, null, enableDatabaseSession);
+            moduleDefineHolder, model, metricsDAO, null, null, null, rollup, enableDatabaseSession,
+            offHeapSlabPool()
+        );
         persistentWorkers.add(persistentWorker);
 
         return persistentWorker;
     }
+
+    /**
+     * @return the slab pool shared by all the persistent workers, or null if the database session is in the heap.
+     */
+    private OffHeapSlabPool offHeapSlabPool() {
+        if (!enableDatabaseSession || !databaseSessionOffHeap) {
+            return null;
+        }
+        if (offHeapSlabPool == null) {
+            offHeapSlabPool = new OffHeapSlabPool(databaseSessionOffHeapMaxSize * 1024L * 1024L);
+        }
+        return offHeapSlabPool;
+    }
 }
@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+
+/**
+ * Cache the rows out of the heap, in their {@link RemoteData} binary form. The records are appended into the direct
+ * memory slabs, and located by an open addressing index of the 64 bits hash of the {@link Metrics#id()}, which only
+ * holds three longs per row in the heap. A row is rebuilt from its record when it is read, so the cached rows don't
+ * stay in the old generation.
+ *
+ * The rows of the fixed size, such as the counters, the averages and the CPMs, are written back into their own records
+ * after being merged. The rows having the maps, such as the percentile and the heatmap, change their size in every
+ * merge, so they are cached as the objects in the heap. The slabs are compacted when more than half of the bytes are
+ * taken by the removed or moved records.
+ *
+ * The slabs are acquired from the {@link OffHeapSlabPool} shared by all the sessions, and given back when they are
+ * cleared or compacted. The rows are cached in the heap when the pool is exhausted.
+ *
+ * This is not thread safe, same as the {@link MetricsPersistentWorker} which uses it in the persistence thread only.
+ */
+class OffHeapMetricsSession implements MetricsSession {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final long EMPTY = 0L;
+    private static final long REMOVED = 1L;
+    /**
+     * The record is the length of the id, the length of the data, the id bytes and the data bytes.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    private final OffHeapSlabPool slabPool;
+    private final int slabSize;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private ByteBuffer appendingSlab;
+    private long liveBytes;
+    private long deadBytes;
+
+    private long[] hashes;
+    private long[] addresses;
+    private long[] survivalTimes;
+    private int size;
+    private int removed;
+
+    private final Map<Metrics, Metrics> heapRows = new HashMap<>();
+    private Class<? extends Metrics> metricsClass;
+
+    OffHeapMetricsSession(OffHeapSlabPool slabPool) {
+        this.slabPool = slabPool;
+        this.slabSize = slabPool.getSlabSize();
+        resetIndex(64);
+    }
+
+    @Override
+    public boolean containsKey(Metrics key) {
+        if (heapRows.containsKey(key)) {
+            return true;
+        }
+        byte[] id = idBytes(key);
+        return indexOf(id, hash(id)) >= 0;
+    }
+
+    @Override
+    public Metrics get(Metrics key) {
+        Metrics row = heapRows.get(key);
+        if (row != null) {
+            return row;
+        }
+        byte[] id = idBytes(key);
+        int slot = indexOf(id, hash(id));
+        return slot < 0 ? null : read(addresses[slot]);
+    }
+
+    @Override
+    public void put(Metrics metrics) {
+        metricsClass = metrics.getClass();
+        RemoteData data = metrics.serialize().build();
+        byte[] id = idBytes(metrics);
+        long hash = hash(id);
+        int slot = indexOf(id, hash);
+        int dataSize = data.getSerializedSize();
+        int recordSize = HEADER_SIZE + id.length + dataSize;
+
+        if (data.getDataListsCount() > 0 || recordSize > slabSize) {
+            if (slot >= 0) {
+                remove(slot);
+            }
+            heapRows.put(metrics, metrics);
+            return;
+        }
+
+        if (slot >= 0) {
+            long address = addresses[slot];
+            ByteBuffer slab = slabs.get(slabIndex(address));
+            int offset = offset(address);
+            if (slab.getInt(offset + 4) == dataSize) {
+                writeData(slab, offset + HEADER_SIZE + id.length, data);
+                return;
+            }
+
+            ByteBuffer target = slabFor(recordSize);
+            if (target == null) {
+                remove(slot);
+                heapRows.put(metrics, metrics);
+                return;
+            }
+            int oldRecordSize = recordSize(slab, offset);
+            liveBytes -= oldRecordSize;
+            deadBytes += oldRecordSize;
+            addresses[slot] = append(target, id, data, recordSize);
+            return;
+        }
+
+        heapRows.remove(metrics);
+        ByteBuffer target = slabFor(recordSize);
+        if (target == null) {
+            heapRows.put(metrics, metrics);
+            return;
+        }
+        insert(hash, append(target, id, data, recordSize));
+    }
+
+    @Override
+    public void clear() {
+        resetIndex(hashes.length);
+        slabPool.release(slabs);
+        slabs.clear();
+        appendingSlab = null;
+        liveBytes = 0;
+        deadBytes = 0;
+        heapRows.clear();
+    }
+
+    @Override
+    public void expire(long tookTime, long maxSurvivalTime) {
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (isLive(slot)) {
+                survivalTimes[slot] += tookTime;
+                if (survivalTimes[slot] > maxSurvivalTime) {
+                    remove(slot);
+                }
+            }
+        }
+
+        Iterator<Metrics> iterator = heapRows.values().iterator();
+        while (iterator.hasNext()) {
+            Metrics metrics = iterator.next();
+            metrics.extendSurvivalTime(tookTime);
+            if (metrics.getSurvivalTime() > maxSurvivalTime) {
+                iterator.remove();
+            }
+        }
+
+        if (deadBytes > liveBytes && deadBytes >= slabSize) {
+            compact();
+        }
+    }
+
+    int size() {
+        return size + heapRows.size();
+    }
+
+    int slabCount() {
+        return slabs.size();
+    }
+
+    /**
+     * Copy the live records into the new slabs, and give back the old slabs to the pool.
+     */
+    private void compact() {
+        List<ByteBuffer> oldSlabs = new ArrayList<>(slabs);
+        slabs.clear();
+        appendingSlab = null;
+        liveBytes = 0;
+        deadBytes = 0;
+
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (!isLive(slot)) {
+                continue;
+            }
+            long address = addresses[slot];
+            ByteBuffer slab = oldSlabs.get(slabIndex(address));
+            int offset = offset(address);
+            int recordSize = recordSize(slab, offset);
+            ByteBuffer target = slabFor(recordSize);
+            if (target == null) {
+                Metrics row = read(slab, offset);
+                heapRows.put(row, row);
+                hashes[slot] = REMOVED;
+                size--;
+                removed++;
+                continue;
+            }
+            ByteBuffer record = slab.duplicate();
+            record.limit(offset + recordSize);
+            record.position(offset);
+            int newOffset = target.position();
+            target.put(record);
+            liveBytes += recordSize;
+            addresses[slot] = address(slabs.size() - 1, newOffset);
+        }
+
+        slabPool.release(oldSlabs);
+    }
+
+    private Metrics read(long address) {
+        return read(slabs.get(slabIndex(address)), offset(address));
+    }
+
+    private Metrics read(ByteBuffer slab, int offset) {
+        int idLength = slab.getInt(offset);
+        int dataLength = slab.getInt(offset + 4);
+        ByteBuffer data = slab.duplicate();
+        data.limit(offset + HEADER_SIZE + idLength + dataLength);
+        data.position(offset + HEADER_SIZE + idLength);
+        try {
+            Metrics metrics = metricsClass.newInstance();
+            metrics.deserialize(RemoteData.parseFrom(data));
+            return metrics;
+        } catch (IOException | InstantiationException | IllegalAccessException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the slab having the room of the record, or null if the slab pool is exhausted.
+     */
+    private ByteBuffer slabFor(int recordSize) {
+        if (appendingSlab != null && appendingSlab.remaining() >= recordSize) {
+            return appendingSlab;
+        }
+        ByteBuffer slab = slabPool.acquire();
+        if (slab == null) {
+            return null;
+        }
+        slabs.add(slab);
+        appendingSlab = slab;
+        return slab;
+    }
+
+    private long append(ByteBuffer slab, byte[] id, RemoteData data, int recordSize) {
+        int offset = slab.position();
+        slab.putInt(id.length).putInt(recordSize - HEADER_SIZE - id.length).put(id);
+        writeData(slab, slab.position(), data);
+        slab.position(offset + recordSize);
+        liveBytes += recordSize;
+        return address(slabs.size() - 1, offset);
+    }
+
+    private void writeData(ByteBuffer slab, int position, RemoteData data) {
+        ByteBuffer target = slab.duplicate();
+        target.position(position);
+        try {
+            CodedOutputStream output = CodedOutputStream.newInstance(target);
+            data.writeTo(output);
+            output.flush();
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    private int indexOf(byte[] id, long hash) {
+        int mask = hashes.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            long slotHash = hashes[slot];
+            if (slotHash == EMPTY) {
+                return -1;
+            }
+            if (slotHash == hash && idEquals(addresses[slot], id)) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(long hash, long address) {
+        if ((size + removed + 1) * 4L > hashes.length * 3L) {
+            rehash();
+        }
+        int mask = hashes.length - 1;
+        int slot = spread(hash) & mask;
+        while (isLive(slot)) {
+            slot = (slot + 1) & mask;
+        }
+        if (hashes[slot] == REMOVED) {
+            removed--;
+        }
+        hashes[slot] = hash;
+        addresses[slot] = address;
+        survivalTimes[slot] = 0;
+        size++;
+    }
+
+    private void remove(int slot) {
+        int recordSize = recordSize(addresses[slot]);
+        liveBytes -= recordSize;
+        deadBytes += recordSize;
+        hashes[slot] = REMOVED;
+        size--;
+        removed++;
+    }
+
+    /**
+     * Double the index when more than half of it is live, otherwise only clean up the removed slots.
+     */
+    private void rehash() {
+        long[] oldHashes = hashes;
+        long[] oldAddresses = addresses;
+        long[] oldSurvivalTimes = survivalTimes;
+        resetIndex((size + 1) * 2 > oldHashes.length ? oldHashes.length * 2 : oldHashes.length);
+
+        int mask = hashes.length - 1;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] == EMPTY || oldHashes[i] == REMOVED) {
+                continue;
+            }
+            int slot = spread(oldHashes[i]) & mask;
+            while (hashes[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = oldHashes[i];
+            addresses[slot] = oldAddresses[i];
+            survivalTimes[slot] = oldSurvivalTimes[i];
+            size++;
+        }
+    }
+
+    private void resetIndex(int capacity) {
+        if (hashes != null && hashes.length == capacity) {
+            Arrays.fill(hashes, EMPTY);
+        } else {
+            hashes = new long[capacity];
+            addresses = new long[capacity];
+            survivalTimes = new long[capacity];
+        }
+        size = 0;
+        removed = 0;
+    }
+
+    private boolean isLive(int slot) {
+        return hashes[slot] != EMPTY && hashes[slot] != REMOVED;
+    }
+
+    private boolean idEquals(long address, byte[] id) {
+        ByteBuffer slab = slabs.get(slabIndex(address));
+        int offset = offset(address);
+        if (slab.getInt(offset) != id.length) {
+            return false;
+        }
+        int start = offset + HEADER_SIZE;
+        for (int i = 0; i < id.length; i++) {
+            if (slab.get(start + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int recordSize(long address) {
+        return recordSize(slabs.get(slabIndex(address)), offset(address));
+    }
+
+    private static int recordSize(ByteBuffer slab, int offset) {
+        return HEADER_SIZE + slab.getInt(offset) + slab.getInt(offset + 4);
+    }
+
+    private static byte[] idBytes(Metrics metrics) {
+        return metrics.id().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The hashes of {@link #EMPTY} and {@link #REMOVED} are moved, as they mark the slots.
+     */
+    private static long hash(byte[] id) {
+        long hash = HASH_FUNCTION.hashBytes(id).asLong();
+        return hash == EMPTY || hash == REMOVED ? hash + 2 : hash;
+    }
+
+    private static int spread(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static long address(int slabIndex, int offset) {
+        return ((long) slabIndex << 32) | offset;
+    }
+
+    private static int slabIndex(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The direct memory slabs shared by all the {@link OffHeapMetricsSession}s. The slabs allocated in total never exceed
+ * the budget, and the slabs released by a session are reused by any other one, rather than being kept by each session
+ * for itself. A session caches its rows in the heap when no slab could be acquired.
+ */
+@Slf4j
+class OffHeapSlabPool {
+    static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    @Getter
+    private final int slabSize;
+    private final long maxBytes;
+    private final Deque<ByteBuffer> freeSlabs = new ArrayDeque<>();
+    private long allocatedBytes;
+    private boolean exhausted;
+
+    /**
+     * @param maxBytes the budget of all the slabs.
+     */
+    OffHeapSlabPool(long maxBytes) {
+        this(DEFAULT_SLAB_SIZE, maxBytes);
+    }
+
+    OffHeapSlabPool(int slabSize, long maxBytes) {
+        this.slabSize = slabSize;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return a cleared slab, or null if the budget or the direct memory is exhausted.
+     */
+    synchronized ByteBuffer acquire() {
+        ByteBuffer slab = freeSlabs.poll();
+        if (slab != null) {
+            slab.clear();
+            return slab;
+        }
+        if (allocatedBytes + slabSize > maxBytes) {
+            warnExhausted(null);
+            return null;
+        }
+        try {
+            slab = ByteBuffer.allocateDirect(slabSize);
+        } catch (OutOfMemoryError e) {
+            warnExhausted(e);
+            return null;
+        }
+        allocatedBytes += slabSize;
+        return slab;
+    }
+
+    /**
+     * Give back the slabs, which are not used by the session any more.
+     */
+    synchronized void release(Collection<ByteBuffer> slabs) {
+        freeSlabs.addAll(slabs);
+    }
+
+    synchronized long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    synchronized int freeSlabCount() {
+        return freeSlabs.size();
+    }
+
+    private void warnExhausted(OutOfMemoryError e) {
+        if (!exhausted) {
+            exhausted = true;
+            log.warn(
+                "The direct memory of the database session is exhausted at {} bytes, the rows beyond it are cached in the heap.",
+                allocatedBytes, e
+            );
+        }
+    }
+}
@@ -19,17 +19,29 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.io.IOException;
+import java.util.List;
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerPoolFactory;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.DataCarrierMetrics;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * RecordPersistentWorker buffers the records of one model in a bounded queue, and prepares the insert requests of them
+ * in batches out of the receiver threads. The storage implementation bulks the requests, see {@link
+ * IBatchDAO#asynchronous(InsertRequest)}.
+ */
 public class RecordPersistentWorker extends AbstractWorker<Record> {
 
     private static final Logger logger = LoggerFactory.getLogger(RecordPersistentWorker.class);
@@ -37,21 +49,64 @@ public class RecordPersistentWorker extends AbstractWorker<Record> {
     private final Model model;
     private final IRecordDAO recordDAO;
     private final IBatchDAO batchDAO;
+    private final DataCarrier<Record> dataCarrier;
+    private final DataCarrierMetrics dataCarrierMetrics;
 
     RecordPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IRecordDAO recordDAO) {
         super(moduleDefineHolder);
         this.model = model;
         this.recordDAO = recordDAO;
         this.batchDAO = moduleDefineHolder.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
+
+        String name = "RECORD_PERSISTENT";
+        int size = BulkConsumePool.Creator.recommendMaxSize() / 8;
+        if (size == 0) {
+            size = 1;
+        }
+        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 20);
+        try {
+            ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
+        } catch (Exception e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+
+        this.dataCarrier = new DataCarrier<>("RecordPersistentWorker." + model.getName(), name, 1, 2000);
+        this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new PersistentConsumer());
+        this.dataCarrierMetrics = new DataCarrierMetrics(moduleDefineHolder, dataCarrier, dataCarrier.getName());
     }
 
     @Override
     public void in(Record record) {
-        try {
-            InsertRequest insertRequest = recordDAO.prepareBatchInsert(model, record);
-            batchDAO.asynchronous(insertRequest);
-        } catch (IOException e) {
-            logger.error(e.getMessage(), e);
+        dataCarrier.produce(record);
+    }
+
+    private class PersistentConsumer implements IConsumer<Record> {
+
+        @Override
+        public void init() {
+
+        }
+
+        @Override
+        public void consume(List<Record> data) {
+            dataCarrierMetrics.observe();
+            for (Record record : data) {
+                try {
+                    InsertRequest insertRequest = recordDAO.prepareBatchInsert(model, record);
+                    batchDAO.asynchronous(insertRequest);
+                } catch (IOException e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void onError(List<Record> data, Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        @Override
+        public void onExit() {
         }
     }
 }
@@ -85,6 +85,16 @@ public class TopNStreamProcessor implements StreamProcessor<TopN> {
         workers.put(topNClass, persistentWorker);
     }
 
+    /**
+     * Check before building the record, the records which can't enter the current top N are unnecessary.
+     *
+     * @return true if the record of this type, service and latency could enter the current top N.
+     */
+    public boolean isCandidate(Class<? extends TopN> topNClass, int serviceId, long latency) {
+        TopNWorker worker = workers.get(topNClass);
+        return worker != null && worker.isCandidate(serviceId, latency);
+    }
+
     public void in(TopN topN) {
         TopNWorker worker = workers.get(topN.getClass());
         if (worker != null) {
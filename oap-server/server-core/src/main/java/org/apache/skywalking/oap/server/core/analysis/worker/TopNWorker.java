@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.core.analysis.data.LimitedSizeDataCache;
@@ -44,6 +45,16 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
     private final DataCarrier<TopN> dataCarrier;
     private long reportCycle;
     private volatile long lastReportTimestamp;
+    /**
+     * The latency of the smallest one in the full top N of each service, tagged with the window it is read from. The
+     * candidates not greater than the one of the current window would be rejected by the cache, so they are filtered
+     * before queuing.
+     */
+    private final ConcurrentHashMap<Integer, Threshold> thresholds = new ConcurrentHashMap<>();
+    /**
+     * Increased after each switch, a threshold read before the switch never filters the candidates of the new window.
+     */
+    private volatile long window;
 
     TopNWorker(ModuleDefineHolder moduleDefineHolder, Model model, int topNSize, long reportCycle,
         IRecordDAO recordDAO) {
@@ -60,12 +71,26 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
 
     @Override
     public void cacheData(TopN data) {
+        // Read before the collection, the switch moves the pointer before increasing it.
+        final long writingWindow = window;
+        TopN smallest;
         limitedSizeDataCache.writing();
         try {
-            limitedSizeDataCache.add(data);
+            smallest = limitedSizeDataCache.add(data);
         } finally {
             limitedSizeDataCache.finishWriting();
         }
+        if (smallest != null) {
+            thresholds.put(smallest.getServiceId(), new Threshold(writingWindow, smallest.getLatency()));
+        }
+    }
+
+    /**
+     * @return true if the record of this service and latency could enter the current top N.
+     */
+    public boolean isCandidate(int serviceId, long latency) {
+        Threshold threshold = thresholds.get(serviceId);
+        return threshold == null || threshold.window != window || latency > threshold.latency;
     }
 
     @Override
@@ -86,7 +111,13 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
             return false;
         }
         lastReportTimestamp = now;
-        return super.flushAndSwitch();
+        boolean isSwitch = super.flushAndSwitch();
+        if (isSwitch) {
+            // new window is empty, accept all candidates again
+            window++;
+            thresholds.clear();
+        }
+        return isSwitch;
     }
 
     @Override
@@ -109,7 +140,19 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
 
     @Override
     public void in(TopN n) {
-        dataCarrier.produce(n);
+        if (isCandidate(n.getServiceId(), n.getLatency())) {
+            dataCarrier.produce(n);
+        }
+    }
+
+    private static class Threshold {
+        private final long window;
+        private final long latency;
+
+        private Threshold(long window, long latency) {
+            this.window = window;
+            this.latency = latency;
+        }
     }
 
     private class TopNConsumer implements IConsumer<TopN> {
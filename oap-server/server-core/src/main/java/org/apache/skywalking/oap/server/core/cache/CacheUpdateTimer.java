@@ -26,6 +26,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.query.entity.ProfileTask;
 import org.apache.skywalking.oap.server.core.register.NetworkAddressInventory;
 import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
@@ -45,13 +46,20 @@ public enum CacheUpdateTimer {
     private static final Logger logger = LoggerFactory.getLogger(CacheUpdateTimer.class);
 
     private Boolean isStarted = false;
+    private int warmUpPageSize;
+    private boolean warmedUp = false;
+    /**
+     * The start time of the last successful update, the next update loads the inventories updated since then.
+     */
+    private long lastUpdateTime = 0;
 
-    public void start(ModuleDefineHolder moduleDefineHolder) {
+    public void start(ModuleDefineHolder moduleDefineHolder, CoreModuleConfig moduleConfig) {
         logger.info("Cache updateServiceInventory timer start");
 
         final long timeInterval = 10;
 
         if (!isStarted) {
+            this.warmUpPageSize = moduleConfig.getInventoryCacheWarmUpPageSize();
             Executors.newSingleThreadScheduledExecutor()
                      .scheduleAtFixedRate(new RunnableWithExceptionProtection(() -> update(moduleDefineHolder), t -> logger
                          .error("Cache update failure.", t)), 1, timeInterval, TimeUnit.SECONDS);
@@ -61,20 +69,56 @@ public enum CacheUpdateTimer {
     }
 
     private void update(ModuleDefineHolder moduleDefineHolder) {
-        updateServiceInventory(moduleDefineHolder);
-        updateServiceInstanceInventory(moduleDefineHolder);
-        updateNetAddressInventory(moduleDefineHolder);
+        long startTime = System.currentTimeMillis();
+        if (!warmedUp) {
+            warmUp(moduleDefineHolder);
+            warmedUp = true;
+        }
+
+        // Overlap one minute with the last update, in case of the clock differences of the OAP nodes.
+        long since = lastUpdateTime == 0 ? startTime - 60000 : lastUpdateTime - 60000;
+        updateServiceInventory(moduleDefineHolder, since);
+        updateServiceInstanceInventory(moduleDefineHolder, since);
+        updateNetAddressInventory(moduleDefineHolder, since);
         updateProfileTask(moduleDefineHolder);
+        lastUpdateTime = startTime;
+    }
+
+    /**
+     * Load the whole service, service instance and network address inventory into the caches, rather than querying
+     * them from the storage one by one, when the traffic arrives right after the OAP starts.
+     */
+    private void warmUp(ModuleDefineHolder moduleDefineHolder) {
+        if (warmUpPageSize <= 0) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        int services = moduleDefineHolder.find(CoreModule.NAME)
+                                         .provider()
+                                         .getService(ServiceInventoryCache.class)
+                                         .warmUp(warmUpPageSize);
+        int instances = moduleDefineHolder.find(CoreModule.NAME)
+                                          .provider()
+                                          .getService(ServiceInstanceInventoryCache.class)
+                                          .warmUp(warmUpPageSize);
+        int addresses = moduleDefineHolder.find(CoreModule.NAME)
+                                          .provider()
+                                          .getService(NetworkAddressInventoryCache.class)
+                                          .warmUp(warmUpPageSize);
+        logger.info(
+            "Inventory caches warmed up, {} services, {} instances and {} network addresses, in {} ms.", services,
+            instances, addresses, System.currentTimeMillis() - startTime
+        );
     }
 
-    private void updateServiceInventory(ModuleDefineHolder moduleDefineHolder) {
+    private void updateServiceInventory(ModuleDefineHolder moduleDefineHolder, long since) {
         IServiceInventoryCacheDAO serviceInventoryCacheDAO = moduleDefineHolder.find(StorageModule.NAME)
                                                                                .provider()
                                                                                .getService(IServiceInventoryCacheDAO.class);
         ServiceInventoryCache serviceInventoryCache = moduleDefineHolder.find(CoreModule.NAME)
                                                                         .provider()
                                                                         .getService(ServiceInventoryCache.class);
-        List<ServiceInventory> serviceInventories = serviceInventoryCacheDAO.loadLastUpdate(System.currentTimeMillis() - 60000);
+        List<ServiceInventory> serviceInventories = serviceInventoryCacheDAO.loadLastUpdate(since);
 
         serviceInventories.forEach(serviceInventory -> {
             ServiceInventory cache = serviceInventoryCache.get(serviceInventory.getSequence());
@@ -86,19 +130,19 @@ public enum CacheUpdateTimer {
                     logger.info("Update the cache of service inventory, service id: {}", serviceInventory.getSequence());
                 }
             } else {
-                logger.warn("Unable to found the id of {} in service inventory cache.", serviceInventory.getSequence());
+                serviceInventoryCache.put(serviceInventory);
             }
         });
     }
 
-    private void updateServiceInstanceInventory(ModuleDefineHolder moduleDefineHolder) {
+    private void updateServiceInstanceInventory(ModuleDefineHolder moduleDefineHolder, long since) {
         IServiceInstanceInventoryCacheDAO instanceInventoryCacheDAO = moduleDefineHolder.find(StorageModule.NAME)
                                                                                         .provider()
                                                                                         .getService(IServiceInstanceInventoryCacheDAO.class);
         ServiceInstanceInventoryCache instanceInventoryCache = moduleDefineHolder.find(CoreModule.NAME)
                                                                                  .provider()
                                                                                  .getService(ServiceInstanceInventoryCache.class);
-        List<ServiceInstanceInventory> instanceInventories = instanceInventoryCacheDAO.loadLastUpdate(System.currentTimeMillis() - 60000);
+        List<ServiceInstanceInventory> instanceInventories = instanceInventoryCacheDAO.loadLastUpdate(since);
 
         instanceInventories.forEach(instanceInventory -> {
             ServiceInstanceInventory cache = instanceInventoryCache.get(instanceInventory.getSequence());
@@ -110,19 +154,19 @@ public enum CacheUpdateTimer {
                     logger.info("Update the cache of service instance inventory, instance id: {}", instanceInventory.getSequence());
                 }
             } else {
-                logger.warn("Unable to found the id of {} in service instance inventory cache.", instanceInventory.getSequence());
+                instanceInventoryCache.put(instanceInventory);
             }
         });
     }
 
-    private void updateNetAddressInventory(ModuleDefineHolder moduleDefineHolder) {
+    private void updateNetAddressInventory(ModuleDefineHolder moduleDefineHolder, long since) {
         INetworkAddressInventoryCacheDAO addressInventoryCacheDAO = moduleDefineHolder.find(StorageModule.NAME)
                                                                                       .provider()
                                                                                       .getService(INetworkAddressInventoryCacheDAO.class);
         NetworkAddressInventoryCache addressInventoryCache = moduleDefineHolder.find(CoreModule.NAME)
                                                                                .provider()
                                                                                .getService(NetworkAddressInventoryCache.class);
-        List<NetworkAddressInventory> addressInventories = addressInventoryCacheDAO.loadLastUpdate(System.currentTimeMillis() - 60000);
+        List<NetworkAddressInventory> addressInventories = addressInventoryCacheDAO.loadLastUpdate(since);
 
         addressInventories.forEach(addressInventory -> {
             NetworkAddressInventory cache = addressInventoryCache.get(addressInventory.getSequence());
@@ -132,7 +176,7 @@ public enum CacheUpdateTimer {
                     logger.info("Update the cache of net address inventory, address id: {}", addressInventory.getSequence());
                 }
             } else {
-                logger.warn("Unable to found the id of {} in net address inventory cache.", addressInventory.getSequence());
+                addressInventoryCache.put(addressInventory);
             }
         });
     }
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.Const;
+
+/**
+ * Load the missing entries of the inventory caches from the storage. The concurrent misses of the same key wait for
+ * one storage lookup, rather than all of them querying the storage. The not registered or not found results are not
+ * kept in the cache, as they could be registered soon.
+ */
+@Slf4j
+final class InventoryCacheLoader {
+
+    private InventoryCacheLoader() {
+    }
+
+    /**
+     * @return the id loaded by the given loader, or {@link Const#NONE} if not registered.
+     */
+    static <K> int loadId(Cache<K, Integer> cache, K key, Callable<Integer> loader) {
+        try {
+            Integer id = cache.get(key, loader);
+            if (id == Const.NONE) {
+                cache.asMap().remove(key, id);
+            }
+            return id;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            log.error(e.getMessage(), e);
+            return Const.NONE;
+        }
+    }
+
+    /**
+     * @return the inventory loaded by the given loader, or null if not found.
+     */
+    static <K, V> V load(Cache<K, V> cache, K key, Callable<V> loader) {
+        try {
+            return cache.get(key, loader);
+        } catch (CacheLoader.InvalidCacheLoadException e) {
+            // The loader returns null, the inventory doesn't exist in the storage.
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            log.error(e.getMessage(), e);
+            return null;
+        }
+    }
+}
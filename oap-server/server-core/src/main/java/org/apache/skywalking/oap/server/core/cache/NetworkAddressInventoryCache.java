@@ -20,8 +20,7 @@ package org.apache.skywalking.oap.server.core.cache;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import java.util.Objects;
-import org.apache.skywalking.oap.server.core.Const;
+import java.util.List;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.register.NetworkAddressInventory;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
@@ -32,7 +31,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 
 public class NetworkAddressInventoryCache implements Service {
 
@@ -41,11 +39,13 @@ public class NetworkAddressInventoryCache implements Service {
     private final Cache<String, Integer> networkAddressCache;
     private final Cache<Integer, NetworkAddressInventory> addressIdCache;
 
+    private final long maxSize;
     private final ModuleManager moduleManager;
     private INetworkAddressInventoryCacheDAO cacheDAO;
 
     public NetworkAddressInventoryCache(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
+        this.maxSize = moduleConfig.getMaxSizeOfNetworkInventory();
 
         long initialSize = moduleConfig.getMaxSizeOfNetworkInventory() / 10L;
         int initialCapacitySize = (int) (initialSize > Integer.MAX_VALUE ? Integer.MAX_VALUE : initialSize);
@@ -70,27 +70,44 @@ public class NetworkAddressInventoryCache implements Service {
     }
 
     public int getAddressId(String networkAddress) {
-        Integer addressId = networkAddressCache.getIfPresent(NetworkAddressInventory.buildId(networkAddress));
-
-        if (Objects.isNull(addressId) || addressId == Const.NONE) {
-            addressId = getCacheDAO().getAddressId(networkAddress);
-            if (addressId != Const.NONE) {
-                networkAddressCache.put(NetworkAddressInventory.buildId(networkAddress), addressId);
-            }
-        }
-
-        return addressId;
+        return InventoryCacheLoader.loadId(
+            networkAddressCache, NetworkAddressInventory.buildId(networkAddress),
+            () -> getCacheDAO().getAddressId(networkAddress)
+        );
     }
 
     public NetworkAddressInventory get(int addressId) {
-        NetworkAddressInventory networkAddress = addressIdCache.getIfPresent(addressId);
+        return InventoryCacheLoader.load(addressIdCache, addressId, () -> getCacheDAO().get(addressId));
+    }
+
+    /**
+     * Put the inventory loaded from the storage into the caches.
+     */
+    public void put(NetworkAddressInventory addressInventory) {
+        addressIdCache.put(addressInventory.getSequence(), addressInventory);
+        networkAddressCache.put(addressInventory.id(), addressInventory.getSequence());
+    }
 
-        if (isNull(networkAddress)) {
-            networkAddress = getCacheDAO().get(addressId);
-            if (nonNull(networkAddress)) {
-                addressIdCache.put(addressId, networkAddress);
+    /**
+     * Load the whole inventory page by page, to avoid looking up the storage one by one when the traffic comes after
+     * the OAP starts.
+     *
+     * @return the number of the loaded inventories.
+     */
+    public int warmUp(int pageSize) {
+        int loaded = 0;
+        int lastSequence = 0;
+        while (loaded < maxSize) {
+            List<NetworkAddressInventory> addressInventories = getCacheDAO().loadAfter(lastSequence, pageSize);
+            if (addressInventories.isEmpty()) {
+                break;
+            }
+            for (NetworkAddressInventory addressInventory : addressInventories) {
+                put(addressInventory);
+                lastSequence = addressInventory.getSequence();
             }
+            loaded += addressInventories.size();
         }
-        return networkAddress;
+        return loaded;
     }
 }
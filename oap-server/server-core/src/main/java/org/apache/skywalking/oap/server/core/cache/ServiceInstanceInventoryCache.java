@@ -30,7 +30,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.module.Service;
 import org.apache.skywalking.oap.server.library.util.BooleanUtils;
 
-import java.util.Objects;
+import java.util.List;
 
 import static java.util.Objects.isNull;
 
@@ -41,11 +41,13 @@ public class ServiceInstanceInventoryCache implements Service {
     private final Cache<Integer, ServiceInstanceInventory> serviceInstanceIdCache;
     private final Cache<String, Integer> serviceInstanceNameCache;
     private final Cache<String, Integer> addressIdCache;
+    private final long maxSize;
     private final ModuleManager moduleManager;
     private IServiceInstanceInventoryCacheDAO cacheDAO;
 
     public ServiceInstanceInventoryCache(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
+        this.maxSize = moduleConfig.getMaxSizeOfServiceInstanceInventory();
 
         this.userServiceInstance = new ServiceInstanceInventory();
         this.userServiceInstance.setSequence(Const.USER_INSTANCE_ID);
@@ -84,39 +86,22 @@ public class ServiceInstanceInventoryCache implements Service {
             return userServiceInstance;
         }
 
-        ServiceInstanceInventory serviceInstanceInventory = serviceInstanceIdCache.getIfPresent(serviceInstanceId);
-
-        if (Objects.isNull(serviceInstanceInventory)) {
-            serviceInstanceInventory = getCacheDAO().get(serviceInstanceId);
-            if (Objects.nonNull(serviceInstanceInventory)) {
-                serviceInstanceIdCache.put(serviceInstanceId, serviceInstanceInventory);
-            }
-        }
-        return serviceInstanceInventory;
+        return InventoryCacheLoader.load(
+            serviceInstanceIdCache, serviceInstanceId, () -> getCacheDAO().get(serviceInstanceId));
     }
 
     public int getServiceInstanceId(int serviceId, String uuid) {
-        Integer serviceInstanceId = serviceInstanceNameCache.getIfPresent(ServiceInstanceInventory.buildId(serviceId, uuid));
-
-        if (Objects.isNull(serviceInstanceId) || serviceInstanceId == Const.NONE) {
-            serviceInstanceId = getCacheDAO().getServiceInstanceId(serviceId, uuid);
-            if (serviceId != Const.NONE) {
-                serviceInstanceNameCache.put(ServiceInstanceInventory.buildId(serviceId, uuid), serviceInstanceId);
-            }
-        }
-        return serviceInstanceId;
+        return InventoryCacheLoader.loadId(
+            serviceInstanceNameCache, ServiceInstanceInventory.buildId(serviceId, uuid),
+            () -> getCacheDAO().getServiceInstanceId(serviceId, uuid)
+        );
     }
 
     public int getServiceInstanceId(int serviceId, int addressId) {
-        Integer serviceInstanceId = addressIdCache.getIfPresent(ServiceInstanceInventory.buildId(serviceId, addressId));
-
-        if (Objects.isNull(serviceInstanceId) || serviceInstanceId == Const.NONE) {
-            serviceInstanceId = getCacheDAO().getServiceInstanceId(serviceId, addressId);
-            if (serviceId != Const.NONE) {
-                addressIdCache.put(ServiceInstanceInventory.buildId(serviceId, addressId), serviceInstanceId);
-            }
-        }
-        return serviceInstanceId;
+        return InventoryCacheLoader.loadId(
+            addressIdCache, ServiceInstanceInventory.buildId(serviceId, addressId),
+            () -> getCacheDAO().getServiceInstanceId(serviceId, addressId)
+        );
     }
 
     public String getServiceInstanceLanguage(int serviceInstanceId) {
@@ -126,4 +111,39 @@ public class ServiceInstanceInventoryCache implements Service {
         }
         return inventory.getLanguage();
     }
+
+    /**
+     * Put the inventory loaded from the storage into the caches.
+     */
+    public void put(ServiceInstanceInventory instanceInventory) {
+        serviceInstanceIdCache.put(instanceInventory.getSequence(), instanceInventory);
+        if (BooleanUtils.TRUE == instanceInventory.getIsAddress()) {
+            addressIdCache.put(instanceInventory.id(), instanceInventory.getSequence());
+        } else {
+            serviceInstanceNameCache.put(instanceInventory.id(), instanceInventory.getSequence());
+        }
+    }
+
+    /**
+     * Load the whole inventory page by page, to avoid looking up the storage one by one when the traffic comes after
+     * the OAP starts.
+     *
+     * @return the number of the loaded inventories.
+     */
+    public int warmUp(int pageSize) {
+        int loaded = 0;
+        int lastSequence = 0;
+        while (loaded < maxSize) {
+            List<ServiceInstanceInventory> instanceInventories = getCacheDAO().loadAfter(lastSequence, pageSize);
+            if (instanceInventories.isEmpty()) {
+                break;
+            }
+            for (ServiceInstanceInventory instanceInventory : instanceInventories) {
+                put(instanceInventory);
+                lastSequence = instanceInventory.getSequence();
+            }
+            loaded += instanceInventories.size();
+        }
+        return loaded;
+    }
 }
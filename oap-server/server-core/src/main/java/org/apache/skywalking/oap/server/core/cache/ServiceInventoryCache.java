@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.cache;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import java.util.List;
 import java.util.Objects;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
@@ -33,7 +34,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 
 public class ServiceInventoryCache implements Service {
 
@@ -44,11 +44,13 @@ public class ServiceInventoryCache implements Service {
     private final Cache<String, Integer> addressIdCache;
     private final Cache<Integer, ServiceInventory> serviceIdCache;
 
+    private final long maxSize;
     private final ModuleManager moduleManager;
     private IServiceInventoryCacheDAO cacheDAO;
 
     public ServiceInventoryCache(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
+        this.maxSize = moduleConfig.getMaxSizeOfServiceInventory();
 
         this.userService = new ServiceInventory();
         this.userService.setSequence(Const.USER_SERVICE_ID);
@@ -82,27 +84,13 @@ public class ServiceInventoryCache implements Service {
     }
 
     public int getServiceId(String serviceName) {
-        Integer serviceId = serviceNameCache.getIfPresent(ServiceInventory.buildId(serviceName));
-
-        if (Objects.isNull(serviceId) || serviceId == Const.NONE) {
-            serviceId = getCacheDAO().getServiceId(serviceName);
-            if (serviceId != Const.NONE) {
-                serviceNameCache.put(ServiceInventory.buildId(serviceName), serviceId);
-            }
-        }
-        return serviceId;
+        return InventoryCacheLoader.loadId(
+            serviceNameCache, ServiceInventory.buildId(serviceName), () -> getCacheDAO().getServiceId(serviceName));
     }
 
     public int getServiceId(int addressId) {
-        Integer serviceId = addressIdCache.getIfPresent(ServiceInventory.buildId(addressId));
-
-        if (Objects.isNull(serviceId) || serviceId == Const.NONE) {
-            serviceId = getCacheDAO().getServiceId(addressId);
-            if (serviceId != Const.NONE) {
-                addressIdCache.put(ServiceInventory.buildId(addressId), serviceId);
-            }
-        }
-        return serviceId;
+        return InventoryCacheLoader.loadId(
+            addressIdCache, ServiceInventory.buildId(addressId), () -> getCacheDAO().getServiceId(addressId));
     }
 
     public ServiceInventory get(int serviceId) {
@@ -114,14 +102,8 @@ public class ServiceInventoryCache implements Service {
             return userService;
         }
 
-        ServiceInventory serviceInventory = serviceIdCache.getIfPresent(serviceId);
-
-        if (isNull(serviceInventory)) {
-            serviceInventory = getCacheDAO().get(serviceId);
-            if (nonNull(serviceInventory)) {
-                serviceIdCache.put(serviceId, serviceInventory);
-            }
-        }
+        ServiceInventory serviceInventory = InventoryCacheLoader.load(
+            serviceIdCache, serviceId, () -> getCacheDAO().get(serviceId));
 
         if (logger.isDebugEnabled()) {
             if (Objects.isNull(serviceInventory)) {
@@ -131,4 +113,39 @@ public class ServiceInventoryCache implements Service {
 
         return serviceInventory;
     }
+
+    /**
+     * Put the inventory loaded from the storage into the caches.
+     */
+    public void put(ServiceInventory serviceInventory) {
+        serviceIdCache.put(serviceInventory.getSequence(), serviceInventory);
+        if (BooleanUtils.TRUE == serviceInventory.getIsAddress()) {
+            addressIdCache.put(serviceInventory.id(), serviceInventory.getSequence());
+        } else {
+            serviceNameCache.put(serviceInventory.id(), serviceInventory.getSequence());
+        }
+    }
+
+    /**
+     * Load the whole inventory page by page, to avoid looking up the storage one by one when the traffic comes after
+     * the OAP starts.
+     *
+     * @return the number of the loaded inventories.
+     */
+    public int warmUp(int pageSize) {
+        int loaded = 0;
+        int lastSequence = 0;
+        while (loaded < maxSize) {
+            List<ServiceInventory> serviceInventories = getCacheDAO().loadAfter(lastSequence, pageSize);
+            if (serviceInventories.isEmpty()) {
+                break;
+            }
+            for (ServiceInventory serviceInventory : serviceInventories) {
+                put(serviceInventory);
+                lastSequence = serviceInventory.getSequence();
+            }
+            loaded += serviceInventories.size();
+        }
+        return loaded;
+    }
 }
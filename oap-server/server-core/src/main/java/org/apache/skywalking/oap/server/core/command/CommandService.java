@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.command;
 
 import java.util.UUID;
 import org.apache.skywalking.apm.network.trace.component.command.ProfileTaskCommand;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
 import org.apache.skywalking.apm.network.trace.component.command.ServiceResetCommand;
 import org.apache.skywalking.oap.server.core.query.entity.ProfileTask;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -48,6 +49,11 @@ public class CommandService implements Service {
             .getDumpPeriod(), task.getMaxSamplingCount(), task.getStartTime(), task.getCreateTime());
     }
 
+    public SamplingRateCommand newSamplingRateCommand(final int sampleNPer3Secs, final int sampleNPer3SecsPerEndpoint) {
+        final String serialNumber = UUID.randomUUID().toString();
+        return new SamplingRateCommand(serialNumber, sampleNPer3Secs, sampleNPer3SecsPerEndpoint);
+    }
+
     private String generateSerialNumber(final int serviceInstanceId, final long time,
                                         final String serviceInstanceUUID) {
         return UUID.randomUUID().toString(); // Simply generate a uuid without taking care of the parameters
@@ -31,4 +31,15 @@ public interface MetricValuesExportService extends Service {
      * @param event value is only accurate when the method invokes. Don't cache it.
      */
     void export(ExportEvent event);
+
+    /**
+     * Check whether the metrics of the given name and event type would be exported. The caller should check it before
+     * building the {@link ExportEvent}, so the metrics nobody subscribes to don't create any event.
+     *
+     * @param metricsName the name of the metrics, as defined in the OAL script.
+     * @return true by default, the implementation could filter by its subscription.
+     */
+    default boolean isSubscribed(String metricsName, ExportEvent.EventType type) {
+        return true;
+    }
 }
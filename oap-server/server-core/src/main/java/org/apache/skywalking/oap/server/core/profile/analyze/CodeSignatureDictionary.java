@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.profile.analyze;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Intern the code signatures of the analyzing snapshots, all the stacks reference the frames by the dictionary id, so
+ * the same frame is kept only once and compared as an int while building the tree.
+ */
+public class CodeSignatureDictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> signatures = new ArrayList<>();
+
+    /**
+     * @return the id of the code signature, register it when it's the first time to see
+     */
+    public int idOf(String codeSignature) {
+        Integer id = ids.get(codeSignature);
+        if (id == null) {
+            id = signatures.size();
+            signatures.add(codeSignature);
+            ids.put(codeSignature, id);
+        }
+        return id;
+    }
+
+    public String codeSignatureOf(int id) {
+        return signatures.get(id);
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+}
@@ -20,8 +20,9 @@ package org.apache.skywalking.oap.server.core.profile.analyze;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -30,11 +31,9 @@ import java.util.stream.Collectors;
 import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
 import org.apache.skywalking.oap.server.core.query.entity.ProfileAnalyzation;
 import org.apache.skywalking.oap.server.core.query.entity.ProfileAnalyzeTimeRange;
-import org.apache.skywalking.oap.server.core.query.entity.ProfileStackTree;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileThreadSnapshotQueryDAO;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
-import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,8 +46,6 @@ public class ProfileAnalyzer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProfileAnalyzer.class);
 
-    private static final ProfileAnalyzeCollector ANALYZE_COLLECTOR = new ProfileAnalyzeCollector();
-
     private final int threadSnapshotAnalyzeBatchSize;
     private final int analyzeSnapshotMaxSize;
 
@@ -77,20 +74,39 @@ public class ProfileAnalyzer {
             analyzation.setTip("Out of snapshot analyze limit, " + sequenceSearch.getTotalSequenceCount() + " snapshots found, but analysis first " + analyzeSnapshotMaxSize + " snapshots only.");
         }
 
-        // query snapshots
-        List<ProfileStack> stacks = sequenceSearch.getRanges().parallelStream().map(r -> {
+        // query snapshots batch by batch in sequence order, and accumulate them into the trees directly
+        final CodeSignatureDictionary dictionary = new CodeSignatureDictionary();
+        final Map<Integer, ProfileStackNode> roots = new LinkedHashMap<>();
+        int lastSequence = -1;
+        for (SequenceRange range : normalizeRanges(sequenceSearch.getRanges())) {
+            final List<ProfileThreadSnapshotRecord> records;
             try {
-                return getProfileThreadSnapshotQueryDAO().queryRecords(segmentId, r.getMinSequence(), r.getMaxSequence());
+                records = getProfileThreadSnapshotQueryDAO().queryRecords(segmentId, range.getMinSequence(), range.getMaxSequence());
             } catch (IOException e) {
                 LOGGER.warn(e.getMessage(), e);
-                return Collections.<ProfileThreadSnapshotRecord>emptyList();
+                continue;
+            }
+
+            final List<ProfileStack> stacks = new ArrayList<>(records.size());
+            for (ProfileThreadSnapshotRecord record : records) {
+                stacks.add(ProfileStack.deserialize(record, dictionary));
             }
-        }).flatMap(Collection::stream).map(ProfileStack::deserialize).distinct().collect(Collectors.toList());
+            Collections.sort(stacks);
+
+            for (ProfileStack stack : stacks) {
+                // stack list cannot be empty, and each sequence only be analyzed once
+                if (stack.getStack().length == 0 || stack.getSequence() <= lastSequence) {
+                    continue;
+                }
+                lastSequence = stack.getSequence();
+
+                roots.computeIfAbsent(stack.getStack()[0], ProfileStackNode::newNode).accumulateFrom(stack);
+            }
+        }
 
         // analyze
-        final List<ProfileStackTree> trees = analyze(stacks);
-        if (trees != null) {
-            analyzation.getTrees().addAll(trees);
+        for (ProfileStackNode root : roots.values()) {
+            analyzation.getTrees().add(root.buildAnalyzeResult(dictionary));
         }
 
         return analyzation;
@@ -134,21 +150,29 @@ public class ProfileAnalyzer {
     }
 
     /**
-     * Analyze records
+     * The ranges of the time ranges could overlap, sort and merge them into disjoint ranges, then split by the batch
+     * size again, so every sequence is queried only once and in ascending order.
      */
-    protected List<ProfileStackTree> analyze(List<ProfileStack> stacks) {
-        if (CollectionUtils.isEmpty(stacks)) {
-            return null;
-        }
-
-        // using parallel stream
-        Map<String, ProfileStackTree> stackTrees = stacks.parallelStream()
-                                                         // stack list cannot be empty
-                                                         .filter(s -> CollectionUtils.isNotEmpty(s.getStack()))
-                                                         .collect(Collectors.groupingBy(s -> s.getStack()
-                                                                                              .get(0), ANALYZE_COLLECTOR));
+    private List<SequenceRange> normalizeRanges(List<SequenceRange> ranges) {
+        final List<SequenceRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingInt(SequenceRange::getMinSequence));
+
+        final List<SequenceRange> result = new ArrayList<>(sorted.size());
+        int i = 0;
+        while (i < sorted.size()) {
+            int minSequence = sorted.get(i).getMinSequence();
+            int maxSequence = sorted.get(i).getMaxSequence();
+            for (i++; i < sorted.size() && sorted.get(i).getMinSequence() <= maxSequence; i++) {
+                maxSequence = Math.max(maxSequence, sorted.get(i).getMaxSequence());
+            }
 
-        return new ArrayList<>(stackTrees.values());
+            while (minSequence < maxSequence) {
+                int batchMax = Math.min(minSequence + threadSnapshotAnalyzeBatchSize, maxSequence);
+                result.add(new SequenceRange(minSequence, batchMax));
+                minSequence = batchMax;
+            }
+        }
+        return result;
     }
 
     protected IProfileThreadSnapshotQueryDAO getProfileThreadSnapshotQueryDAO() {
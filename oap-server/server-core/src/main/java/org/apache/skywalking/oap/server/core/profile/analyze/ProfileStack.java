@@ -28,16 +28,17 @@ import org.apache.skywalking.apm.network.language.profile.ThreadStack;
 import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
 
 /**
- * Deserialize from {@link ProfileThreadSnapshotRecord}
+ * Deserialize from {@link ProfileThreadSnapshotRecord}, the frames are kept as the ids of {@link
+ * CodeSignatureDictionary}
  */
 @Data
 public class ProfileStack implements Comparable<ProfileStack> {
 
     private int sequence;
     private long dumpTime;
-    private List<String> stack;
+    private int[] stack;
 
-    public static ProfileStack deserialize(ProfileThreadSnapshotRecord record) {
+    public static ProfileStack deserialize(ProfileThreadSnapshotRecord record, CodeSignatureDictionary dictionary) {
         ThreadStack threadStack = null;
         try {
             threadStack = ThreadStack.parseFrom(record.getStackBinary());
@@ -49,7 +50,11 @@ public class ProfileStack implements Comparable<ProfileStack> {
         ProfileStack stack = new ProfileStack();
         stack.sequence = record.getSequence();
         stack.dumpTime = record.getDumpTime();
-        stack.stack = threadStack.getCodeSignaturesList();
+        final List<String> codeSignatures = threadStack.getCodeSignaturesList();
+        stack.stack = new int[codeSignatures.size()];
+        for (int i = 0; i < stack.stack.length; i++) {
+            stack.stack[i] = dictionary.idOf(codeSignatures.get(i));
+        }
 
         return stack;
     }
@@ -15,232 +15,144 @@
  * limitations under the License.
  *
  */
-
 package org.apache.skywalking.oap.server.core.profile.analyze;
 
-import com.google.common.base.Objects;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.function.Consumer;
 import org.apache.skywalking.oap.server.core.query.entity.ProfileStackElement;
 import org.apache.skywalking.oap.server.core.query.entity.ProfileStackTree;
 
 /**
- * Work for profiling stacks, intermediate state of the {@link ProfileStackElement} and {@link ProfileStack}
+ * Work for profiling stacks, intermediate state of the {@link ProfileStackElement} and {@link ProfileStack}.
+ *
+ * The stacks must be accumulated in ascending sequence order, then the count and duration are calculated while
+ * accumulating, no detected stack is kept by the node.
  */
 public class ProfileStackNode {
 
-    private String codeSignature;
-    private List<ProfileStack> detectedStacks;
-    private List<ProfileStackNode> children;
-    private int duration;
+    private final int codeSignature;
+    private final List<ProfileStackNode> children = new ArrayList<>();
+
+    private int count;
+    private int lastSequence;
+    private long lastDumpTime;
+    private long timeWindowStartDumpTime;
+    private long duration;
+
+    private ProfileStackNode(int codeSignature) {
+        this.codeSignature = codeSignature;
+    }
 
     /**
-     * create new empty, un-init node
+     * create new empty node
+     *
+     * @param codeSignature the code signature id in the {@link CodeSignatureDictionary}
      */
-    public static ProfileStackNode newNode() {
-        ProfileStackNode emptyNode = new ProfileStackNode();
-        emptyNode.detectedStacks = new LinkedList<>();
-        emptyNode.children = new ArrayList<>();
-        return emptyNode;
+    public static ProfileStackNode newNode(int codeSignature) {
+        return new ProfileStackNode(codeSignature);
     }
 
     /**
      * accumulate {@link ProfileStack} to this tree, it will invoke on the tree root node
      */
     public void accumulateFrom(ProfileStack stack) {
-        List<String> stackList = stack.getStack();
-        if (codeSignature == null) {
-            codeSignature = stackList.get(0);
-        }
+        int[] frames = stack.getStack();
         // add detected stack
         this.detectedBy(stack);
 
         // handle stack children
         ProfileStackNode parent = this;
-        for (int depth = 1; depth < stackList.size(); depth++) {
-            String elementCodeSignature = stackList.get(depth);
-
-            // find same code signature children
-            ProfileStackNode childElement = null;
-            for (ProfileStackNode child : parent.children) {
-                if (Objects.equal(child.codeSignature, elementCodeSignature)) {
-                    childElement = child;
-                    break;
-                }
-            }
-
-            if (childElement != null) {
-                // add detected stack
-                childElement.detectedBy(stack);
-                parent = childElement;
-            } else {
+        for (int depth = 1; depth < frames.length; depth++) {
+            ProfileStackNode childElement = parent.findChild(frames[depth]);
+            if (childElement == null) {
                 // add children
-                ProfileStackNode childNode = newNode();
-                childNode.codeSignature = elementCodeSignature;
-                childNode.detectedBy(stack);
-
-                parent.children.add(childNode);
-                parent = childNode;
+                childElement = newNode(frames[depth]);
+                parent.children.add(childElement);
             }
-        }
-    }
-
-    /**
-     * combine from other {@link ProfileStackNode}
-     */
-    public ProfileStackNode combine(ProfileStackNode node) {
-        // combine this node
-        this.combineDetectedStacks(node);
 
-        // merge tree using LDR to traversal tree node
-        // using stack to avoid recursion
-        // merge key.children <- value.children
-        LinkedList<Pair<ProfileStackNode, ProfileStackNode>> stack = new LinkedList<>();
-        stack.add(new Pair<>(this, node));
-        while (!stack.isEmpty()) {
-            Pair<ProfileStackNode, ProfileStackNode> needCombineNode = stack.pop();
-
-            // merge value children to key
-            // add to stack if need to keep traversal
-            combineChildrenNodes(needCombineNode.key, needCombineNode.value, stack::add);
+            // add detected stack
+            childElement.detectedBy(stack);
+            parent = childElement;
         }
-
-        return this;
     }
 
     /**
-     * merge all children nodes to appoint node
+     * build GraphQL result
      */
-    private void combineChildrenNodes(ProfileStackNode targetNode, ProfileStackNode beingMergedNode,
-        Consumer<Pair<ProfileStackNode, ProfileStackNode>> continueChildrenMerging) {
-        if (beingMergedNode.children.isEmpty()) {
-            return;
-        }
-
-        for (ProfileStackNode childrenNode : targetNode.children) {
-            // find node from being merged node children
-            for (ListIterator<ProfileStackNode> it = beingMergedNode.children.listIterator(); it.hasNext(); ) {
-                ProfileStackNode node = it.next();
-                if (node != null && node.matches(childrenNode)) {
-                    childrenNode.combineDetectedStacks(node);
-                    continueChildrenMerging.accept(new Pair<>(childrenNode, node));
-
-                    it.set(null);
-                    break;
-                }
-            }
-        }
-
-        for (ProfileStackNode node : beingMergedNode.children) {
-            if (node != null) {
-                targetNode.children.add(node);
-            }
-        }
-    }
-
-    /**
-     * build GraphQL result, calculate duration and count data using parallels
-     */
-    public ProfileStackTree buildAnalyzeResult() {
-        // all nodes add to single-level list (such as flat), work for parallel calculating
-        LinkedList<Pair<ProfileStackElement, ProfileStackNode>> nodeMapping = new LinkedList<>();
+    public ProfileStackTree buildAnalyzeResult(CodeSignatureDictionary dictionary) {
+        ProfileStackTree tree = new ProfileStackTree();
         int idGenerator = 1;
 
-        ProfileStackElement root = buildElement(idGenerator++);
-        nodeMapping.add(new Pair<>(root, this));
+        ProfileStackElement root = buildElement(idGenerator++, dictionary);
+        tree.getElements().add(root);
 
-        // same with combine logic
+        // using stack to avoid recursion
         LinkedList<Pair<ProfileStackElement, ProfileStackNode>> stack = new LinkedList<>();
         stack.add(new Pair<>(root, this));
         while (!stack.isEmpty()) {
             Pair<ProfileStackElement, ProfileStackNode> mergingPair = stack.pop();
             ProfileStackElement respElement = mergingPair.key;
 
-            // generate children node and add to stack and all node mapping
+            // generate children node and add to stack and result
             for (ProfileStackNode children : mergingPair.value.children) {
-                ProfileStackElement element = children.buildElement(idGenerator++);
+                ProfileStackElement element = children.buildElement(idGenerator++, dictionary);
                 element.setParentId(respElement.getId());
 
-                Pair<ProfileStackElement, ProfileStackNode> pair = new Pair<>(element, children);
-                stack.add(pair);
-                nodeMapping.add(pair);
+                stack.add(new Pair<>(element, children));
+                tree.getElements().add(element);
             }
         }
 
-        // calculate durations
-        nodeMapping.parallelStream().forEach(t -> t.value.calculateDuration(t.key));
-        nodeMapping.parallelStream().forEach(t -> t.value.calculateDurationExcludeChild(t.key));
-
-        ProfileStackTree tree = new ProfileStackTree();
-        nodeMapping.forEach(n -> tree.getElements().add(n.key));
-
         return tree;
     }
 
-    private void detectedBy(ProfileStack stack) {
-        this.detectedStacks.add(stack);
-    }
-
-    private void combineDetectedStacks(ProfileStackNode node) {
-        this.detectedStacks.addAll(node.detectedStacks);
-    }
-
-    private ProfileStackElement buildElement(int id) {
-        ProfileStackElement element = new ProfileStackElement();
-        element.setId(id);
-        element.setCodeSignature(this.codeSignature);
-        element.setCount(this.detectedStacks.size());
-        return element;
+    private ProfileStackNode findChild(int codeSignature) {
+        for (ProfileStackNode child : children) {
+            if (child.codeSignature == codeSignature) {
+                return child;
+            }
+        }
+        return null;
     }
 
     /**
-     * calculate duration to {@link ProfileStackElement#getDuration()}
+     * count the stack and extend or close the current time window, a sequence gap means the method has been left
      */
-    private void calculateDuration(ProfileStackElement element) {
-        if (this.detectedStacks.size() <= 1) {
-            element.setDuration(0);
-            return;
-        }
-
-        Collections.sort(this.detectedStacks);
-
-        // calculate time windows duration
-        ProfileStack currentTimeWindowStartStack = detectedStacks.get(0);
-        ProfileStack currentTimeWindowEndTack = detectedStacks.get(0);
-        long duration = 0;
-        for (ListIterator<ProfileStack> it = detectedStacks.listIterator(1); it.hasNext(); ) {
-            ProfileStack currentStack = it.next();
-
-            // is continuity
-            if (currentTimeWindowEndTack.getSequence() + 1 != currentStack.getSequence()) {
-                duration += currentTimeWindowEndTack.getDumpTime() - currentTimeWindowStartStack.getDumpTime();
-                currentTimeWindowStartStack = currentStack;
-            }
-
-            currentTimeWindowEndTack = currentStack;
+    private void detectedBy(ProfileStack stack) {
+        if (count == 0) {
+            timeWindowStartDumpTime = stack.getDumpTime();
+        } else if (lastSequence + 1 != stack.getSequence()) {
+            duration += lastDumpTime - timeWindowStartDumpTime;
+            timeWindowStartDumpTime = stack.getDumpTime();
         }
 
-        // calculate last one time windows
-        duration += currentTimeWindowEndTack.getDumpTime() - currentTimeWindowStartStack.getDumpTime();
-
-        this.duration = Math.toIntExact(duration);
-        element.setDuration(this.duration);
+        lastSequence = stack.getSequence();
+        lastDumpTime = stack.getDumpTime();
+        count++;
     }
 
     /**
-     * calculate duration to {@link ProfileStackElement#getDurationChildExcluded()}, expends on {@link
-     * #calculateDuration(ProfileStackElement)}
+     * @return the duration of all time windows, include the current one
      */
-    private void calculateDurationExcludeChild(ProfileStackElement element) {
-        element.setDurationChildExcluded(element.getDuration() - children.stream().mapToInt(t -> t.duration).sum());
+    private long totalDuration() {
+        return duration + lastDumpTime - timeWindowStartDumpTime;
     }
 
-    private boolean matches(ProfileStackNode node) {
-        return Objects.equal(this.codeSignature, node.codeSignature);
+    private ProfileStackElement buildElement(int id, CodeSignatureDictionary dictionary) {
+        ProfileStackElement element = new ProfileStackElement();
+        element.setId(id);
+        element.setCodeSignature(dictionary.codeSignatureOf(this.codeSignature));
+        element.setCount(this.count);
+
+        int duration = Math.toIntExact(totalDuration());
+        long childrenDuration = 0;
+        for (ProfileStackNode child : children) {
+            childrenDuration += child.totalDuration();
+        }
+        element.setDuration(duration);
+        element.setDurationChildExcluded(Math.toIntExact(duration - childrenDuration));
+        return element;
     }
 
     private static class Pair<K, V> {
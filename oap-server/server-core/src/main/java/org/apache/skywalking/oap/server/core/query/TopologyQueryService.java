@@ -22,19 +22,31 @@ import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.manual.RelationDefineUtil;
 import org.apache.skywalking.oap.server.core.analysis.manual.endpoint.EndpointTraffic;
+import org.apache.skywalking.oap.server.core.analysis.manual.topology.TopologyEdgeSet;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
 import org.apache.skywalking.oap.server.core.query.entity.Call;
 import org.apache.skywalking.oap.server.core.query.entity.Node;
 import org.apache.skywalking.oap.server.core.query.entity.ServiceInstanceTopology;
 import org.apache.skywalking.oap.server.core.query.entity.Topology;
 import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.StorageDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.model.IModelGetter;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelName;
 import org.apache.skywalking.oap.server.core.storage.query.IMetadataQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -43,6 +55,11 @@ import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The topology is read from the {@link TopologyEdgeSet}s, which hold all the edges of every time bucket. The time
+ * buckets before the first edge set found, such as the ones before the upgrade or all of them when the stream is
+ * disabled, are aggregated from the relation metrics by the {@link ITopologyQueryDAO}.
+ */
 public class TopologyQueryService implements Service {
 
     private static final Logger logger = LoggerFactory.getLogger(TopologyQueryService.class);
@@ -51,6 +68,8 @@ public class TopologyQueryService implements Service {
     private ITopologyQueryDAO topologyQueryDAO;
     private IMetadataQueryDAO metadataQueryDAO;
     private IComponentLibraryCatalogService componentLibraryCatalogService;
+    private IModelGetter modelGetter;
+    private IMetricsDAO edgeSetDAO;
 
     public TopologyQueryService(ModuleManager moduleManager) {
         this.moduleManager = moduleManager;
@@ -79,13 +98,29 @@ public class TopologyQueryService implements Service {
         return componentLibraryCatalogService;
     }
 
+    private IModelGetter getModelGetter() {
+        if (modelGetter == null) {
+            modelGetter = moduleManager.find(CoreModule.NAME).provider().getService(IModelGetter.class);
+        }
+        return modelGetter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private IMetricsDAO getEdgeSetDAO() {
+        if (edgeSetDAO == null) {
+            StorageDAO storageDAO = moduleManager.find(StorageModule.NAME).provider().getService(StorageDAO.class);
+            edgeSetDAO = storageDAO.newMetricsDao((StorageBuilder) new TopologyEdgeSet.Builder());
+        }
+        return edgeSetDAO;
+    }
+
     public Topology getGlobalTopology(final Downsampling downsampling, final long startTB,
                                       final long endTB) throws IOException {
         logger.debug("Downsampling: {}, startTimeBucket: {}, endTimeBucket: {}", downsampling, startTB, endTB);
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServerSideServiceRelations(
-            downsampling, startTB, endTB);
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadClientSideServiceRelations(
-            downsampling, startTB, endTB);
+        List<Call.CallDetail> serviceRelationServerCalls = loadServiceRelations(
+            downsampling, startTB, endTB, DetectPoint.SERVER, null);
+        List<Call.CallDetail> serviceRelationClientCalls = loadServiceRelations(
+            downsampling, startTB, endTB, DetectPoint.CLIENT, null);
 
         TopologyBuilder builder = new TopologyBuilder(moduleManager);
         return builder.build(serviceRelationClientCalls, serviceRelationServerCalls);
@@ -93,10 +128,10 @@ public class TopologyQueryService implements Service {
 
     public Topology getServiceTopology(final Downsampling downsampling, final long startTB, final long endTB,
                                        final List<Integer> serviceIds) throws IOException {
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadSpecifiedClientSideServiceRelations(
-            downsampling, startTB, endTB, serviceIds);
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadSpecifiedServerSideServiceRelations(
-            downsampling, startTB, endTB, serviceIds);
+        List<Call.CallDetail> serviceRelationClientCalls = loadServiceRelations(
+            downsampling, startTB, endTB, DetectPoint.CLIENT, serviceIds);
+        List<Call.CallDetail> serviceRelationServerCalls = loadServiceRelations(
+            downsampling, startTB, endTB, DetectPoint.SERVER, serviceIds);
 
         TopologyBuilder builder = new TopologyBuilder(moduleManager);
         Topology topology = builder.build(serviceRelationClientCalls, serviceRelationServerCalls);
@@ -116,8 +151,8 @@ public class TopologyQueryService implements Service {
         });
         if (CollectionUtils.isNotEmpty(outScopeSourceServiceIds)) {
             // If exist, query them as the server side to get the target's component.
-            List<Call.CallDetail> sourceCalls = getTopologyQueryDAO().loadSpecifiedServerSideServiceRelations(
-                downsampling, startTB, endTB, outScopeSourceServiceIds);
+            List<Call.CallDetail> sourceCalls = loadServiceRelations(
+                downsampling, startTB, endTB, DetectPoint.SERVER, outScopeSourceServiceIds);
             topology.getNodes().forEach(node -> {
                 if (Strings.isNullOrEmpty(node.getType())) {
                     for (Call.CallDetail call : sourceCalls) {
@@ -143,10 +178,10 @@ public class TopologyQueryService implements Service {
             clientServiceId, serverServiceId, downsampling, startTB, endTB
         );
 
-        List<Call.CallDetail> serviceInstanceRelationClientCalls = getTopologyQueryDAO().loadClientSideServiceInstanceRelations(
-            clientServiceId, serverServiceId, downsampling, startTB, endTB);
-        List<Call.CallDetail> serviceInstanceRelationServerCalls = getTopologyQueryDAO().loadServerSideServiceInstanceRelations(
-            clientServiceId, serverServiceId, downsampling, startTB, endTB);
+        List<Call.CallDetail> serviceInstanceRelationClientCalls = loadServiceInstanceRelations(
+            clientServiceId, serverServiceId, downsampling, startTB, endTB, DetectPoint.CLIENT);
+        List<Call.CallDetail> serviceInstanceRelationServerCalls = loadServiceInstanceRelations(
+            clientServiceId, serverServiceId, downsampling, startTB, endTB, DetectPoint.SERVER);
 
         ServiceInstanceTopologyBuilder builder = new ServiceInstanceTopologyBuilder(moduleManager);
         return builder.build(serviceInstanceRelationClientCalls, serviceInstanceRelationServerCalls);
@@ -154,7 +189,7 @@ public class TopologyQueryService implements Service {
 
     public Topology getEndpointTopology(final Downsampling downsampling, final long startTB, final long endTB,
                                         final String endpointId) throws IOException {
-        List<Call.CallDetail> serverSideCalls = getTopologyQueryDAO().loadSpecifiedDestOfServerSideEndpointRelations(
+        List<Call.CallDetail> serverSideCalls = loadServerSideEndpointRelations(
             downsampling, startTB, endTB, endpointId);
 
         Topology topology = new Topology();
@@ -182,6 +217,154 @@ public class TopologyQueryService implements Service {
         return topology;
     }
 
+    /**
+     * @param serviceIds the services of either side, or null for all relations.
+     */
+    List<Call.CallDetail> loadServiceRelations(Downsampling downsampling, long startTB, long endTB,
+                                               DetectPoint detectPoint,
+                                               List<Integer> serviceIds) throws IOException {
+        Edges edges = loadEdges(
+            downsampling, startTB, endTB, TopologyEdgeSet.buildServiceEntityIds(detectPoint));
+
+        List<Call.CallDetail> calls = new ArrayList<>();
+        for (String edge : edges.edges) {
+            RelationDefineUtil.RelationDefine define = RelationDefineUtil.splitEntityId(edge);
+            if (serviceIds == null || serviceIds.contains(define.getSource()) || serviceIds.contains(
+                define.getDest())) {
+                calls.add(buildCall(define, detectPoint));
+            }
+        }
+        if (!edges.isUncovered()) {
+            return calls;
+        }
+
+        final long uncoveredEndTB = edges.uncoveredEndTB;
+        if (serviceIds == null) {
+            return merge(calls, DetectPoint.SERVER.equals(detectPoint)
+                ? getTopologyQueryDAO().loadServerSideServiceRelations(downsampling, startTB, uncoveredEndTB)
+                : getTopologyQueryDAO().loadClientSideServiceRelations(downsampling, startTB, uncoveredEndTB));
+        }
+        return merge(calls, DetectPoint.SERVER.equals(detectPoint)
+            ? getTopologyQueryDAO().loadSpecifiedServerSideServiceRelations(
+            downsampling, startTB, uncoveredEndTB, serviceIds)
+            : getTopologyQueryDAO().loadSpecifiedClientSideServiceRelations(
+            downsampling, startTB, uncoveredEndTB, serviceIds));
+    }
+
+    private List<Call.CallDetail> loadServiceInstanceRelations(int clientServiceId, int serverServiceId,
+                                                               Downsampling downsampling, long startTB, long endTB,
+                                                               DetectPoint detectPoint) throws IOException {
+        Edges edges = loadEdges(
+            downsampling, startTB, endTB,
+            TopologyEdgeSet.buildServiceInstanceEntityId(detectPoint, clientServiceId, serverServiceId),
+            TopologyEdgeSet.buildServiceInstanceEntityId(detectPoint, serverServiceId, clientServiceId)
+        );
+
+        List<Call.CallDetail> calls = new ArrayList<>();
+        for (String edge : edges.edges) {
+            calls.add(buildCall(RelationDefineUtil.splitEntityId(edge), detectPoint));
+        }
+        if (!edges.isUncovered()) {
+            return calls;
+        }
+
+        return merge(calls, DetectPoint.SERVER.equals(detectPoint)
+            ? getTopologyQueryDAO().loadServerSideServiceInstanceRelations(
+            clientServiceId, serverServiceId, downsampling, startTB, edges.uncoveredEndTB)
+            : getTopologyQueryDAO().loadClientSideServiceInstanceRelations(
+            clientServiceId, serverServiceId, downsampling, startTB, edges.uncoveredEndTB));
+    }
+
+    private List<Call.CallDetail> loadServerSideEndpointRelations(Downsampling downsampling, long startTB,
+                                                                  long endTB, String endpointId) throws IOException {
+        EndpointTraffic.EndpointID endpointID = EndpointTraffic.splitID(endpointId);
+        Edges edges = loadEdges(downsampling, startTB, endTB, TopologyEdgeSet.buildEndpointEntityId(
+            DetectPoint.SERVER, endpointID.getServiceId(), endpointID.getEndpointName()));
+
+        List<Call.CallDetail> calls = new ArrayList<>();
+        for (String edge : edges.edges) {
+            RelationDefineUtil.EndpointRelationDefine define = RelationDefineUtil.splitEndpointRelationEntityId(edge);
+            Call.CallDetail call = new Call.CallDetail();
+            call.setSource(EndpointTraffic.buildId(define.getSourceServiceId(), define.getSource(), DetectPoint.SERVER));
+            call.setTarget(EndpointTraffic.buildId(define.getDestServiceId(), define.getDest(), DetectPoint.SERVER));
+            if (endpointId.equals(call.getSource()) || endpointId.equals(call.getTarget())) {
+                call.setComponentId(define.getComponentId());
+                call.setDetectPoint(DetectPoint.SERVER);
+                call.generateID();
+                calls.add(call);
+            }
+        }
+        if (!edges.isUncovered()) {
+            return calls;
+        }
+
+        return merge(calls, getTopologyQueryDAO().loadSpecifiedDestOfServerSideEndpointRelations(
+            downsampling, startTB, edges.uncoveredEndTB, endpointId));
+    }
+
+    /**
+     * @return the edges of the given edge sets in all time buckets, and the time buckets before the first edge set,
+     * which are not covered by the edge sets, such as the ones before the upgrade or with the stream disabled.
+     */
+    private Edges loadEdges(Downsampling downsampling, long startTB, long endTB,
+                            String... entityIds) throws IOException {
+        Edges edges = new Edges();
+        String modelName = ModelName.build(downsampling, TopologyEdgeSet.INDEX_NAME);
+        Model model = null;
+        for (Model candidate : getModelGetter().getModels()) {
+            if (candidate.getName().equals(modelName)) {
+                model = candidate;
+                break;
+            }
+        }
+        if (model == null) {
+            edges.uncoveredEndTB = endTB;
+            return edges;
+        }
+
+        List<DurationPoint> durationPoints = DurationUtils.INSTANCE.getDurationPoints(downsampling, startTB, endTB);
+        Set<String> ids = new LinkedHashSet<>();
+        for (DurationPoint durationPoint : durationPoints) {
+            for (String entityId : entityIds) {
+                ids.add(durationPoint.getPoint() + Const.ID_SPLIT + entityId);
+            }
+        }
+
+        long firstTimeBucket = Long.MAX_VALUE;
+        for (Metrics edgeSet : getEdgeSetDAO().multiGet(model, new ArrayList<>(ids))) {
+            edges.edges.addAll(((TopologyEdgeSet) edgeSet).getEdges());
+            firstTimeBucket = Math.min(firstTimeBucket, edgeSet.getTimeBucket());
+        }
+        for (DurationPoint durationPoint : durationPoints) {
+            if (durationPoint.getPoint() >= firstTimeBucket) {
+                break;
+            }
+            edges.uncoveredEndTB = durationPoint.getPoint();
+        }
+        return edges;
+    }
+
+    /**
+     * The calls read from the relation metrics are kept over the same ones read from the edge sets, as they hold the
+     * same source, target and component.
+     */
+    private static List<Call.CallDetail> merge(List<Call.CallDetail> calls, List<Call.CallDetail> uncoveredCalls) {
+        Map<String, Call.CallDetail> merged = new LinkedHashMap<>();
+        uncoveredCalls.forEach(call -> merged.put(call.getId(), call));
+        calls.forEach(call -> merged.putIfAbsent(call.getId(), call));
+        return new ArrayList<>(merged.values());
+    }
+
+    private Call.CallDetail buildCall(RelationDefineUtil.RelationDefine define, DetectPoint detectPoint) {
+        Call.CallDetail call = new Call.CallDetail();
+        call.setSource(String.valueOf(define.getSource()));
+        call.setTarget(String.valueOf(define.getDest()));
+        call.setComponentId(define.getComponentId());
+        call.setDetectPoint(detectPoint);
+        call.generateID();
+        return call;
+    }
+
     private Node buildEndpointNode(String endpointId) {
         Node node = new Node();
         node.setId(endpointId);
@@ -191,4 +374,16 @@ public class TopologyQueryService implements Service {
         node.setReal(true);
         return node;
     }
+
+    private static class Edges {
+        private final Set<String> edges = new HashSet<>();
+        /**
+         * The last time bucket before the first edge set, or -1 if the edge sets cover all the time buckets.
+         */
+        private long uncoveredEndTB = -1;
+
+        private boolean isUncovered() {
+            return uncoveredEndTB >= 0;
+        }
+    }
 }
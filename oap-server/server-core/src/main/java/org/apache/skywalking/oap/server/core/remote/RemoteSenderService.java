@@ -65,21 +65,26 @@ public class RemoteSenderService implements Service {
         RemoteClient remoteClient = null;
 
         List<RemoteClient> clientList = clientManager.getRemoteClient();
-        if (clientList.size() == 0) {
-            logger.warn(
-                "There is no available remote server for now, ignore the streaming data until the cluster metadata initialized.");
-            return;
+        if (clientList.size() > 0) {
+            switch (selector) {
+                case HashCode:
+                    remoteClient = hashCodeSelector.select(clientList, streamData);
+                    break;
+                case Rolling:
+                    remoteClient = rollingSelector.select(clientList, streamData);
+                    break;
+                case ForeverFirst:
+                    remoteClient = foreverFirstSelector.select(clientList, streamData);
+                    break;
+            }
+            remoteClient = clientManager.routeAround(clientList, remoteClient);
         }
-        switch (selector) {
-            case HashCode:
-                remoteClient = hashCodeSelector.select(clientList, streamData);
-                break;
-            case Rolling:
-                remoteClient = rollingSelector.select(clientList, streamData);
-                break;
-            case ForeverFirst:
-                remoteClient = foreverFirstSelector.select(clientList, streamData);
-                break;
+        if (remoteClient == null) {
+            if (!clientManager.spill(nextWorkName, streamData)) {
+                logger.warn(
+                    "There is no available remote server for now, ignore the streaming data until the cluster metadata initialized.");
+            }
+            return;
         }
         remoteClient.push(nextWorkName, streamData);
     }
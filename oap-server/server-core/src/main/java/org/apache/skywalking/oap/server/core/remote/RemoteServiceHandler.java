@@ -53,6 +53,7 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
     private CounterMetrics remoteInCounter;
     private CounterMetrics remoteInErrorCounter;
     private CounterMetrics remoteInTargetNotFoundCounter;
+    private CounterMetrics remoteInBytesCounter;
     private HistogramMetrics remoteInHistogram;
 
     public RemoteServiceHandler(ModuleDefineHolder moduleDefineHolder) {
@@ -82,6 +83,14 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
                                                               "The error number(server side) of inside remote handler target worker not found. May be caused by unmatched OAL scrips.",
                                                               MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
                                                           );
+        remoteInBytesCounter = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                 .provider()
+                                                 .getService(MetricsCreator.class)
+                                                 .createCounter(
+                                                     "remote_in_bytes",
+                                                     "The serialized bytes(server side) of inside remote inside aggregate rpc.",
+                                                     MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+                                                 );
         remoteInHistogram = moduleDefineHolder.find(TelemetryModule.NAME)
                                               .provider()
                                               .getService(MetricsCreator.class)
@@ -111,6 +120,7 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
             @Override
             public void onNext(RemoteMessage message) {
                 remoteInCounter.inc();
+                remoteInBytesCounter.inc(message.getSerializedSize());
                 HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
                 try {
                     String nextWorkerName = message.getNextWorkerName();
@@ -18,19 +18,24 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import io.netty.handler.ssl.SslContext;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
+import org.apache.skywalking.oap.server.core.worker.DataCarrierMetrics;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
@@ -43,21 +48,36 @@ import org.slf4j.LoggerFactory;
 /**
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
  * buffering the message and sending the message by batch.
+ * <p>
+ * The batches which could not reach the server, and all batches after the client retired, are handed over to the
+ * failover, which routes them to the other OAP servers.
  */
 public class GRPCRemoteClient implements RemoteClient {
 
     private static final Logger logger = LoggerFactory.getLogger(GRPCRemoteClient.class);
 
+    /**
+     * The client is unhealthy after this number of consecutive send failures, until the remote timeout passes.
+     */
+    private static final int MAX_SEND_FAILURES = 3;
+
     private final int channelSize;
     private final int bufferSize;
     private final Address address;
     private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
+    private final AtomicInteger sendFailures = new AtomicInteger(0);
+    private volatile long lastSendFailureTime;
+    private volatile boolean retired;
+    private final BiConsumer<Address, List<RemoteMessage>> failover;
     private SslContext sslContext;
     private GRPCClient client;
     private DataCarrier<RemoteMessage> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
+    private CounterMetrics remoteOutBytesCounter;
+    private DataCarrierMetrics dataCarrierMetrics;
+    private final ModuleDefineHolder moduleDefineHolder;
     private int remoteTimeout;
 
     public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
@@ -66,12 +86,27 @@ public class GRPCRemoteClient implements RemoteClient {
                             final int bufferSize,
                             final int remoteTimeout,
                             final SslContext sslContext) {
+        this(moduleDefineHolder, address, channelSize, bufferSize, remoteTimeout, sslContext, null);
+    }
 
+    /**
+     * @param failover receives the address of this client and the messages it could not send, nullable.
+     */
+    public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
+                            final Address address,
+                            final int channelSize,
+                            final int bufferSize,
+                            final int remoteTimeout,
+                            final SslContext sslContext,
+                            final BiConsumer<Address, List<RemoteMessage>> failover) {
+
+        this.moduleDefineHolder = moduleDefineHolder;
         this.address = address;
         this.channelSize = channelSize;
         this.bufferSize = bufferSize;
         this.remoteTimeout = remoteTimeout;
         this.sslContext = sslContext;
+        this.failover = failover;
 
         remoteOutCounter = moduleDefineHolder.find(TelemetryModule.NAME)
                                              .provider()
@@ -83,12 +118,23 @@ public class GRPCRemoteClient implements RemoteClient {
                                                   .getService(MetricsCreator.class)
                                                   .createCounter("remote_out_error_count", "The error number(client side) of inside remote inside aggregate rpc.", new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address
                                                                                                                                                                                                                                   .toString(), "N"));
+        remoteOutBytesCounter = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                  .provider()
+                                                  .getService(MetricsCreator.class)
+                                                  .createCounter(
+                                                      "remote_out_bytes",
+                                                      "The serialized bytes(client side) of inside remote inside aggregate rpc.",
+                                                      new MetricsTag.Keys("dest", "self"),
+                                                      new MetricsTag.Values(address.toString(), "N")
+                                                  );
     }
 
     @Override
     public void connect() {
         if (!isConnect) {
             this.getClient().connect();
+            this.dataCarrierMetrics = new DataCarrierMetrics(
+                moduleDefineHolder, this.getDataCarrier(), "GRPCRemoteClient." + address.toString());
             this.getDataCarrier().consume(new RemoteMessageConsumer(), 1);
             this.isConnect = true;
         }
@@ -144,6 +190,44 @@ public class GRPCRemoteClient implements RemoteClient {
         this.getDataCarrier().produce(builder.build());
     }
 
+    /**
+     * Stop sending to the server, the buffered messages and the ones pushed later go to the failover. Called when the
+     * server left the cluster, before the client is closed.
+     */
+    void retire() {
+        this.retired = true;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    long getQueueDepth() {
+        return Objects.isNull(this.carrier) ? 0 : this.carrier.getQueueDepth();
+    }
+
+    /**
+     * @return false if the client retired, the channel is failing, or the latest sends failed within the remote
+     * timeout.
+     */
+    @Override
+    public boolean isHealthy() {
+        if (retired || !isConnect) {
+            return false;
+        }
+        if (sendFailures.get() >= MAX_SEND_FAILURES
+            && System.currentTimeMillis() - lastSendFailureTime < TimeUnit.SECONDS.toMillis(remoteTimeout)) {
+            return false;
+        }
+        ConnectivityState state = getChannel().getState(true);
+        return state != ConnectivityState.TRANSIENT_FAILURE && state != ConnectivityState.SHUTDOWN;
+    }
+
+    private void onSendFailure() {
+        lastSendFailureTime = System.currentTimeMillis();
+        sendFailures.incrementAndGet();
+    }
+
     class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
         @Override
         public void init() {
@@ -151,15 +235,26 @@ public class GRPCRemoteClient implements RemoteClient {
 
         @Override
         public void consume(List<RemoteMessage> remoteMessages) {
+            if (retired && Objects.nonNull(failover)) {
+                failover.accept(address, remoteMessages);
+                return;
+            }
             try {
-                StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
+                dataCarrierMetrics.observe();
+                // The list is reused by the consumer thread, keep a copy in case of the batch fails asynchronously.
+                StreamObserver<RemoteMessage> streamObserver = createStreamObserver(
+                    Objects.nonNull(failover) ? new ArrayList<>(remoteMessages) : null);
+                long bytes = 0;
                 for (RemoteMessage remoteMessage : remoteMessages) {
                     remoteOutCounter.inc();
+                    bytes += remoteMessage.getSerializedSize();
                     streamObserver.onNext(remoteMessage);
                 }
                 streamObserver.onCompleted();
+                remoteOutBytesCounter.inc(bytes);
             } catch (Throwable t) {
                 remoteOutErrorCounter.inc();
+                onSendFailure();
                 logger.error(t.getMessage(), t);
             }
         }
@@ -178,9 +273,10 @@ public class GRPCRemoteClient implements RemoteClient {
      * Create a gRPC stream observer to sending stream data, one stream observer could send multiple stream data by a
      * single consume. The max number of concurrency allowed at the same time is 10.
      *
+     * @param batch the messages going to be sent, routed to the failover when the server is unavailable, nullable.
      * @return stream observer
      */
-    private StreamObserver<RemoteMessage> createStreamObserver() {
+    private StreamObserver<RemoteMessage> createStreamObserver(List<RemoteMessage> batch) {
         int sleepTotalMillis = 0;
         int sleepMillis = 10;
         while (concurrentStreamObserverNumber.incrementAndGet() > 10) {
@@ -207,12 +303,20 @@ public class GRPCRemoteClient implements RemoteClient {
             @Override
             public void onError(Throwable throwable) {
                 concurrentStreamObserverNumber.addAndGet(-1);
+                onSendFailure();
                 logger.error(throwable.getMessage(), throwable);
+                // UNAVAILABLE means the batch didn't reach the server,
+                // rerouting on the other errors may double the metrics.
+                if (Objects.nonNull(batch) && Status.fromThrowable(throwable)
+                                                    .getCode() == Status.Code.UNAVAILABLE) {
+                    failover.accept(address, batch);
+                }
             }
 
             @Override
             public void onCompleted() {
                 concurrentStreamObserverNumber.addAndGet(-1);
+                sendFailures.set(0);
             }
         });
     }
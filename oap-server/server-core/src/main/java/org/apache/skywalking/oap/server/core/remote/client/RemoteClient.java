@@ -29,4 +29,11 @@ public interface RemoteClient extends Comparable<RemoteClient> {
     void close();
 
     void push(String nextWorkerName, StreamData streamData);
+
+    /**
+     * @return false if the stream data should not be routed to this client for now.
+     */
+    default boolean isHealthy() {
+        return true;
+    }
 }
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.remote.client;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.grpc.netty.GrpcSslContexts;
 import io.netty.handler.ssl.SslContext;
 import java.io.File;
@@ -31,16 +32,26 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.net.ssl.SSLException;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.cluster.ClusterModule;
 import org.apache.skywalking.oap.server.core.cluster.ClusterNodesQuery;
 import org.apache.skywalking.oap.server.core.cluster.RemoteInstance;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.selector.ForeverFirstSelector;
+import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
+import org.apache.skywalking.oap.server.core.worker.RemoteHandleWorker;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.library.module.Service;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
@@ -53,6 +64,11 @@ import org.slf4j.LoggerFactory;
 /**
  * This class manages the connections between OAP servers. There is a task schedule that will automatically query a
  * server list from the cluster module. Such as Zookeeper cluster module or Kubernetes cluster module.
+ * <p>
+ * The client list keeps all the servers in the cluster, so the owner of a hash code only changes with the cluster. The
+ * share of an unhealthy server goes to the next healthy server in the list until it recovers, the clients of the removed
+ * servers are drained to the latest owners before closed. The messages without any reachable server are spilled into a
+ * local file if the spill is set, and replayed once there are servers again.
  */
 public class RemoteClientManager implements Service {
 
@@ -61,9 +77,16 @@ public class RemoteClientManager implements Service {
     private final ModuleDefineHolder moduleDefineHolder;
     private SslContext sslContext;
     private ClusterNodesQuery clusterNodesQuery;
-    private volatile List<RemoteClient> usingClients;
+    private volatile List<RemoteClient> allClients;
+    private volatile Set<Address> unhealthyAddresses;
     private GaugeMetrics gauge;
     private int remoteTimeout;
+    private final ExecutorService drainExecutor;
+    private final HashCodeSelector hashCodeSelector = new HashCodeSelector();
+    private final ForeverFirstSelector foreverFirstSelector = new ForeverFirstSelector();
+    private IWorkerInstanceGetter workerInstanceGetter;
+    @Setter
+    private RemoteMessageSpill spill;
 
     /**
      * Initial the manager for all remote communication clients.
@@ -91,12 +114,17 @@ public class RemoteClientManager implements Service {
      */
     public RemoteClientManager(final ModuleDefineHolder moduleDefineHolder, final int remoteTimeout) {
         this.moduleDefineHolder = moduleDefineHolder;
-        this.usingClients = ImmutableList.of();
+        this.allClients = ImmutableList.of();
+        this.unhealthyAddresses = Collections.emptySet();
         this.remoteTimeout = remoteTimeout;
+        this.drainExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("RemoteClientDrain-%d").build());
     }
 
     public void start() {
-        Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(this::refresh, 1, 5, TimeUnit.SECONDS);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::refresh, 1, 5, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::checkHealth, 2, 1, TimeUnit.SECONDS);
     }
 
     /**
@@ -148,13 +176,47 @@ public class RemoteClientManager implements Service {
         }
     }
 
+    /**
+     * Find the unhealthy servers, whose shares are routed around until they recover, and replay the spilled messages
+     * when there are servers to send them to.
+     */
+    void checkHealth() {
+        try {
+            final List<RemoteClient> clients = this.allClients;
+            final Set<Address> unhealthy = clients.stream()
+                                                  .filter(client -> !client.isHealthy())
+                                                  .map(RemoteClient::getAddress)
+                                                  .collect(Collectors.toSet());
+            if (!unhealthy.equals(unhealthyAddresses)) {
+                logger.warn("Unhealthy remote clients changed from {} to {}.", unhealthyAddresses, unhealthy);
+                this.unhealthyAddresses = unhealthy;
+            }
+
+            if (Objects.nonNull(spill)) {
+                if (!spill.isEmpty() && unhealthy.size() < clients.size()) {
+                    final int[] dropped = {0};
+                    int replayed = spill.replay(message -> {
+                        if (!route(message, null)) {
+                            dropped[0]++;
+                        }
+                    });
+                    logger.info("{} spilled remote messages replayed, {} dropped.", replayed, dropped[0]);
+                } else {
+                    spill.flush();
+                }
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+    }
+
     /**
      * Print the client list into log for confirm how many clients built.
      */
     private void printRemoteClientList() {
         if (logger.isDebugEnabled()) {
             StringBuilder addresses = new StringBuilder();
-            this.usingClients.forEach(client -> addresses.append(client.getAddress().toString()).append(","));
+            this.allClients.forEach(client -> addresses.append(client.getAddress().toString()).append(","));
             logger.debug("Remote client list: {}", addresses);
         }
     }
@@ -179,8 +241,127 @@ public class RemoteClientManager implements Service {
         return newInstanceList;
     }
 
+    /**
+     * @return the clients of all the servers in the cluster, including the unhealthy ones, the selected client should
+     * be checked by {@link #routeAround(List, RemoteClient)}.
+     */
     public List<RemoteClient> getRemoteClient() {
-        return usingClients;
+        return allClients;
+    }
+
+    /**
+     * Keep the owner of every hash code stable while a server is unhealthy. Only the share of the unhealthy server
+     * moves, to the next healthy client in the list, the other ones stay, so the OAP nodes still agree on them.
+     *
+     * @param clients  the list the client is selected from, got by {@link #getRemoteClient()}.
+     * @param selected the client selected from the list.
+     * @return the selected client if it is healthy, or the next healthy one, or null if all are unhealthy.
+     */
+    public RemoteClient routeAround(List<RemoteClient> clients, RemoteClient selected) {
+        return routeAround(clients, selected, null);
+    }
+
+    private RemoteClient routeAround(List<RemoteClient> clients, RemoteClient selected, Address excluded) {
+        final Set<Address> unhealthy = this.unhealthyAddresses;
+        if (isRoutable(selected, unhealthy, excluded)) {
+            return selected;
+        }
+        final int index = clients.indexOf(selected);
+        for (int i = 1; i < clients.size(); i++) {
+            final RemoteClient next = clients.get((index + i) % clients.size());
+            if (isRoutable(next, unhealthy, excluded)) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isRoutable(RemoteClient client, Set<Address> unhealthy, Address excluded) {
+        return !unhealthy.contains(client.getAddress()) && !client.getAddress().equals(excluded);
+    }
+
+    /**
+     * Keep the stream data in the spill file, when there is no remote server to send it.
+     *
+     * @return false if the spill isn't set or full.
+     */
+    public boolean spill(String nextWorkerName, StreamData streamData) {
+        if (Objects.isNull(spill)) {
+            return false;
+        }
+        return spill.append(RemoteMessage.newBuilder()
+                                         .setNextWorkerName(nextWorkerName)
+                                         .setRemoteData(streamData.serialize())
+                                         .build());
+    }
+
+    /**
+     * Route the messages which could not be sent to the given server to their latest owners, other than the given
+     * server, or spill them when there is no other one.
+     */
+    void reroute(Address from, List<RemoteMessage> messages) {
+        int dropped = 0;
+        for (RemoteMessage message : messages) {
+            if (!route(message, from) && (Objects.isNull(spill) || !spill.append(message))) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            logger.warn("{} remote messages to {} dropped, no other remote server to reroute.", dropped, from);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{} remote messages to {} rerouted.", messages.size(), from);
+        }
+    }
+
+    /**
+     * Select the client the way of {@link org.apache.skywalking.oap.server.core.remote.RemoteSenderService}, the
+     * register sources go to the first one, the others by hash code, then route around the unhealthy one.
+     *
+     * @param excluded the address not to route to, nullable.
+     * @return false if there is no client to route to.
+     */
+    private boolean route(RemoteMessage message, Address excluded) {
+        final List<RemoteClient> clients = this.allClients;
+        if (clients.isEmpty()) {
+            return false;
+        }
+        final StreamData streamData = deserialize(message);
+        if (Objects.isNull(streamData)) {
+            return true;
+        }
+        final RemoteClient selected = streamData instanceof RegisterSource
+            ? foreverFirstSelector.select(clients, streamData)
+            : hashCodeSelector.select(clients, streamData);
+        final RemoteClient client = routeAround(clients, selected, excluded);
+        if (Objects.isNull(client)) {
+            return false;
+        }
+        client.push(message.getNextWorkerName(), streamData);
+        return true;
+    }
+
+    private StreamData deserialize(RemoteMessage message) {
+        if (Objects.isNull(workerInstanceGetter)) {
+            workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
+                                                     .provider()
+                                                     .getService(IWorkerInstanceGetter.class);
+        }
+        RemoteHandleWorker handleWorker = workerInstanceGetter.get(message.getNextWorkerName());
+        if (Objects.isNull(handleWorker)) {
+            logger.warn(
+                "Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
+                message.getNextWorkerName()
+            );
+            return null;
+        }
+        try {
+            StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+            streamData.deserialize(message.getRemoteData());
+            return streamData;
+        } catch (InstantiationException | IllegalAccessException e) {
+            logger.error(e.getMessage(), e);
+            return null;
+        }
     }
 
     /**
@@ -192,7 +373,7 @@ public class RemoteClientManager implements Service {
      * @param remoteInstances Remote instance collection by query cluster config.
      */
     private void reBuildRemoteClients(List<RemoteInstance> remoteInstances) {
-        final Map<Address, RemoteClientAction> remoteClientCollection = this.usingClients.stream()
+        final Map<Address, RemoteClientAction> remoteClientCollection = this.allClients.stream()
                                                                                          .collect(Collectors.toMap(RemoteClient::getAddress, client -> new RemoteClientAction(client, Action.Close)));
 
         final Map<Address, RemoteClientAction> latestRemoteClients = remoteInstances.stream()
@@ -216,33 +397,59 @@ public class RemoteClientManager implements Service {
                     newRemoteClients.add(clientAction.getRemoteClient());
                     break;
                 case Create:
-                    if (address.isSelf()) {
-                        RemoteClient client = new SelfRemoteClient(moduleDefineHolder, address);
-                        newRemoteClients.add(client);
-                    } else {
-                        RemoteClient client;
-                        client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext);
-                        client.connect();
-                        newRemoteClients.add(client);
-                    }
+                    RemoteClient client = newRemoteClient(address);
+                    client.connect();
+                    newRemoteClients.add(client);
                     break;
             }
         });
 
         //for stable ordering for rolling selector
         Collections.sort(newRemoteClients);
-        this.usingClients = ImmutableList.copyOf(newRemoteClients);
+        this.allClients = ImmutableList.copyOf(newRemoteClients);
 
         remoteClientCollection.values()
                               .stream()
                               .filter(remoteClientAction -> remoteClientAction.getAction().equals(Action.Close))
-                              .forEach(remoteClientAction -> remoteClientAction.getRemoteClient().close());
+                              .forEach(remoteClientAction -> drain(remoteClientAction.getRemoteClient()));
+    }
+
+    RemoteClient newRemoteClient(Address address) {
+        if (address.isSelf()) {
+            return new SelfRemoteClient(moduleDefineHolder, address);
+        }
+        return new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext, this::reroute);
+    }
+
+    /**
+     * Retire the client of the removed server, so the buffered messages are rerouted to the latest owners, and close it
+     * once the buffer is empty or the remote timeout passes.
+     */
+    private void drain(RemoteClient client) {
+        if (!(client instanceof GRPCRemoteClient)) {
+            client.close();
+            return;
+        }
+        final GRPCRemoteClient grpcClient = (GRPCRemoteClient) client;
+        grpcClient.retire();
+        drainExecutor.execute(() -> {
+            final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(remoteTimeout);
+            try {
+                while (grpcClient.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            grpcClient.close();
+        });
     }
 
     private boolean compare(List<RemoteInstance> remoteInstances) {
-        if (usingClients.size() == remoteInstances.size()) {
-            for (int i = 0; i < usingClients.size(); i++) {
-                if (!usingClients.get(i).getAddress().equals(remoteInstances.get(i).getAddress())) {
+        final List<RemoteClient> clients = this.allClients;
+        if (clients.size() == remoteInstances.size()) {
+            for (int i = 0; i < clients.size(); i++) {
+                if (!clients.get(i).getAddress().equals(remoteInstances.get(i).getAddress())) {
                     return false;
                 }
             }
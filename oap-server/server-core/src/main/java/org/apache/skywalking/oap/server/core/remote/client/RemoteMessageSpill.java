@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only local file holding the remote messages which have no reachable OAP node to go. The messages are
+ * length-delimited protobuf records, so they are replayed in the order they were spilled, including the ones left by the
+ * previous run of this OAP node. The file is truncated after a replay.
+ */
+public class RemoteMessageSpill {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteMessageSpill.class);
+
+    private final File file;
+    private final long maxSize;
+    private OutputStream output;
+    private long size;
+
+    /**
+     * @param file    the spill file, created when the first message spills.
+     * @param maxSize the max size of the spill file in bytes, the messages beyond it are dropped.
+     */
+    public RemoteMessageSpill(File file, long maxSize) {
+        this.file = file;
+        this.maxSize = maxSize;
+        this.size = file.exists() ? file.length() : 0;
+    }
+
+    /**
+     * @return false if the message is dropped because the spill file is full or not writable.
+     */
+    public synchronized boolean append(RemoteMessage message) {
+        int messageSize = message.getSerializedSize();
+        // 5 bytes at most for the varint length prefix.
+        if (size + messageSize + 5 > maxSize) {
+            return false;
+        }
+        try {
+            if (Objects.isNull(output)) {
+                output = new BufferedOutputStream(new FileOutputStream(file, true));
+            }
+            message.writeDelimitedTo(output);
+            size += messageSize + 5;
+            return true;
+        } catch (IOException e) {
+            logger.error("Spill remote message to {} failure.", file, e);
+            closeOutput();
+            return false;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Flush the spilled messages to the file, in case of the OAP process crashes before they are replayed.
+     */
+    public synchronized void flush() {
+        if (Objects.nonNull(output)) {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                logger.error("Flush remote message spill file {} failure.", file, e);
+            }
+        }
+    }
+
+    /**
+     * Read all spilled messages into the consumer, then truncate the spill file.
+     *
+     * @return the number of the replayed messages.
+     */
+    public synchronized int replay(Consumer<RemoteMessage> consumer) {
+        closeOutput();
+        if (!file.exists()) {
+            size = 0;
+            return 0;
+        }
+
+        int replayed = 0;
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            RemoteMessage message;
+            while ((message = RemoteMessage.parseDelimitedFrom(input)) != null) {
+                consumer.accept(message);
+                replayed++;
+            }
+        } catch (IOException e) {
+            // The tail of the file may be broken when the OAP crashed while spilling, keep what has been replayed.
+            logger.error("Replay remote message spill file {} failure, {} messages replayed.", file, replayed, e);
+        }
+
+        try {
+            new FileOutputStream(file, false).close();
+        } catch (IOException e) {
+            logger.error("Truncate remote message spill file {} failure.", file, e);
+        }
+        size = 0;
+        return replayed;
+    }
+
+    private void closeOutput() {
+        if (Objects.nonNull(output)) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                logger.error("Close remote message spill file {} failure.", file, e);
+            }
+            output = null;
+        }
+    }
+}
@@ -67,6 +67,7 @@ public class DefaultScopeDefine {
     public static final int PROFILE_TASK = 26;
     public static final int PROFILE_TASK_LOG = 27;
     public static final int PROFILE_TASK_SEGMENT_SNAPSHOT = 28;
+    public static final int TOPOLOGY_EDGE_SET = 29;
 
     /**
      * Catalog of scope, the metrics processor could use this to group all generated metrics by oal rt.
@@ -28,5 +28,13 @@ public abstract class Source {
     @Setter
     private long timeBucket;
 
+    /**
+     * The number of the identical requests this source stands for. It is more than 1 when a receiver folds them
+     * before dispatching, and the OAL metrics apply their entrance method this many times.
+     */
+    @Getter
+    @Setter
+    private long weight = 1;
+
     public abstract String getEntityId();
 }
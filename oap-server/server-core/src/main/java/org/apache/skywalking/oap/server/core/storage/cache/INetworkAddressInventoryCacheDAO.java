@@ -29,4 +29,13 @@ public interface INetworkAddressInventoryCacheDAO extends DAO {
     NetworkAddressInventory get(int addressId);
 
     List<NetworkAddressInventory> loadLastUpdate(long lastUpdateTime);
+
+    /**
+     * Load the inventories whose sequence is greater than the given one, ordered by the sequence. Used to load the
+     * whole inventory page by page, when the cache warms up.
+     *
+     * @param sequence the last sequence of the previous page, or 0 for the first page.
+     * @param size     the max number of the inventories of the page.
+     */
+    List<NetworkAddressInventory> loadAfter(int sequence, int size);
 }
@@ -31,4 +31,13 @@ public interface IServiceInstanceInventoryCacheDAO extends DAO {
     int getServiceInstanceId(int serviceId, int addressId);
 
     List<ServiceInstanceInventory> loadLastUpdate(long lastUpdateTime);
+
+    /**
+     * Load the inventories whose sequence is greater than the given one, ordered by the sequence. Used to load the
+     * whole inventory page by page, when the cache warms up.
+     *
+     * @param sequence the last sequence of the previous page, or 0 for the first page.
+     * @param size     the max number of the inventories of the page.
+     */
+    List<ServiceInstanceInventory> loadAfter(int sequence, int size);
 }
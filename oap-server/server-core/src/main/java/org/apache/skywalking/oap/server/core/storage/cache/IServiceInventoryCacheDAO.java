@@ -31,4 +31,13 @@ public interface IServiceInventoryCacheDAO extends DAO {
     ServiceInventory get(int serviceId);
 
     List<ServiceInventory> loadLastUpdate(long lastUpdateTime);
+
+    /**
+     * Load the inventories whose sequence is greater than the given one, ordered by the sequence. Used to load the
+     * whole inventory page by page, when the cache warms up.
+     *
+     * @param sequence the last sequence of the previous page, or 0 for the first page.
+     * @param size     the max number of the inventories of the page.
+     */
+    List<ServiceInventory> loadAfter(int sequence, int size);
 }
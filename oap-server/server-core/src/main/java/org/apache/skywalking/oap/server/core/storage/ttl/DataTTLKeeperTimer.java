@@ -18,9 +18,20 @@
 
 package org.apache.skywalking.oap.server.core.storage.ttl;
 
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
@@ -49,12 +60,24 @@ import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 public enum DataTTLKeeperTimer {
     INSTANCE;
 
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
     private ModuleManager moduleManager;
     private ClusterNodesQuery clusterNodesQuery;
+    private ExecutorService deleteExecutor;
+    /**
+     * The last time of deleting the history of the model successfully, by model name. The models waiting for the
+     * longest time go first, so a round interrupted or failed doesn't start from the same models again.
+     */
+    private final Map<String, Long> lastDeleteTimes = new ConcurrentHashMap<>();
 
     public void start(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
         this.clusterNodesQuery = moduleManager.find(ClusterModule.NAME).provider().getService(ClusterNodesQuery.class);
+        this.deleteExecutor = Executors.newFixedThreadPool(
+            Math.max(1, moduleConfig.getDataKeeperExecuteThreads()),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("DataTTLKeeper-%d").build()
+        );
 
         Executors.newSingleThreadScheduledExecutor()
                  .scheduleAtFixedRate(
@@ -66,24 +89,42 @@ public enum DataTTLKeeperTimer {
     }
 
     /**
-     * DataTTLKeeperTimer starts in every OAP node, but the deletion only work when it is as the first node in the OAP
-     * node list from {@link ClusterNodesQuery}.
+     * DataTTLKeeperTimer starts in every OAP node, the models are shared among the OAP nodes from {@link
+     * ClusterNodesQuery}, each node deletes the history of its own models in parallel.
      */
     private void delete() {
         List<RemoteInstance> remoteInstances = clusterNodesQuery.queryRemoteNodes();
-        if (CollectionUtils.isNotEmpty(remoteInstances) && !remoteInstances.get(0).getAddress().isSelf()) {
-            log.info("The selected first getAddress is {}. Skip.", remoteInstances.get(0).toString());
+
+        IModelGetter modelGetter = moduleManager.find(CoreModule.NAME).provider().getService(IModelGetter.class);
+        List<Model> models = new ArrayList<>();
+        for (Model model : modelGetter.getModels()) {
+            if (model.isDeleteHistory() && isSelf(selectNode(model.getName(), remoteInstances))) {
+                models.add(model);
+            }
+        }
+        if (models.isEmpty()) {
+            log.info("No model is assigned to this OAP node to remove expired data. Skip.");
             return;
         }
 
-        log.info("Beginning to remove expired metrics from the storage.");
-        IModelGetter modelGetter = moduleManager.find(CoreModule.NAME).provider().getService(IModelGetter.class);
-        List<Model> models = modelGetter.getModels();
-        models.forEach(model -> {
-            if (model.isDeleteHistory()) {
-                execute(model);
+        log.info("Beginning to remove expired data of {} models from the storage.", models.size());
+        models.sort(Comparator.comparingLong(model -> lastDeleteTimes.getOrDefault(model.getName(), 0L)));
+
+        List<Future<?>> futures = new ArrayList<>(models.size());
+        for (Model model : models) {
+            futures.add(deleteExecutor.submit(() -> execute(model)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                return;
+            } catch (ExecutionException e) {
+                log.error(e.getMessage(), e);
             }
-        });
+        }
     }
 
     private void execute(Model model) {
@@ -92,9 +133,41 @@ public enum DataTTLKeeperTimer {
                          .provider()
                          .getService(IHistoryDeleteDAO.class)
                          .deleteHistory(model, Metrics.TIME_BUCKET);
+            lastDeleteTimes.put(model.getName(), System.currentTimeMillis());
         } catch (IOException e) {
             log.warn("History of {} delete failure", model.getName());
             log.error(e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Rendezvous hashing, the model belongs to the node with the highest hash of the model name and node address. All
+     * nodes choose the same one with the same node list, and only the models of the joined or left nodes are moved.
+     *
+     * @return the node deleting the history of the model, null if the node list is empty.
+     */
+    static RemoteInstance selectNode(String modelName, List<RemoteInstance> remoteInstances) {
+        if (CollectionUtils.isEmpty(remoteInstances)) {
+            return null;
+        }
+
+        RemoteInstance selected = null;
+        int selectedHash = 0;
+        for (RemoteInstance remoteInstance : remoteInstances) {
+            int hash = HASH_FUNCTION.hashString(modelName + "@" + remoteInstance.getAddress(), StandardCharsets.UTF_8)
+                                    .asInt();
+            if (selected == null || hash > selectedHash || (hash == selectedHash && remoteInstance.compareTo(selected) < 0)) {
+                selected = remoteInstance;
+                selectedHash = hash;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return true if the node is this OAP node, or no cluster node found, such as the standalone mode.
+     */
+    private static boolean isSelf(RemoteInstance remoteInstance) {
+        return remoteInstance == null || remoteInstance.getAddress().isSelf();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.worker;
+
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * DataCarrierMetrics reports the queue depth and the drop count of a {@link DataCarrier}. {@link #observe()} should be
+ * called by the consumer thread once per consumed batch, rather than in the producer, which is the hot path.
+ */
+public class DataCarrierMetrics {
+    private final DataCarrier<?> dataCarrier;
+    private final GaugeMetrics queueDepthGauge;
+    private final CounterMetrics dropCounter;
+    private long reportedDropCount = 0;
+
+    /**
+     * @param channel the name of the channel in the telemetry, should be unique in the OAP.
+     */
+    public DataCarrierMetrics(ModuleDefineHolder moduleDefineHolder, DataCarrier<?> dataCarrier, String channel) {
+        this.dataCarrier = dataCarrier;
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        queueDepthGauge = metricsCreator.createGauge(
+            "datacarrier_queue_depth", "The number of data waiting in the queue of the channel",
+            new MetricsTag.Keys("channel"), new MetricsTag.Values(channel)
+        );
+        dropCounter = metricsCreator.createCounter(
+            "datacarrier_drop_count", "The number of data dropped by the channel",
+            new MetricsTag.Keys("channel"), new MetricsTag.Values(channel)
+        );
+    }
+
+    public void observe() {
+        queueDepthGauge.setValue(dataCarrier.getQueueDepth());
+        long dropCount = dataCarrier.getDropCount();
+        if (dropCount > reportedDropCount) {
+            dropCounter.inc(dropCount - reportedDropCount);
+            reportedDropCount = dropCount;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.source.Endpoint;
+import org.apache.skywalking.oap.server.core.source.Service;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DispatcherManagerTest {
+
+    private static final List<String> DISPATCHED = new ArrayList<>();
+
+    @Before
+    public void clear() {
+        DISPATCHED.clear();
+    }
+
+    @Test
+    public void testForwardToAllDispatchersOfScope() throws IllegalAccessException, InstantiationException {
+        DispatcherManager dispatcherManager = new DispatcherManager();
+        dispatcherManager.addIfAsSourceDispatcher(FirstServiceDispatcher.class);
+        dispatcherManager.addIfAsSourceDispatcher(SecondServiceDispatcher.class);
+        dispatcherManager.buildDispatchTable(new MetricsCreatorNoop());
+
+        Service service = new Service();
+        service.setName("service-a");
+        dispatcherManager.forward(service);
+
+        Assert.assertEquals(2, DISPATCHED.size());
+        Assert.assertEquals("first:service-a", DISPATCHED.get(0));
+        Assert.assertEquals("second:service-a", DISPATCHED.get(1));
+    }
+
+    @Test
+    public void testForwardWithoutDispatcher() throws IllegalAccessException, InstantiationException {
+        DispatcherManager dispatcherManager = new DispatcherManager();
+        dispatcherManager.addIfAsSourceDispatcher(FirstServiceDispatcher.class);
+        dispatcherManager.buildDispatchTable(new MetricsCreatorNoop());
+
+        dispatcherManager.forward(new Endpoint());
+        dispatcherManager.forward(null);
+
+        Assert.assertTrue(DISPATCHED.isEmpty());
+    }
+
+    @Test
+    public void testAddAfterBuilt() throws IllegalAccessException, InstantiationException {
+        DispatcherManager dispatcherManager = new DispatcherManager();
+        dispatcherManager.addIfAsSourceDispatcher(FirstServiceDispatcher.class);
+        dispatcherManager.buildDispatchTable(new MetricsCreatorNoop());
+        dispatcherManager.addIfAsSourceDispatcher(SecondServiceDispatcher.class);
+        dispatcherManager.addIfAsSourceDispatcher(EndpointDispatcher.class);
+
+        Service service = new Service();
+        service.setName("service-a");
+        dispatcherManager.forward(service);
+        Endpoint endpoint = new Endpoint();
+        endpoint.setName("endpoint-a");
+        dispatcherManager.forward(endpoint);
+
+        Assert.assertEquals(3, DISPATCHED.size());
+        Assert.assertEquals("first:service-a", DISPATCHED.get(0));
+        Assert.assertEquals("second:service-a", DISPATCHED.get(1));
+        Assert.assertEquals("endpoint:endpoint-a", DISPATCHED.get(2));
+    }
+
+    @Test
+    public void testForwardBeforeBuilt() throws IllegalAccessException, InstantiationException {
+        DispatcherManager dispatcherManager = new DispatcherManager();
+        dispatcherManager.addIfAsSourceDispatcher(FirstServiceDispatcher.class);
+
+        Service service = new Service();
+        service.setName("service-a");
+        dispatcherManager.forward(service);
+        Assert.assertTrue(DISPATCHED.isEmpty());
+
+        dispatcherManager.buildDispatchTable(new MetricsCreatorNoop());
+        dispatcherManager.forward(service);
+        Assert.assertEquals(1, DISPATCHED.size());
+    }
+
+    public static class FirstServiceDispatcher implements SourceDispatcher<Service> {
+        @Override
+        public void dispatch(Service source) {
+            DISPATCHED.add("first:" + source.getName());
+        }
+    }
+
+    public static class SecondServiceDispatcher implements SourceDispatcher<Service> {
+        @Override
+        public void dispatch(Service source) {
+            DISPATCHED.add("second:" + source.getName());
+        }
+    }
+
+    public static class EndpointDispatcher implements SourceDispatcher<Endpoint> {
+        @Override
+        public void dispatch(Endpoint source) {
+            DISPATCHED.add("endpoint:" + source.getName());
+        }
+    }
+}
@@ -49,6 +49,31 @@ public class LimitedSizeDataCollectionTest {
         }
     }
 
+    @Test
+    public void testSmallestOfFullGroup() {
+        LimitedSizeDataCollection<MockStorageData> collection = new LimitedSizeDataCollection<>(3);
+        collection.put(new MockStorageData(8));
+        collection.put(new MockStorageData(2));
+        Assert.assertNull(collection.smallestOfFullGroup(new MockStorageData(0)));
+
+        collection.put(new MockStorageData(6));
+        Assert.assertEquals(2, collection.smallestOfFullGroup(new MockStorageData(0)).latency);
+
+        collection.put(new MockStorageData(1));
+        collection.put(new MockStorageData(7));
+        Assert.assertEquals(6, collection.smallestOfFullGroup(new MockStorageData(0)).latency);
+
+        int[] expected = new int[] {
+            6,
+            7,
+            8
+        };
+        int i = 0;
+        for (MockStorageData data : collection.collection()) {
+            Assert.assertEquals(expected[i++], data.latency);
+        }
+    }
+
     private class MockStorageData implements ComparableStorageData {
         private long latency;
 
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.analysis.manual.segment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SegmentDataCodecTest {
+    @After
+    public void reset() {
+        SegmentDataCodec.setCompressThreshold(0);
+    }
+
+    @Test
+    public void testCompressAndDecompress() throws IOException {
+        SegmentDataCodec.setCompressThreshold(64);
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            segment.append("/api/users/").append(i % 10).append("/orders");
+        }
+        byte[] data = segment.toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = SegmentDataCodec.compress(data);
+        Assert.assertTrue(compressed.length < data.length);
+        Assert.assertArrayEquals(data, SegmentDataCodec.decompress(compressed));
+    }
+
+    @Test
+    public void testUncompressedBinary() throws IOException {
+        SegmentDataCodec.setCompressThreshold(64);
+        byte[] small = new byte[] {10, 3, 1, 2, 3};
+        Assert.assertSame(small, SegmentDataCodec.compress(small));
+        Assert.assertSame(small, SegmentDataCodec.decompress(small));
+
+        SegmentDataCodec.setCompressThreshold(0);
+        byte[] large = new byte[1024];
+        large[0] = 10;
+        Assert.assertSame(large, SegmentDataCodec.compress(large));
+        Assert.assertSame(large, SegmentDataCodec.decompress(large));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedBinary() throws IOException {
+        SegmentDataCodec.setCompressThreshold(64);
+        byte[] compressed = SegmentDataCodec.compress(new byte[4096]);
+        byte[] truncated = new byte[compressed.length / 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+        SegmentDataCodec.decompress(truncated);
+    }
+}
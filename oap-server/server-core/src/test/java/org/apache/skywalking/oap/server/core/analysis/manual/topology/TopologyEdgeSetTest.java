@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.topology;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.skywalking.oap.server.core.analysis.manual.RelationDefineUtil;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopologyEdgeSetTest {
+    @Test
+    public void testCombine() {
+        String entityId = TopologyEdgeSet.buildServiceEntityId(DetectPoint.SERVER, 1);
+        TopologyEdgeSet edgeSet = TopologyEdgeSet.of(202003281420L, entityId, edge(1, 2, 3));
+        edgeSet.combine(TopologyEdgeSet.of(202003281420L, entityId, edge(1, 2, 3)));
+        edgeSet.combine(TopologyEdgeSet.of(202003281420L, entityId, edge(2, 4, 3)));
+
+        Assert.assertEquals(2, edgeSet.getEdges().size());
+        Assert.assertTrue(edgeSet.getEdges().contains(edge(2, 4, 3)));
+
+        TopologyEdgeSet hour = (TopologyEdgeSet) edgeSet.toHour();
+        Assert.assertEquals(2020032814L, hour.getTimeBucket());
+        Assert.assertEquals(edgeSet.getEdges(), hour.getEdges());
+    }
+
+    @Test
+    public void testServiceEntityIdSharding() {
+        List<String> entityIds = Arrays.asList(TopologyEdgeSet.buildServiceEntityIds(DetectPoint.SERVER));
+        Assert.assertEquals(TopologyEdgeSet.SERVICE_EDGE_SET_SHARDS, new HashSet<>(entityIds).size());
+
+        Set<String> used = new HashSet<>();
+        for (int serviceId = 1; serviceId <= TopologyEdgeSet.SERVICE_EDGE_SET_SHARDS * 2; serviceId++) {
+            String entityId = TopologyEdgeSet.buildServiceEntityId(DetectPoint.SERVER, serviceId);
+            Assert.assertTrue(entityIds.contains(entityId));
+            used.add(entityId);
+        }
+        Assert.assertEquals(TopologyEdgeSet.SERVICE_EDGE_SET_SHARDS, used.size());
+        Assert.assertFalse(entityIds.contains(TopologyEdgeSet.buildServiceEntityId(DetectPoint.CLIENT, 1)));
+    }
+
+    @Test
+    public void testEndpointEntityIdSharding() {
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < TopologyEdgeSet.ENDPOINT_EDGE_SET_SHARDS * 8; i++) {
+            String endpointName = "/endpoint/" + i;
+            String entityId = TopologyEdgeSet.buildEndpointEntityId(DetectPoint.SERVER, 2, endpointName);
+            Assert.assertEquals(entityId, TopologyEdgeSet.buildEndpointEntityId(DetectPoint.SERVER, 2, endpointName));
+            used.add(entityId);
+        }
+        Assert.assertTrue(used.size() > 1);
+        Assert.assertTrue(used.size() <= TopologyEdgeSet.ENDPOINT_EDGE_SET_SHARDS);
+        Assert.assertFalse(used.contains(TopologyEdgeSet.buildEndpointEntityId(DetectPoint.SERVER, 3, "/endpoint/0")));
+    }
+
+    @Test
+    public void testSerialization() {
+        TopologyEdgeSet edgeSet = TopologyEdgeSet.of(
+            202003281420L, TopologyEdgeSet.buildServiceInstanceEntityId(DetectPoint.CLIENT, 1, 2), edge(5, 6, 3));
+        edgeSet.getEdges().add(edge(7, 6, 3));
+
+        TopologyEdgeSet another = new TopologyEdgeSet();
+        another.deserialize(edgeSet.serialize().build());
+
+        Assert.assertEquals(edgeSet, another);
+        Assert.assertEquals(edgeSet.getEdges(), another.getEdges());
+    }
+
+    @Test
+    public void testPersistence() {
+        TopologyEdgeSet edgeSet = TopologyEdgeSet.of(
+            202003281420L, TopologyEdgeSet.buildEndpointEntityId(DetectPoint.SERVER, 2, "/hello"), edge(1, 2, 3));
+        edgeSet.getEdges().add(edge(2, 3, 3));
+
+        final TopologyEdgeSet.Builder builder = new TopologyEdgeSet.Builder();
+        final TopologyEdgeSet another = builder.map2Data(builder.data2Map(edgeSet));
+
+        Assert.assertEquals(edgeSet, another);
+        Assert.assertEquals(edgeSet.getEdges(), another.getEdges());
+        Assert.assertEquals(edgeSet.id(), another.id());
+    }
+
+    private static String edge(int source, int dest, int componentId) {
+        return RelationDefineUtil.buildEntityId(new RelationDefineUtil.RelationDefine(source, dest, componentId));
+    }
+}
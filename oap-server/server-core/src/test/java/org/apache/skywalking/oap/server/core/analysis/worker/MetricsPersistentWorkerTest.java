@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsPersistentWorkerTest {
+    private ModuleManagerTesting moduleManager;
+
+    @Before
+    public void setUp() {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+    }
+
+    @Test
+    public void testMetricsName() {
+        Assert.assertEquals("service_cpm", MetricsPersistentWorker.metricsName(model(Downsampling.Minute)));
+        Assert.assertEquals("service_cpm", MetricsPersistentWorker.metricsName(model(Downsampling.Hour)));
+        Assert.assertEquals("service_cpm", MetricsPersistentWorker.metricsName(model(Downsampling.Day)));
+        Assert.assertEquals("service_cpm", MetricsPersistentWorker.metricsName(model(Downsampling.Month)));
+    }
+
+    @Test
+    public void testExportSubscribedHourMetrics() {
+        SubscribedExportWorker exportWorker = new SubscribedExportWorker(moduleManager, "service_cpm");
+        MetricsPersistentWorker worker = new MetricsPersistentWorker(
+            moduleManager, model(Downsampling.Hour), new EmptyDAO(), null, exportWorker, null, null, false, null);
+
+        OffHeapMetricsSessionTest.TestMetrics metrics = new OffHeapMetricsSessionTest.TestMetrics();
+        metrics.setTimeBucket(2020010110L);
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        worker.prepareBatch(Collections.singletonList(metrics), prepareRequests);
+
+        Assert.assertEquals(1, prepareRequests.size());
+        Assert.assertEquals(1, exportWorker.events.size());
+        Assert.assertEquals(ExportEvent.EventType.TOTAL, exportWorker.events.get(0).getType());
+        Assert.assertSame(metrics, exportWorker.events.get(0).getMetrics());
+    }
+
+    @Test
+    public void testNotExportUnsubscribedMetrics() {
+        SubscribedExportWorker exportWorker = new SubscribedExportWorker(moduleManager, "service_sla");
+        MetricsPersistentWorker worker = new MetricsPersistentWorker(
+            moduleManager, model(Downsampling.Hour), new EmptyDAO(), null, exportWorker, null, null, false, null);
+
+        OffHeapMetricsSessionTest.TestMetrics metrics = new OffHeapMetricsSessionTest.TestMetrics();
+        metrics.setTimeBucket(2020010110L);
+        worker.prepareBatch(Collections.singletonList(metrics), new ArrayList<>());
+
+        Assert.assertTrue(exportWorker.events.isEmpty());
+    }
+
+    private static Model model(Downsampling downsampling) {
+        return new Model("service_cpm", Collections.emptyList(), true, true, 0, downsampling, false);
+    }
+
+    private static class SubscribedExportWorker extends ExportWorker {
+        private final String subscribedMetricsName;
+        private final List<ExportEvent> events = new ArrayList<>();
+
+        private SubscribedExportWorker(ModuleDefineHolder moduleDefineHolder, String subscribedMetricsName) {
+            super(moduleDefineHolder);
+            this.subscribedMetricsName = subscribedMetricsName;
+        }
+
+        @Override
+        public boolean isSubscribed(String metricsName, ExportEvent.EventType type) {
+            return subscribedMetricsName.equals(metricsName) && ExportEvent.EventType.TOTAL.equals(type);
+        }
+
+        @Override
+        public void in(ExportEvent event) {
+            events.add(event);
+        }
+    }
+
+    private static class EmptyDAO implements IMetricsDAO {
+        @Override
+        public List<Metrics> multiGet(Model model, List<String> ids) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public InsertRequest prepareBatchInsert(Model model, Metrics metrics) {
+            return new InsertRequest() {
+            };
+        }
+
+        @Override
+        public UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) {
+            return new UpdateRequest() {
+            };
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsRollupTest {
+    private final Model minuteModel = new Model(
+        "rollup_test", Collections.emptyList(), true, true, 0, Downsampling.Minute, false);
+    private final Model hourModel = new Model(
+        "rollup_test", Collections.emptyList(), true, true, 0, Downsampling.Hour, false);
+
+    @Test
+    public void testReleaseWhenFlushIntervalPassed() {
+        MetricsRollup rollup = new MetricsRollup(hourModel, 300_000, new SourceDAO(), null, time(1, 0, 0));
+
+        rollup.hold(Collections.singletonList(metrics(2020010110L, 5)), time(10, 10, 0));
+        Assert.assertTrue(release(rollup, time(10, 11, 0)).isEmpty());
+
+        rollup.hold(Collections.singletonList(metrics(2020010110L, 6)), time(10, 12, 0));
+        List<Metrics> released = release(rollup, time(10, 15, 0));
+        Assert.assertEquals(1, released.size());
+        Assert.assertEquals(11, ((TestMetrics) released.get(0)).getValue());
+        Assert.assertTrue(release(rollup, time(10, 30, 0)).isEmpty());
+    }
+
+    @Test
+    public void testReleaseWhenBucketClosed() {
+        MetricsRollup rollup = new MetricsRollup(hourModel, 3_600_000, new SourceDAO(), null, time(1, 0, 0));
+
+        rollup.hold(Collections.singletonList(metrics(2020010110L, 5)), time(10, 50, 0));
+        Assert.assertTrue(release(rollup, time(11, 0, 30)).isEmpty());
+        Assert.assertEquals(1, release(rollup, time(11, 1, 1)).size());
+    }
+
+    @Test
+    public void testRebuildBucketOpenAtStartup() throws Exception {
+        SourceDAO sourceDAO = new SourceDAO();
+        sourceDAO.rows.put("202001011005_entity", metrics(202001011005L, 5));
+        sourceDAO.rows.put("202001011059_entity", metrics(202001011059L, 7));
+        MetricsRollup rollup = new MetricsRollup(hourModel, 300_000, sourceDAO, minuteModel, time(10, 30, 0));
+
+        rollup.hold(Collections.singletonList(metrics(2020010110L, 7)), time(10, 59, 10));
+        List<Metrics> released = new ArrayList<>();
+        List<Metrics> rebuilding = new ArrayList<>();
+        rollup.release(time(11, 1, 1), released, rebuilding);
+        Assert.assertTrue(released.isEmpty());
+        Assert.assertTrue(rebuilding.isEmpty());
+
+        rollup.release(time(11, 6, 1), released, rebuilding);
+        Assert.assertTrue(released.isEmpty());
+        Assert.assertEquals(1, rebuilding.size());
+
+        List<Metrics> notRebuilt = new ArrayList<>();
+        List<Metrics> rebuilt = rollup.rebuild(rebuilding, notRebuilt);
+        Assert.assertTrue(notRebuilt.isEmpty());
+        Assert.assertEquals(1, rebuilt.size());
+        Assert.assertEquals(2020010110L, rebuilt.get(0).getTimeBucket());
+        Assert.assertEquals(12, ((TestMetrics) rebuilt.get(0)).getValue());
+        Assert.assertEquals(60, sourceDAO.readIds.size());
+    }
+
+    @Test
+    public void testRebuildAfterOtherNodesReleased() throws Exception {
+        SourceDAO sourceDAO = new SourceDAO();
+        // 3 lost by the restarted node, 7 held by it after the restart, and 5 held by another node.
+        sourceDAO.rows.put("202001011005_entity", metrics(202001011005L, 3));
+        sourceDAO.rows.put("202001011040_entity", metrics(202001011040L, 7));
+        sourceDAO.rows.put("202001011050_entity", metrics(202001011050L, 5));
+        MetricsRollup restarted = new MetricsRollup(hourModel, 300_000, sourceDAO, minuteModel, time(10, 30, 0));
+        MetricsRollup other = new MetricsRollup(hourModel, 300_000, sourceDAO, minuteModel, time(1, 0, 0));
+        restarted.hold(Collections.singletonList(metrics(2020010110L, 7)), time(10, 40, 0));
+        other.hold(Collections.singletonList(metrics(2020010110L, 5)), time(10, 50, 0));
+
+        long stored = 0;
+        List<Metrics> rebuilding = new ArrayList<>();
+        for (long now = time(11, 0, 0); now <= time(11, 10, 0); now += 25_000) {
+            // The rebuilt rows replace the stored one, and the released rows are merged with it.
+            List<Metrics> released = new ArrayList<>();
+            restarted.release(now, released, rebuilding);
+            Assert.assertTrue(released.isEmpty());
+            if (!rebuilding.isEmpty()) {
+                List<Metrics> rebuilt = restarted.rebuild(rebuilding, new ArrayList<>());
+                rebuilding.clear();
+                Assert.assertEquals(1, rebuilt.size());
+                Assert.assertEquals(5, stored);
+                stored = ((TestMetrics) rebuilt.get(0)).getValue();
+            }
+            for (Metrics metric : release(other, now)) {
+                stored += ((TestMetrics) metric).getValue();
+            }
+        }
+        Assert.assertEquals(15, stored);
+    }
+
+    private static List<Metrics> release(MetricsRollup rollup, long now) {
+        List<Metrics> released = new ArrayList<>();
+        rollup.release(now, released, new ArrayList<>());
+        return released;
+    }
+
+    private static long time(int hour, int minute, int second) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2020, Calendar.JANUARY, 1, hour, minute, second);
+        return calendar.getTimeInMillis();
+    }
+
+    private static TestMetrics metrics(long timeBucket, long value) {
+        TestMetrics metrics = new TestMetrics();
+        metrics.setTimeBucket(timeBucket);
+        metrics.combine(value);
+        return metrics;
+    }
+
+    private static class SourceDAO implements IMetricsDAO {
+        private final Map<String, Metrics> rows = new HashMap<>();
+        private final List<String> readIds = new ArrayList<>();
+
+        @Override
+        public List<Metrics> multiGet(Model model, List<String> ids) {
+            readIds.addAll(ids);
+            List<Metrics> result = new ArrayList<>();
+            ids.stream().map(rows::get).filter(Objects::nonNull).forEach(result::add);
+            return result;
+        }
+
+        @Override
+        public InsertRequest prepareBatchInsert(Model model, Metrics metrics) {
+            return null;
+        }
+
+        @Override
+        public UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) {
+            return null;
+        }
+    }
+
+    private static class TestMetrics extends CountMetrics {
+        @Override
+        public String id() {
+            return getTimeBucket() + "_entity";
+        }
+
+        @Override
+        public Metrics toHour() {
+            return metrics(toTimeBucketInHour(), getValue());
+        }
+
+        @Override
+        public Metrics toDay() {
+            return metrics(toTimeBucketInDay(), getValue());
+        }
+
+        @Override
+        public Metrics toMonth() {
+            return metrics(toTimeBucketInMonth(), getValue());
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return id().hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestMetrics && id().equals(((TestMetrics) obj).id());
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.DataIntLongPairList;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapMetricsSessionTest {
+
+    @Test
+    public void testMergeInPlace() {
+        OffHeapMetricsSession session = new OffHeapMetricsSession(new OffHeapSlabPool(1024, Long.MAX_VALUE));
+        session.put(metrics("service-a", 3, ""));
+        Assert.assertTrue(session.containsKey(metrics("service-a", 0, "")));
+        Assert.assertFalse(session.containsKey(metrics("service-b", 0, "")));
+
+        TestMetrics cached = (TestMetrics) session.get(metrics("service-a", 0, ""));
+        cached.combine(metrics("service-a", 4, ""));
+        session.put(cached);
+
+        Assert.assertEquals(7, ((TestMetrics) session.get(metrics("service-a", 0, ""))).value);
+        Assert.assertEquals(1, session.size());
+        Assert.assertEquals(1, session.slabCount());
+    }
+
+    @Test
+    public void testRowSizeChanged() {
+        OffHeapMetricsSession session = new OffHeapMetricsSession(new OffHeapSlabPool(1024, Long.MAX_VALUE));
+        session.put(metrics("service-a", 1, "short"));
+        session.put(metrics("service-a", 2, "a much longer tag"));
+
+        TestMetrics cached = (TestMetrics) session.get(metrics("service-a", 0, ""));
+        Assert.assertEquals(2, cached.value);
+        Assert.assertEquals("a much longer tag", cached.tag);
+        Assert.assertEquals(1, session.size());
+    }
+
+    @Test
+    public void testGrowAndExpire() {
+        OffHeapMetricsSession session = new OffHeapMetricsSession(new OffHeapSlabPool(1024, Long.MAX_VALUE));
+        for (int i = 0; i < 1000; i++) {
+            session.put(metrics("service-" + i, i, ""));
+        }
+        session.expire(40000, 70000);
+        for (int i = 1000; i < 2000; i++) {
+            session.put(metrics("service-" + i, i, ""));
+        }
+        Assert.assertEquals(2000, session.size());
+
+        session.expire(40000, 70000);
+        Assert.assertEquals(1000, session.size());
+        for (int i = 0; i < 2000; i++) {
+            TestMetrics cached = (TestMetrics) session.get(metrics("service-" + i, 0, ""));
+            if (i < 1000) {
+                Assert.assertNull(cached);
+            } else {
+                Assert.assertEquals(i, cached.value);
+            }
+        }
+
+        session.expire(40000, 70000);
+        Assert.assertEquals(0, session.size());
+        Assert.assertEquals(0, session.slabCount());
+        session.put(metrics("service-a", 1, ""));
+        Assert.assertEquals(1, ((TestMetrics) session.get(metrics("service-a", 0, ""))).value);
+
+        session.clear();
+        Assert.assertEquals(0, session.size());
+        Assert.assertNull(session.get(metrics("service-1500", 0, "")));
+    }
+
+    @Test
+    public void testRowHavingMapInHeap() {
+        OffHeapMetricsSession session = new OffHeapMetricsSession(new OffHeapSlabPool(1024, Long.MAX_VALUE));
+        TestMetrics metrics = metrics("service-a", 1, "");
+        metrics.withMap = true;
+        session.put(metrics);
+
+        Assert.assertSame(metrics, session.get(metrics("service-a", 0, "")));
+        Assert.assertEquals(0, session.slabCount());
+    }
+
+    @Test
+    public void testPoolExhaustedInHeap() {
+        OffHeapSlabPool pool = new OffHeapSlabPool(1024, 1024);
+        OffHeapMetricsSession session = new OffHeapMetricsSession(pool);
+        for (int i = 0; i < 100; i++) {
+            session.put(metrics("service-" + i, i, ""));
+        }
+
+        Assert.assertEquals(100, session.size());
+        Assert.assertEquals(1, session.slabCount());
+        Assert.assertEquals(1024, pool.allocatedBytes());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, ((TestMetrics) session.get(metrics("service-" + i, 0, ""))).value);
+        }
+    }
+
+    @Test
+    public void testSlabsSharedBySessions() {
+        OffHeapSlabPool pool = new OffHeapSlabPool(1024, 1024);
+        OffHeapMetricsSession session1 = new OffHeapMetricsSession(pool);
+        OffHeapMetricsSession session2 = new OffHeapMetricsSession(pool);
+        session1.put(metrics("service-a", 1, ""));
+        session2.put(metrics("service-b", 2, ""));
+        Assert.assertEquals(1, session1.slabCount());
+        Assert.assertEquals(0, session2.slabCount());
+
+        session1.clear();
+        Assert.assertEquals(1, pool.freeSlabCount());
+        session2.put(metrics("service-c", 3, ""));
+        Assert.assertEquals(1, session2.slabCount());
+        Assert.assertEquals(0, pool.freeSlabCount());
+        Assert.assertEquals(1024, pool.allocatedBytes());
+        Assert.assertEquals(2, ((TestMetrics) session2.get(metrics("service-b", 0, ""))).value);
+        Assert.assertEquals(3, ((TestMetrics) session2.get(metrics("service-c", 0, ""))).value);
+    }
+
+    private static TestMetrics metrics(String entityId, long value, String tag) {
+        TestMetrics metrics = new TestMetrics();
+        metrics.setTimeBucket(202001011010L);
+        metrics.entityId = entityId;
+        metrics.value = value;
+        metrics.tag = tag;
+        return metrics;
+    }
+
+    public static class TestMetrics extends Metrics {
+        private String entityId;
+        private long value;
+        private String tag;
+        private boolean withMap;
+
+        @Override
+        public String id() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public void combine(Metrics metrics) {
+            value += ((TestMetrics) metrics).value;
+        }
+
+        @Override
+        public void calculate() {
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public Metrics toMonth() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+            entityId = remoteData.getDataStrings(0);
+            tag = remoteData.getDataStrings(1);
+            setTimeBucket(remoteData.getDataLongs(0));
+            value = remoteData.getDataLongs(1);
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            RemoteData.Builder builder = RemoteData.newBuilder();
+            builder.addDataStrings(entityId);
+            builder.addDataStrings(tag);
+            builder.addDataLongs(getTimeBucket());
+            builder.addDataLongs(value);
+            if (withMap) {
+                builder.addDataLists(DataIntLongPairList.newBuilder());
+            }
+            return builder;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return id().hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return id().hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestMetrics && id().equals(((TestMetrics) obj).id());
+        }
+    }
+}
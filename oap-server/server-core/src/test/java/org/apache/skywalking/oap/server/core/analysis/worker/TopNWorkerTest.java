@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.Collections;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.manual.database.TopNDatabaseStatement;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopNWorkerTest {
+    private final Model model = new Model(
+        TopNDatabaseStatement.INDEX_NAME, Collections.emptyList(), false, true, 0, Downsampling.Second, true);
+
+    @Test
+    public void testThresholdOfFullTopN() {
+        TopNWorker worker = new TopNWorker(new ModuleManagerTesting(), model, 2, -1, null);
+
+        worker.cacheData(statement(1, 10));
+        Assert.assertTrue(worker.isCandidate(1, 5));
+        worker.cacheData(statement(1, 20));
+
+        Assert.assertFalse(worker.isCandidate(1, 5));
+        Assert.assertFalse(worker.isCandidate(1, 10));
+        Assert.assertTrue(worker.isCandidate(1, 15));
+        Assert.assertTrue(worker.isCandidate(2, 5));
+    }
+
+    @Test
+    public void testThresholdOfEachWindow() {
+        TopNWorker worker = new TopNWorker(new ModuleManagerTesting(), model, 1, -1, null);
+
+        worker.cacheData(statement(1, 10));
+        Assert.assertFalse(worker.isCandidate(1, 5));
+
+        Assert.assertTrue(worker.flushAndSwitch());
+        Assert.assertTrue(worker.isCandidate(1, 5));
+
+        worker.cacheData(statement(1, 3));
+        Assert.assertFalse(worker.isCandidate(1, 3));
+        Assert.assertTrue(worker.isCandidate(1, 5));
+    }
+
+    private static TopNDatabaseStatement statement(int serviceId, long latency) {
+        TopNDatabaseStatement statement = new TopNDatabaseStatement();
+        statement.setServiceId(serviceId);
+        statement.setLatency(latency);
+        return statement;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.register.ServiceInventory;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.cache.IServiceInventoryCacheDAO;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ServiceInventoryCacheTest {
+    private IServiceInventoryCacheDAO cacheDAO;
+    private ServiceInventoryCache cache;
+
+    @Before
+    public void setUp() {
+        ModuleManager moduleManager = mock(ModuleManager.class);
+        ModuleProviderHolder moduleProviderHolder = mock(ModuleProviderHolder.class);
+        ModuleServiceHolder moduleServiceHolder = mock(ModuleServiceHolder.class);
+        when(moduleManager.find(StorageModule.NAME)).thenReturn(moduleProviderHolder);
+        when(moduleProviderHolder.provider()).thenReturn(moduleServiceHolder);
+
+        cacheDAO = mock(IServiceInventoryCacheDAO.class);
+        when(moduleServiceHolder.getService(IServiceInventoryCacheDAO.class)).thenReturn(cacheDAO);
+
+        cache = new ServiceInventoryCache(moduleManager, new CoreModuleConfig());
+    }
+
+    @Test
+    public void testConcurrentMissesLoadOnce() throws InterruptedException {
+        final AtomicInteger lookups = new AtomicInteger();
+        when(cacheDAO.getServiceId("service-a")).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            Thread.sleep(200);
+            return 5;
+        });
+
+        final int threadCount = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger found = new AtomicInteger();
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (cache.getServiceId("service-a") == 5) {
+                    found.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(threadCount, found.get());
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testNotRegisteredNotCached() {
+        when(cacheDAO.getServiceId("service-a")).thenReturn(Const.NONE, 5);
+
+        Assert.assertEquals(Const.NONE, cache.getServiceId("service-a"));
+        Assert.assertEquals(5, cache.getServiceId("service-a"));
+        Assert.assertEquals(5, cache.getServiceId("service-a"));
+        verify(cacheDAO, times(2)).getServiceId("service-a");
+    }
+
+    @Test
+    public void testNotFoundNotCached() {
+        ServiceInventory serviceInventory = service(10, "service-a");
+        when(cacheDAO.get(10)).thenReturn(null, serviceInventory);
+
+        Assert.assertNull(cache.get(10));
+        Assert.assertSame(serviceInventory, cache.get(10));
+        Assert.assertSame(serviceInventory, cache.get(10));
+        verify(cacheDAO, times(2)).get(10);
+    }
+
+    @Test
+    public void testWarmUp() {
+        when(cacheDAO.loadAfter(0, 2)).thenReturn(Arrays.asList(service(1, "service-a"), service(2, "service-b")));
+        when(cacheDAO.loadAfter(2, 2)).thenReturn(Collections.singletonList(service(3, "service-c")));
+        when(cacheDAO.loadAfter(3, 2)).thenReturn(Collections.emptyList());
+
+        Assert.assertEquals(3, cache.warmUp(2));
+        Assert.assertEquals("service-b", cache.get(2).getName());
+        Assert.assertEquals(3, cache.getServiceId("service-c"));
+        verify(cacheDAO, never()).get(anyInt());
+        verify(cacheDAO, never()).getServiceId("service-c");
+    }
+
+    private static ServiceInventory service(int sequence, String name) {
+        ServiceInventory serviceInventory = new ServiceInventory();
+        serviceInventory.setSequence(sequence);
+        serviceInventory.setName(name);
+        return serviceInventory;
+    }
+}
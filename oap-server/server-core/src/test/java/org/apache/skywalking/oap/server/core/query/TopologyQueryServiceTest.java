@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.manual.RelationDefineUtil;
+import org.apache.skywalking.oap.server.core.analysis.manual.endpoint.EndpointTraffic;
+import org.apache.skywalking.oap.server.core.analysis.manual.topology.TopologyEdgeSet;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.query.entity.Call;
+import org.apache.skywalking.oap.server.core.query.entity.Topology;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.StorageDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.model.IModelGetter;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TopologyQueryServiceTest {
+    private final List<Model> models = new ArrayList<>();
+    private IMetricsDAO edgeSetDAO;
+    private ITopologyQueryDAO topologyQueryDAO;
+    private TopologyQueryService service;
+
+    @Before
+    public void setUp() throws Exception {
+        models.add(new Model(
+            TopologyEdgeSet.INDEX_NAME, Collections.emptyList(), true, true, 0, Downsampling.Minute, false));
+        edgeSetDAO = mock(IMetricsDAO.class);
+        topologyQueryDAO = mock(ITopologyQueryDAO.class);
+        StorageDAO storageDAO = mock(StorageDAO.class);
+        when(storageDAO.newMetricsDao(any(StorageBuilder.class))).thenReturn(edgeSetDAO);
+
+        ModuleDefineTesting coreModuleDefine = new ModuleDefineTesting();
+        coreModuleDefine.provider().registerServiceImplementation(IModelGetter.class, (IModelGetter) () -> models);
+        ModuleDefineTesting storageModuleDefine = new ModuleDefineTesting();
+        storageModuleDefine.provider().registerServiceImplementation(StorageDAO.class, storageDAO);
+        storageModuleDefine.provider().registerServiceImplementation(ITopologyQueryDAO.class, topologyQueryDAO);
+
+        ModuleManager moduleManager = mock(ModuleManager.class);
+        when(moduleManager.find(CoreModule.NAME)).thenReturn(coreModuleDefine);
+        when(moduleManager.find(StorageModule.NAME)).thenReturn(storageModuleDefine);
+        service = new TopologyQueryService(moduleManager);
+    }
+
+    @Test
+    public void testEdgeSetsCoverAllTimeBuckets() throws Exception {
+        when(edgeSetDAO.multiGet(any(Model.class), anyListOf(String.class))).thenReturn(
+            edgeSets(202003281420L, edge(1, 2, 3)));
+
+        List<Call.CallDetail> calls = service.loadServiceRelations(
+            Downsampling.Minute, 202003281420L, 202003281423L, DetectPoint.SERVER, null);
+
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("1_2", calls.get(0).getId());
+        verify(topologyQueryDAO, never()).loadServerSideServiceRelations(
+            any(Downsampling.class), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testReadTimeBucketsBeforeEdgeSetsFromRelations() throws Exception {
+        when(edgeSetDAO.multiGet(any(Model.class), anyListOf(String.class))).thenReturn(
+            edgeSets(202003281422L, edge(1, 2, 3)));
+        when(topologyQueryDAO.loadServerSideServiceRelations(Downsampling.Minute, 202003281420L, 202003281421L))
+            .thenReturn(calls(call(1, 2, 3), call(4, 2, 3)));
+
+        List<Call.CallDetail> calls = service.loadServiceRelations(
+            Downsampling.Minute, 202003281420L, 202003281423L, DetectPoint.SERVER, null);
+
+        Assert.assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void testReadAllTimeBucketsFromRelationsWithoutEdgeSets() throws Exception {
+        when(edgeSetDAO.multiGet(any(Model.class), anyListOf(String.class))).thenReturn(Collections.emptyList());
+        when(topologyQueryDAO.loadSpecifiedClientSideServiceRelations(
+            Downsampling.Minute, 202003281420L, 202003281423L, Collections.singletonList(4)))
+            .thenReturn(calls(call(4, 2, 3)));
+
+        List<Call.CallDetail> calls = service.loadServiceRelations(
+            Downsampling.Minute, 202003281420L, 202003281423L, DetectPoint.CLIENT, Collections.singletonList(4));
+
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("4_2", calls.get(0).getId());
+    }
+
+    @Test
+    public void testReadFromRelationsWithoutEdgeSetModel() throws Exception {
+        models.clear();
+        when(topologyQueryDAO.loadServerSideServiceRelations(Downsampling.Minute, 202003281420L, 202003281423L))
+            .thenReturn(calls(call(1, 2, 3)));
+
+        List<Call.CallDetail> calls = service.loadServiceRelations(
+            Downsampling.Minute, 202003281420L, 202003281423L, DetectPoint.SERVER, null);
+
+        Assert.assertEquals(1, calls.size());
+        verify(edgeSetDAO, never()).multiGet(any(Model.class), anyListOf(String.class));
+    }
+
+    @Test
+    public void testReadEndpointEdgeSetOfQueriedEndpoint() throws Exception {
+        String endpointId = EndpointTraffic.buildId(1, "/a", DetectPoint.SERVER);
+        String edgeSetId = TopologyEdgeSet.buildEndpointEntityId(DetectPoint.SERVER, 1, "/a");
+        when(edgeSetDAO.multiGet(any(Model.class), eq(Collections.singletonList(202003281420L + "_" + edgeSetId))))
+            .thenReturn(Collections.singletonList(
+                TopologyEdgeSet.of(202003281420L, edgeSetId, endpointEdge(1, "/a", 2, "/b"))));
+
+        Topology topology = service.getEndpointTopology(
+            Downsampling.Minute, 202003281420L, 202003281420L, endpointId);
+
+        Assert.assertEquals(1, topology.getCalls().size());
+        Assert.assertEquals(2, topology.getNodes().size());
+        verify(topologyQueryDAO, never()).loadSpecifiedDestOfServerSideEndpointRelations(
+            any(Downsampling.class), anyLong(), anyLong(), anyString());
+    }
+
+    @Test
+    public void testReadEndpointTimeBucketsBeforeEdgeSetsFromRelations() throws Exception {
+        String endpointId = EndpointTraffic.buildId(1, "/a", DetectPoint.SERVER);
+        String edgeSetId = TopologyEdgeSet.buildEndpointEntityId(DetectPoint.SERVER, 1, "/a");
+        List<Metrics> edgeSets = new ArrayList<>();
+        edgeSets.add(TopologyEdgeSet.of(202003281422L, edgeSetId, endpointEdge(1, "/a", 2, "/b")));
+        edgeSets.add(TopologyEdgeSet.of(202003281423L, edgeSetId, endpointEdge(3, "/c", 1, "/a")));
+        when(edgeSetDAO.multiGet(any(Model.class), anyListOf(String.class))).thenReturn(edgeSets);
+        when(topologyQueryDAO.loadSpecifiedDestOfServerSideEndpointRelations(
+            Downsampling.Minute, 202003281420L, 202003281421L, endpointId))
+            .thenReturn(calls(endpointCall(1, "/a", 2, "/b"), endpointCall(4, "/d", 1, "/a")));
+
+        Topology topology = service.getEndpointTopology(
+            Downsampling.Minute, 202003281420L, 202003281423L, endpointId);
+
+        // the edges before the first edge set are read from the relations, the ones after from the edge sets
+        Assert.assertEquals(3, topology.getCalls().size());
+        Assert.assertEquals(4, topology.getNodes().size());
+    }
+
+    private static String endpointEdge(int sourceServiceId, String source, int destServiceId, String dest) {
+        return RelationDefineUtil.buildEndpointRelationEntityId(
+            new RelationDefineUtil.EndpointRelationDefine(sourceServiceId, source, destServiceId, dest, 3));
+    }
+
+    private static Call.CallDetail endpointCall(int sourceServiceId, String source, int destServiceId, String dest) {
+        Call.CallDetail call = new Call.CallDetail();
+        call.setSource(EndpointTraffic.buildId(sourceServiceId, source, DetectPoint.SERVER));
+        call.setTarget(EndpointTraffic.buildId(destServiceId, dest, DetectPoint.SERVER));
+        call.setComponentId(3);
+        call.setDetectPoint(DetectPoint.SERVER);
+        call.generateID();
+        return call;
+    }
+
+    private static List<Metrics> edgeSets(long timeBucket, String edge) {
+        List<Metrics> edgeSets = new ArrayList<>();
+        edgeSets.add(TopologyEdgeSet.of(timeBucket, TopologyEdgeSet.buildServiceEntityId(DetectPoint.SERVER, 1), edge));
+        return edgeSets;
+    }
+
+    private static List<Call.CallDetail> calls(Call.CallDetail... calls) {
+        List<Call.CallDetail> list = new ArrayList<>();
+        Collections.addAll(list, calls);
+        return list;
+    }
+
+    private static Call.CallDetail call(int source, int target, int componentId) {
+        Call.CallDetail call = new Call.CallDetail();
+        call.setSource(String.valueOf(source));
+        call.setTarget(String.valueOf(target));
+        call.setComponentId(componentId);
+        call.setDetectPoint(DetectPoint.SERVER);
+        call.generateID();
+        return call;
+    }
+
+    private static String edge(int source, int dest, int componentId) {
+        return RelationDefineUtil.buildEntityId(new RelationDefineUtil.RelationDefine(source, dest, componentId));
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.skywalking.oap.server.core.worker.WorkerInstancesService;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
@@ -82,6 +83,33 @@ public class GRPCRemoteClientTestCase {
             }
         });
 
+        when(metricsCreator.createGauge(any(), any(), any(), any())).thenReturn(new GaugeMetrics() {
+            @Override
+            public void inc() {
+
+            }
+
+            @Override
+            public void inc(double value) {
+
+            }
+
+            @Override
+            public void dec() {
+
+            }
+
+            @Override
+            public void dec(double value) {
+
+            }
+
+            @Override
+            public void setValue(double value) {
+
+            }
+        });
+
         when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(new HistogramMetrics() {
             @Override
             public Timer createTimer() {
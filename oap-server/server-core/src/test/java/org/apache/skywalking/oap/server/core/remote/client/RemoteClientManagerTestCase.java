@@ -18,18 +18,29 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.cluster.ClusterModule;
 import org.apache.skywalking.oap.server.core.cluster.ClusterNodesQuery;
 import org.apache.skywalking.oap.server.core.cluster.RemoteInstance;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
+import org.apache.skywalking.oap.server.core.worker.RemoteHandleWorker;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
@@ -37,7 +48,9 @@ import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
 import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.internal.verification.AtLeast;
 
 import static org.mockito.Mockito.any;
@@ -48,18 +61,26 @@ import static org.mockito.Mockito.when;
 
 @Slf4j
 public class RemoteClientManagerTestCase {
+    private static final String TEST_WORKER = "test_rec";
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ModuleManagerTesting moduleManager;
     private RemoteClientManager clientManager;
     private ClusterNodesQuery clusterNodesQuery;
 
     @Before
     public void setup() {
-        ModuleManagerTesting moduleManager = new ModuleManagerTesting();
+        moduleManager = new ModuleManagerTesting();
         ModuleDefineTesting clusterModuleDefine = new ModuleDefineTesting();
         moduleManager.put(ClusterModule.NAME, clusterModuleDefine);
 
         ModuleDefineTesting coreModuleDefine = new ModuleDefineTesting();
         moduleManager.put(CoreModule.NAME, coreModuleDefine);
+        IWorkerInstanceGetter workerInstanceGetter = mock(IWorkerInstanceGetter.class);
+        when(workerInstanceGetter.get(TEST_WORKER)).thenReturn(new RemoteHandleWorker(null, TestStreamData.class));
+        coreModuleDefine.provider().registerServiceImplementation(IWorkerInstanceGetter.class, workerInstanceGetter);
 
         this.clusterNodesQuery = mock(ClusterNodesQuery.class);
         clusterModuleDefine.provider().registerServiceImplementation(ClusterNodesQuery.class, clusterNodesQuery);
@@ -236,4 +257,239 @@ public class RemoteClientManagerTestCase {
         Assert.assertEquals(groupOneRemoteClients.get(0).getAddress(), newGroupOneRemoteClients.get(0).getAddress());
         Assert.assertEquals(newGroupOneRemoteClients.get(3).getAddress().getHost(), "host4");
     }
+
+    @Test
+    public void testCheckHealthRoutesAroundUnhealthyClient() {
+        Map<Address, FakeRemoteClient> fakeClients = new HashMap<>();
+        RemoteClientManager manager = fakeClientManager(fakeClients);
+        when(clusterNodesQuery.queryRemoteNodes()).thenReturn(instances("host1", "host2", "host3"));
+        manager.refresh();
+
+        List<RemoteClient> clients = manager.getRemoteClient();
+        HashCodeSelector selector = new HashCodeSelector();
+        List<RemoteClient> owners = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            RemoteClient owner = selector.select(clients, new TestStreamData(i));
+            owners.add(owner);
+            Assert.assertSame(owner, manager.routeAround(clients, owner));
+        }
+
+        fakeClients.get(address("host2")).healthy = false;
+        manager.checkHealth();
+        Assert.assertEquals(3, manager.getRemoteClient().size());
+        for (int i = 0; i < 30; i++) {
+            RemoteClient owner = owners.get(i);
+            RemoteClient routed = manager.routeAround(clients, selector.select(clients, new TestStreamData(i)));
+            if ("host2".equals(owner.getAddress().getHost())) {
+                // Only the share of the unhealthy one moves, to the next healthy one.
+                Assert.assertEquals("host3", routed.getAddress().getHost());
+            } else {
+                Assert.assertSame(owner, routed);
+            }
+        }
+
+        fakeClients.get(address("host2")).healthy = true;
+        manager.checkHealth();
+        for (int i = 0; i < 30; i++) {
+            Assert.assertSame(owners.get(i), manager.routeAround(clients, owners.get(i)));
+        }
+
+        fakeClients.values().forEach(client -> client.healthy = false);
+        manager.checkHealth();
+        Assert.assertNull(manager.routeAround(clients, owners.get(0)));
+    }
+
+    @Test
+    public void testRerouteToLatestOwners() {
+        Map<Address, FakeRemoteClient> fakeClients = new HashMap<>();
+        RemoteClientManager manager = fakeClientManager(fakeClients);
+        when(clusterNodesQuery.queryRemoteNodes()).thenReturn(instances("host1", "host2", "host3"));
+        manager.refresh();
+
+        List<RemoteMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            messages.add(message(i));
+        }
+        manager.reroute(address("host2"), messages);
+
+        Assert.assertTrue(fakeClients.get(address("host2")).pushed.isEmpty());
+        // The messages of host2 go to the next one, the others keep their owners.
+        assertPushed(fakeClients.get(address("host1")), 0, 3);
+        assertPushed(fakeClients.get(address("host3")), 1, 2, 4, 5);
+    }
+
+    @Test
+    public void testRerouteSpillWhenNoOtherClient() {
+        Map<Address, FakeRemoteClient> fakeClients = new HashMap<>();
+        RemoteClientManager manager = fakeClientManager(fakeClients);
+        RemoteMessageSpill spill = new RemoteMessageSpill(new File(folder.getRoot(), "spill"), 1024 * 1024);
+        manager.setSpill(spill);
+        when(clusterNodesQuery.queryRemoteNodes()).thenReturn(instances("host1"));
+        manager.refresh();
+
+        manager.reroute(address("host1"), Collections.singletonList(message(1)));
+        Assert.assertTrue(fakeClients.get(address("host1")).pushed.isEmpty());
+        Assert.assertFalse(spill.isEmpty());
+
+        // Replayed once there is another server.
+        when(clusterNodesQuery.queryRemoteNodes()).thenReturn(instances("host1", "host2"));
+        manager.refresh();
+        manager.checkHealth();
+        Assert.assertTrue(spill.isEmpty());
+        assertPushed(fakeClients.get(address("host2")), 1);
+    }
+
+    @Test
+    public void testDrainRemovedClient() throws InterruptedException {
+        AtomicLong queueDepth = new AtomicLong(1);
+        DrainingRemoteClient drainingClient = new DrainingRemoteClient(address("host2"), queueDepth);
+        RemoteClientManager manager = new RemoteClientManager(moduleManager, 10) {
+            @Override
+            RemoteClient newRemoteClient(Address address) {
+                return "host2".equals(address.getHost()) ? drainingClient : new FakeRemoteClient(address);
+            }
+        };
+        when(clusterNodesQuery.queryRemoteNodes()).thenReturn(instances("host1", "host2"));
+        manager.refresh();
+        Assert.assertFalse(drainingClient.isRetired());
+
+        when(clusterNodesQuery.queryRemoteNodes()).thenReturn(instances("host1"));
+        manager.refresh();
+        Assert.assertEquals(1, manager.getRemoteClient().size());
+        // Retired at once, so the buffered messages go to the latest owners, but closed after the queue is empty.
+        Assert.assertTrue(drainingClient.isRetired());
+        Thread.sleep(300);
+        Assert.assertFalse(drainingClient.closed);
+
+        queueDepth.set(0);
+        for (int i = 0; i < 50 && !drainingClient.closed; i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertTrue(drainingClient.closed);
+    }
+
+    private RemoteClientManager fakeClientManager(Map<Address, FakeRemoteClient> fakeClients) {
+        return new RemoteClientManager(moduleManager, 10) {
+            @Override
+            RemoteClient newRemoteClient(Address address) {
+                FakeRemoteClient client = new FakeRemoteClient(address);
+                fakeClients.put(address, client);
+                return client;
+            }
+        };
+    }
+
+    private static void assertPushed(FakeRemoteClient client, long... hashCodes) {
+        Assert.assertEquals(hashCodes.length, client.pushed.size());
+        for (int i = 0; i < hashCodes.length; i++) {
+            Assert.assertEquals(hashCodes[i], client.pushed.get(i).remoteHashCode());
+        }
+    }
+
+    private static List<RemoteInstance> instances(String... hosts) {
+        List<RemoteInstance> instances = new ArrayList<>();
+        for (String host : hosts) {
+            instances.add(new RemoteInstance(address(host)));
+        }
+        return instances;
+    }
+
+    private static Address address(String host) {
+        return new Address(host, 100, false);
+    }
+
+    private static RemoteMessage message(int hashCode) {
+        return RemoteMessage.newBuilder()
+                            .setNextWorkerName(TEST_WORKER)
+                            .setRemoteData(new TestStreamData(hashCode).serialize())
+                            .build();
+    }
+
+    public static class TestStreamData extends StreamData {
+        private int hashCode;
+
+        public TestStreamData() {
+        }
+
+        TestStreamData(int hashCode) {
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+            hashCode = remoteData.getDataIntegers(0);
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder().addDataIntegers(hashCode);
+        }
+    }
+
+    private static class FakeRemoteClient implements RemoteClient {
+        private final Address address;
+        private final List<StreamData> pushed = new ArrayList<>();
+        private volatile boolean healthy = true;
+
+        private FakeRemoteClient(Address address) {
+            this.address = address;
+        }
+
+        @Override
+        public Address getAddress() {
+            return address;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void push(String nextWorkerName, StreamData streamData) {
+            pushed.add(streamData);
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        @Override
+        public int compareTo(RemoteClient o) {
+            return address.compareTo(o.getAddress());
+        }
+    }
+
+    private class DrainingRemoteClient extends GRPCRemoteClient {
+        private final AtomicLong queueDepth;
+        private volatile boolean closed;
+
+        private DrainingRemoteClient(Address address, AtomicLong queueDepth) {
+            super(moduleManager, address, 1, 10, 10, null);
+            this.queueDepth = queueDepth;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        long getQueueDepth() {
+            return queueDepth.get();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RemoteMessageSpillTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appendAndReplay() throws Exception {
+        File file = new File(folder.getRoot(), "spill");
+        RemoteMessageSpill spill = new RemoteMessageSpill(file, 1024 * 1024);
+        Assert.assertTrue(spill.isEmpty());
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(spill.append(message("worker" + i, i)));
+        }
+        spill.flush();
+        Assert.assertFalse(spill.isEmpty());
+
+        // The spill left by the previous run is replayed too.
+        spill = new RemoteMessageSpill(file, 1024 * 1024);
+        Assert.assertFalse(spill.isEmpty());
+
+        List<RemoteMessage> replayed = new ArrayList<>();
+        Assert.assertEquals(3, spill.replay(replayed::add));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("worker" + i, replayed.get(i).getNextWorkerName());
+            Assert.assertEquals(i, replayed.get(i).getRemoteData().getDataLongs(0));
+        }
+        Assert.assertTrue(spill.isEmpty());
+        Assert.assertEquals(0, file.length());
+        Assert.assertEquals(0, spill.replay(replayed::add));
+    }
+
+    @Test
+    public void dropBeyondMaxSize() {
+        RemoteMessage message = message("worker", 1);
+        RemoteMessageSpill spill = new RemoteMessageSpill(
+            new File(folder.getRoot(), "spill"), message.getSerializedSize() + 5);
+
+        Assert.assertTrue(spill.append(message));
+        Assert.assertFalse(spill.append(message));
+
+        List<RemoteMessage> replayed = new ArrayList<>();
+        Assert.assertEquals(1, spill.replay(replayed::add));
+        Assert.assertTrue(spill.append(message));
+    }
+
+    private RemoteMessage message(String nextWorkerName, long value) {
+        return RemoteMessage.newBuilder()
+                            .setNextWorkerName(nextWorkerName)
+                            .setRemoteData(RemoteData.newBuilder().addDataLongs(value))
+                            .build();
+    }
+}
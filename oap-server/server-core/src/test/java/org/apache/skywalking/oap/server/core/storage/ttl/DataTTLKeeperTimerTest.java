@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.storage.ttl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.cluster.RemoteInstance;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DataTTLKeeperTimerTest {
+    private static final List<String> MODELS = Arrays.asList(
+        "service_cpm", "service_resp_time", "endpoint_cpm", "endpoint_avg", "segment", "top_n_database_statement",
+        "service_instance_jvm_cpu", "service_relation_client_cpm", "alarm_record", "profile_task_log"
+    );
+
+    @Test
+    public void testSelectNodeIgnoreOrder() {
+        List<RemoteInstance> instances = Arrays.asList(
+            new RemoteInstance(new Address("10.0.0.1", 11800, false)),
+            new RemoteInstance(new Address("10.0.0.2", 11800, false)),
+            new RemoteInstance(new Address("10.0.0.3", 11800, false))
+        );
+        List<RemoteInstance> reversed = new ArrayList<>(instances);
+        Collections.reverse(reversed);
+
+        for (String model : MODELS) {
+            Assert.assertSame(
+                DataTTLKeeperTimer.selectNode(model, instances),
+                DataTTLKeeperTimer.selectNode(model, reversed)
+            );
+        }
+    }
+
+    @Test
+    public void testSelectNodeAfterNodeLeft() {
+        RemoteInstance left = new RemoteInstance(new Address("10.0.0.3", 11800, false));
+        List<RemoteInstance> instances = Arrays.asList(
+            new RemoteInstance(new Address("10.0.0.1", 11800, false)),
+            new RemoteInstance(new Address("10.0.0.2", 11800, false)),
+            left
+        );
+        List<RemoteInstance> remains = instances.subList(0, 2);
+
+        for (String model : MODELS) {
+            RemoteInstance selected = DataTTLKeeperTimer.selectNode(model, instances);
+            if (selected != left) {
+                // only the models of the left node move
+                Assert.assertSame(selected, DataTTLKeeperTimer.selectNode(model, remains));
+            }
+        }
+    }
+
+    @Test
+    public void testSelectNodeWithoutCluster() {
+        Assert.assertNull(DataTTLKeeperTimer.selectNode("service_cpm", Collections.emptyList()));
+    }
+}
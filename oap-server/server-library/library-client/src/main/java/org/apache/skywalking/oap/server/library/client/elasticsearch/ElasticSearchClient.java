@@ -37,6 +37,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.net.ssl.SSLContext;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -60,6 +61,7 @@ import org.apache.skywalking.apm.util.StringUtil;
 import org.apache.skywalking.oap.server.library.client.Client;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
@@ -71,15 +73,20 @@ import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.client.Response;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -313,6 +320,17 @@ public class ElasticSearchClient implements Client {
         return client.search(searchRequest);
     }
 
+    /**
+     * Search in several indices together, the missing ones are ignored.
+     */
+    public SearchResponse search(String[] indexNames, SearchSourceBuilder searchSourceBuilder) throws IOException {
+        SearchRequest searchRequest = new SearchRequest(formatIndexNames(indexNames));
+        searchRequest.indicesOptions(IndicesOptions.lenientExpandOpen());
+        searchRequest.types(TYPE);
+        searchRequest.source(searchSourceBuilder);
+        return client.search(searchRequest);
+    }
+
     public GetResponse get(String indexName, String id) throws IOException {
         indexName = formatIndexName(indexName);
         GetRequest request = new GetRequest(indexName, TYPE, id);
@@ -328,6 +346,21 @@ public class ElasticSearchClient implements Client {
         return client.search(searchRequest);
     }
 
+    /**
+     * Get the documents of the ids from the index asynchronously. The documents of the missing index are reported as
+     * the failed items of the response.
+     */
+    public CompletableFuture<MultiGetResponse> multiGetAsync(String indexName, List<String> ids) {
+        indexName = formatIndexName(indexName);
+        MultiGetRequest request = new MultiGetRequest();
+        for (String id : ids) {
+            request.add(indexName, TYPE, id);
+        }
+        CompletableFuture<MultiGetResponse> future = new CompletableFuture<>();
+        client.multiGetAsync(request, ActionListener.wrap(future::complete, future::completeExceptionally));
+        return future;
+    }
+
     public void forceInsert(String indexName, String id, XContentBuilder source) throws IOException {
         IndexRequest request = (IndexRequest) prepareInsert(indexName, id, source);
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
@@ -384,11 +417,13 @@ public class ElasticSearchClient implements Client {
         }
     }
 
-    public BulkProcessor createBulkProcessor(int bulkActions, int flushInterval, int concurrentRequests) {
+    public BulkProcessor createBulkProcessor(int bulkActions, int bulkSize, int flushInterval,
+                                             int concurrentRequests) {
         BulkProcessor.Listener listener = createBulkListener();
 
         return BulkProcessor.builder(client::bulkAsync, listener)
                             .setBulkActions(bulkActions)
+                            .setBulkSize(new ByteSizeValue(bulkSize, ByteSizeUnit.MB))
                             .setFlushInterval(TimeValue.timeValueSeconds(flushInterval))
                             .setConcurrentRequests(concurrentRequests)
                             .setBackoffPolicy(BackoffPolicy.exponentialBackoff(TimeValue.timeValueMillis(100), 3))
@@ -431,4 +466,12 @@ public class ElasticSearchClient implements Client {
         }
         return indexName;
     }
+
+    protected String[] formatIndexNames(String[] indexNames) {
+        String[] formattedIndexNames = new String[indexNames.length];
+        for (int i = 0; i < indexNames.length; i++) {
+            formattedIndexNames[i] = formatIndexName(indexNames[i]);
+        }
+        return formattedIndexNames;
+    }
 }
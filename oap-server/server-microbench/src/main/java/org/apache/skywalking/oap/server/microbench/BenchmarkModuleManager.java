@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleNotFoundRuntimeException;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.Service;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+
+/**
+ * The module manager holding the services registered by the benchmark only, for the hot paths requiring a {@link
+ * ModuleManager} rather than a {@link org.apache.skywalking.oap.server.library.module.ModuleDefineHolder}. The
+ * telemetry module is always there with the no-op metrics creator.
+ */
+public class BenchmarkModuleManager extends ModuleManager {
+
+    private final Map<String, ModuleProviderHolder> modules = new HashMap<>();
+
+    public BenchmarkModuleManager() {
+        register(TelemetryModule.NAME, MetricsCreator.class, new MetricsCreatorNoop());
+        modules.put(CoreModule.NAME, new ModuleDefineTesting());
+    }
+
+    public <T extends Service> BenchmarkModuleManager register(String moduleName, Class<T> serviceType, T service) {
+        modules.computeIfAbsent(moduleName, name -> new ModuleDefineTesting())
+               .provider()
+               .registerServiceImplementation(serviceType, service);
+        return this;
+    }
+
+    @Override
+    public boolean has(String moduleName) {
+        return modules.containsKey(moduleName);
+    }
+
+    @Override
+    public ModuleProviderHolder find(String moduleName) throws ModuleNotFoundRuntimeException {
+        ModuleProviderHolder module = modules.get(moduleName);
+        if (module == null) {
+            throw new ModuleNotFoundRuntimeException(moduleName + " missing.");
+        }
+        return module;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.alarm;
+
+import org.apache.skywalking.oap.server.core.alarm.ServiceMetaInAlarm;
+import org.apache.skywalking.oap.server.core.alarm.provider.AlarmRule;
+import org.apache.skywalking.oap.server.core.alarm.provider.RunningRule;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.microbench.generator.MetricsGenerator;
+import org.apache.skywalking.oap.server.microbench.oal.OALClasses;
+import org.joda.time.LocalDateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the alarm rule of the service response time, the metrics of every service are added into the windows of the
+ * rule after the persistence, and the windows are checked every minute.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class RunningRuleBenchmark {
+
+    private static final String METRICS_NAME = "service_resp_time";
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"100", "10000"})
+    private int services;
+
+    private RunningRule runningRule;
+    private ServiceMetaInAlarm[] metas;
+    private LongAvgMetrics[] metrics;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AlarmRule alarmRule = new AlarmRule();
+        alarmRule.setAlarmRuleName("service_resp_time_rule");
+        alarmRule.setMetricsName(METRICS_NAME);
+        alarmRule.setOp(">");
+        alarmRule.setThreshold("100");
+        alarmRule.setCount(3);
+        alarmRule.setPeriod(10);
+        alarmRule.setMessage("Response time of service {name} is more than 100ms in 3 minutes of last 10 minutes");
+        runningRule = new RunningRule(alarmRule);
+
+        MetricsGenerator generator = new MetricsGenerator(services);
+        metas = new ServiceMetaInAlarm[BATCH_SIZE];
+        metrics = new LongAvgMetrics[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            metrics[i] = generator.nextRespTimeMetrics();
+            metrics[i].calculate();
+            metas[i] = new ServiceMetaInAlarm();
+            metas[i].setMetricsName(METRICS_NAME);
+            String entityId = OALClasses.getEntityId(metrics[i]);
+            metas[i].setId(entityId);
+            metas[i].setName("service-" + entityId);
+        }
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            runningRule.in(metas[i], metrics[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void in() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            runningRule.in(metas[i], metrics[i]);
+        }
+    }
+
+    @Benchmark
+    public void check(Blackhole blackhole) {
+        runningRule.moveTo(LocalDateTime.now());
+        blackhole.consume(runningRule.check());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(RunningRuleBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import org.apache.skywalking.oap.server.core.analysis.DispatcherManager;
+import org.apache.skywalking.oap.server.core.source.Service;
+import org.apache.skywalking.oap.server.microbench.generator.MetricsGenerator;
+import org.apache.skywalking.oap.server.microbench.oal.OALClasses;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the dispatching of the sources, from the {@link DispatcherManager} to the metrics built by the dispatcher
+ * generated from the oal scripts of the service scope. No metrics worker is created, so the metrics stream processor
+ * drops the metrics right after the dispatcher builds them.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class DispatcherBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private DispatcherManager dispatcherManager;
+    private Service[] sources;
+
+    @Setup(Level.Trial)
+    public void setup() throws IllegalAccessException, InstantiationException {
+        dispatcherManager = new DispatcherManager();
+        dispatcherManager.addIfAsSourceDispatcher(OALClasses.dispatcherClass("Service"));
+        dispatcherManager.buildDispatchTable(new MetricsCreatorNoop());
+
+        MetricsGenerator generator = new MetricsGenerator(100);
+        sources = new Service[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            sources[i] = generator.nextService();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void forward() {
+        for (Service source : sources) {
+            dispatcherManager.forward(source);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(DispatcherBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.microbench.generator.MetricsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the merge data cache of the metrics aggregate worker. A batch of metrics of the given number of entities is
+ * merged into the cache, the way the worker consumes the data carrier, then the cache is switched and read out for the
+ * next worker.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class MetricsAggregateBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"10", "1000", "100000"})
+    private int entities;
+
+    private LongAvgMetrics[] batch;
+    private MergeDataCache<Metrics> mergeDataCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MetricsGenerator generator = new MetricsGenerator(entities);
+        batch = new LongAvgMetrics[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch[i] = generator.nextRespTimeMetrics();
+        }
+        mergeDataCache = new MergeDataCache<>();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void aggregate(Blackhole blackhole) {
+        for (LongAvgMetrics metrics : batch) {
+            mergeDataCache.writing();
+            if (mergeDataCache.containsKey(metrics)) {
+                mergeDataCache.get(metrics).combine(metrics);
+            } else {
+                mergeDataCache.put(metrics);
+            }
+            mergeDataCache.finishWriting();
+        }
+
+        mergeDataCache.switchPointer();
+        mergeDataCache.getLast().collection().forEach(blackhole::consume);
+        mergeDataCache.finishReadingLast();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(MetricsAggregateBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
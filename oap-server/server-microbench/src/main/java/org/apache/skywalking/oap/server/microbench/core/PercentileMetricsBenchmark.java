@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
+import org.apache.skywalking.oap.server.microbench.generator.MetricsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the percentile metrics, the heaviest function of the default oal scripts. A sample is combined into the
+ * metrics of the L1 aggregation, the metrics of the samples are combined in the L2 aggregation, and the percentiles
+ * are calculated before the persistence. The combined values only grow the counts of the existing buckets, so every
+ * invocation does the same work.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class PercentileMetricsBenchmark {
+
+    @Param({"100", "10000"})
+    private int samples;
+
+    private MetricsGenerator generator;
+    private PercentileMetrics metrics;
+    private PercentileMetrics other;
+    private int latency;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        generator = new MetricsGenerator(1);
+        metrics = generator.nextPercentileMetrics(samples);
+        other = generator.nextPercentileMetrics(samples);
+        latency = generator.nextLatency();
+    }
+
+    @Benchmark
+    public void combineValue(Blackhole blackhole) {
+        metrics.combine(latency, MetricsGenerator.PERCENTILE_PRECISION);
+        blackhole.consume(metrics);
+    }
+
+    @Benchmark
+    public void combineMetrics(Blackhole blackhole) {
+        metrics.combine(other);
+        blackhole.consume(metrics);
+    }
+
+    @Benchmark
+    public void calculate(Blackhole blackhole) {
+        metrics.calculate();
+        blackhole.consume(metrics.getValues());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(PercentileMetricsBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.microbench.generator.MetricsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the serialization of the metrics sent from the L1 aggregation to the L2 aggregation of another OAP node,
+ * including the protobuf encoding the gRPC client does. The receiver creates the metrics by the class in the remote
+ * data, so the deserialization includes the instantiation by reflection.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class RemoteDataBenchmark {
+
+    private PercentileMetrics percentileMetrics;
+    private LongAvgMetrics respTimeMetrics;
+    private byte[] percentileBytes;
+    private byte[] respTimeBytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MetricsGenerator generator = new MetricsGenerator(1);
+        percentileMetrics = generator.nextPercentileMetrics(1000);
+        respTimeMetrics = generator.nextRespTimeMetrics();
+        percentileBytes = percentileMetrics.serialize().build().toByteArray();
+        respTimeBytes = respTimeMetrics.serialize().build().toByteArray();
+    }
+
+    @Benchmark
+    public void serializePercentile(Blackhole blackhole) {
+        blackhole.consume(percentileMetrics.serialize().build().toByteArray());
+    }
+
+    @Benchmark
+    public void deserializePercentile(
+        Blackhole blackhole) throws InvalidProtocolBufferException, ReflectiveOperationException {
+        Metrics metrics = MetricsGenerator.PERCENTILE_METRICS_CLASS.newInstance();
+        metrics.deserialize(RemoteData.parseFrom(percentileBytes));
+        blackhole.consume(metrics);
+    }
+
+    @Benchmark
+    public void serializeRespTime(Blackhole blackhole) {
+        blackhole.consume(respTimeMetrics.serialize().build().toByteArray());
+    }
+
+    @Benchmark
+    public void deserializeRespTime(
+        Blackhole blackhole) throws InvalidProtocolBufferException, ReflectiveOperationException {
+        Metrics metrics = MetricsGenerator.RESP_TIME_METRICS_CLASS.newInstance();
+        metrics.deserialize(RemoteData.parseFrom(respTimeBytes));
+        blackhole.consume(metrics);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(RemoteDataBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+import org.apache.skywalking.oap.server.microbench.generator.MetricsGenerator;
+import org.apache.skywalking.oap.server.microbench.oal.OALClasses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the storage builders of the metrics, converting the metrics to the map of the storage columns in the
+ * persistence, and back in the L2 aggregation reading the existing metrics. The map read back holds the storage data
+ * types as strings, the way the storage plugins write them.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class StorageBuilderBenchmark {
+
+    private final StorageBuilder<Metrics> percentileBuilder = OALClasses.builder(
+        MetricsGenerator.PERCENTILE_METRICS_CLASS);
+    private final StorageBuilder<Metrics> respTimeBuilder = OALClasses.builder(
+        MetricsGenerator.RESP_TIME_METRICS_CLASS);
+
+    private PercentileMetrics percentileMetrics;
+    private LongAvgMetrics respTimeMetrics;
+    private Map<String, Object> percentileMap;
+    private Map<String, Object> respTimeMap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MetricsGenerator generator = new MetricsGenerator(1);
+        percentileMetrics = generator.nextPercentileMetrics(1000);
+        percentileMetrics.calculate();
+        respTimeMetrics = generator.nextRespTimeMetrics();
+        respTimeMetrics.calculate();
+        percentileMap = toStorageMap(percentileBuilder.data2Map(percentileMetrics));
+        respTimeMap = toStorageMap(respTimeBuilder.data2Map(respTimeMetrics));
+    }
+
+    @Benchmark
+    public void percentileData2Map(Blackhole blackhole) {
+        blackhole.consume(percentileBuilder.data2Map(percentileMetrics));
+    }
+
+    @Benchmark
+    public void percentileMap2Data(Blackhole blackhole) {
+        blackhole.consume(percentileBuilder.map2Data(percentileMap));
+    }
+
+    @Benchmark
+    public void respTimeData2Map(Blackhole blackhole) {
+        blackhole.consume(respTimeBuilder.data2Map(respTimeMetrics));
+    }
+
+    @Benchmark
+    public void respTimeMap2Data(Blackhole blackhole) {
+        blackhole.consume(respTimeBuilder.map2Data(respTimeMap));
+    }
+
+    private static Map<String, Object> toStorageMap(Map<String, Object> map) {
+        Map<String, Object> storageMap = new HashMap<>();
+        map.forEach((key, value) -> {
+            if (value instanceof StorageDataType) {
+                storageMap.put(key, ((StorageDataType) value).toStorageData());
+            } else {
+                storageMap.put(key, value);
+            }
+        });
+        return storageMap;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(StorageBuilderBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
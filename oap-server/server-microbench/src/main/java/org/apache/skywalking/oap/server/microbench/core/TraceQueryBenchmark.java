@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
+import org.apache.skywalking.apm.network.trace.component.ComponentsDefine;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentDataCodec;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.cache.NetworkAddressInventoryCache;
+import org.apache.skywalking.oap.server.core.cache.ServiceInventoryCache;
+import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
+import org.apache.skywalking.oap.server.core.query.TraceQueryService;
+import org.apache.skywalking.oap.server.core.query.entity.QueryOrder;
+import org.apache.skywalking.oap.server.core.query.entity.Span;
+import org.apache.skywalking.oap.server.core.query.entity.TraceBrief;
+import org.apache.skywalking.oap.server.core.query.entity.TraceState;
+import org.apache.skywalking.oap.server.core.register.ServiceInventory;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
+import org.apache.skywalking.oap.server.microbench.BenchmarkModuleManager;
+import org.apache.skywalking.oap.server.microbench.generator.SegmentGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the trace query, decoding the stored segments and building the span tree of a trace. The storage returns the
+ * segments from the memory, so the result is the cost of the OAP side only.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class TraceQueryBenchmark {
+
+    private static final String TRACE_ID = "2.1.1";
+
+    @Param({"1", "10", "50"})
+    private int segments;
+
+    @Param({"20"})
+    private int spans;
+
+    private TraceQueryService traceQueryService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<SegmentRecord> records = new ArrayList<>(segments);
+        for (SegmentObject segment : new SegmentGenerator(true).nextTrace(segments, spans)) {
+            SegmentRecord record = new SegmentRecord();
+            record.setSegmentId(segment.getTraceSegmentId()
+                                       .getIdPartsList()
+                                       .stream()
+                                       .map(String::valueOf)
+                                       .collect(Collectors.joining(".")));
+            record.setTraceId(TRACE_ID);
+            record.setServiceId(segment.getServiceId());
+            record.setServiceInstanceId(segment.getServiceInstanceId());
+            record.setDataBinary(SegmentDataCodec.compress(segment.toByteArray()));
+            records.add(record);
+        }
+        // The storage returns the segments in no particular order.
+        Collections.shuffle(records, new Random(20200501L));
+
+        BenchmarkModuleManager moduleManager = new BenchmarkModuleManager();
+
+        ServiceInventoryCache serviceInventoryCache = new ServiceInventoryCache(moduleManager, new CoreModuleConfig());
+        ServiceInventory service = new ServiceInventory();
+        service.setSequence(SegmentGenerator.SERVICE_ID);
+        service.setName("order-service");
+        serviceInventoryCache.put(service);
+
+        moduleManager.register(CoreModule.NAME, ServiceInventoryCache.class, serviceInventoryCache)
+                     .register(
+                         CoreModule.NAME, NetworkAddressInventoryCache.class,
+                         new NetworkAddressInventoryCache(moduleManager, new CoreModuleConfig())
+                     )
+                     .register(CoreModule.NAME, IComponentLibraryCatalogService.class, new ComponentLibraryCatalog())
+                     .register(StorageModule.NAME, ITraceQueryDAO.class, new TraceQueryDAO(records));
+
+        traceQueryService = new TraceQueryService(moduleManager);
+    }
+
+    @Benchmark
+    public void queryTrace(Blackhole blackhole) throws IOException {
+        blackhole.consume(traceQueryService.queryTrace(TRACE_ID));
+    }
+
+    private static class TraceQueryDAO implements ITraceQueryDAO {
+
+        private final List<SegmentRecord> records;
+
+        private TraceQueryDAO(List<SegmentRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        public TraceBrief queryBasicTraces(long startSecondTB, long endSecondTB, long minDuration, long maxDuration,
+            String endpointName, int serviceId, int serviceInstanceId, String endpointId, String traceId, int limit,
+            int from, TraceState traceState, QueryOrder queryOrder) {
+            return new TraceBrief();
+        }
+
+        @Override
+        public List<SegmentRecord> queryByTraceId(String traceId) {
+            return records;
+        }
+
+        @Override
+        public List<Span> doFlexibleTraceQuery(String traceId) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static class ComponentLibraryCatalog implements IComponentLibraryCatalogService {
+
+        @Override
+        public int getComponentId(String componentName) {
+            return 0;
+        }
+
+        @Override
+        public int getServerIdBasedOnComponent(int componentId) {
+            return componentId;
+        }
+
+        @Override
+        public String getComponentName(int componentId) {
+            if (componentId == ComponentsDefine.TOMCAT.getId()) {
+                return ComponentsDefine.TOMCAT.getName();
+            }
+            return ComponentsDefine.HTTPCLIENT.getName();
+        }
+
+        @Override
+        public String getServerNameBasedOnComponent(int componentId) {
+            return getComponentName(componentId);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(TraceQueryBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.generator;
+
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
+import org.apache.skywalking.oap.server.core.source.Service;
+import org.apache.skywalking.oap.server.microbench.oal.OALClasses;
+
+/**
+ * Generate the service sources and metrics of the given number of services in the same minute. The latencies follow a
+ * log-normal distribution around 50ms, and the generator is seeded, so every run gets the same inputs. The metrics are
+ * the service_percentile and service_resp_time generated from the oal scripts, see {@link OALClasses}.
+ */
+public class MetricsGenerator {
+
+    public static final int PERCENTILE_PRECISION = 10;
+    public static final Class<? extends Metrics> PERCENTILE_METRICS_CLASS = OALClasses.metricsClass(
+        "ServicePercentile");
+    public static final Class<? extends Metrics> RESP_TIME_METRICS_CLASS = OALClasses.metricsClass(
+        "ServiceRespTime");
+
+    private final Random random = new Random(20200501L);
+    private final int services;
+    private final long timeBucket;
+
+    public MetricsGenerator(int services) {
+        this.services = services;
+        this.timeBucket = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis());
+    }
+
+    public int nextLatency() {
+        return (int) Math.exp(4 + random.nextGaussian() * 0.8);
+    }
+
+    public Service nextService() {
+        int id = nextServiceId();
+        Service service = new Service();
+        service.setId(id);
+        service.setName("service-" + id);
+        service.setServiceInstanceName("instance-" + id);
+        service.setEndpointName("/api/v1/service-" + id);
+        service.setLatency(nextLatency());
+        service.setStatus(random.nextInt(100) != 0);
+        service.setResponseCode(200);
+        service.setTimeBucket(timeBucket);
+        return service;
+    }
+
+    /**
+     * @param samples the number of the latencies combined into the metrics.
+     */
+    public PercentileMetrics nextPercentileMetrics(int samples) {
+        PercentileMetrics metrics = OALClasses.newMetrics(PERCENTILE_METRICS_CLASS, String.valueOf(nextServiceId()));
+        metrics.setTimeBucket(timeBucket);
+        for (int i = 0; i < samples; i++) {
+            metrics.combine(nextLatency(), PERCENTILE_PRECISION);
+        }
+        return metrics;
+    }
+
+    public LongAvgMetrics nextRespTimeMetrics() {
+        LongAvgMetrics metrics = OALClasses.newMetrics(RESP_TIME_METRICS_CLASS, String.valueOf(nextServiceId()));
+        metrics.setTimeBucket(timeBucket);
+        metrics.combine(nextLatency(), 1);
+        return metrics;
+    }
+
+    private int nextServiceId() {
+        // 1 is the id of the user service.
+        return 2 + random.nextInt(services);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.RefType;
+import org.apache.skywalking.apm.network.language.agent.SpanLayer;
+import org.apache.skywalking.apm.network.language.agent.SpanType;
+import org.apache.skywalking.apm.network.language.agent.UniqueId;
+import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.apm.network.language.agent.v2.Log;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentReference;
+import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
+import org.apache.skywalking.apm.network.trace.component.ComponentsDefine;
+
+/**
+ * Generate the segments of a service calling itself over HTTP, each segment has an entry span, local spans with tags
+ * and logs, and an exit span to the next segment of the trace. The service and the instance are registered already, so
+ * their ids are set. The generator is seeded, so every run gets the same inputs.
+ */
+public class SegmentGenerator {
+
+    public static final int SERVICE_ID = 2;
+    public static final int SERVICE_INSTANCE_ID = 2;
+    public static final int NETWORK_ADDRESS_ID = 2;
+
+    private final Random random = new Random(20200501L);
+    private final boolean exitPeers;
+    private long idPart = 1;
+
+    /**
+     * @param exitPeers set the peer of the exit spans, which requires the network address register in the parsing.
+     */
+    public SegmentGenerator(boolean exitPeers) {
+        this.exitPeers = exitPeers;
+    }
+
+    public UniqueId nextId() {
+        return UniqueId.newBuilder()
+                       .addIdParts(SERVICE_INSTANCE_ID)
+                       .addIdParts(Thread.currentThread().getId())
+                       .addIdParts(idPart++)
+                       .build();
+    }
+
+    /**
+     * @param spans the number of spans in the segment, at least 2.
+     */
+    public UpstreamSegment nextUpstreamSegment(int spans) {
+        UniqueId traceId = nextId();
+        return UpstreamSegment.newBuilder()
+                              .addGlobalTraceIds(traceId)
+                              .setSegment(nextSegment(nextId(), null, spans, System.currentTimeMillis()).toByteString())
+                              .build();
+    }
+
+    /**
+     * @param segments the number of segments in the trace, each one is called by the exit span of the previous one.
+     * @param spans    the number of spans in each segment, at least 2.
+     */
+    public List<SegmentObject> nextTrace(int segments, int spans) {
+        List<SegmentObject> trace = new ArrayList<>(segments);
+        long startTime = System.currentTimeMillis();
+        UniqueId parentSegmentId = null;
+        for (int i = 0; i < segments; i++) {
+            UniqueId segmentId = nextId();
+            trace.add(nextSegment(segmentId, parentSegmentId, spans, startTime + i * 10));
+            parentSegmentId = segmentId;
+        }
+        return trace;
+    }
+
+    /**
+     * @param parentSegmentId the segment calling this one, null if it is the first segment of the trace.
+     */
+    public SegmentObject nextSegment(UniqueId segmentId, UniqueId parentSegmentId, int spans, long startTime) {
+        SegmentObject.Builder segment = SegmentObject.newBuilder();
+        segment.setTraceSegmentId(segmentId);
+        segment.setServiceId(SERVICE_ID);
+        segment.setServiceInstanceId(SERVICE_INSTANCE_ID);
+
+        long endTime = startTime + 10 + random.nextInt(500);
+        SpanObjectV2.Builder entrySpan = SpanObjectV2.newBuilder();
+        entrySpan.setSpanId(0);
+        entrySpan.setParentSpanId(-1);
+        entrySpan.setSpanType(SpanType.Entry);
+        entrySpan.setSpanLayer(SpanLayer.Http);
+        entrySpan.setComponentId(ComponentsDefine.TOMCAT.getId());
+        entrySpan.setOperationName("/api/v1/orders/{id}");
+        entrySpan.setStartTime(startTime);
+        entrySpan.setEndTime(endTime);
+        entrySpan.addTags(KeyStringValuePair.newBuilder().setKey("url").setValue("http://localhost:8080/api/v1/orders/1"));
+        entrySpan.addTags(KeyStringValuePair.newBuilder().setKey("http.method").setValue("GET"));
+        if (parentSegmentId != null) {
+            entrySpan.addRefs(SegmentReference.newBuilder()
+                                              .setRefType(RefType.CrossProcess)
+                                              .setParentTraceSegmentId(parentSegmentId)
+                                              .setParentSpanId(spans - 1)
+                                              .setParentServiceInstanceId(SERVICE_INSTANCE_ID)
+                                              .setEntryServiceInstanceId(SERVICE_INSTANCE_ID)
+                                              .setNetworkAddressId(NETWORK_ADDRESS_ID)
+                                              .setParentEndpoint("/api/v1/orders/{id}")
+                                              .setEntryEndpoint("/api/v1/orders/{id}"));
+        }
+        segment.addSpans(entrySpan);
+
+        for (int i = 1; i < spans - 1; i++) {
+            SpanObjectV2.Builder localSpan = SpanObjectV2.newBuilder();
+            localSpan.setSpanId(i);
+            localSpan.setParentSpanId(i - 1);
+            localSpan.setSpanType(SpanType.Local);
+            localSpan.setOperationName("org.apache.skywalking.OrderService.query" + i);
+            localSpan.setStartTime(startTime + i);
+            localSpan.setEndTime(endTime - i);
+            localSpan.addTags(KeyStringValuePair.newBuilder().setKey("order.id").setValue(String.valueOf(i)));
+            if (random.nextInt(10) == 0) {
+                localSpan.setIsError(true);
+                localSpan.addLogs(Log.newBuilder()
+                                     .setTime(startTime + i)
+                                     .addData(KeyStringValuePair.newBuilder().setKey("event").setValue("error"))
+                                     .addData(KeyStringValuePair.newBuilder()
+                                                                .setKey("message")
+                                                                .setValue("order " + i + " not found")));
+            }
+            segment.addSpans(localSpan);
+        }
+
+        SpanObjectV2.Builder exitSpan = SpanObjectV2.newBuilder();
+        exitSpan.setSpanId(spans - 1);
+        exitSpan.setParentSpanId(spans - 2);
+        exitSpan.setSpanType(SpanType.Exit);
+        exitSpan.setSpanLayer(SpanLayer.Http);
+        exitSpan.setComponentId(ComponentsDefine.HTTPCLIENT.getId());
+        exitSpan.setOperationName("/api/v1/orders/{id}");
+        exitSpan.setStartTime(startTime + spans);
+        exitSpan.setEndTime(endTime - spans);
+        if (exitPeers) {
+            exitSpan.setPeer("localhost:8080");
+        }
+        segment.addSpans(exitSpan);
+
+        return segment.build();
+    }
+}
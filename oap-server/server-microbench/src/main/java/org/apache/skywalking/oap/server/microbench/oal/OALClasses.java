@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.oal;
+
+import org.apache.skywalking.oal.rt.OALRuntime;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.Stream;
+import org.apache.skywalking.oap.server.core.analysis.metrics.ApdexMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+
+/**
+ * The metrics, storage builders and dispatchers generated by the oal-rt from the official_analysis.oal, the same way
+ * the core module does when the OAP starts, so the benchmarks measure the code the OAP really runs. The classes can be
+ * generated only once in a JVM, they are generated by the first benchmark asking for them.
+ */
+public class OALClasses {
+
+    private static final String METRICS_CLASS_PACKAGE = "org.apache.skywalking.oal.rt.metrics.";
+    private static final String DISPATCHER_CLASS_PACKAGE = "org.apache.skywalking.oal.rt.dispatcher.";
+    /**
+     * The default apdex threshold of the services, see service-apdex-threshold.yml.
+     */
+    private static final int APDEX_THRESHOLD = 500;
+
+    private static boolean GENERATED = false;
+
+    /**
+     * @param metricsName the name of the metrics in upper camel case, such as ServiceRespTime for service_resp_time.
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends Metrics> metricsClass(String metricsName) {
+        return (Class<? extends Metrics>) load(METRICS_CLASS_PACKAGE + metricsName + "Metrics");
+    }
+
+    /**
+     * @param scopeName the name of the source scope, such as Service.
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends SourceDispatcher> dispatcherClass(String scopeName) {
+        return (Class<? extends SourceDispatcher>) load(DISPATCHER_CLASS_PACKAGE + scopeName + "Dispatcher");
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Metrics> T newMetrics(Class<? extends Metrics> metricsClass, String entityId) {
+        try {
+            T metrics = (T) metricsClass.newInstance();
+            metricsClass.getMethod("setEntityId", String.class).invoke(metrics, entityId);
+            return metrics;
+        } catch (ReflectiveOperationException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    public static String getEntityId(Metrics metrics) {
+        try {
+            return (String) metrics.getClass().getMethod("getEntityId").invoke(metrics);
+        } catch (ReflectiveOperationException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the storage builder declared in the {@link Stream} of the metrics class.
+     */
+    @SuppressWarnings("unchecked")
+    public static StorageBuilder<Metrics> builder(Class<? extends Metrics> metricsClass) {
+        try {
+            return metricsClass.getAnnotation(Stream.class).builder().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    private static Class<?> load(String className) {
+        generate();
+        try {
+            return Class.forName(className, true, OALClasses.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new UnexpectedException(className + " isn't generated from the oal scripts.", e);
+        }
+    }
+
+    private static synchronized void generate() {
+        if (GENERATED) {
+            return;
+        }
+        try {
+            AnnotationScan scopeScan = new AnnotationScan();
+            scopeScan.registerListener(new DefaultScopeDefine.Listener());
+            scopeScan.scan();
+
+            new OALRuntime().start(OALClasses.class.getClassLoader());
+        } catch (Exception e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+        ApdexMetrics.setDICT(name -> APDEX_THRESHOLD);
+        GENERATED = true;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.receiver;
+
+import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.cache.NetworkAddressInventoryCache;
+import org.apache.skywalking.oap.server.core.cache.ServiceInstanceInventoryCache;
+import org.apache.skywalking.oap.server.core.cache.ServiceInventoryCache;
+import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
+import org.apache.skywalking.oap.server.core.register.ServiceInventory;
+import org.apache.skywalking.oap.server.core.register.service.IServiceInstanceInventoryRegister;
+import org.apache.skywalking.oap.server.core.register.service.IServiceInventoryRegister;
+import org.apache.skywalking.oap.server.core.register.service.ServiceInstanceInventoryRegister;
+import org.apache.skywalking.oap.server.core.register.service.ServiceInventoryRegister;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.microbench.BenchmarkModuleManager;
+import org.apache.skywalking.oap.server.microbench.generator.SegmentGenerator;
+import org.apache.skywalking.oap.server.receiver.trace.provider.TraceModuleProvider;
+import org.apache.skywalking.oap.server.receiver.trace.provider.TraceServiceModuleConfig;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.SegmentParseV2;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.SegmentSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the parsing of the segments received from the agents, decoding the segment, exchanging the ids of the spans
+ * and building the sources by the span listeners the trace receiver registers. The sources are consumed by the
+ * benchmark rather than dispatched, see DispatcherBenchmark for the dispatching. The exit spans have no peer, so the
+ * parsing doesn't reach the registers.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class SegmentParseBenchmark {
+
+    @Param({"10", "50"})
+    private int spans;
+
+    private SegmentParseV2.Producer producer;
+    private UpstreamSegment segment;
+    private Blackhole blackhole;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkModuleManager moduleManager = new BenchmarkModuleManager();
+        CoreModuleConfig coreModuleConfig = new CoreModuleConfig();
+
+        ServiceInventoryCache serviceInventoryCache = new ServiceInventoryCache(moduleManager, coreModuleConfig);
+        ServiceInventory service = new ServiceInventory();
+        service.setSequence(SegmentGenerator.SERVICE_ID);
+        service.setName("order-service");
+        serviceInventoryCache.put(service);
+
+        ServiceInstanceInventoryCache serviceInstanceInventoryCache = new ServiceInstanceInventoryCache(
+            moduleManager, coreModuleConfig);
+        ServiceInstanceInventory serviceInstance = new ServiceInstanceInventory();
+        serviceInstance.setSequence(SegmentGenerator.SERVICE_INSTANCE_ID);
+        serviceInstance.setServiceId(SegmentGenerator.SERVICE_ID);
+        serviceInstance.setName("order-service-instance");
+        serviceInstance.setInstanceUUID("order-service-instance-uuid");
+        serviceInstanceInventoryCache.put(serviceInstance);
+
+        moduleManager.register(CoreModule.NAME, ServiceInventoryCache.class, serviceInventoryCache)
+                     .register(CoreModule.NAME, ServiceInstanceInventoryCache.class, serviceInstanceInventoryCache)
+                     .register(CoreModule.NAME, NetworkAddressInventoryCache.class,
+                               new NetworkAddressInventoryCache(moduleManager, coreModuleConfig))
+                     .register(CoreModule.NAME, IServiceInventoryRegister.class,
+                               new ServiceInventoryRegister(moduleManager))
+                     .register(CoreModule.NAME, IServiceInstanceInventoryRegister.class,
+                               new ServiceInstanceInventoryRegister(moduleManager))
+                     .register(CoreModule.NAME, SourceReceiver.class, source -> blackhole.consume(source));
+
+        producer = new SegmentParseV2.Producer(
+            moduleManager, new TraceModuleProvider().listenerManager(), new TraceServiceModuleConfig());
+        segment = new SegmentGenerator(false).nextUpstreamSegment(spans);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        producer.send(segment, SegmentSource.Agent);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(SegmentParseBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -30,4 +30,18 @@ import org.apache.skywalking.oap.server.library.module.ModuleConfig;
 @Setter(AccessLevel.PUBLIC)
 public class GraphQLQueryConfig extends ModuleConfig {
     private String path;
+    /**
+     * Max count of the parsed and validated query documents kept in the cache.
+     */
+    private long preparsedDocumentCacheSize = 1000;
+    /**
+     * Threads running the fetchers of the query root fields in parallel, 0 means fetching them one by one in the
+     * request thread.
+     */
+    private int fetcherThreads = 8;
+    /**
+     * Timeout of fetching a query root field, unit is millisecond. The query returns the fetched fields and the errors
+     * of the timeout ones. 0 means no timeout. It only works when the {@link #fetcherThreads} is more than 0.
+     */
+    private long fetchTimeout = 10000;
 }
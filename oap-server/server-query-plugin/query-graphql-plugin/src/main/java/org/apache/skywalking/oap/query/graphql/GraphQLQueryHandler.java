@@ -15,33 +15,38 @@
  * limitations under the License.
  *
  */
-
 package org.apache.skywalking.oap.query.graphql;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
 import graphql.GraphQLError;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.apache.skywalking.oap.server.library.server.jetty.JettyJsonHandler;
+import org.apache.skywalking.oap.server.library.server.jetty.JettyHandler;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Execute the GraphQL query of the request body, and write the {@link ExecutionResult} into the response directly.
+ */
 @RequiredArgsConstructor
-public class GraphQLQueryHandler extends JettyJsonHandler {
+public class GraphQLQueryHandler extends JettyHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GraphQLQueryHandler.class);
 
@@ -51,7 +56,11 @@ public class GraphQLQueryHandler extends JettyJsonHandler {
     private static final String ERRORS = "errors";
     private static final String MESSAGE = "message";
 
-    private final Gson gson = new Gson();
+    /**
+     * Keep the response the same as printing the JsonObject, which neither escapes the html characters nor omits the
+     * null messages.
+     */
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
     private final Type mapOfStringObjectType = new TypeToken<Map<String, Object>>() {
     }.getType();
 
@@ -65,59 +74,80 @@ public class GraphQLQueryHandler extends JettyJsonHandler {
     }
 
     @Override
-    protected JsonElement doGet(HttpServletRequest req) {
-        throw new UnsupportedOperationException("GraphQL only supports POST method");
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        replyError(resp, "GraphQL only supports POST method", HttpServletResponse.SC_METHOD_NOT_ALLOWED);
     }
 
     @Override
-    protected JsonElement doPost(HttpServletRequest req) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(req.getInputStream()));
-        String line;
-        StringBuilder request = new StringBuilder();
-        while ((line = reader.readLine()) != null) {
-            request.append(line);
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        final JsonObject requestJson;
+        try (Reader reader = new InputStreamReader(req.getInputStream(), StandardCharsets.UTF_8)) {
+            requestJson = gson.fromJson(reader, JsonObject.class);
+        } catch (JsonParseException e) {
+            replyError(resp, e.getMessage(), HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (requestJson == null || requestJson.get(QUERY) == null) {
+            replyError(resp, "GraphQL query is required", HttpServletResponse.SC_BAD_REQUEST);
+            return;
         }
 
-        JsonObject requestJson = gson.fromJson(request.toString(), JsonObject.class);
-
-        return execute(requestJson.get(QUERY)
-                                  .getAsString(), gson.fromJson(requestJson.get(VARIABLES), mapOfStringObjectType));
-    }
+        final String query = requestJson.get(QUERY).getAsString();
+        final Map<String, Object> variables = gson.fromJson(requestJson.get(VARIABLES), mapOfStringObjectType);
 
-    private JsonObject execute(String request, Map<String, Object> variables) {
+        ExecutionResult executionResult = null;
+        Throwable failure = null;
         try {
-            ExecutionInput executionInput = ExecutionInput.newExecutionInput()
-                                                          .query(request)
-                                                          .variables(variables)
-                                                          .build();
-            ExecutionResult executionResult = graphQL.execute(executionInput);
+            executionResult = graphQL.execute(ExecutionInput.newExecutionInput()
+                                                            .query(query)
+                                                            .variables(variables)
+                                                            .build());
             logger.debug("Execution result is {}", executionResult);
-            Object data = executionResult.getData();
-            List<GraphQLError> errors = executionResult.getErrors();
-            JsonObject jsonObject = new JsonObject();
-            if (data != null) {
-                jsonObject.add(DATA, gson.fromJson(gson.toJson(data), JsonObject.class));
+        } catch (final Throwable e) {
+            logger.error(e.getMessage(), e);
+            failure = e;
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("utf-8");
+        resp.setStatus(HttpServletResponse.SC_OK);
+
+        try (JsonWriter writer = gson.newJsonWriter(resp.getWriter())) {
+            writer.setSerializeNulls(true);
+            writer.beginObject();
+            if (executionResult != null) {
+                write(writer, executionResult);
+            } else {
+                writer.name(ERRORS).beginArray();
+                writer.beginObject().name(MESSAGE).value(failure.getMessage()).endObject();
+                writer.endArray();
             }
+            writer.endObject();
+        }
+    }
+
+    private void write(JsonWriter writer, ExecutionResult executionResult) throws IOException {
+        Object data = executionResult.getData();
+        if (data != null) {
+            writer.name(DATA);
+            gson.toJson(data, data.getClass(), writer);
+        }
 
-            if (CollectionUtils.isNotEmpty(errors)) {
-                JsonArray errorArray = new JsonArray();
-                errors.forEach(error -> {
-                    JsonObject errorJson = new JsonObject();
-                    errorJson.addProperty(MESSAGE, error.getMessage());
-                    errorArray.add(errorJson);
-                });
-                jsonObject.add(ERRORS, errorArray);
+        List<GraphQLError> errors = executionResult.getErrors();
+        if (CollectionUtils.isNotEmpty(errors)) {
+            writer.name(ERRORS).beginArray();
+            for (GraphQLError error : errors) {
+                writer.beginObject().name(MESSAGE).value(error.getMessage()).endObject();
             }
-            return jsonObject;
-        } catch (final Throwable e) {
-            logger.error(e.getMessage(), e);
-            JsonObject jsonObject = new JsonObject();
-            JsonArray errorArray = new JsonArray();
-            JsonObject errorJson = new JsonObject();
-            errorJson.addProperty(MESSAGE, e.getMessage());
-            errorArray.add(errorJson);
-            jsonObject.add(ERRORS, errorArray);
-            return jsonObject;
+            writer.endArray();
         }
     }
+
+    private void replyError(HttpServletResponse response, String errorMessage, int status) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("utf-8");
+        response.setStatus(status);
+        response.setHeader("error-message", errorMessage);
+        response.getWriter().close();
+    }
 }
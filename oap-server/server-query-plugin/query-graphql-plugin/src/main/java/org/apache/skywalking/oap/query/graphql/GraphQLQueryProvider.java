@@ -19,8 +19,15 @@
 package org.apache.skywalking.oap.query.graphql;
 
 import com.coxautodev.graphql.tools.SchemaParser;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.GraphQL;
 import graphql.schema.GraphQLSchema;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.oap.query.graphql.resolver.AggregationQuery;
 import org.apache.skywalking.oap.query.graphql.resolver.AlarmQuery;
 import org.apache.skywalking.oap.query.graphql.resolver.LogQuery;
@@ -91,7 +98,29 @@ public class GraphQLQueryProvider extends ModuleProvider {
                                            .resolvers(new ProfileQuery(getManager()), new ProfileMutation(getManager()))
                                            .build()
                                            .makeExecutableSchema();
-        this.graphQL = GraphQL.newGraphQL(schema).build();
+        GraphQL.Builder builder = GraphQL.newGraphQL(schema)
+                                         .preparsedDocumentProvider(
+                                             new PreparsedDocumentCache(config.getPreparsedDocumentCacheSize()));
+        if (config.getFetcherThreads() > 0) {
+            ExecutorService fetcherExecutor = createFetcherExecutor(config.getFetcherThreads());
+            ScheduledExecutorService fetchTimer = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("GraphQLFetchTimer-%d").build());
+            builder.instrumentation(
+                new ParallelFetchInstrumentation(fetcherExecutor, fetchTimer, config.getFetchTimeout()));
+        }
+        this.graphQL = builder.build();
+    }
+
+    /**
+     * Run the fetchers in the request thread when all fetcher threads are busy and the queue is full.
+     */
+    static ExecutorService createFetcherExecutor(int fetcherThreads) {
+        return new ThreadPoolExecutor(
+            fetcherThreads, fetcherThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(fetcherThreads * 16),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("GraphQLFetcher-%d").build(),
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
     }
 
     @Override
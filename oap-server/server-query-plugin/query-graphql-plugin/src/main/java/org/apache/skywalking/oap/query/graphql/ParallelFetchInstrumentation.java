@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.query.graphql;
+
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Run the fetchers of the query root fields in the executor. The fields of a query, such as the metrics and topology of
+ * a dashboard, are independent from each other, the async execution strategy waits for all of them together, rather
+ * than one by one.
+ *
+ * A field not fetched in the timeout is failed and interrupted, so the result of the query is partial, having the
+ * fetched fields in the data and the timeout of the others in the errors, rather than failing the whole query.
+ */
+public class ParallelFetchInstrumentation extends SimpleInstrumentation {
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final long fetchTimeout;
+
+    /**
+     * @param fetchTimeout the timeout of fetching a field, unit is millisecond, 0 means no timeout.
+     */
+    public ParallelFetchInstrumentation(ExecutorService executor, ScheduledExecutorService timer, long fetchTimeout) {
+        this.executor = executor;
+        this.timer = timer;
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher,
+                                                InstrumentationFieldFetchParameters parameters) {
+        return (DataFetcher<Object>) environment -> {
+            if (!isQueryRootField(environment)) {
+                return dataFetcher.get(environment);
+            }
+
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            Future<?> fetching = executor.submit(() -> {
+                try {
+                    result.complete(dataFetcher.get(environment));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+            if (fetchTimeout > 0 && !result.isDone()) {
+                String fieldName = environment.getFieldDefinition().getName();
+                ScheduledFuture<?> deadline = timer.schedule(() -> {
+                    if (result.completeExceptionally(new TimeoutException(
+                        "Fetching " + fieldName + " timed out after " + fetchTimeout + "ms, the result is partial."))) {
+                        fetching.cancel(true);
+                    }
+                }, fetchTimeout, TimeUnit.MILLISECONDS);
+                result.whenComplete((value, t) -> deadline.cancel(false));
+            }
+            return result;
+        };
+    }
+
+    private boolean isQueryRootField(DataFetchingEnvironment environment) {
+        return environment.getParentType() == environment.getGraphQLSchema().getQueryType();
+    }
+}
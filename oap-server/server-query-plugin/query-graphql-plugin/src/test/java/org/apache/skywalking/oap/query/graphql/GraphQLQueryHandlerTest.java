@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.query.graphql;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GraphQLQueryHandlerTest {
+
+    private static final String REQUEST = "{\"query\": \"{ data }\", \"variables\": {\"name\": \"\u6d4b\u8bd5\"}}";
+
+    private final Gson gson = new Gson();
+
+    private GraphQL graphQL;
+    private GraphQLQueryHandler handler;
+    private HttpServletResponse response;
+    private StringWriter body;
+
+    @Before
+    public void setUp() throws IOException {
+        graphQL = mock(GraphQL.class);
+        handler = new GraphQLQueryHandler("/graphql", graphQL);
+        response = mock(HttpServletResponse.class);
+        body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+    }
+
+    @Test
+    public void testWriteData() throws IOException {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("empty", null);
+        nested.put("ok", true);
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "<a href='x'>&=\u6d4b\u8bd5\"");
+        data.put("count", 5L);
+        data.put("ratio", 1.5);
+        data.put("values", Arrays.asList(1, null, 3));
+        data.put("nested", nested);
+        ExecutionResult result = new ExecutionResultImpl(data, Collections.emptyList());
+        when(graphQL.execute(any(ExecutionInput.class))).thenReturn(result);
+
+        handler.doPost(request(REQUEST), response);
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertEquals(printJsonObject(result), body.toString());
+    }
+
+    @Test
+    public void testWriteErrors() throws IOException {
+        ExecutionResult result = new ExecutionResultImpl(
+            Collections.singletonMap("partial", "value"), Arrays.asList(error("bad <input>"), error(null)));
+        when(graphQL.execute(any(ExecutionInput.class))).thenReturn(result);
+
+        handler.doPost(request(REQUEST), response);
+
+        assertEquals(printJsonObject(result), body.toString());
+    }
+
+    @Test
+    public void testWriteFailure() throws IOException {
+        when(graphQL.execute(any(ExecutionInput.class))).thenThrow(new IllegalStateException("storage is down"));
+
+        handler.doPost(request(REQUEST), response);
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertEquals("{\"errors\":[{\"message\":\"storage is down\"}]}", body.toString());
+    }
+
+    @Test
+    public void testQueryRequired() throws IOException {
+        handler.doPost(request("{\"variables\": {}}"), response);
+
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+    }
+
+    /**
+     * The response before streaming, serializing the data to a string, parsing it back into a JsonObject and printing.
+     */
+    private String printJsonObject(ExecutionResult executionResult) {
+        JsonObject jsonObject = new JsonObject();
+        Object data = executionResult.getData();
+        if (data != null) {
+            jsonObject.add("data", gson.fromJson(gson.toJson(data), JsonObject.class));
+        }
+        List<GraphQLError> errors = executionResult.getErrors();
+        if (!errors.isEmpty()) {
+            JsonArray errorArray = new JsonArray();
+            errors.forEach(error -> {
+                JsonObject errorJson = new JsonObject();
+                errorJson.addProperty("message", error.getMessage());
+                errorArray.add(errorJson);
+            });
+            jsonObject.add("errors", errorArray);
+        }
+        return jsonObject.toString();
+    }
+
+    private static GraphQLError error(String message) {
+        return new GraphQLError() {
+            @Override
+            public String getMessage() {
+                return message;
+            }
+
+            @Override
+            public List<SourceLocation> getLocations() {
+                return null;
+            }
+
+            @Override
+            public ErrorType getErrorType() {
+                return ErrorType.DataFetchingException;
+            }
+        };
+    }
+
+    private static HttpServletRequest request(String json) throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getInputStream()).thenReturn(new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+        });
+        return request;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.query.graphql;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelFetchInstrumentationTest {
+
+    private final CountDownLatch bothFetching = new CountDownLatch(2);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private GraphQLSchema schema;
+    private ExecutorService executor;
+    private ScheduledExecutorService timer;
+
+    @Before
+    public void setUp() {
+        schema = new SchemaGenerator().makeExecutableSchema(
+            new SchemaParser().parse(
+                "schema { query: Query } "
+                    + "type Query { a: Boolean b: Boolean slow: String fast: String thread: String }"),
+            RuntimeWiring.newRuntimeWiring()
+                         .type("Query", builder -> builder
+                             .dataFetcher("a", environment -> awaitEachOther())
+                             .dataFetcher("b", environment -> awaitEachOther())
+                             .dataFetcher("slow", environment -> awaitRelease() ? "slow" : null)
+                             .dataFetcher("fast", environment -> "fast")
+                             .dataFetcher("thread", environment -> Thread.currentThread().getName()))
+                         .build()
+        );
+        timer = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    @Test
+    public void testFetchRootFieldsInParallel() {
+        executor = GraphQLQueryProvider.createFetcherExecutor(2);
+
+        ExecutionResult result = execute(0, "{ a b }");
+
+        // fetching one by one, the first field would time out waiting for the second
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        assertEquals(true, data.get("a"));
+        assertEquals(true, data.get("b"));
+    }
+
+    @Test
+    public void testPartialResultWhenTimeout() {
+        executor = GraphQLQueryProvider.createFetcherExecutor(2);
+
+        ExecutionResult result = execute(100, "{ slow fast }");
+
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        assertEquals("fast", data.get("fast"));
+        assertNull(data.get("slow"));
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).getMessage().contains("timed out"));
+    }
+
+    @Test
+    public void testRunInCallerWhenSaturated() throws InterruptedException {
+        executor = GraphQLQueryProvider.createFetcherExecutor(1);
+        // one running and 16 queued fill the pool
+        CountDownLatch running = new CountDownLatch(1);
+        executor.submit(() -> {
+            running.countDown();
+            awaitRelease();
+        });
+        running.await();
+        for (int i = 0; i < 16; i++) {
+            executor.submit(this::awaitRelease);
+        }
+
+        ExecutionResult result = execute(0, "{ thread }");
+
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        assertEquals(Thread.currentThread().getName(), data.get("thread"));
+    }
+
+    private ExecutionResult execute(long fetchTimeout, String query) {
+        return GraphQL.newGraphQL(schema)
+                      .instrumentation(new ParallelFetchInstrumentation(executor, timer, fetchTimeout))
+                      .build()
+                      .execute(query);
+    }
+
+    private boolean awaitEachOther() {
+        bothFetching.countDown();
+        try {
+            return bothFetching.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private boolean awaitRelease() {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
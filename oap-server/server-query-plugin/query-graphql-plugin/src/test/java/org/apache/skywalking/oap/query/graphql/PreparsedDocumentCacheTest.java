@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.query.graphql;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PreparsedDocumentCacheTest {
+
+    private static final String QUERY = "query hello($name: String) { hello(name: $name) }";
+
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    private GraphQL graphQL;
+
+    @Before
+    public void setUp() {
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(
+            new SchemaParser().parse("schema { query: Query } type Query { hello(name: String): String }"),
+            RuntimeWiring.newRuntimeWiring()
+                         .type("Query", builder -> builder.dataFetcher(
+                             "hello", environment -> "hello " + environment.getArgument("name")))
+                         .build()
+        );
+        PreparsedDocumentCache cache = new PreparsedDocumentCache(10);
+        graphQL = GraphQL.newGraphQL(schema)
+                         .preparsedDocumentProvider((query, computeFunction) -> cache.get(query, text -> {
+                             parsed.incrementAndGet();
+                             return computeFunction.apply(text);
+                         }))
+                         .build();
+    }
+
+    @Test
+    public void testParseOnceForSameQuery() {
+        assertEquals("hello a", hello(execute(QUERY, Collections.singletonMap("name", "a"))));
+        assertEquals(1, parsed.get());
+
+        // keyed by the query text only, the variables are not a part of the key
+        assertEquals("hello b", hello(execute(QUERY, Collections.singletonMap("name", "b"))));
+        assertEquals(1, parsed.get());
+    }
+
+    @Test
+    public void testParseDifferentQuery() {
+        execute(QUERY, Collections.singletonMap("name", "a"));
+        execute("{ hello(name: \"c\") }", Collections.emptyMap());
+        assertEquals(2, parsed.get());
+
+        execute("{ hello(name: \"c\") }", Collections.emptyMap());
+        assertEquals(2, parsed.get());
+    }
+
+    @Test
+    public void testCacheInvalidDocument() {
+        ExecutionResult result = execute("{ absent }", Collections.emptyMap());
+        assertEquals(1, result.getErrors().size());
+
+        result = execute("{ absent }", Collections.emptyMap());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(1, parsed.get());
+    }
+
+    private ExecutionResult execute(String query, Map<String, Object> variables) {
+        return graphQL.execute(ExecutionInput.newExecutionInput().query(query).variables(variables).build());
+    }
+
+    private static Object hello(ExecutionResult result) {
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        return data.get("hello");
+    }
+}
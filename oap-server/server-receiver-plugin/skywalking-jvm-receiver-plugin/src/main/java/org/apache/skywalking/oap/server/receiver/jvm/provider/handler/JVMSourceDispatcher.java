@@ -18,13 +18,20 @@
 
 package org.apache.skywalking.oap.server.receiver.jvm.provider.handler;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.apm.network.common.CPU;
 import org.apache.skywalking.apm.network.language.agent.GC;
 import org.apache.skywalking.apm.network.language.agent.JVMMetric;
 import org.apache.skywalking.apm.network.language.agent.Memory;
 import org.apache.skywalking.apm.network.language.agent.MemoryPool;
+import org.apache.skywalking.apm.network.language.agent.PoolType;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.cache.ServiceInstanceInventoryCache;
@@ -44,6 +51,14 @@ public class JVMSourceDispatcher {
     private static final Logger logger = LoggerFactory.getLogger(JVMSourceDispatcher.class);
     private final SourceReceiver sourceReceiver;
     private final ServiceInstanceInventoryCache instanceInventoryCache;
+    /**
+     * The last reported memory pools of every instance. The agent only reports a memory pool when it changed, so the
+     * missing ones are carried forward from here. The agent reports all pools at least once per minute.
+     */
+    private final Cache<Integer, Map<PoolType, MemoryPool>> lastMemoryPools = CacheBuilder.newBuilder()
+                                                                                        .expireAfterAccess(
+                                                                                            2, TimeUnit.MINUTES)
+                                                                                        .build();
 
     public JVMSourceDispatcher(ModuleManager moduleManager) {
         this.sourceReceiver = moduleManager.find(CoreModule.NAME).provider().getService(SourceReceiver.class);
@@ -64,10 +79,41 @@ public class JVMSourceDispatcher {
 
         this.sendToCpuMetricProcess(serviceId, serviceInstanceId, minuteTimeBucket, metrics.getCpu());
         this.sendToMemoryMetricProcess(serviceId, serviceInstanceId, minuteTimeBucket, metrics.getMemoryList());
-        this.sendToMemoryPoolMetricProcess(serviceId, serviceInstanceId, minuteTimeBucket, metrics.getMemoryPoolList());
+        this.sendToMemoryPoolMetricProcess(
+            serviceId, serviceInstanceId, minuteTimeBucket, mergeMemoryPools(serviceInstanceId, metrics.getMemoryPoolList()));
         this.sendToGCMetricProcess(serviceId, serviceInstanceId, minuteTimeBucket, metrics.getGcList());
     }
 
+    /**
+     * @return the reported memory pools, plus the last reported value of every pool not included in this sample. The
+     * merge is atomic for the instance, as its reports could be handled concurrently.
+     */
+    private List<MemoryPool> mergeMemoryPools(int serviceInstanceId, List<MemoryPool> memoryPools) {
+        List<MemoryPool> merged = new ArrayList<>(memoryPools);
+        lastMemoryPools.asMap().compute(serviceInstanceId, (id, lastPools) -> {
+            Map<PoolType, MemoryPool> pools = lastPools == null ? new EnumMap<>(PoolType.class) : lastPools;
+            for (Map.Entry<PoolType, MemoryPool> lastPool : pools.entrySet()) {
+                if (!containsType(memoryPools, lastPool.getKey())) {
+                    merged.add(lastPool.getValue());
+                }
+            }
+            for (MemoryPool memoryPool : memoryPools) {
+                pools.put(memoryPool.getType(), memoryPool);
+            }
+            return pools;
+        });
+        return merged;
+    }
+
+    private static boolean containsType(List<MemoryPool> memoryPools, PoolType type) {
+        for (MemoryPool memoryPool : memoryPools) {
+            if (memoryPool.getType() == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void sendToCpuMetricProcess(int serviceId, int serviceInstanceId, long timeBucket, CPU cpu) {
         ServiceInstanceJVMCPU serviceInstanceJVMCPU = new ServiceInstanceJVMCPU();
         serviceInstanceJVMCPU.setId(serviceInstanceId);
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.jvm.provider.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import org.apache.skywalking.apm.network.common.CPU;
+import org.apache.skywalking.apm.network.language.agent.JVMMetric;
+import org.apache.skywalking.apm.network.language.agent.MemoryPool;
+import org.apache.skywalking.apm.network.language.agent.PoolType;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.cache.ServiceInstanceInventoryCache;
+import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
+import org.apache.skywalking.oap.server.core.source.MemoryPoolType;
+import org.apache.skywalking.oap.server.core.source.ServiceInstanceJVMMemoryPool;
+import org.apache.skywalking.oap.server.core.source.Source;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JVMSourceDispatcherTest {
+    private static final long TIME_BUCKET = 202001011010L;
+
+    private final Queue<Source> received = new ConcurrentLinkedQueue<>();
+    private JVMSourceDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        ModuleManager moduleManager = mock(ModuleManager.class);
+        ModuleProviderHolder moduleProviderHolder = mock(ModuleProviderHolder.class);
+        ModuleServiceHolder moduleServiceHolder = mock(ModuleServiceHolder.class);
+        when(moduleManager.find(CoreModule.NAME)).thenReturn(moduleProviderHolder);
+        when(moduleProviderHolder.provider()).thenReturn(moduleServiceHolder);
+
+        ServiceInstanceInventory instanceInventory = new ServiceInstanceInventory();
+        instanceInventory.setServiceId(1);
+        ServiceInstanceInventoryCache instanceInventoryCache = mock(ServiceInstanceInventoryCache.class);
+        when(instanceInventoryCache.get(anyInt())).thenReturn(instanceInventory);
+        when(moduleServiceHolder.getService(ServiceInstanceInventoryCache.class)).thenReturn(instanceInventoryCache);
+        when(moduleServiceHolder.getService(SourceReceiver.class)).thenReturn(new SourceReceiver() {
+            @Override
+            public void receive(Source source) {
+                received.add(source);
+            }
+        });
+
+        dispatcher = new JVMSourceDispatcher(moduleManager);
+    }
+
+    @Test
+    public void testCarryForwardMissingPools() {
+        dispatcher.sendMetric(2, TIME_BUCKET, metric(pool(PoolType.NEWGEN_USAGE, 1), pool(PoolType.OLDGEN_USAGE, 2)));
+        Assert.assertEquals(2, memoryPools().size());
+
+        received.clear();
+        dispatcher.sendMetric(2, TIME_BUCKET, metric(pool(PoolType.NEWGEN_USAGE, 3)));
+        List<ServiceInstanceJVMMemoryPool> pools = memoryPools();
+        Assert.assertEquals(2, pools.size());
+        Assert.assertEquals(MemoryPoolType.NEWGEN_USAGE, pools.get(0).getPoolType());
+        Assert.assertEquals(3, pools.get(0).getUsed());
+        Assert.assertEquals(MemoryPoolType.OLDGEN_USAGE, pools.get(1).getPoolType());
+        Assert.assertEquals(2, pools.get(1).getUsed());
+
+        // Other instances don't share the carried forward pools.
+        received.clear();
+        dispatcher.sendMetric(3, TIME_BUCKET, metric(pool(PoolType.SURVIVOR_USAGE, 4)));
+        Assert.assertEquals(1, memoryPools().size());
+    }
+
+    @Test
+    public void testConcurrentReportsOfInstance() throws InterruptedException {
+        final PoolType[] types = {
+            PoolType.NEWGEN_USAGE, PoolType.OLDGEN_USAGE, PoolType.SURVIVOR_USAGE, PoolType.METASPACE_USAGE
+        };
+        final int instanceCount = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[types.length];
+        for (int i = 0; i < types.length; i++) {
+            final PoolType type = types[i];
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int instanceId = 1; instanceId <= instanceCount; instanceId++) {
+                    dispatcher.sendMetric(instanceId, TIME_BUCKET, metric(pool(type, 1)));
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int instanceId = 1; instanceId <= instanceCount; instanceId++) {
+            received.clear();
+            dispatcher.sendMetric(instanceId, TIME_BUCKET, metric());
+            Assert.assertEquals(types.length, memoryPools().size());
+        }
+    }
+
+    private List<ServiceInstanceJVMMemoryPool> memoryPools() {
+        List<ServiceInstanceJVMMemoryPool> pools = new ArrayList<>();
+        for (Source source : received) {
+            if (source instanceof ServiceInstanceJVMMemoryPool) {
+                pools.add((ServiceInstanceJVMMemoryPool) source);
+            }
+        }
+        return pools;
+    }
+
+    private static JVMMetric metric(MemoryPool... pools) {
+        JVMMetric.Builder builder = JVMMetric.newBuilder().setCpu(CPU.newBuilder().setUsagePercent(1));
+        for (MemoryPool pool : pools) {
+            builder.addMemoryPool(pool);
+        }
+        return builder.build();
+    }
+
+    private static MemoryPool pool(PoolType type, long used) {
+        return MemoryPool.newBuilder().setType(type).setUsed(used).build();
+    }
+}
@@ -30,13 +30,14 @@ import org.slf4j.LoggerFactory;
 
 public class EndpointNameFormater {
     private static final Logger logger = LoggerFactory.getLogger(EndpointNameFormater.class);
+    /**
+     * Max total length of the endpoint names memoized with their format results of each service.
+     */
+    private static final long MAX_CACHED_LENGTH = 200_000;
     private static Map<String, StringFormatGroup> ALL_RULES = new ConcurrentHashMap<>();
 
-    private static void init(String service) {
-        if (ALL_RULES.containsKey(service)) {
-            return;
-        }
-        StringFormatGroup endpointRule = new StringFormatGroup();
+    private static StringFormatGroup init(String service) {
+        StringFormatGroup endpointRule = new StringFormatGroup(MAX_CACHED_LENGTH);
         Properties properties = new Properties();
         try {
             InputStream stream = ResourceUtils.class.getClassLoader()
@@ -59,13 +60,15 @@ public class EndpointNameFormater {
             logger.info("{}_endpoint_rules.properties not found. No endpoint naming setup.", service);
         }
 
-        ALL_RULES.put(service, endpointRule);
         logger.debug("endpoint naming rules of service {} added. {}", service, endpointRule);
-
+        return endpointRule;
     }
 
     public static StringFormatGroup.FormatResult format(String service, String endpointName) {
-        init(service);
-        return ALL_RULES.get(service).format(endpointName);
+        StringFormatGroup endpointRule = ALL_RULES.get(service);
+        if (endpointRule == null) {
+            endpointRule = ALL_RULES.computeIfAbsent(service, EndpointNameFormater::init);
+        }
+        return endpointRule.format(endpointName);
     }
 }
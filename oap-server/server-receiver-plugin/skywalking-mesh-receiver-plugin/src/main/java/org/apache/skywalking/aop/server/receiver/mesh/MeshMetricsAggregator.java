@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.aop.server.receiver.mesh;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.apm.network.common.DetectPoint;
+import org.apache.skywalking.apm.network.servicemesh.Protocol;
+import org.apache.skywalking.apm.network.servicemesh.ServiceMeshMetric;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+
+/**
+ * MeshMetricsAggregator folds the registered {@link ServiceMeshMetric}s into accumulators by the source and dest
+ * instances, endpoint, detect point, protocol and minute, and hands each accumulator over when it is flushed. So a
+ * sidecar reporting one metric per request costs one set of sources per accumulated sample rather than per request.
+ * <p>
+ * An accumulator keeps the count of each distinct latency, status and response code, which is a latency histogram of
+ * 1ms step holding the counts, the latency sums and the status as well. The sources are emitted per sample with its
+ * count as {@link org.apache.skywalking.oap.server.core.source.Source#getWeight()}, so the percentile, heatmap and
+ * apdex metrics get the same per-request latencies as they do without the aggregation.
+ */
+public class MeshMetricsAggregator {
+    private final Map<Key, Accumulator> accumulators = new ConcurrentHashMap<>();
+    private final Consumer<Accumulator> flushTarget;
+
+    public MeshMetricsAggregator(Consumer<Accumulator> flushTarget) {
+        this.flushTarget = flushTarget;
+    }
+
+    public void in(ServiceMeshMetric metrics) {
+        Key key = new Key(metrics);
+        while (!accumulators.computeIfAbsent(key, k -> new Accumulator(metrics)).add(metrics)) {
+            // The accumulator has been flushed in between, take the new one.
+        }
+    }
+
+    /**
+     * Hand all the accumulators over to the flush target, the metrics coming in meanwhile go to new accumulators.
+     */
+    public void flush() {
+        for (Key key : new ArrayList<>(accumulators.keySet())) {
+            Accumulator accumulator = accumulators.remove(key);
+            if (accumulator != null && accumulator.close()) {
+                flushTarget.accept(accumulator);
+            }
+        }
+    }
+
+    int size() {
+        return accumulators.size();
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final long minuteTimeBucket;
+        private final int sourceServiceId;
+        private final int sourceServiceInstanceId;
+        private final int destServiceId;
+        private final int destServiceInstanceId;
+        private final String endpoint;
+        private final DetectPoint detectPoint;
+        private final Protocol protocol;
+
+        private Key(ServiceMeshMetric metrics) {
+            this.minuteTimeBucket = TimeBucket.getMinuteTimeBucket(metrics.getStartTime());
+            this.sourceServiceId = metrics.getSourceServiceId();
+            this.sourceServiceInstanceId = metrics.getSourceServiceInstanceId();
+            this.destServiceId = metrics.getDestServiceId();
+            this.destServiceInstanceId = metrics.getDestServiceInstanceId();
+            this.endpoint = metrics.getEndpoint();
+            this.detectPoint = metrics.getDetectPoint();
+            this.protocol = metrics.getProtocol();
+        }
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class Sample {
+        private final int latency;
+        private final boolean status;
+        private final int responseCode;
+    }
+
+    public static class Accumulator {
+        /**
+         * The first metric of the accumulator, which gives the names and the other fields shared by the key.
+         */
+        @Getter
+        private final ServiceMeshMetric metrics;
+        private final Map<Sample, long[]> samples = new HashMap<>();
+        /**
+         * The latest end time of the metrics, to trigger the heartbeat.
+         */
+        @Getter
+        private long endTime;
+        private boolean closed;
+
+        private Accumulator(ServiceMeshMetric metrics) {
+            this.metrics = metrics;
+        }
+
+        private synchronized boolean add(ServiceMeshMetric metrics) {
+            if (closed) {
+                return false;
+            }
+            samples.computeIfAbsent(
+                new Sample(metrics.getLatency(), metrics.getStatus(), metrics.getResponseCode()),
+                sample -> new long[1]
+            )[0]++;
+            endTime = Math.max(endTime, metrics.getEndTime());
+            return true;
+        }
+
+        private synchronized boolean close() {
+            closed = true;
+            return !samples.isEmpty();
+        }
+
+        /**
+         * Walk through the samples and their counts, after the accumulator is flushed.
+         */
+        public synchronized void forEachSample(BiConsumer<Sample, Long> action) {
+            samples.forEach((sample, count) -> action.accept(sample, count[0]));
+        }
+    }
+}
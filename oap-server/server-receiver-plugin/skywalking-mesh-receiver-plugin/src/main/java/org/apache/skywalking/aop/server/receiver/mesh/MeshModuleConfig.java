@@ -35,4 +35,11 @@ public class MeshModuleConfig extends ModuleConfig {
     @Setter
     @Getter
     private boolean bufferFileCleanWhenRestart;
+    /**
+     * The period of flushing the pre-aggregated metrics, unit is second. Zero or negative means the metrics are
+     * dispatched one by one, without the pre-aggregation.
+     */
+    @Setter
+    @Getter
+    private int preAggregationFlushPeriod = 0;
 }
@@ -19,6 +19,9 @@
 package org.apache.skywalking.aop.server.receiver.mesh;
 
 import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegister;
 import org.apache.skywalking.oap.server.library.module.ModuleConfig;
@@ -29,8 +32,12 @@ import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedExcepti
 import org.apache.skywalking.oap.server.receiver.sharing.server.CoreRegisterLinker;
 import org.apache.skywalking.oap.server.receiver.sharing.server.SharingServerModule;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class MeshReceiverProvider extends ModuleProvider {
+    private static final Logger logger = LoggerFactory.getLogger(MeshReceiverProvider.class);
+
     private MeshModuleConfig config;
 
     public MeshReceiverProvider() {
@@ -65,6 +72,18 @@ public class MeshReceiverProvider extends ModuleProvider {
         } catch (IOException e) {
             throw new ModuleStartException(e.getMessage(), e);
         }
+        if (config.getPreAggregationFlushPeriod() > 0) {
+            MeshMetricsAggregator aggregator = new MeshMetricsAggregator(TelemetryDataDispatcher::doDispatch);
+            TelemetryDataDispatcher.setAggregator(aggregator);
+            Executors.newSingleThreadScheduledExecutor()
+                     .scheduleWithFixedDelay(
+                         new RunnableWithExceptionProtection(
+                             aggregator::flush,
+                             t -> logger.error("Flush the pre-aggregated mesh metrics failure.", t)
+                         ), config.getPreAggregationFlushPeriod(), config.getPreAggregationFlushPeriod(),
+                         TimeUnit.SECONDS
+                     );
+        }
         CoreRegisterLinker.setModuleManager(getManager());
         GRPCHandlerRegister service = getManager().find(SharingServerModule.NAME)
                                                   .provider()
@@ -23,6 +23,7 @@ import org.apache.logging.log4j.util.Strings;
 import org.apache.skywalking.apm.network.servicemesh.Protocol;
 import org.apache.skywalking.apm.network.servicemesh.ServiceMeshMetric;
 import org.apache.skywalking.apm.util.StringFormatGroup;
+import org.apache.skywalking.aop.server.receiver.mesh.MeshMetricsAggregator.Sample;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
@@ -57,6 +58,7 @@ public class TelemetryDataDispatcher {
     private static SourceReceiver SOURCE_RECEIVER;
     private static IServiceInstanceInventoryRegister SERVICE_INSTANCE_INVENTORY_REGISTER;
     private static IServiceInventoryRegister SERVICE_INVENTORY_REGISTER;
+    private static MeshMetricsAggregator AGGREGATOR;
 
     private TelemetryDataDispatcher() {
 
@@ -77,6 +79,14 @@ public class TelemetryDataDispatcher {
                                                   .getService(IServiceInventoryRegister.class);
     }
 
+    /**
+     * Fold the metrics by the aggregator rather than dispatching them one by one, the aggregator should be flushed
+     * into {@link #doDispatch(MeshMetricsAggregator.Accumulator)}.
+     */
+    public static void setAggregator(MeshMetricsAggregator aggregator) {
+        AGGREGATOR = aggregator;
+    }
+
     public static void preProcess(ServiceMeshMetric data) {
         String service = data.getDestServiceId() == Const.NONE ? data.getDestServiceName() : SERVICE_CACHE.get(
             data.getDestServiceId())
@@ -105,27 +115,43 @@ public class TelemetryDataDispatcher {
      */
     static void doDispatch(ServiceMeshMetricDataDecorator decorator) {
         ServiceMeshMetric metrics = decorator.getMetric();
+        if (AGGREGATOR != null) {
+            AGGREGATOR.in(metrics);
+            return;
+        }
+
+        heartbeat(metrics, metrics.getEndTime());
+        dispatch(metrics, new Sample(metrics.getLatency(), metrics.getStatus(), metrics.getResponseCode()), 1);
+    }
+
+    /**
+     * Dispatch the accumulated metrics, one source of each kind per sample, weighted by the count of the sample.
+     */
+    static void doDispatch(MeshMetricsAggregator.Accumulator accumulator) {
+        ServiceMeshMetric metrics = accumulator.getMetrics();
+        heartbeat(metrics, accumulator.getEndTime());
+        accumulator.forEachSample((sample, count) -> dispatch(metrics, sample, count));
+    }
+
+    private static void dispatch(ServiceMeshMetric metrics, Sample sample, long weight) {
         long minuteTimeBucket = TimeBucket.getMinuteTimeBucket(metrics.getStartTime());
 
-        heartbeat(decorator, minuteTimeBucket);
         if (org.apache.skywalking.apm.network.common.DetectPoint.server.equals(metrics.getDetectPoint())) {
-            toAll(decorator, minuteTimeBucket);
-            toService(decorator, minuteTimeBucket);
-            toServiceInstance(decorator, minuteTimeBucket);
-            toEndpoint(decorator, minuteTimeBucket);
+            toAll(metrics, minuteTimeBucket, sample, weight);
+            toService(metrics, minuteTimeBucket, sample, weight);
+            toServiceInstance(metrics, minuteTimeBucket, sample, weight);
+            toEndpoint(metrics, minuteTimeBucket, sample, weight);
         }
 
         int sourceServiceId = metrics.getSourceServiceId();
         // Don't generate relation, if no source.
         if (sourceServiceId != Const.NONE) {
-            toServiceRelation(decorator, minuteTimeBucket);
-            toServiceInstanceRelation(decorator, minuteTimeBucket);
+            toServiceRelation(metrics, minuteTimeBucket, sample, weight);
+            toServiceInstanceRelation(metrics, minuteTimeBucket, sample, weight);
         }
     }
 
-    private static void heartbeat(ServiceMeshMetricDataDecorator decorator, long minuteTimeBucket) {
-        ServiceMeshMetric metrics = decorator.getMetric();
-
+    private static void heartbeat(ServiceMeshMetric metrics, long endTime) {
         int heartbeatCycle = 10000;
         // source
         int instanceId = metrics.getSourceServiceInstanceId();
@@ -133,11 +159,11 @@ public class TelemetryDataDispatcher {
         if (instanceId != Const.NONE) {
             ServiceInstanceInventory serviceInstanceInventory = SERVICE_INSTANCE_CACHE.get(instanceId);
             if (Objects.nonNull(serviceInstanceInventory)) {
-                if (metrics.getEndTime() - serviceInstanceInventory.getHeartbeatTime() > heartbeatCycle) {
+                if (endTime - serviceInstanceInventory.getHeartbeatTime() > heartbeatCycle) {
                     // trigger heartbeat every 10s.
                     SERVICE_INSTANCE_INVENTORY_REGISTER.heartbeat(
-                        metrics.getSourceServiceInstanceId(), metrics.getEndTime());
-                    SERVICE_INVENTORY_REGISTER.heartbeat(serviceInstanceInventory.getServiceId(), metrics.getEndTime());
+                        metrics.getSourceServiceInstanceId(), endTime);
+                    SERVICE_INVENTORY_REGISTER.heartbeat(serviceInstanceInventory.getServiceId(), endTime);
                 }
             } else {
                 logger.warn(
@@ -149,10 +175,10 @@ public class TelemetryDataDispatcher {
         instanceId = metrics.getDestServiceInstanceId();
         ServiceInstanceInventory serviceInstanceInventory = SERVICE_INSTANCE_CACHE.get(instanceId);
         if (Objects.nonNull(serviceInstanceInventory)) {
-            if (metrics.getEndTime() - serviceInstanceInventory.getHeartbeatTime() > heartbeatCycle) {
+            if (endTime - serviceInstanceInventory.getHeartbeatTime() > heartbeatCycle) {
                 // trigger heartbeat every 10s.
-                SERVICE_INSTANCE_INVENTORY_REGISTER.heartbeat(metrics.getDestServiceInstanceId(), metrics.getEndTime());
-                SERVICE_INVENTORY_REGISTER.heartbeat(serviceInstanceInventory.getServiceId(), metrics.getEndTime());
+                SERVICE_INSTANCE_INVENTORY_REGISTER.heartbeat(metrics.getDestServiceInstanceId(), endTime);
+                SERVICE_INVENTORY_REGISTER.heartbeat(serviceInstanceInventory.getServiceId(), endTime);
             }
         } else {
             logger.warn(
@@ -160,24 +186,23 @@ public class TelemetryDataDispatcher {
         }
     }
 
-    private static void toAll(ServiceMeshMetricDataDecorator decorator, long minuteTimeBucket) {
-        ServiceMeshMetric metrics = decorator.getMetric();
+    private static void toAll(ServiceMeshMetric metrics, long minuteTimeBucket, Sample sample, long weight) {
         All all = new All();
         all.setTimeBucket(minuteTimeBucket);
         all.setName(getServiceName(metrics.getDestServiceId(), metrics.getDestServiceName()));
         all.setServiceInstanceName(
             getServiceInstanceName(metrics.getDestServiceInstanceId(), metrics.getDestServiceInstance()));
         all.setEndpointName(metrics.getEndpoint());
-        all.setLatency(metrics.getLatency());
-        all.setStatus(metrics.getStatus());
-        all.setResponseCode(metrics.getResponseCode());
+        all.setLatency(sample.getLatency());
+        all.setStatus(sample.isStatus());
+        all.setResponseCode(sample.getResponseCode());
         all.setType(protocol2Type(metrics.getProtocol()));
+        all.setWeight(weight);
 
         SOURCE_RECEIVER.receive(all);
     }
 
-    private static void toService(ServiceMeshMetricDataDecorator decorator, long minuteTimeBucket) {
-        ServiceMeshMetric metrics = decorator.getMetric();
+    private static void toService(ServiceMeshMetric metrics, long minuteTimeBucket, Sample sample, long weight) {
         Service service = new Service();
         service.setTimeBucket(minuteTimeBucket);
         service.setId(metrics.getDestServiceId());
@@ -185,16 +210,17 @@ public class TelemetryDataDispatcher {
         service.setServiceInstanceName(
             getServiceInstanceName(metrics.getDestServiceInstanceId(), metrics.getDestServiceInstance()));
         service.setEndpointName(metrics.getEndpoint());
-        service.setLatency(metrics.getLatency());
-        service.setStatus(metrics.getStatus());
-        service.setResponseCode(metrics.getResponseCode());
+        service.setLatency(sample.getLatency());
+        service.setStatus(sample.isStatus());
+        service.setResponseCode(sample.getResponseCode());
         service.setType(protocol2Type(metrics.getProtocol()));
+        service.setWeight(weight);
 
         SOURCE_RECEIVER.receive(service);
     }
 
-    private static void toServiceRelation(ServiceMeshMetricDataDecorator decorator, long minuteTimeBucket) {
-        ServiceMeshMetric metrics = decorator.getMetric();
+    private static void toServiceRelation(ServiceMeshMetric metrics, long minuteTimeBucket, Sample sample,
+                                          long weight) {
         ServiceRelation serviceRelation = new ServiceRelation();
         serviceRelation.setTimeBucket(minuteTimeBucket);
         serviceRelation.setSourceServiceId(metrics.getSourceServiceId());
@@ -210,18 +236,19 @@ public class TelemetryDataDispatcher {
             getServiceInstanceName(metrics.getDestServiceInstanceId(), metrics.getDestServiceInstance()));
 
         serviceRelation.setEndpoint(metrics.getEndpoint());
-        serviceRelation.setLatency(metrics.getLatency());
-        serviceRelation.setStatus(metrics.getStatus());
+        serviceRelation.setLatency(sample.getLatency());
+        serviceRelation.setStatus(sample.isStatus());
         serviceRelation.setType(protocol2Type(metrics.getProtocol()));
-        serviceRelation.setResponseCode(metrics.getResponseCode());
+        serviceRelation.setResponseCode(sample.getResponseCode());
         serviceRelation.setDetectPoint(detectPointMapping(metrics.getDetectPoint()));
         serviceRelation.setComponentId(protocol2Component(metrics.getProtocol()));
+        serviceRelation.setWeight(weight);
 
         SOURCE_RECEIVER.receive(serviceRelation);
     }
 
-    private static void toServiceInstance(ServiceMeshMetricDataDecorator decorator, long minuteTimeBucket) {
-        ServiceMeshMetric metrics = decorator.getMetric();
+    private static void toServiceInstance(ServiceMeshMetric metrics, long minuteTimeBucket, Sample sample,
+                                          long weight) {
         ServiceInstance serviceInstance = new ServiceInstance();
         serviceInstance.setTimeBucket(minuteTimeBucket);
         serviceInstance.setId(metrics.getDestServiceInstanceId());
@@ -230,16 +257,17 @@ public class TelemetryDataDispatcher {
         serviceInstance.setServiceId(metrics.getDestServiceId());
         serviceInstance.setServiceName(getServiceName(metrics.getDestServiceId(), metrics.getDestServiceName()));
         serviceInstance.setEndpointName(metrics.getEndpoint());
-        serviceInstance.setLatency(metrics.getLatency());
-        serviceInstance.setStatus(metrics.getStatus());
-        serviceInstance.setResponseCode(metrics.getResponseCode());
+        serviceInstance.setLatency(sample.getLatency());
+        serviceInstance.setStatus(sample.isStatus());
+        serviceInstance.setResponseCode(sample.getResponseCode());
         serviceInstance.setType(protocol2Type(metrics.getProtocol()));
+        serviceInstance.setWeight(weight);
 
         SOURCE_RECEIVER.receive(serviceInstance);
     }
 
-    private static void toServiceInstanceRelation(ServiceMeshMetricDataDecorator decorator, long minuteTimeBucket) {
-        ServiceMeshMetric metrics = decorator.getMetric();
+    private static void toServiceInstanceRelation(ServiceMeshMetric metrics, long minuteTimeBucket, Sample sample,
+                                                  long weight) {
         ServiceInstanceRelation serviceRelation = new ServiceInstanceRelation();
         serviceRelation.setTimeBucket(minuteTimeBucket);
         serviceRelation.setSourceServiceInstanceId(metrics.getSourceServiceInstanceId());
@@ -257,18 +285,18 @@ public class TelemetryDataDispatcher {
         serviceRelation.setDestServiceName(getServiceName(metrics.getDestServiceId(), metrics.getDestServiceName()));
 
         serviceRelation.setEndpoint(metrics.getEndpoint());
-        serviceRelation.setLatency(metrics.getLatency());
-        serviceRelation.setStatus(metrics.getStatus());
+        serviceRelation.setLatency(sample.getLatency());
+        serviceRelation.setStatus(sample.isStatus());
         serviceRelation.setType(protocol2Type(metrics.getProtocol()));
-        serviceRelation.setResponseCode(metrics.getResponseCode());
+        serviceRelation.setResponseCode(sample.getResponseCode());
         serviceRelation.setDetectPoint(detectPointMapping(metrics.getDetectPoint()));
         serviceRelation.setComponentId(protocol2Component(metrics.getProtocol()));
+        serviceRelation.setWeight(weight);
 
         SOURCE_RECEIVER.receive(serviceRelation);
     }
 
-    private static void toEndpoint(ServiceMeshMetricDataDecorator decorator, long minuteTimeBucket) {
-        ServiceMeshMetric metrics = decorator.getMetric();
+    private static void toEndpoint(ServiceMeshMetric metrics, long minuteTimeBucket, Sample sample, long weight) {
         Endpoint endpoint = new Endpoint();
         endpoint.setTimeBucket(minuteTimeBucket);
         endpoint.setName(metrics.getEndpoint());
@@ -278,10 +306,11 @@ public class TelemetryDataDispatcher {
         endpoint.setServiceInstanceName(
             getServiceInstanceName(metrics.getDestServiceInstanceId(), metrics.getDestServiceInstance()));
 
-        endpoint.setLatency(metrics.getLatency());
-        endpoint.setStatus(metrics.getStatus());
-        endpoint.setResponseCode(metrics.getResponseCode());
+        endpoint.setLatency(sample.getLatency());
+        endpoint.setStatus(sample.isStatus());
+        endpoint.setResponseCode(sample.getResponseCode());
         endpoint.setType(protocol2Type(metrics.getProtocol()));
+        endpoint.setWeight(weight);
 
         SOURCE_RECEIVER.receive(endpoint);
     }
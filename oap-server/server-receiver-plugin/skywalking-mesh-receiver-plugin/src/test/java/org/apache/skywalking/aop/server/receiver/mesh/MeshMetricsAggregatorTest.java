@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.aop.server.receiver.mesh;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.apm.network.common.DetectPoint;
+import org.apache.skywalking.apm.network.servicemesh.Protocol;
+import org.apache.skywalking.apm.network.servicemesh.ServiceMeshMetric;
+import org.apache.skywalking.aop.server.receiver.mesh.MeshMetricsAggregator.Accumulator;
+import org.apache.skywalking.aop.server.receiver.mesh.MeshMetricsAggregator.Sample;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MeshMetricsAggregatorTest {
+    private static final long START_TIME = 1584000000000L;
+
+    private final List<Accumulator> flushed = new ArrayList<>();
+    private final MeshMetricsAggregator aggregator = new MeshMetricsAggregator(flushed::add);
+
+    @Test
+    public void testFoldSameKey() {
+        aggregator.in(metric("/a", START_TIME, 10, true, 200));
+        aggregator.in(metric("/a", START_TIME + 1000, 10, true, 200));
+        aggregator.in(metric("/a", START_TIME + 2000, 25, false, 500));
+        Assert.assertEquals(1, aggregator.size());
+
+        aggregator.flush();
+        Assert.assertEquals(0, aggregator.size());
+        Assert.assertEquals(1, flushed.size());
+
+        Accumulator accumulator = flushed.get(0);
+        Assert.assertEquals("/a", accumulator.getMetrics().getEndpoint());
+        Assert.assertEquals(START_TIME + 2000 + 100, accumulator.getEndTime());
+
+        Map<Sample, Long> samples = samples(accumulator);
+        Assert.assertEquals(2, samples.size());
+        Assert.assertEquals(Long.valueOf(2), samples.get(new Sample(10, true, 200)));
+        Assert.assertEquals(Long.valueOf(1), samples.get(new Sample(25, false, 500)));
+    }
+
+    @Test
+    public void testSeparateKeys() {
+        aggregator.in(metric("/a", START_TIME, 10, true, 200));
+        aggregator.in(metric("/b", START_TIME, 10, true, 200));
+        // the next minute
+        aggregator.in(metric("/a", START_TIME + 60000, 10, true, 200));
+        aggregator.in(metric("/a", START_TIME, 10, true, 200).toBuilder().setDetectPoint(DetectPoint.client).build());
+        aggregator.in(metric("/a", START_TIME, 10, true, 200).toBuilder().setDestServiceInstanceId(4).build());
+        Assert.assertEquals(5, aggregator.size());
+
+        aggregator.flush();
+        Assert.assertEquals(5, flushed.size());
+        for (Accumulator accumulator : flushed) {
+            Assert.assertEquals(Long.valueOf(1), samples(accumulator).get(new Sample(10, true, 200)));
+        }
+    }
+
+    @Test
+    public void testNewAccumulatorAfterFlush() {
+        aggregator.in(metric("/a", START_TIME, 10, true, 200));
+        aggregator.flush();
+        aggregator.in(metric("/a", START_TIME, 10, true, 200));
+        aggregator.flush();
+
+        Assert.assertEquals(2, flushed.size());
+        Assert.assertNotSame(flushed.get(0), flushed.get(1));
+        Assert.assertEquals(Long.valueOf(1), samples(flushed.get(1)).get(new Sample(10, true, 200)));
+
+        // nothing to flush
+        aggregator.flush();
+        Assert.assertEquals(2, flushed.size());
+    }
+
+    private static Map<Sample, Long> samples(Accumulator accumulator) {
+        Map<Sample, Long> samples = new HashMap<>();
+        accumulator.forEachSample(samples::put);
+        return samples;
+    }
+
+    private static ServiceMeshMetric metric(String endpoint, long startTime, int latency, boolean status,
+                                            int responseCode) {
+        return ServiceMeshMetric.newBuilder()
+                                .setStartTime(startTime)
+                                .setEndTime(startTime + 100)
+                                .setSourceServiceId(1)
+                                .setSourceServiceInstanceId(2)
+                                .setDestServiceId(2)
+                                .setDestServiceInstanceId(3)
+                                .setEndpoint(endpoint)
+                                .setLatency(latency)
+                                .setStatus(status)
+                                .setResponseCode(responseCode)
+                                .setProtocol(Protocol.HTTP)
+                                .setDetectPoint(DetectPoint.server)
+                                .build();
+    }
+}
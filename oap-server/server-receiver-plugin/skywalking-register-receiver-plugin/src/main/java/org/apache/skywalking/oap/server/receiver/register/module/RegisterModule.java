@@ -21,9 +21,10 @@ package org.apache.skywalking.oap.server.receiver.register.module;
 import org.apache.skywalking.oap.server.library.module.ModuleDefine;
 
 public class RegisterModule extends ModuleDefine {
+    public static final String NAME = "receiver-register";
 
     public RegisterModule() {
-        super("receiver-register");
+        super(NAME);
     }
 
     @Override
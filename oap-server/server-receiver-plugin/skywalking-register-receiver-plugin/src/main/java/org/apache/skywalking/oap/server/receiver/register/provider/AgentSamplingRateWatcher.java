@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.register.provider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
+import org.apache.skywalking.oap.server.configuration.api.ConfigChangeWatcher;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.command.CommandService;
+import org.apache.skywalking.oap.server.receiver.register.module.RegisterModule;
+
+/**
+ * The sampling rates pushed to the agents along with the heartbeat responses, in the format of
+ * {@code nPer3Secs[,nPer3SecsPerEndpoint[,nPer3SecsPerService]]}. Zero or negative rate means the agent uses its local
+ * configuration, and nothing is pushed if it is not set.
+ * <p>
+ * The rate per service is split among the instances of the service which pinged in the last {@link
+ * #LIVE_INSTANCE_WINDOW_MILLIS}, so the instances sample less as the service scales out and more as it scales in,
+ * capped by the rate per instance if that is set too.
+ */
+@Slf4j
+public class AgentSamplingRateWatcher extends ConfigChangeWatcher {
+    static final long LIVE_INSTANCE_WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final AtomicReference<String> settingsString;
+    private final AtomicReference<int[]> rates;
+    /**
+     * The last ping time of the live instances, by service id and instance id.
+     */
+    private final Map<Integer, Map<Integer, Long>> liveInstances;
+
+    public AgentSamplingRateWatcher(RegisterModuleProvider provider) {
+        super(RegisterModule.NAME, provider, "agentSamplingRate");
+        settingsString = new AtomicReference<>(Const.EMPTY_STRING);
+        rates = new AtomicReference<>();
+        liveInstances = new ConcurrentHashMap<>();
+    }
+
+    private void activeSetting(String config) {
+        int[] newRates = null;
+        if (config != null && !config.trim().isEmpty()) {
+            try {
+                String[] settings = config.split(",");
+                newRates = new int[] {
+                    Integer.parseInt(settings[0].trim()),
+                    settings.length > 1 ? Integer.parseInt(settings[1].trim()) : 0,
+                    settings.length > 2 ? Integer.parseInt(settings[2].trim()) : 0
+                };
+            } catch (NumberFormatException e) {
+                log.error("Illegal agent sampling rate setting: {}, ignored.", config);
+                return;
+            }
+        }
+        rates.set(newRates);
+        settingsString.set(config == null ? Const.EMPTY_STRING : config);
+    }
+
+    /**
+     * Record the ping of the instance, and build the sampling rates for it.
+     *
+     * @param now the ping time in milliseconds.
+     * @return the command to push the sampling rates, or null if they are not set.
+     */
+    public SamplingRateCommand newCommand(CommandService commandService, int serviceId, int serviceInstanceId,
+                                          long now) {
+        Map<Integer, Long> instances = liveInstances.computeIfAbsent(serviceId, id -> new ConcurrentHashMap<>());
+        instances.put(serviceInstanceId, now);
+        instances.values().removeIf(lastPing -> now - lastPing > LIVE_INSTANCE_WINDOW_MILLIS);
+
+        int[] current = rates.get();
+        if (current == null) {
+            return null;
+        }
+        int instanceRate = current[0];
+        if (current[2] > 0) {
+            int share = Math.max(1, current[2] / Math.max(1, instances.size()));
+            instanceRate = instanceRate > 0 ? Math.min(instanceRate, share) : share;
+        }
+        return commandService.newSamplingRateCommand(instanceRate, current[1]);
+    }
+
+    @Override
+    public void notify(ConfigChangeEvent value) {
+        if (EventType.DELETE.equals(value.getEventType())) {
+            activeSetting(Const.EMPTY_STRING);
+        } else {
+            activeSetting(value.getNewValue());
+        }
+    }
+
+    @Override
+    public String value() {
+        return settingsString.get();
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.apache.skywalking.oap.server.receiver.register.provider;
 
+import org.apache.skywalking.oap.server.configuration.api.ConfigurationModule;
+import org.apache.skywalking.oap.server.configuration.api.DynamicConfigurationService;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegister;
 import org.apache.skywalking.oap.server.core.server.JettyHandlerRegister;
@@ -55,18 +57,24 @@ public class RegisterModuleProvider extends ModuleProvider {
 
     @Override
     public void start() {
+        AgentSamplingRateWatcher samplingRateWatcher = new AgentSamplingRateWatcher(this);
+        getManager().find(ConfigurationModule.NAME)
+                    .provider()
+                    .getService(DynamicConfigurationService.class)
+                    .registerConfigChangeWatcher(samplingRateWatcher);
+
         GRPCHandlerRegister grpcHandlerRegister = getManager().find(SharingServerModule.NAME)
                                                               .provider()
                                                               .getService(GRPCHandlerRegister.class);
         grpcHandlerRegister.addHandler(new RegisterServiceHandler(getManager()));
-        grpcHandlerRegister.addHandler(new ServiceInstancePingServiceHandler(getManager()));
+        grpcHandlerRegister.addHandler(new ServiceInstancePingServiceHandler(getManager(), samplingRateWatcher));
 
         JettyHandlerRegister jettyHandlerRegister = getManager().find(SharingServerModule.NAME)
                                                                 .provider()
                                                                 .getService(JettyHandlerRegister.class);
         jettyHandlerRegister.addHandler(new ServiceRegisterServletHandler(getManager()));
         jettyHandlerRegister.addHandler(new ServiceInstanceRegisterServletHandler(getManager()));
-        jettyHandlerRegister.addHandler(new ServiceInstancePingServletHandler(getManager()));
+        jettyHandlerRegister.addHandler(new ServiceInstancePingServletHandler(getManager(), samplingRateWatcher));
     }
 
     @Override
@@ -78,7 +86,8 @@ public class RegisterModuleProvider extends ModuleProvider {
     public String[] requiredModules() {
         return new String[] {
             CoreModule.NAME,
-            SharingServerModule.NAME
+            SharingServerModule.NAME,
+            ConfigurationModule.NAME
         };
     }
 }
@@ -25,6 +25,7 @@ import org.apache.skywalking.apm.network.common.Command;
 import org.apache.skywalking.apm.network.common.Commands;
 import org.apache.skywalking.apm.network.register.v2.ServiceInstancePingGrpc;
 import org.apache.skywalking.apm.network.register.v2.ServiceInstancePingPkg;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
 import org.apache.skywalking.apm.network.trace.component.command.ServiceResetCommand;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.cache.ServiceInstanceInventoryCache;
@@ -34,6 +35,7 @@ import org.apache.skywalking.oap.server.core.register.service.IServiceInstanceIn
 import org.apache.skywalking.oap.server.core.register.service.IServiceInventoryRegister;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.server.grpc.GRPCHandler;
+import org.apache.skywalking.oap.server.receiver.register.provider.AgentSamplingRateWatcher;
 
 /**
  * ServiceInstancePingServiceHandler responses the requests for instance ping. Trigger the heartbeat update and push the
@@ -45,8 +47,10 @@ public class ServiceInstancePingServiceHandler extends ServiceInstancePingGrpc.S
     private final IServiceInventoryRegister serviceInventoryRegister;
     private final IServiceInstanceInventoryRegister serviceInstanceInventoryRegister;
     private final CommandService commandService;
+    private final AgentSamplingRateWatcher samplingRateWatcher;
 
-    public ServiceInstancePingServiceHandler(ModuleManager moduleManager) {
+    public ServiceInstancePingServiceHandler(ModuleManager moduleManager,
+                                             AgentSamplingRateWatcher samplingRateWatcher) {
         this.serviceInstanceInventoryCache = moduleManager.find(CoreModule.NAME)
                                                           .provider()
                                                           .getService(ServiceInstanceInventoryCache.class);
@@ -57,6 +61,7 @@ public class ServiceInstancePingServiceHandler extends ServiceInstancePingGrpc.S
                                                              .provider()
                                                              .getService(IServiceInstanceInventoryRegister.class);
         this.commandService = moduleManager.find(CoreModule.NAME).provider().getService(CommandService.class);
+        this.samplingRateWatcher = samplingRateWatcher;
     }
 
     @Override
@@ -68,7 +73,14 @@ public class ServiceInstancePingServiceHandler extends ServiceInstancePingGrpc.S
         ServiceInstanceInventory serviceInstanceInventory = serviceInstanceInventoryCache.get(serviceInstanceId);
         if (Objects.nonNull(serviceInstanceInventory)) {
             serviceInventoryRegister.heartbeat(serviceInstanceInventory.getServiceId(), heartBeatTime);
-            responseObserver.onNext(Commands.getDefaultInstance());
+            final SamplingRateCommand samplingRateCommand = samplingRateWatcher.newCommand(
+                commandService, serviceInstanceInventory.getServiceId(), serviceInstanceId, System.currentTimeMillis());
+            if (samplingRateCommand == null) {
+                responseObserver.onNext(Commands.getDefaultInstance());
+            } else {
+                responseObserver.onNext(
+                    Commands.newBuilder().addCommands(samplingRateCommand.serialize().build()).build());
+            }
         } else {
             log.warn(
                 "Can't find service by service instance id from cache," + " service instance id is: {}, will send a reset command to agent side",
@@ -27,6 +27,7 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.skywalking.apm.network.common.Command;
 import org.apache.skywalking.apm.network.common.Commands;
 import org.apache.skywalking.apm.network.register.v2.ServiceInstancePingPkg;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
 import org.apache.skywalking.apm.network.trace.component.command.ServiceResetCommand;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.cache.ServiceInstanceInventoryCache;
@@ -38,6 +39,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.server.jetty.ArgumentsParseException;
 import org.apache.skywalking.oap.server.library.server.jetty.JettyJsonHandler;
 import org.apache.skywalking.oap.server.library.util.ProtoBufJsonUtils;
+import org.apache.skywalking.oap.server.receiver.register.provider.AgentSamplingRateWatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,9 +51,11 @@ public class ServiceInstancePingServletHandler extends JettyJsonHandler {
     private final ServiceInstanceInventoryCache serviceInstanceInventoryCache;
     private final IServiceInventoryRegister serviceInventoryRegister;
     private final CommandService commandService;
+    private final AgentSamplingRateWatcher samplingRateWatcher;
     private final Gson gson = new Gson();
 
-    public ServiceInstancePingServletHandler(ModuleManager moduleManager) {
+    public ServiceInstancePingServletHandler(ModuleManager moduleManager,
+                                             AgentSamplingRateWatcher samplingRateWatcher) {
         this.serviceInstanceInventoryRegister = moduleManager.find(CoreModule.NAME).provider().getService(
             IServiceInstanceInventoryRegister.class);
         this.serviceInstanceInventoryCache = moduleManager.find(CoreModule.NAME).provider().getService(
@@ -59,6 +63,7 @@ public class ServiceInstancePingServletHandler extends JettyJsonHandler {
         this.serviceInventoryRegister = moduleManager.find(CoreModule.NAME).provider().getService(
             IServiceInventoryRegister.class);
         this.commandService = moduleManager.find(CoreModule.NAME).provider().getService(CommandService.class);
+        this.samplingRateWatcher = samplingRateWatcher;
     }
 
     @Override
@@ -88,6 +93,16 @@ public class ServiceInstancePingServletHandler extends JettyJsonHandler {
             ServiceInstanceInventory serviceInstanceInventory = serviceInstanceInventoryCache.get(serviceInstanceId);
             if (Objects.nonNull(serviceInstanceInventory)) {
                 serviceInventoryRegister.heartbeat(serviceInstanceInventory.getServiceId(), heartBeatTime);
+                final SamplingRateCommand samplingRateCommand = samplingRateWatcher.newCommand(
+                    commandService, serviceInstanceInventory.getServiceId(), serviceInstanceId,
+                    System.currentTimeMillis()
+                );
+                if (samplingRateCommand != null) {
+                    final Commands nextCommands = Commands.newBuilder()
+                                                          .addCommands(samplingRateCommand.serialize().build())
+                                                          .build();
+                    return gson.fromJson(ProtoBufJsonUtils.toJSON(nextCommands), JsonElement.class);
+                }
             } else {
                 logger.warn(
                     "Can't found service by service instance id from cache, service instance id is: {}",
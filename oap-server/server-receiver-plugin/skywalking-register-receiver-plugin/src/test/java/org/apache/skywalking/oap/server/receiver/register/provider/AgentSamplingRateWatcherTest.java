@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.register.provider;
+
+import org.apache.skywalking.apm.network.trace.component.command.SamplingRateCommand;
+import org.apache.skywalking.oap.server.configuration.api.ConfigChangeWatcher;
+import org.apache.skywalking.oap.server.core.command.CommandService;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AgentSamplingRateWatcherTest {
+    private final CommandService commandService = new CommandService(null);
+
+    @Test
+    public void testNoCommandIfNotSet() {
+        AgentSamplingRateWatcher watcher = new AgentSamplingRateWatcher(new RegisterModuleProvider());
+        Assert.assertNull(watcher.newCommand(commandService, 1, 1, 0));
+    }
+
+    @Test
+    public void testNotify() {
+        AgentSamplingRateWatcher watcher = new AgentSamplingRateWatcher(new RegisterModuleProvider());
+
+        watcher.notify(new ConfigChangeWatcher.ConfigChangeEvent("100, 10", ConfigChangeWatcher.EventType.ADD));
+        SamplingRateCommand command = watcher.newCommand(commandService, 1, 1, 0);
+        Assert.assertEquals(100, command.getSampleNPer3Secs());
+        Assert.assertEquals(10, command.getSampleNPer3SecsPerEndpoint());
+        Assert.assertEquals("100, 10", watcher.value());
+
+        watcher.notify(new ConfigChangeWatcher.ConfigChangeEvent("50", ConfigChangeWatcher.EventType.MODIFY));
+        command = watcher.newCommand(commandService, 1, 1, 0);
+        Assert.assertEquals(50, command.getSampleNPer3Secs());
+        Assert.assertEquals(0, command.getSampleNPer3SecsPerEndpoint());
+
+        // illegal setting is ignored
+        watcher.notify(new ConfigChangeWatcher.ConfigChangeEvent("fast", ConfigChangeWatcher.EventType.MODIFY));
+        Assert.assertEquals(50, watcher.newCommand(commandService, 1, 1, 0).getSampleNPer3Secs());
+
+        watcher.notify(new ConfigChangeWatcher.ConfigChangeEvent(null, ConfigChangeWatcher.EventType.DELETE));
+        Assert.assertNull(watcher.newCommand(commandService, 1, 1, 0));
+        Assert.assertEquals("", watcher.value());
+    }
+
+    @Test
+    public void testSplitServiceRateAmongLiveInstances() {
+        AgentSamplingRateWatcher watcher = new AgentSamplingRateWatcher(new RegisterModuleProvider());
+        watcher.notify(new ConfigChangeWatcher.ConfigChangeEvent("0, 10, 300", ConfigChangeWatcher.EventType.ADD));
+
+        Assert.assertEquals(300, watcher.newCommand(commandService, 1, 1, 0).getSampleNPer3Secs());
+        Assert.assertEquals(150, watcher.newCommand(commandService, 1, 2, 1000).getSampleNPer3Secs());
+        SamplingRateCommand command = watcher.newCommand(commandService, 1, 3, 2000);
+        Assert.assertEquals(100, command.getSampleNPer3Secs());
+        Assert.assertEquals(10, command.getSampleNPer3SecsPerEndpoint());
+
+        // the instances of the other services don't share the rate
+        Assert.assertEquals(300, watcher.newCommand(commandService, 2, 4, 2000).getSampleNPer3Secs());
+
+        // the instance 1 stops pinging, its share goes to the live ones
+        long later = 1000 + AgentSamplingRateWatcher.LIVE_INSTANCE_WINDOW_MILLIS;
+        Assert.assertEquals(150, watcher.newCommand(commandService, 1, 2, later).getSampleNPer3Secs());
+    }
+
+    @Test
+    public void testServiceRateCappedByInstanceRate() {
+        AgentSamplingRateWatcher watcher = new AgentSamplingRateWatcher(new RegisterModuleProvider());
+        watcher.notify(new ConfigChangeWatcher.ConfigChangeEvent("100, 0, 300", ConfigChangeWatcher.EventType.ADD));
+
+        Assert.assertEquals(100, watcher.newCommand(commandService, 1, 1, 0).getSampleNPer3Secs());
+        for (int instanceId = 2; instanceId <= 6; instanceId++) {
+            watcher.newCommand(commandService, 1, instanceId, 0);
+        }
+        Assert.assertEquals(50, watcher.newCommand(commandService, 1, 1, 0).getSampleNPer3Secs());
+
+        // never less than 1 per instance
+        for (int instanceId = 7; instanceId <= 400; instanceId++) {
+            watcher.newCommand(commandService, 1, instanceId, 0);
+        }
+        Assert.assertEquals(1, watcher.newCommand(commandService, 1, 1, 0).getSampleNPer3Secs());
+    }
+}
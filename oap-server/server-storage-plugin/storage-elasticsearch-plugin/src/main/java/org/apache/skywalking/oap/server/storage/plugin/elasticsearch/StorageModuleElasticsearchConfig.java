@@ -39,6 +39,11 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     private int indexRefreshInterval = 2;
     @Setter
     private int bulkActions = 2000;
+    /**
+     * The max size of an async bulk, unit is MB.
+     */
+    @Setter
+    private int bulkSize = 20;
     @Setter
     private int flushInterval = 10;
     @Setter
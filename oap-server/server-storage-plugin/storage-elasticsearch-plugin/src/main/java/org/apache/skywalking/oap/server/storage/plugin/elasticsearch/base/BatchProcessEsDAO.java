@@ -37,12 +37,15 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
 
     private BulkProcessor bulkProcessor;
     private final int bulkActions;
+    private final int bulkSize;
     private final int flushInterval;
     private final int concurrentRequests;
 
-    public BatchProcessEsDAO(ElasticSearchClient client, int bulkActions, int flushInterval, int concurrentRequests) {
+    public BatchProcessEsDAO(ElasticSearchClient client, int bulkActions, int bulkSize, int flushInterval,
+                             int concurrentRequests) {
         super(client);
         this.bulkActions = bulkActions;
+        this.bulkSize = bulkSize;
         this.flushInterval = flushInterval;
         this.concurrentRequests = concurrentRequests;
     }
@@ -50,7 +53,8 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
     @Override
     public void asynchronous(InsertRequest insertRequest) {
         if (bulkProcessor == null) {
-            this.bulkProcessor = getClient().createBulkProcessor(bulkActions, flushInterval, concurrentRequests);
+            this.bulkProcessor = getClient().createBulkProcessor(
+                bulkActions, bulkSize, flushInterval, concurrentRequests);
         }
 
         this.bulkProcessor.add((IndexRequest) insertRequest);
@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.StringHashSet;
 import org.apache.skywalking.oap.server.core.storage.model.DataTypeMapping;
 
 public class ColumnTypeEsMapping implements DataTypeMapping {
@@ -33,7 +34,7 @@ public class ColumnTypeEsMapping implements DataTypeMapping {
             return "double";
         } else if (String.class.equals(type)) {
             return "keyword";
-        } else if (IntKeyLongValueHashMap.class.equals(type)) {
+        } else if (IntKeyLongValueHashMap.class.equals(type) || StringHashSet.class.equals(type)) {
             return "text";
         } else if (byte[].class.equals(type)) {
             return "binary";
@@ -17,6 +17,8 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Setter;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
@@ -33,6 +35,7 @@ import org.joda.time.format.DateTimeFormatter;
  */
 public class TimeSeriesUtils {
     private static DateTimeFormatter TIME_BUCKET_FORMATTER = DateTimeFormat.forPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTH_TIME_BUCKET_FORMATTER = DateTimeFormat.forPattern("yyyyMM");
     /**
      * We are far from the first day of 2000, so we set it as the day one to make sure the index based on {@link
      * #DAY_STEP} is consistently no matter whenever the OAP starts up.
@@ -65,6 +68,61 @@ public class TimeSeriesUtils {
         }
     }
 
+    /**
+     * @return the names of the indices holding the records of the super dataset, such as the segments, from the start
+     * to the end second time bucket, the newest first. The names are not formatted by the namespace, and some of them
+     * may not exist, if the data of those days has been deleted or never written.
+     */
+    public static List<String> superDatasetIndexNames(String modelName, long startSecondTB, long endSecondTB) {
+        DateTime startDay = TIME_BUCKET_FORMATTER.parseDateTime(String.valueOf(startSecondTB / 1000000));
+        DateTime endDay = TIME_BUCKET_FORMATTER.parseDateTime(String.valueOf(endSecondTB / 1000000));
+
+        List<String> indexNames = new ArrayList<>();
+        for (DateTime day = endDay; !day.isBefore(startDay); day = day.minusDays(1)) {
+            long timeBucket = Long.parseLong(day.toString(TIME_BUCKET_FORMATTER)) * 1000000;
+            String indexName = timeSeries(modelName, timeBucket, Downsampling.Second);
+            if (!indexNames.contains(indexName)) {
+                indexNames.add(indexName);
+            }
+        }
+        return indexNames;
+    }
+
+    /**
+     * @return the names of the indices holding the metrics from the start to the end time bucket, in the precision of
+     * the downsampling. The names are not formatted by the namespace, and some of them may not exist.
+     */
+    public static List<String> metricsIndexNames(String modelName, Downsampling downsampling, long startTB,
+                                                 long endTB) {
+        List<String> indexNames = new ArrayList<>();
+        if (Downsampling.Month.equals(downsampling)) {
+            DateTime endMonth = MONTH_TIME_BUCKET_FORMATTER.parseDateTime(String.valueOf(endTB));
+            for (DateTime month = MONTH_TIME_BUCKET_FORMATTER.parseDateTime(String.valueOf(startTB));
+                 !month.isAfter(endMonth); month = month.plusMonths(1)) {
+                long timeBucket = Long.parseLong(month.toString(MONTH_TIME_BUCKET_FORMATTER));
+                indexNames.add(timeSeries(modelName, timeBucket, downsampling));
+            }
+            return indexNames;
+        }
+
+        long dayDivisor = 1;
+        if (Downsampling.Minute.equals(downsampling)) {
+            dayDivisor = 10000;
+        } else if (Downsampling.Hour.equals(downsampling)) {
+            dayDivisor = 100;
+        }
+        DateTime endDay = TIME_BUCKET_FORMATTER.parseDateTime(String.valueOf(endTB / dayDivisor));
+        for (DateTime day = TIME_BUCKET_FORMATTER.parseDateTime(String.valueOf(startTB / dayDivisor));
+             !day.isAfter(endDay); day = day.plusDays(1)) {
+            long timeBucket = Long.parseLong(day.toString(TIME_BUCKET_FORMATTER)) * dayDivisor;
+            String indexName = timeSeries(modelName, timeBucket, downsampling);
+            if (!indexNames.contains(indexName)) {
+                indexNames.add(indexName);
+            }
+        }
+        return indexNames;
+    }
+
     static String timeSeries(Model model, long timeBucket) {
         if (!model.isCapableOfTimeSeries()) {
             return model.getName();
@@ -30,6 +30,7 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -102,4 +103,26 @@ public class NetworkAddressInventoryCacheEsDAO extends EsDAO implements INetwork
 
         return addressInventories;
     }
+
+    @Override
+    public List<NetworkAddressInventory> loadAfter(int sequence, int size) {
+        List<NetworkAddressInventory> addressInventories = new ArrayList<>();
+
+        try {
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(QueryBuilders.rangeQuery(NetworkAddressInventory.SEQUENCE).gt(sequence));
+            searchSourceBuilder.sort(NetworkAddressInventory.SEQUENCE, SortOrder.ASC);
+            searchSourceBuilder.size(Math.min(size, resultWindowMaxSize));
+
+            SearchResponse response = getClient().search(NetworkAddressInventory.INDEX_NAME, searchSourceBuilder);
+
+            for (SearchHit searchHit : response.getHits().getHits()) {
+                addressInventories.add(this.builder.map2Data(searchHit.getSourceAsMap()));
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        return addressInventories;
+    }
 }
@@ -31,6 +31,7 @@ import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -120,4 +121,26 @@ public class ServiceInstanceInventoryCacheDAO extends EsDAO implements IServiceI
             return Const.NONE;
         }
     }
+
+    @Override
+    public List<ServiceInstanceInventory> loadAfter(int sequence, int size) {
+        List<ServiceInstanceInventory> instanceInventories = new ArrayList<>();
+
+        try {
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(QueryBuilders.rangeQuery(ServiceInstanceInventory.SEQUENCE).gt(sequence));
+            searchSourceBuilder.sort(ServiceInstanceInventory.SEQUENCE, SortOrder.ASC);
+            searchSourceBuilder.size(Math.min(size, resultWindowMaxSize));
+
+            SearchResponse response = getClient().search(ServiceInstanceInventory.INDEX_NAME, searchSourceBuilder);
+
+            for (SearchHit searchHit : response.getHits().getHits()) {
+                instanceInventories.add(this.builder.map2Data(searchHit.getSourceAsMap()));
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        return instanceInventories;
+    }
 }
@@ -33,6 +33,7 @@ import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -119,4 +120,26 @@ public class ServiceInventoryCacheEsDAO extends EsDAO implements IServiceInvento
 
         return serviceInventories;
     }
+
+    @Override
+    public List<ServiceInventory> loadAfter(int sequence, int size) {
+        List<ServiceInventory> serviceInventories = new ArrayList<>();
+
+        try {
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(QueryBuilders.rangeQuery(ServiceInventory.SEQUENCE).gt(sequence));
+            searchSourceBuilder.sort(ServiceInventory.SEQUENCE, SortOrder.ASC);
+            searchSourceBuilder.size(Math.min(size, resultWindowMaxSize));
+
+            SearchResponse response = getClient().search(ServiceInventory.INDEX_NAME, searchSourceBuilder);
+
+            for (SearchHit searchHit : response.getHits().getHits()) {
+                serviceInventories.add(this.builder.map2Data(searchHit.getSourceAsMap()));
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        return serviceInventories;
+    }
 }
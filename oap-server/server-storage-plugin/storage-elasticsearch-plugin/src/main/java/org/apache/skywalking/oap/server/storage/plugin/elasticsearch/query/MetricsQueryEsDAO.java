@@ -21,8 +21,12 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.analysis.Downsampling;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValue;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
@@ -37,8 +41,10 @@ import org.apache.skywalking.oap.server.core.storage.model.ModelName;
 import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
@@ -67,7 +73,8 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
 
         sourceBuilder.aggregation(entityIdAggregation);
 
-        SearchResponse response = getClient().search(indexName, sourceBuilder);
+        SearchResponse response = getClient().search(
+            indexNames(indexName, downsampling, startTB, endTB), sourceBuilder);
 
         IntValues intValues = new IntValues();
         Terms idTerms = response.getAggregations().get(Metrics.ENTITY_ID);
@@ -115,8 +122,7 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         String valueCName) throws IOException {
         String indexName = ModelName.build(downsampling, indName);
 
-        SearchResponse response = getClient().ids(indexName, ids.toArray(new String[0]));
-        Map<String, Map<String, Object>> idMap = toMap(response);
+        Map<String, Map<String, Object>> idMap = multiGet(indexName, downsampling, ids);
 
         IntValues intValues = new IntValues();
         for (String id : ids) {
@@ -138,8 +144,7 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         List<Integer> linearIndex, String valueCName) throws IOException {
         String indexName = ModelName.build(downsampling, indName);
 
-        SearchResponse response = getClient().ids(indexName, ids.toArray(new String[0]));
-        Map<String, Map<String, Object>> idMap = toMap(response);
+        Map<String, Map<String, Object>> idMap = multiGet(indexName, downsampling, ids);
 
         IntValues[] intValuesArray = new IntValues[linearIndex.size()];
         for (int i = 0; i < intValuesArray.length; i++) {
@@ -178,8 +183,7 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         Thermodynamic thermodynamic = new Thermodynamic();
         List<List<Long>> thermodynamicValueMatrix = new ArrayList<>();
 
-        SearchResponse response = getClient().ids(indexName, ids.toArray(new String[0]));
-        Map<String, Map<String, Object>> idMap = toMap(response);
+        Map<String, Map<String, Object>> idMap = multiGet(indexName, downsampling, ids);
 
         int numOfSteps = 0;
         for (String id : ids) {
@@ -214,11 +218,45 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         return thermodynamic;
     }
 
-    private Map<String, Map<String, Object>> toMap(SearchResponse response) {
+    /**
+     * @return the names of the daily (or monthly) indices of the time range, rather than all the indices of the alias.
+     */
+    protected String[] indexNames(String indexName, Downsampling downsampling, long startTB, long endTB) {
+        return TimeSeriesUtils.metricsIndexNames(indexName, downsampling, startTB, endTB).toArray(new String[0]);
+    }
+
+    /**
+     * Get the rows of the ids from the indices of their time buckets, one multi get request per index, and all of them
+     * in parallel. The missing indices and rows are not in the result.
+     */
+    private Map<String, Map<String, Object>> multiGet(String indexName, Downsampling downsampling,
+                                                      List<String> ids) throws IOException {
+        Map<String, List<String>> idsOfIndex = new LinkedHashMap<>();
+        for (String id : ids) {
+            int split = id.indexOf(Const.ID_SPLIT);
+            long timeBucket = Long.parseLong(split < 0 ? id : id.substring(0, split));
+            idsOfIndex.computeIfAbsent(
+                TimeSeriesUtils.timeSeries(indexName, timeBucket, downsampling), index -> new ArrayList<>()).add(id);
+        }
+
+        List<CompletableFuture<MultiGetResponse>> responses = new ArrayList<>(idsOfIndex.size());
+        idsOfIndex.forEach((index, indexIds) -> responses.add(getClient().multiGetAsync(index, indexIds)));
+
         Map<String, Map<String, Object>> result = new HashMap<>();
-        SearchHit[] hits = response.getHits().getHits();
-        for (SearchHit hit : hits) {
-            result.put(hit.getId(), hit.getSourceAsMap());
+        try {
+            for (CompletableFuture<MultiGetResponse> response : responses) {
+                for (MultiGetItemResponse item : response.get().getResponses()) {
+                    if (!item.isFailed() && item.getResponse().isExists()) {
+                        result.put(item.getId(), item.getResponse().getSourceAsMap());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            responses.forEach(response -> response.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted when getting the metrics of " + indexName, e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
         }
         return result;
     }
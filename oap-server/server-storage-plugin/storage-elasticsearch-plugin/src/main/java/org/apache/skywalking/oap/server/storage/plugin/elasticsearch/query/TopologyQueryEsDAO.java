@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.Downsampling;
@@ -42,11 +43,15 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
-import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 
 public class TopologyQueryEsDAO extends EsDAO implements ITopologyQueryDAO {
 
+    private static final int ENTITY_ID_PAGE_SIZE = 1000;
+
     public TopologyQueryEsDAO(ElasticSearchClient client) {
         super(client);
     }
@@ -233,15 +238,8 @@ public class TopologyQueryEsDAO extends EsDAO implements ITopologyQueryDAO {
 
     private List<Call.CallDetail> load(SearchSourceBuilder sourceBuilder, String indexName,
                                        DetectPoint detectPoint) throws IOException {
-        sourceBuilder.aggregation(AggregationBuilders.terms(Metrics.ENTITY_ID).field(Metrics.ENTITY_ID).size(1000));
-
-        SearchResponse response = getClient().search(indexName, sourceBuilder);
-
         List<Call.CallDetail> calls = new ArrayList<>();
-        Terms entityTerms = response.getAggregations().get(Metrics.ENTITY_ID);
-        for (Terms.Bucket entityBucket : entityTerms.getBuckets()) {
-            String entityId = entityBucket.getKeyAsString();
-
+        for (String entityId : loadEntityIds(sourceBuilder, indexName)) {
             RelationDefineUtil.RelationDefine relationDefine = RelationDefineUtil.splitEntityId(entityId);
             Call.CallDetail call = new Call.CallDetail();
             call.setSource(String.valueOf(relationDefine.getSource()));
@@ -256,15 +254,8 @@ public class TopologyQueryEsDAO extends EsDAO implements ITopologyQueryDAO {
 
     private List<Call.CallDetail> loadEndpoint(SearchSourceBuilder sourceBuilder, String indexName,
                                                DetectPoint detectPoint) throws IOException {
-        sourceBuilder.aggregation(AggregationBuilders.terms(Metrics.ENTITY_ID).field(Metrics.ENTITY_ID).size(1000));
-
-        SearchResponse response = getClient().search(indexName, sourceBuilder);
-
         List<Call.CallDetail> calls = new ArrayList<>();
-        Terms entityTerms = response.getAggregations().get(Metrics.ENTITY_ID);
-        for (Terms.Bucket entityBucket : entityTerms.getBuckets()) {
-            String entityId = entityBucket.getKeyAsString();
-
+        for (String entityId : loadEntityIds(sourceBuilder, indexName)) {
             RelationDefineUtil.EndpointRelationDefine relationDefine = RelationDefineUtil.splitEndpointRelationEntityId(
                 entityId);
             Call.CallDetail call = new Call.CallDetail();
@@ -281,4 +272,30 @@ public class TopologyQueryEsDAO extends EsDAO implements ITopologyQueryDAO {
         }
         return calls;
     }
+
+    /**
+     * Page through all the relation entity ids by the composite aggregation. A terms aggregation returns only the top
+     * ones, which misses the relations of a large topology.
+     */
+    private List<String> loadEntityIds(SearchSourceBuilder sourceBuilder, String indexName) throws IOException {
+        CompositeAggregationBuilder entityIdAggregation = AggregationBuilders.composite(
+            Metrics.ENTITY_ID,
+            Collections.singletonList(new TermsValuesSourceBuilder(Metrics.ENTITY_ID).field(Metrics.ENTITY_ID))
+        ).size(ENTITY_ID_PAGE_SIZE);
+        sourceBuilder.aggregation(entityIdAggregation);
+
+        List<String> entityIds = new ArrayList<>();
+        while (true) {
+            SearchResponse response = getClient().search(indexName, sourceBuilder);
+            CompositeAggregation entityIdBuckets = response.getAggregations().get(Metrics.ENTITY_ID);
+            List<? extends CompositeAggregation.Bucket> buckets = entityIdBuckets.getBuckets();
+            for (CompositeAggregation.Bucket bucket : buckets) {
+                entityIds.add((String) bucket.getKey().get(Metrics.ENTITY_ID));
+            }
+            if (buckets.size() < ENTITY_ID_PAGE_SIZE) {
+                return entityIds;
+            }
+            entityIdAggregation.aggregateAfter(buckets.get(buckets.size() - 1).getKey());
+        }
+    }
 }
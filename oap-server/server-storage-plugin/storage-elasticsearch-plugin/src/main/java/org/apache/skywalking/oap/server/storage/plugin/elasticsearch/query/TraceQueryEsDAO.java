@@ -35,6 +35,7 @@ import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSear
 import org.apache.skywalking.oap.server.library.util.BooleanUtils;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.MatchCNameBuilder;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -46,6 +47,11 @@ import org.elasticsearch.search.sort.SortOrder;
 
 public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
 
+    /**
+     * The max number of the hits skipped by one request, before the queried page.
+     */
+    private static final int SKIP_BATCH_SIZE = 1000;
+
     private int segmentQueryMaxSize;
 
     public TraceQueryEsDAO(ElasticSearchClient client, int segmentQueryMaxSize) {
@@ -67,10 +73,7 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
                                        int from,
                                        TraceState traceState,
                                        QueryOrder queryOrder) throws IOException {
-        SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
-
         BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
-        sourceBuilder.query(boolQueryBuilder);
         List<QueryBuilder> mustQueryList = boolQueryBuilder.must();
 
         if (startSecondTB != 0 && endSecondTB != 0) {
@@ -111,39 +114,117 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
                 mustQueryList.add(QueryBuilders.matchQuery(SegmentRecord.IS_ERROR, BooleanUtils.FALSE));
                 break;
         }
-        switch (queryOrder) {
-            case BY_START_TIME:
-                sourceBuilder.sort(SegmentRecord.START_TIME, SortOrder.DESC);
-                break;
-            case BY_DURATION:
-                sourceBuilder.sort(SegmentRecord.LATENCY, SortOrder.DESC);
-                break;
-        }
-        sourceBuilder.size(limit);
-        sourceBuilder.from(from);
+        String sortField = queryOrder == QueryOrder.BY_DURATION ? SegmentRecord.LATENCY : SegmentRecord.START_TIME;
 
-        SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        /*
+         * The segments are saved in the daily indices, so only the indices of the queried days are searched. Ordered by
+         * the start time, the newer index holds the newer segments, the indices are searched one by one from the newest,
+         * and the search stops once the page is full. Ordered by the duration, they have to be searched together.
+         */
+        List<String[]> indexGroups = new ArrayList<>();
+        if (startSecondTB != 0 && endSecondTB != 0) {
+            List<String> indexNames = TimeSeriesUtils.superDatasetIndexNames(
+                SegmentRecord.INDEX_NAME, startSecondTB, endSecondTB);
+            if (queryOrder == QueryOrder.BY_DURATION) {
+                indexGroups.add(indexNames.toArray(new String[0]));
+            } else {
+                indexNames.forEach(indexName -> indexGroups.add(new String[] {indexName}));
+            }
+        } else {
+            indexGroups.add(new String[] {SegmentRecord.INDEX_NAME});
+        }
 
         TraceBrief traceBrief = new TraceBrief();
-        traceBrief.setTotal((int) response.getHits().totalHits);
+        int skip = from;
+        long total = 0;
+        boolean searchedAll = true;
+        for (String[] indexGroup : indexGroups) {
+            if (traceBrief.getTraces().size() >= limit) {
+                searchedAll = false;
+                break;
+            }
 
-        for (SearchHit searchHit : response.getHits().getHits()) {
-            BasicTrace basicTrace = new BasicTrace();
-
-            basicTrace.setSegmentId((String) searchHit.getSourceAsMap().get(SegmentRecord.SEGMENT_ID));
-            basicTrace.setStart(String.valueOf(searchHit.getSourceAsMap().get(SegmentRecord.START_TIME)));
-            basicTrace.getEndpointNames().add((String) searchHit.getSourceAsMap().get(SegmentRecord.ENDPOINT_NAME));
-            basicTrace.setDuration(((Number) searchHit.getSourceAsMap().get(SegmentRecord.LATENCY)).intValue());
-            basicTrace.setError(BooleanUtils.valueToBoolean(((Number) searchHit.getSourceAsMap()
-                                                                               .get(
-                                                                                   SegmentRecord.IS_ERROR)).intValue()));
-            basicTrace.getTraceIds().add((String) searchHit.getSourceAsMap().get(SegmentRecord.TRACE_ID));
-            traceBrief.getTraces().add(basicTrace);
+            /*
+             * The hits before the page are skipped by the search_after cursor, fetching the sort values only, rather
+             * than the from parameter, which makes every shard sort and load the from + size hits.
+             */
+            Object[] searchAfter = null;
+            boolean first = true;
+            while (true) {
+                SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
+                sourceBuilder.query(boolQueryBuilder);
+                sourceBuilder.sort(sortField, SortOrder.DESC);
+                sourceBuilder.sort(SegmentRecord.SEGMENT_ID, SortOrder.DESC);
+                if (!first) {
+                    sourceBuilder.trackTotalHits(false);
+                }
+                if (searchAfter != null) {
+                    sourceBuilder.searchAfter(searchAfter);
+                }
+                int size;
+                if (skip > 0) {
+                    size = Math.min(skip, SKIP_BATCH_SIZE);
+                    sourceBuilder.fetchSource(false);
+                } else {
+                    size = limit - traceBrief.getTraces().size();
+                }
+                sourceBuilder.size(size);
+
+                SearchResponse response = getClient().search(indexGroup, sourceBuilder);
+                if (first) {
+                    total += totalHits(response);
+                    first = false;
+                }
+
+                SearchHit[] searchHits = response.getHits().getHits();
+                if (skip > 0) {
+                    skip -= searchHits.length;
+                    if (searchHits.length < size) {
+                        break;
+                    }
+                    searchAfter = searchHits[searchHits.length - 1].getSortValues();
+                    continue;
+                }
+
+                for (SearchHit searchHit : searchHits) {
+                    traceBrief.getTraces().add(buildBasicTrace(searchHit));
+                }
+                break;
+            }
         }
 
+        if (!searchedAll) {
+            /*
+             * The older indices are not counted, so the total is at least one more than the traces until this page,
+             * to let the next page be queried.
+             */
+            total = Math.max(total, from + traceBrief.getTraces().size() + 1);
+        }
+        traceBrief.setTotal((int) total);
         return traceBrief;
     }
 
+    /**
+     * @return the number of the hits matched, which is counted only when the total hits are tracked.
+     */
+    protected long totalHits(SearchResponse response) {
+        return response.getHits().totalHits;
+    }
+
+    private BasicTrace buildBasicTrace(SearchHit searchHit) {
+        BasicTrace basicTrace = new BasicTrace();
+
+        basicTrace.setSegmentId((String) searchHit.getSourceAsMap().get(SegmentRecord.SEGMENT_ID));
+        basicTrace.setStart(String.valueOf(searchHit.getSourceAsMap().get(SegmentRecord.START_TIME)));
+        basicTrace.getEndpointNames().add((String) searchHit.getSourceAsMap().get(SegmentRecord.ENDPOINT_NAME));
+        basicTrace.setDuration(((Number) searchHit.getSourceAsMap().get(SegmentRecord.LATENCY)).intValue());
+        basicTrace.setError(BooleanUtils.valueToBoolean(((Number) searchHit.getSourceAsMap()
+                                                                           .get(
+                                                                               SegmentRecord.IS_ERROR)).intValue()));
+        basicTrace.getTraceIds().add((String) searchHit.getSourceAsMap().get(SegmentRecord.TRACE_ID));
+        return basicTrace;
+    }
+
     @Override
     public List<SegmentRecord> queryByTraceId(String traceId) throws IOException {
         SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
@@ -18,10 +18,14 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
+import java.util.Arrays;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
 import org.junit.Assert;
 import org.junit.Test;
 
 import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.compressTimeBucket;
+import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.metricsIndexNames;
+import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.superDatasetIndexNames;
 
 public class TimeSeriesUtilsTest {
     @Test
@@ -33,4 +37,36 @@ public class TimeSeriesUtilsTest {
         Assert.assertEquals(20000123L, compressTimeBucket(20000123, 11));
         Assert.assertEquals(20000123L, compressTimeBucket(20000125, 11));
     }
+
+    @Test
+    public void testSuperDatasetIndexNames() {
+        Assert.assertEquals(
+            Arrays.asList("segment-20200502", "segment-20200501", "segment-20200430"),
+            superDatasetIndexNames("segment", 20200430235959L, 20200502000000L)
+        );
+        Assert.assertEquals(
+            Arrays.asList("segment-20200501"),
+            superDatasetIndexNames("segment", 20200501000000L, 20200501235959L)
+        );
+    }
+
+    @Test
+    public void testMetricsIndexNames() {
+        Assert.assertEquals(
+            Arrays.asList("service_cpm-20200430", "service_cpm-20200501"),
+            metricsIndexNames("service_cpm", Downsampling.Minute, 202004302330L, 202005010030L)
+        );
+        Assert.assertEquals(
+            Arrays.asList("service_cpm_hour-20200501"),
+            metricsIndexNames("service_cpm_hour", Downsampling.Hour, 2020050100L, 2020050123L)
+        );
+        Assert.assertEquals(
+            Arrays.asList("service_cpm_day-20200430", "service_cpm_day-20200501"),
+            metricsIndexNames("service_cpm_day", Downsampling.Day, 20200430L, 20200501L)
+        );
+        Assert.assertEquals(
+            Arrays.asList("service_cpm_month-202012", "service_cpm_month-202101"),
+            metricsIndexNames("service_cpm_month", Downsampling.Month, 202012L, 202101L)
+        );
+    }
 }
@@ -59,7 +59,8 @@ public class MetricsQueryEs7DAO extends MetricsQueryEsDAO {
 
         sourceBuilder.aggregation(entityIdAggregation);
 
-        SearchResponse response = getClient().search(indexName, sourceBuilder);
+        SearchResponse response = getClient().search(
+            indexNames(indexName, downsampling, startTB, endTB), sourceBuilder);
 
         IntValues intValues = new IntValues();
         Terms idTerms = response.getAggregations().get(Metrics.ENTITY_ID);
@@ -30,4 +30,8 @@ public class H2StorageConfig extends ModuleConfig {
     private String user = "";
     private String password = "";
     private int metadataQueryMaxSize = 5000;
+    /**
+     * Max rows deleted by one statement in the TTL deletion, 0 means no limit.
+     */
+    private int historyDeleteChunkSize = 10000;
 }
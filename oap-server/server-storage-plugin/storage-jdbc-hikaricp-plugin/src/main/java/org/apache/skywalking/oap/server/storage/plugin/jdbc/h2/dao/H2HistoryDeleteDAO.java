@@ -35,14 +35,22 @@ import org.joda.time.DateTime;
 
 public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
 
+    /**
+     * The pause between two chunks, let the other statements on the table go.
+     */
+    private static final long CHUNK_INTERVAL_MILLIS = 100;
+
     private final JDBCHikariCPClient client;
     private final StorageTTL storageTTL;
     private final ModuleDefineHolder moduleDefineHolder;
+    private final int chunkSize;
 
-    public H2HistoryDeleteDAO(ModuleDefineHolder moduleDefineHolder, JDBCHikariCPClient client, StorageTTL storageTTL) {
+    public H2HistoryDeleteDAO(ModuleDefineHolder moduleDefineHolder, JDBCHikariCPClient client, StorageTTL storageTTL,
+                              int chunkSize) {
         this.client = client;
         this.storageTTL = storageTTL;
         this.moduleDefineHolder = moduleDefineHolder;
+        this.chunkSize = chunkSize;
     }
 
     @Override
@@ -53,6 +61,9 @@ public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
 
         SQLBuilder dataDeleteSQL = new SQLBuilder("delete from " + model.getName() + " where ").append(timeBucketColumnName)
                                                                                                .append("<= ?");
+        if (chunkSize > 0) {
+            dataDeleteSQL.append(" limit " + chunkSize);
+        }
 
         try (Connection connection = client.getConnection()) {
             TTLCalculator ttlCalculator;
@@ -62,9 +73,20 @@ public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
                 ttlCalculator = storageTTL.metricsCalculator(model.getDownsampling());
             }
             long timeBefore = ttlCalculator.timeBefore(new DateTime(), configService.getDataTTLConfig());
-            client.execute(connection, dataDeleteSQL.toString(), timeBefore);
+            if (chunkSize <= 0) {
+                client.execute(connection, dataDeleteSQL.toString(), timeBefore);
+                return;
+            }
+
+            // delete chunk by chunk, until the last chunk is not full
+            while (client.executeUpdate(connection, dataDeleteSQL.toString(), timeBefore) >= chunkSize) {
+                Thread.sleep(CHUNK_INTERVAL_MILLIS);
+            }
         } catch (JDBCClientException | SQLException e) {
             throw new IOException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("History delete of " + model.getName() + " is interrupted", e);
         }
     }
 }
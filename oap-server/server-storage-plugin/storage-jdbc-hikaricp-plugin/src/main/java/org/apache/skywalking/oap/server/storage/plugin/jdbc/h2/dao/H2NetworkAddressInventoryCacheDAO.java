@@ -82,4 +82,34 @@ public class H2NetworkAddressInventoryCacheDAO extends H2SQLExecutor implements
         }
         return addressInventories;
     }
+
+    @Override
+    public List<NetworkAddressInventory> loadAfter(int sequence, int size) {
+        List<NetworkAddressInventory> addressInventories = new ArrayList<>();
+
+        try {
+            StringBuilder sql = new StringBuilder("select * from ");
+            sql.append(NetworkAddressInventory.INDEX_NAME);
+            sql.append(" where ").append(NetworkAddressInventory.SEQUENCE).append(">?");
+            sql.append(" order by ").append(NetworkAddressInventory.SEQUENCE).append(" limit ").append(size);
+
+            try (Connection connection = h2Client.getConnection()) {
+                try (ResultSet resultSet = h2Client.executeQuery(connection, sql.toString(), sequence)) {
+                    NetworkAddressInventory addressInventory;
+                    do {
+                        addressInventory = (NetworkAddressInventory) toStorageData(resultSet, NetworkAddressInventory.INDEX_NAME, new NetworkAddressInventory.Builder());
+                        if (addressInventory != null) {
+                            addressInventories.add(addressInventory);
+                        }
+                    }
+                    while (addressInventory != null);
+                }
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+        return addressInventories;
+    }
 }
@@ -95,4 +95,34 @@ public class H2ServiceInstanceInventoryCacheDAO extends H2SQLExecutor implements
     private int getByID(String id) {
         return getEntityIDByID(h2Client, ServiceInstanceInventory.SEQUENCE, ServiceInstanceInventory.INDEX_NAME, id);
     }
+
+    @Override
+    public List<ServiceInstanceInventory> loadAfter(int sequence, int size) {
+        List<ServiceInstanceInventory> instanceInventories = new ArrayList<>();
+
+        try {
+            StringBuilder sql = new StringBuilder("select * from ");
+            sql.append(ServiceInstanceInventory.INDEX_NAME);
+            sql.append(" where ").append(ServiceInstanceInventory.SEQUENCE).append(">?");
+            sql.append(" order by ").append(ServiceInstanceInventory.SEQUENCE).append(" limit ").append(size);
+
+            try (Connection connection = h2Client.getConnection()) {
+                try (ResultSet resultSet = h2Client.executeQuery(connection, sql.toString(), sequence)) {
+                    ServiceInstanceInventory instanceInventory;
+                    do {
+                        instanceInventory = (ServiceInstanceInventory) toStorageData(resultSet, ServiceInstanceInventory.INDEX_NAME, new ServiceInstanceInventory.Builder());
+                        if (instanceInventory != null) {
+                            instanceInventories.add(instanceInventory);
+                        }
+                    }
+                    while (instanceInventory != null);
+                }
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+        return instanceInventories;
+    }
 }
@@ -24,6 +24,7 @@ import java.sql.SQLException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.StringHashSet;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
 import org.apache.skywalking.oap.server.core.storage.model.ColumnName;
@@ -108,6 +109,8 @@ public class H2TableInstaller extends ModelInstaller {
             return "VARCHAR(2000)";
         } else if (IntKeyLongValueHashMap.class.equals(type)) {
             return "VARCHAR(20000)";
+        } else if (StringHashSet.class.equals(type)) {
+            return "MEDIUMTEXT";
         } else if (byte[].class.equals(type)) {
             if (DefaultScopeDefine.SEGMENT == model.getScopeId()) {
                 if (name.getName().equals(SegmentRecord.DATA_BINARY)) {
@@ -29,5 +29,9 @@ import java.util.Properties;
 public final class MySQLStorageConfig extends ModuleConfig {
 
     private int metadataQueryMaxSize = 5000;
+    /**
+     * Max rows deleted by one statement in the TTL deletion, 0 means no limit.
+     */
+    private int historyDeleteChunkSize = 10000;
     private Properties properties;
 }
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+import org.apache.skywalking.oap.server.library.client.Client;
+
+/**
+ * The tables of the memory storage, each table keeps the rows by the id. A row is the map built by the storage builder,
+ * the {@link StorageDataType} values in it are kept as the storage strings, the same as a database keeps them, so the
+ * rows are read back by the storage builders of the models directly.
+ * <p>
+ * Nothing is kept out of the process, the storage is for the capacity test and the benchmark of the analysis core only.
+ */
+public class MemoryStorageClient implements Client {
+
+    private final Map<String, Map<String, Map<String, Object>>> tables = new ConcurrentHashMap<>();
+    private final long persistenceLatency;
+    private final long queryLatency;
+    /**
+     * Notified after a row is written, such as by the load generator measuring the persistence lag.
+     */
+    @Setter
+    private volatile PersistenceListener persistenceListener;
+
+    public MemoryStorageClient(long persistenceLatency, long queryLatency) {
+        this.persistenceLatency = persistenceLatency;
+        this.queryLatency = queryLatency;
+    }
+
+    @Override
+    public void connect() {
+    }
+
+    @Override
+    public void shutdown() {
+        tables.clear();
+    }
+
+    /**
+     * Insert the row, or replace the existing row of the same id.
+     */
+    public void put(String tableName, String id, Map<String, Object> row) {
+        Map<String, Object> storageRow = new HashMap<>(row.size());
+        row.forEach((column, value) -> {
+            if (value instanceof StorageDataType) {
+                storageRow.put(column, ((StorageDataType) value).toStorageData());
+            } else {
+                storageRow.put(column, value);
+            }
+        });
+        table(tableName).put(id, storageRow);
+
+        PersistenceListener listener = persistenceListener;
+        if (listener != null) {
+            listener.onPersisted(tableName, storageRow);
+        }
+    }
+
+    public Map<String, Object> get(String tableName, String id) {
+        Map<String, Map<String, Object>> table = tables.get(tableName);
+        return table == null ? null : table.get(id);
+    }
+
+    /**
+     * @return the rows matching the filter, in no particular order.
+     */
+    public List<Map<String, Object>> find(String tableName, Predicate<Map<String, Object>> filter) {
+        Map<String, Map<String, Object>> table = tables.get(tableName);
+        if (table == null) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map<String, Object> row : table.values()) {
+            if (filter.test(row)) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return the number of the deleted rows.
+     */
+    public int delete(String tableName, Predicate<Map<String, Object>> filter) {
+        Map<String, Map<String, Object>> table = tables.get(tableName);
+        if (table == null) {
+            return 0;
+        }
+        int deleted = 0;
+        Iterator<Map<String, Object>> rows = table.values().iterator();
+        while (rows.hasNext()) {
+            if (filter.test(rows.next())) {
+                rows.remove();
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    public int size(String tableName) {
+        Map<String, Map<String, Object>> table = tables.get(tableName);
+        return table == null ? 0 : table.size();
+    }
+
+    public void persistenceLatency() {
+        sleep(persistenceLatency);
+    }
+
+    public void queryLatency() {
+        sleep(queryLatency);
+    }
+
+    private Map<String, Map<String, Object>> table(String tableName) {
+        return tables.computeIfAbsent(tableName, name -> new ConcurrentHashMap<>());
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public interface PersistenceListener {
+        /**
+         * Called in the persistence thread, should be quick.
+         *
+         * @param row the columns of the written row, in the storage format.
+         */
+        void onPersisted(String tableName, Map<String, Object> row);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory;
+
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
+import org.apache.skywalking.oap.server.core.storage.IHistoryDeleteDAO;
+import org.apache.skywalking.oap.server.core.storage.IRegisterLockDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.cache.INetworkAddressInventoryCacheDAO;
+import org.apache.skywalking.oap.server.core.storage.cache.IServiceInstanceInventoryCacheDAO;
+import org.apache.skywalking.oap.server.core.storage.cache.IServiceInventoryCacheDAO;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileTaskLogQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileTaskQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileThreadSnapshotQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.query.IAggregationQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.query.IAlarmQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.query.ILogQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.query.IMetadataQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.query.ITopNRecordsQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
+import org.apache.skywalking.oap.server.core.storage.ttl.GeneralStorageTTL;
+import org.apache.skywalking.oap.server.library.module.ModuleConfig;
+import org.apache.skywalking.oap.server.library.module.ModuleDefine;
+import org.apache.skywalking.oap.server.library.module.ModuleProvider;
+import org.apache.skywalking.oap.server.library.module.ModuleStartException;
+import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedException;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryAggregationQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryAlarmQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryBatchDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryHistoryDeleteDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryLogQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryMetadataQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryMetricsQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryNetworkAddressInventoryCacheDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryProfileTaskLogQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryProfileTaskQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryProfileThreadSnapshotQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryRegisterLockDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryServiceInstanceInventoryCacheDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryServiceInventoryCacheDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryStorageDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryTopNRecordsQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryTopologyQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.dao.MemoryTraceQueryDAO;
+
+/**
+ * Memory storage provider keeps all the data in the OAP process, with the configurable latencies of a real database.
+ * It is for the capacity test and the benchmark of the analysis core, the written rows are exposed through {@link
+ * #getClient()}. The traces and the metrics are queryable, the other queries return empty results.
+ */
+public class MemoryStorageProvider extends ModuleProvider {
+
+    private final MemoryStorageConfig config;
+    @Getter
+    private MemoryStorageClient client;
+
+    public MemoryStorageProvider() {
+        config = new MemoryStorageConfig();
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public Class<? extends ModuleDefine> module() {
+        return StorageModule.class;
+    }
+
+    @Override
+    public ModuleConfig createConfigBeanIfAbsent() {
+        return config;
+    }
+
+    @Override
+    public void prepare() throws ServiceNotProvidedException, ModuleStartException {
+        client = new MemoryStorageClient(config.getPersistenceLatency(), config.getQueryLatency());
+
+        this.registerServiceImplementation(IBatchDAO.class, new MemoryBatchDAO(client));
+        this.registerServiceImplementation(StorageDAO.class, new MemoryStorageDAO(client));
+        this.registerServiceImplementation(IRegisterLockDAO.class, new MemoryRegisterLockDAO());
+
+        this.registerServiceImplementation(
+            IServiceInventoryCacheDAO.class, new MemoryServiceInventoryCacheDAO(client));
+        this.registerServiceImplementation(
+            IServiceInstanceInventoryCacheDAO.class, new MemoryServiceInstanceInventoryCacheDAO(client));
+        this.registerServiceImplementation(
+            INetworkAddressInventoryCacheDAO.class, new MemoryNetworkAddressInventoryCacheDAO(client));
+
+        this.registerServiceImplementation(ITopologyQueryDAO.class, new MemoryTopologyQueryDAO());
+        this.registerServiceImplementation(IMetricsQueryDAO.class, new MemoryMetricsQueryDAO(client));
+        this.registerServiceImplementation(ITraceQueryDAO.class, new MemoryTraceQueryDAO(client));
+        this.registerServiceImplementation(IMetadataQueryDAO.class, new MemoryMetadataQueryDAO());
+        this.registerServiceImplementation(IAggregationQueryDAO.class, new MemoryAggregationQueryDAO());
+        this.registerServiceImplementation(IAlarmQueryDAO.class, new MemoryAlarmQueryDAO());
+        this.registerServiceImplementation(
+            IHistoryDeleteDAO.class, new MemoryHistoryDeleteDAO(getManager(), client, new GeneralStorageTTL()));
+        this.registerServiceImplementation(ITopNRecordsQueryDAO.class, new MemoryTopNRecordsQueryDAO());
+        this.registerServiceImplementation(ILogQueryDAO.class, new MemoryLogQueryDAO());
+
+        this.registerServiceImplementation(IProfileTaskQueryDAO.class, new MemoryProfileTaskQueryDAO());
+        this.registerServiceImplementation(IProfileTaskLogQueryDAO.class, new MemoryProfileTaskLogQueryDAO());
+        this.registerServiceImplementation(
+            IProfileThreadSnapshotQueryDAO.class, new MemoryProfileThreadSnapshotQueryDAO());
+    }
+
+    @Override
+    public void start() throws ServiceNotProvidedException, ModuleStartException {
+        client.connect();
+    }
+
+    @Override
+    public void notifyAfterCompleted() throws ServiceNotProvidedException, ModuleStartException {
+
+    }
+
+    @Override
+    public String[] requiredModules() {
+        return new String[] {CoreModule.NAME};
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.query.entity.Order;
+import org.apache.skywalking.oap.server.core.query.entity.TopNEntity;
+import org.apache.skywalking.oap.server.core.storage.query.IAggregationQueryDAO;
+
+/**
+ * The memory storage serves the capacity test only, the top N is not calculated.
+ */
+public class MemoryAggregationQueryDAO implements IAggregationQueryDAO {
+
+    @Override
+    public List<TopNEntity> getServiceTopN(String indName, String valueCName, int topN, Downsampling downsampling,
+        long startTB, long endTB, Order order) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<TopNEntity> getAllServiceInstanceTopN(String indName, String valueCName, int topN,
+        Downsampling downsampling, long startTB, long endTB, Order order) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<TopNEntity> getServiceInstanceTopN(int serviceId, String indName, String valueCName, int topN,
+        Downsampling downsampling, long startTB, long endTB, Order order) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<TopNEntity> getAllEndpointTopN(String indName, String valueCName, int topN,
+        Downsampling downsampling, long startTB, long endTB, Order order) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<TopNEntity> getEndpointTopN(int serviceId, String indName, String valueCName, int topN,
+        Downsampling downsampling, long startTB, long endTB, Order order) {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.List;
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerPoolFactory;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MemoryBatchDAO implements IBatchDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryBatchDAO.class);
+
+    private final MemoryStorageClient client;
+    private final DataCarrier<PrepareRequest> dataCarrier;
+
+    public MemoryBatchDAO(MemoryStorageClient client) {
+        this.client = client;
+
+        String name = "MEMORY_ASYNCHRONOUS_BATCH_PERSISTENT";
+        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, 1, 20);
+        try {
+            ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
+        } catch (Exception e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+
+        this.dataCarrier = new DataCarrier<>(1, 10000);
+        this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new MemoryBatchConsumer());
+    }
+
+    /**
+     * The injected latency is paid once per batch, as a bulk request of a real database does.
+     */
+    @Override
+    public void synchronous(List<PrepareRequest> prepareRequests) {
+        if (CollectionUtils.isEmpty(prepareRequests)) {
+            return;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("batch rows write, data size: {}", prepareRequests.size());
+        }
+
+        client.persistenceLatency();
+        for (PrepareRequest prepareRequest : prepareRequests) {
+            ((RowRequest) prepareRequest).invoke(client);
+        }
+    }
+
+    @Override
+    public void asynchronous(InsertRequest insertRequest) {
+        this.dataCarrier.produce(insertRequest);
+    }
+
+    private class MemoryBatchConsumer implements IConsumer<PrepareRequest> {
+
+        @Override
+        public void init() {
+
+        }
+
+        @Override
+        public void consume(List<PrepareRequest> prepareRequests) {
+            synchronous(prepareRequests);
+        }
+
+        @Override
+        public void onError(List<PrepareRequest> prepareRequests, Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        @Override
+        public void onExit() {
+        }
+    }
+}
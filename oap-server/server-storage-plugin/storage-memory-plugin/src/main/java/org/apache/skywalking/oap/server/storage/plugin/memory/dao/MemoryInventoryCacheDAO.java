@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+/**
+ * The lookups shared by the inventory cache DAOs, over the rows of an inventory table.
+ */
+public abstract class MemoryInventoryCacheDAO<T extends RegisterSource> {
+
+    protected final MemoryStorageClient client;
+    private final String tableName;
+    private final StorageBuilder<T> storageBuilder;
+
+    protected MemoryInventoryCacheDAO(MemoryStorageClient client, String tableName, StorageBuilder<T> storageBuilder) {
+        this.client = client;
+        this.tableName = tableName;
+        this.storageBuilder = storageBuilder;
+    }
+
+    protected int getSequenceById(String id) {
+        client.queryLatency();
+        Map<String, Object> row = client.get(tableName, id);
+        return row == null ? Const.NONE : ((Number) row.get(RegisterSource.SEQUENCE)).intValue();
+    }
+
+    protected T getBySequence(int sequence) {
+        client.queryLatency();
+        List<Map<String, Object>> rows = client.find(
+            tableName, row -> ((Number) row.get(RegisterSource.SEQUENCE)).intValue() == sequence);
+        return rows.isEmpty() ? null : storageBuilder.map2Data(rows.get(0));
+    }
+
+    protected List<T> loadLastUpdate(long lastUpdateTime, Predicate<Map<String, Object>> filter) {
+        client.queryLatency();
+        return client.find(
+            tableName,
+            filter.and(row -> ((Number) row.get(RegisterSource.LAST_UPDATE_TIME)).longValue() > lastUpdateTime)
+        ).stream().map(storageBuilder::map2Data).collect(Collectors.toList());
+    }
+
+    protected List<T> loadAfter(int sequence, int size) {
+        client.queryLatency();
+        return client.find(tableName, row -> ((Number) row.get(RegisterSource.SEQUENCE)).intValue() > sequence)
+                     .stream()
+                     .sorted(Comparator.comparingInt(row -> ((Number) row.get(RegisterSource.SEQUENCE)).intValue()))
+                     .limit(size)
+                     .map(storageBuilder::map2Data)
+                     .collect(Collectors.toList());
+    }
+}
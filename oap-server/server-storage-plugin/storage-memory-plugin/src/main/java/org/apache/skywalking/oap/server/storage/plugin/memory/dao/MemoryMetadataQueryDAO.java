@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.query.entity.Database;
+import org.apache.skywalking.oap.server.core.query.entity.Endpoint;
+import org.apache.skywalking.oap.server.core.query.entity.Service;
+import org.apache.skywalking.oap.server.core.query.entity.ServiceInstance;
+import org.apache.skywalking.oap.server.core.storage.query.IMetadataQueryDAO;
+
+/**
+ * The memory storage serves the capacity test only, the metadata is not queried. The inventories are still read by
+ * the inventory caches.
+ */
+public class MemoryMetadataQueryDAO implements IMetadataQueryDAO {
+
+    @Override
+    public int numOfService(long startTimestamp, long endTimestamp) {
+        return 0;
+    }
+
+    @Override
+    public int numOfEndpoint() {
+        return 0;
+    }
+
+    @Override
+    public int numOfConjectural(int nodeTypeValue) {
+        return 0;
+    }
+
+    @Override
+    public List<Service> getAllServices(long startTimestamp, long endTimestamp) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<Service> getAllBrowserServices(long startTimestamp, long endTimestamp) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<Database> getAllDatabases() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<Service> searchServices(long startTimestamp, long endTimestamp, String keyword) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Service searchService(String serviceCode) {
+        return null;
+    }
+
+    @Override
+    public List<Endpoint> searchEndpoint(String keyword, int serviceId, int limit) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<ServiceInstance> getServiceInstances(long startTimestamp, long endTimestamp, String serviceId) {
+        return Collections.emptyList();
+    }
+}
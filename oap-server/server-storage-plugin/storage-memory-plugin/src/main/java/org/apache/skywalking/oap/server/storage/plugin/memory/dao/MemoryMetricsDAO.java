@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+public class MemoryMetricsDAO implements IMetricsDAO {
+
+    private final MemoryStorageClient client;
+    private final StorageBuilder<Metrics> storageBuilder;
+
+    public MemoryMetricsDAO(MemoryStorageClient client, StorageBuilder<Metrics> storageBuilder) {
+        this.client = client;
+        this.storageBuilder = storageBuilder;
+    }
+
+    @Override
+    public List<Metrics> multiGet(Model model, List<String> ids) {
+        client.queryLatency();
+
+        List<Metrics> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Map<String, Object> row = client.get(model.getName(), id);
+            if (row != null) {
+                result.add(storageBuilder.map2Data(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public RowRequest prepareBatchInsert(Model model, Metrics metrics) {
+        return new RowRequest(model.getName(), metrics.id(), storageBuilder.data2Map(metrics));
+    }
+
+    @Override
+    public RowRequest prepareBatchUpdate(Model model, Metrics metrics) {
+        return new RowRequest(model.getName(), metrics.id(), storageBuilder.data2Map(metrics));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValue;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.ThermodynamicMetrics;
+import org.apache.skywalking.oap.server.core.query.entity.IntValues;
+import org.apache.skywalking.oap.server.core.query.entity.KVInt;
+import org.apache.skywalking.oap.server.core.query.entity.Thermodynamic;
+import org.apache.skywalking.oap.server.core.query.sql.Function;
+import org.apache.skywalking.oap.server.core.query.sql.KeyValues;
+import org.apache.skywalking.oap.server.core.query.sql.Where;
+import org.apache.skywalking.oap.server.core.storage.model.ModelName;
+import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+public class MemoryMetricsQueryDAO implements IMetricsQueryDAO {
+    private final MemoryStorageClient client;
+
+    public MemoryMetricsQueryDAO(MemoryStorageClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public IntValues getValues(String indName, Downsampling downsampling, long startTB, long endTB, Where where,
+        String valueCName, Function function) {
+        String tableName = ModelName.build(downsampling, indName);
+
+        List<String> ids = new ArrayList<>(20);
+        Predicate<Map<String, Object>> filter = row -> {
+            long timeBucket = ((Number) row.get(Metrics.TIME_BUCKET)).longValue();
+            return timeBucket >= startTB && timeBucket <= endTB;
+        };
+        List<KeyValues> whereKeyValues = where.getKeyValues();
+        if (whereKeyValues.size() > 0) {
+            Predicate<Map<String, Object>> keyFilter = row -> false;
+            for (KeyValues keyValues : whereKeyValues) {
+                ids.addAll(keyValues.getValues());
+                keyFilter = keyFilter.or(
+                    row -> keyValues.getValues().contains(String.valueOf(row.get(keyValues.getKey()))));
+            }
+            filter = filter.and(keyFilter);
+        }
+
+        client.queryLatency();
+        Map<String, long[]> sumAndCount = new HashMap<>();
+        for (Map<String, Object> row : client.find(tableName, filter)) {
+            long[] aggregation = sumAndCount.computeIfAbsent((String) row.get(Metrics.ENTITY_ID), id -> new long[2]);
+            aggregation[0] += ((Number) row.get(valueCName)).longValue();
+            aggregation[1]++;
+        }
+
+        IntValues intValues = new IntValues();
+        sumAndCount.forEach((id, aggregation) -> {
+            KVInt kv = new KVInt();
+            kv.setId(id);
+            kv.setValue(function == Function.Avg ? aggregation[0] / aggregation[1] : aggregation[0]);
+            intValues.addKVInt(kv);
+        });
+        return orderWithDefault0(intValues, ids);
+    }
+
+    @Override
+    public IntValues getLinearIntValues(String indName, Downsampling downsampling, List<String> ids,
+        String valueCName) {
+        String tableName = ModelName.build(downsampling, indName);
+
+        client.queryLatency();
+        IntValues intValues = new IntValues();
+        for (String id : ids) {
+            Map<String, Object> row = client.get(tableName, id);
+            if (row != null) {
+                KVInt kv = new KVInt();
+                kv.setId(id);
+                kv.setValue(((Number) row.get(valueCName)).longValue());
+                intValues.addKVInt(kv);
+            }
+        }
+        return orderWithDefault0(intValues, ids);
+    }
+
+    @Override
+    public IntValues[] getMultipleLinearIntValues(String indName, Downsampling downsampling, List<String> ids,
+        final List<Integer> linearIndex, String valueCName) {
+        String tableName = ModelName.build(downsampling, indName);
+
+        IntValues[] intValuesArray = new IntValues[linearIndex.size()];
+        for (int i = 0; i < intValuesArray.length; i++) {
+            intValuesArray[i] = new IntValues();
+        }
+
+        client.queryLatency();
+        for (String id : ids) {
+            Map<String, Object> row = client.get(tableName, id);
+            if (row == null) {
+                continue;
+            }
+            IntKeyLongValueHashMap multipleValues = new IntKeyLongValueHashMap(5);
+            multipleValues.toObject((String) row.get(valueCName));
+
+            for (int i = 0; i < linearIndex.size(); i++) {
+                IntKeyLongValue value = multipleValues.get(linearIndex.get(i));
+                if (value != null) {
+                    KVInt kv = new KVInt();
+                    kv.setId(id);
+                    kv.setValue(value.getValue());
+                    intValuesArray[i].addKVInt(kv);
+                }
+            }
+        }
+
+        for (int i = 0; i < intValuesArray.length; i++) {
+            intValuesArray[i] = orderWithDefault0(intValuesArray[i], ids);
+        }
+        return intValuesArray;
+    }
+
+    @Override
+    public Thermodynamic getThermodynamic(String indName, Downsampling downsampling, List<String> ids,
+        String valueCName) {
+        String tableName = ModelName.build(downsampling, indName);
+
+        client.queryLatency();
+        List<List<Long>> thermodynamicValueCollection = new ArrayList<>();
+        int numOfSteps = 0;
+        int axisYStep = 0;
+        for (String id : ids) {
+            Map<String, Object> row = client.get(tableName, id);
+            if (row == null) {
+                // try to add default values when there is no data in that time bucket.
+                thermodynamicValueCollection.add(new ArrayList<>());
+                continue;
+            }
+            axisYStep = ((Number) row.get(ThermodynamicMetrics.STEP)).intValue();
+            numOfSteps = ((Number) row.get(ThermodynamicMetrics.NUM_OF_STEPS)).intValue() + 1;
+            IntKeyLongValueHashMap intKeyLongValues = new IntKeyLongValueHashMap(5);
+            intKeyLongValues.toObject((String) row.get(ThermodynamicMetrics.DETAIL_GROUP));
+
+            List<Long> axisYValues = new ArrayList<>();
+            for (int i = 0; i < numOfSteps; i++) {
+                axisYValues.add(0L);
+            }
+            for (IntKeyLongValue intKeyLongValue : intKeyLongValues.values()) {
+                axisYValues.set(intKeyLongValue.getKey(), intKeyLongValue.getValue());
+            }
+            thermodynamicValueCollection.add(axisYValues);
+        }
+
+        Thermodynamic thermodynamic = new Thermodynamic();
+        thermodynamic.fromMatrixData(thermodynamicValueCollection, numOfSteps);
+        thermodynamic.setAxisYStep(axisYStep);
+        return thermodynamic;
+    }
+
+    /**
+     * Make sure the order is same as the expected order, and keep default value as 0.
+     */
+    private IntValues orderWithDefault0(IntValues origin, List<String> expectedOrder) {
+        IntValues intValues = new IntValues();
+
+        expectedOrder.forEach(id -> {
+            KVInt e = new KVInt();
+            e.setId(id);
+            e.setValue(origin.findValue(id, 0));
+            intValues.addKVInt(e);
+        });
+
+        return intValues;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.register.NetworkAddressInventory;
+import org.apache.skywalking.oap.server.core.storage.cache.INetworkAddressInventoryCacheDAO;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+public class MemoryNetworkAddressInventoryCacheDAO extends MemoryInventoryCacheDAO<NetworkAddressInventory> implements INetworkAddressInventoryCacheDAO {
+
+    public MemoryNetworkAddressInventoryCacheDAO(MemoryStorageClient client) {
+        super(client, NetworkAddressInventory.INDEX_NAME, new NetworkAddressInventory.Builder());
+    }
+
+    @Override
+    public int getAddressId(String networkAddress) {
+        return getSequenceById(NetworkAddressInventory.buildId(networkAddress));
+    }
+
+    @Override
+    public NetworkAddressInventory get(int addressId) {
+        return getBySequence(addressId);
+    }
+
+    @Override
+    public List<NetworkAddressInventory> loadLastUpdate(long lastUpdateTime) {
+        return loadLastUpdate(lastUpdateTime, row -> true);
+    }
+
+    @Override
+    public List<NetworkAddressInventory> loadAfter(int sequence, int size) {
+        return super.loadAfter(sequence, size);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.query.entity.ProfileTask;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileTaskQueryDAO;
+
+/**
+ * The memory storage serves the capacity test only, no profile task is created.
+ */
+public class MemoryProfileTaskQueryDAO implements IProfileTaskQueryDAO {
+
+    @Override
+    public List<ProfileTask> getTaskList(Integer serviceId, String endpointName, Long startTimeBucket,
+        Long endTimeBucket, Integer limit) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public ProfileTask getById(String id) {
+        return null;
+    }
+}
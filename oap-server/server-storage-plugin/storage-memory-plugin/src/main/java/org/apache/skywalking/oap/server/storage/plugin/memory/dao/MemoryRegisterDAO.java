@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.storage.IRegisterDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+public class MemoryRegisterDAO implements IRegisterDAO {
+
+    private final MemoryStorageClient client;
+    private final StorageBuilder<RegisterSource> storageBuilder;
+
+    public MemoryRegisterDAO(MemoryStorageClient client, StorageBuilder<RegisterSource> storageBuilder) {
+        this.client = client;
+        this.storageBuilder = storageBuilder;
+    }
+
+    @Override
+    public RegisterSource get(String modelName, String id) {
+        client.queryLatency();
+        Map<String, Object> row = client.get(modelName, id);
+        return row == null ? null : storageBuilder.map2Data(row);
+    }
+
+    @Override
+    public void forceInsert(String modelName, RegisterSource source) {
+        client.persistenceLatency();
+        client.put(modelName, source.id(), storageBuilder.data2Map(source));
+    }
+
+    @Override
+    public void forceUpdate(String modelName, RegisterSource source) {
+        client.persistenceLatency();
+        client.put(modelName, source.id(), storageBuilder.data2Map(source));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.storage.IRegisterLockDAO;
+
+/**
+ * The sequence of every scope starts from 1, the same as the lock table of H2 and MySQL, so the first registered
+ * inventory gets 2.
+ */
+public class MemoryRegisterLockDAO implements IRegisterLockDAO {
+
+    private final Map<Integer, AtomicInteger> sequences = new ConcurrentHashMap<>();
+
+    @Override
+    public int getId(int scopeId, RegisterSource registerSource) {
+        return sequences.computeIfAbsent(scopeId, id -> new AtomicInteger(1)).incrementAndGet();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
+import org.apache.skywalking.oap.server.core.storage.cache.IServiceInstanceInventoryCacheDAO;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+public class MemoryServiceInstanceInventoryCacheDAO extends MemoryInventoryCacheDAO<ServiceInstanceInventory> implements IServiceInstanceInventoryCacheDAO {
+
+    public MemoryServiceInstanceInventoryCacheDAO(MemoryStorageClient client) {
+        super(client, ServiceInstanceInventory.INDEX_NAME, new ServiceInstanceInventory.Builder());
+    }
+
+    @Override
+    public ServiceInstanceInventory get(int serviceInstanceId) {
+        return getBySequence(serviceInstanceId);
+    }
+
+    @Override
+    public int getServiceInstanceId(int serviceId, String uuid) {
+        return getSequenceById(ServiceInstanceInventory.buildId(serviceId, uuid));
+    }
+
+    @Override
+    public int getServiceInstanceId(int serviceId, int addressId) {
+        return getSequenceById(ServiceInstanceInventory.buildId(serviceId, addressId));
+    }
+
+    @Override
+    public List<ServiceInstanceInventory> loadLastUpdate(long lastUpdateTime) {
+        return loadLastUpdate(
+            lastUpdateTime,
+            row -> ((Number) row.get(ServiceInstanceInventory.IS_ADDRESS)).intValue() == BooleanUtils.TRUE
+        );
+    }
+
+    @Override
+    public List<ServiceInstanceInventory> loadAfter(int sequence, int size) {
+        return super.loadAfter(sequence, size);
+    }
+}
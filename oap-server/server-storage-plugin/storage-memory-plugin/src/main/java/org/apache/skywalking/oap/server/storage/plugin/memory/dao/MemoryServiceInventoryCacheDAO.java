@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.register.ServiceInventory;
+import org.apache.skywalking.oap.server.core.storage.cache.IServiceInventoryCacheDAO;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+public class MemoryServiceInventoryCacheDAO extends MemoryInventoryCacheDAO<ServiceInventory> implements IServiceInventoryCacheDAO {
+
+    public MemoryServiceInventoryCacheDAO(MemoryStorageClient client) {
+        super(client, ServiceInventory.INDEX_NAME, new ServiceInventory.Builder());
+    }
+
+    @Override
+    public int getServiceId(String serviceName) {
+        return getSequenceById(ServiceInventory.buildId(serviceName));
+    }
+
+    @Override
+    public int getServiceId(int addressId) {
+        return getSequenceById(ServiceInventory.buildId(addressId));
+    }
+
+    @Override
+    public ServiceInventory get(int serviceId) {
+        return getBySequence(serviceId);
+    }
+
+    @Override
+    public List<ServiceInventory> loadLastUpdate(long lastUpdateTime) {
+        return loadLastUpdate(
+            lastUpdateTime, row -> ((Number) row.get(ServiceInventory.IS_ADDRESS)).intValue() == BooleanUtils.TRUE);
+    }
+
+    @Override
+    public List<ServiceInventory> loadAfter(int sequence, int size) {
+        return super.loadAfter(sequence, size);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import com.google.common.base.Strings;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.query.entity.BasicTrace;
+import org.apache.skywalking.oap.server.core.query.entity.QueryOrder;
+import org.apache.skywalking.oap.server.core.query.entity.Span;
+import org.apache.skywalking.oap.server.core.query.entity.TraceBrief;
+import org.apache.skywalking.oap.server.core.query.entity.TraceState;
+import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+public class MemoryTraceQueryDAO implements ITraceQueryDAO {
+    private final MemoryStorageClient client;
+
+    public MemoryTraceQueryDAO(MemoryStorageClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public TraceBrief queryBasicTraces(long startSecondTB, long endSecondTB, long minDuration, long maxDuration,
+        String endpointName, int serviceId, int serviceInstanceId, String endpointId, String traceId, int limit, int from,
+        TraceState traceState, QueryOrder queryOrder) {
+        Predicate<Map<String, Object>> filter = row -> true;
+        if (startSecondTB != 0 && endSecondTB != 0) {
+            filter = filter.and(row -> {
+                long timeBucket = longValue(row, SegmentRecord.TIME_BUCKET);
+                return timeBucket >= startSecondTB && timeBucket <= endSecondTB;
+            });
+        }
+        if (minDuration != 0) {
+            filter = filter.and(row -> longValue(row, SegmentRecord.LATENCY) >= minDuration);
+        }
+        if (maxDuration != 0) {
+            filter = filter.and(row -> longValue(row, SegmentRecord.LATENCY) <= maxDuration);
+        }
+        if (!Strings.isNullOrEmpty(endpointName)) {
+            filter = filter.and(row -> String.valueOf(row.get(SegmentRecord.ENDPOINT_NAME)).contains(endpointName));
+        }
+        if (serviceId != 0) {
+            filter = filter.and(row -> longValue(row, SegmentRecord.SERVICE_ID) == serviceId);
+        }
+        if (serviceInstanceId != 0) {
+            filter = filter.and(row -> longValue(row, SegmentRecord.SERVICE_INSTANCE_ID) == serviceInstanceId);
+        }
+        if (!Strings.isNullOrEmpty(endpointId)) {
+            filter = filter.and(row -> endpointId.equals(row.get(SegmentRecord.ENDPOINT_ID)));
+        }
+        if (!Strings.isNullOrEmpty(traceId)) {
+            filter = filter.and(row -> traceId.equals(row.get(SegmentRecord.TRACE_ID)));
+        }
+        switch (traceState) {
+            case ERROR:
+                filter = filter.and(row -> longValue(row, SegmentRecord.IS_ERROR) == BooleanUtils.TRUE);
+                break;
+            case SUCCESS:
+                filter = filter.and(row -> longValue(row, SegmentRecord.IS_ERROR) == BooleanUtils.FALSE);
+                break;
+        }
+
+        client.queryLatency();
+        List<Map<String, Object>> rows = client.find(SegmentRecord.INDEX_NAME, filter);
+        switch (queryOrder) {
+            case BY_START_TIME:
+                rows.sort(Comparator.comparingLong(
+                    (Map<String, Object> row) -> longValue(row, SegmentRecord.START_TIME)).reversed());
+                break;
+            case BY_DURATION:
+                rows.sort(Comparator.comparingLong(
+                    (Map<String, Object> row) -> longValue(row, SegmentRecord.LATENCY)).reversed());
+                break;
+        }
+
+        TraceBrief traceBrief = new TraceBrief();
+        traceBrief.setTotal(rows.size());
+        for (int i = from; i < rows.size() && i < from + limit; i++) {
+            Map<String, Object> row = rows.get(i);
+            BasicTrace basicTrace = new BasicTrace();
+
+            basicTrace.setSegmentId((String) row.get(SegmentRecord.SEGMENT_ID));
+            basicTrace.setStart(String.valueOf(row.get(SegmentRecord.START_TIME)));
+            basicTrace.getEndpointNames().add((String) row.get(SegmentRecord.ENDPOINT_NAME));
+            basicTrace.setDuration((int) longValue(row, SegmentRecord.LATENCY));
+            basicTrace.setError(BooleanUtils.valueToBoolean((int) longValue(row, SegmentRecord.IS_ERROR)));
+            basicTrace.getTraceIds().add((String) row.get(SegmentRecord.TRACE_ID));
+            traceBrief.getTraces().add(basicTrace);
+        }
+        return traceBrief;
+    }
+
+    @Override
+    public List<SegmentRecord> queryByTraceId(String traceId) {
+        client.queryLatency();
+        SegmentRecord.Builder builder = new SegmentRecord.Builder();
+        List<SegmentRecord> segmentRecords = new ArrayList<>();
+        for (Map<String, Object> row : client.find(SegmentRecord.INDEX_NAME, row -> traceId.equals(row.get(SegmentRecord.TRACE_ID)))) {
+            segmentRecords.add(builder.map2Data(row));
+        }
+        return segmentRecords;
+    }
+
+    @Override
+    public List<Span> doFlexibleTraceQuery(String traceId) {
+        return Collections.emptyList();
+    }
+
+    private static long longValue(Map<String, Object> row, String column) {
+        return ((Number) row.get(column)).longValue();
+    }
+}
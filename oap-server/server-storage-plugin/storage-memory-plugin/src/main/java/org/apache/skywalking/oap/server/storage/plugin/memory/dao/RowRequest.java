@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.memory.dao;
+
+import java.util.Map;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+/**
+ * The row to write into a table of the memory storage, the insert and the update are the same.
+ */
+public class RowRequest implements InsertRequest, UpdateRequest {
+
+    private final String tableName;
+    private final String id;
+    private final Map<String, Object> row;
+
+    public RowRequest(String tableName, String id, Map<String, Object> row) {
+        this.tableName = tableName;
+        this.id = id;
+        this.row = row;
+    }
+
+    public void invoke(MemoryStorageClient client) {
+        client.put(tableName, id, row);
+    }
+}
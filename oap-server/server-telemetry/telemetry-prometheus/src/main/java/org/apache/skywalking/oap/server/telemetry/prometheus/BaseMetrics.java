@@ -19,8 +19,8 @@
 package org.apache.skywalking.oap.server.telemetry.prometheus;
 
 import io.prometheus.client.SimpleCollector;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.apache.skywalking.oap.server.telemetry.api.TelemetryRelatedContext;
@@ -29,7 +29,7 @@ import org.apache.skywalking.oap.server.telemetry.api.TelemetryRelatedContext;
  * BaseMetrics parent class represents the me
  */
 public abstract class BaseMetrics<T extends SimpleCollector, C> {
-    private static Map<String, Object> ALL_METRICS = new HashMap<>();
+    private static Map<String, Object> ALL_METRICS = new ConcurrentHashMap<>();
 
     private volatile C metricsInstance;
     protected final String name;
@@ -67,15 +67,7 @@ public abstract class BaseMetrics<T extends SimpleCollector, C> {
                             labelValues[i + 1] = values.getValues()[i];
                         }
 
-                        if (!ALL_METRICS.containsKey(name)) {
-                            synchronized (ALL_METRICS) {
-                                if (!ALL_METRICS.containsKey(name)) {
-                                    ALL_METRICS.put(name, create(labelNames));
-                                }
-                            }
-                        }
-
-                        T metrics = (T) ALL_METRICS.get(name);
+                        T metrics = (T) ALL_METRICS.computeIfAbsent(name, key -> create(labelNames));
 
                         metricsInstance = (C) metrics.labels(labelValues);
                     }
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.tool.load.generator;
+
+import io.grpc.ManagedChannel;
+import io.grpc.netty.NettyChannelBuilder;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.apache.skywalking.oap.server.starter.config.ApplicationConfigLoader;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageProvider;
+
+/**
+ * Start an OAP in this process, with the memory storage and the prometheus telemetry, and drive it by the simulated
+ * agents through the real gRPC receivers. The ingest throughput, the queue depths of the data carriers and the
+ * persistence lag are logged periodically, so the analysis core is measured without the latency of a real storage.
+ */
+@Slf4j
+public class LoadGenerator {
+    private static final long TICK_MILLIS = 100;
+    private static final int PING_PERIOD_SECONDS = 3;
+
+    private final LoadGeneratorConfig config;
+    private final PersistenceLagRecorder recorder;
+    private final List<SyntheticAgent> agents = new ArrayList<>();
+
+    private long startTime;
+    private long sentSegments;
+    private long sentMesh;
+    private long jvmRounds;
+    private int nextSegmentAgent;
+    private int nextMeshAgent;
+
+    public LoadGenerator(LoadGeneratorConfig config, PersistenceLagRecorder recorder) {
+        this.config = config;
+        this.recorder = recorder;
+    }
+
+    public static void main(String[] args) {
+        // the data is kept in the memory, and the queue depths are read from the prometheus registry
+        if (System.getProperty("SW_STORAGE") == null) {
+            System.setProperty("SW_STORAGE", "memory");
+        }
+        if (System.getProperty("SW_TELEMETRY") == null) {
+            System.setProperty("SW_TELEMETRY", "prometheus");
+        }
+
+        try {
+            LoadGeneratorConfig config = LoadGeneratorConfig.parse(args);
+
+            // init OAP
+            ModuleManager manager = new ModuleManager();
+            manager.init(new ApplicationConfigLoader().load());
+
+            ModuleServiceHolder storageProvider = manager.find(StorageModule.NAME).provider();
+            if (!(storageProvider instanceof MemoryStorageProvider)) {
+                throw new IllegalStateException(
+                    "the load generator requires the memory storage, but the storage is " + storageProvider.getClass().getSimpleName());
+            }
+            PersistenceLagRecorder recorder = new PersistenceLagRecorder();
+            ((MemoryStorageProvider) storageProvider).getClient().setPersistenceListener(recorder);
+
+            new LoadGenerator(config, recorder).run();
+
+            // exit program
+            System.exit(0);
+        } catch (Throwable t) {
+            log.error(t.getMessage(), t);
+            System.exit(1);
+        }
+    }
+
+    public void run() throws InterruptedException {
+        ManagedChannel channel = NettyChannelBuilder.forAddress(config.getOapHost(), config.getOapPort())
+                                                    .usePlaintext()
+                                                    .build();
+        try {
+            for (int service = 0; service < config.getServices(); service++) {
+                String serviceName = "load-service-" + service;
+                String peerServiceName = "load-service-" + (service + 1) % config.getServices();
+                for (int instance = 0; instance < config.getInstancesPerService(); instance++) {
+                    SyntheticAgent agent = new SyntheticAgent(channel, serviceName, peerServiceName);
+                    agent.register();
+                    agent.openStreams();
+                    agents.add(agent);
+                }
+            }
+            log.info("{} agents are registered, start the load of {} segments and {} mesh metrics per second for {} seconds",
+                     agents.size(), config.getSegmentsPerSecond(), config.getMeshPerSecond(), config.getDuration());
+
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+            startTime = System.currentTimeMillis();
+            executor.scheduleAtFixedRate(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+            executor.scheduleAtFixedRate(
+                new Reporter(), config.getReportPeriod(), config.getReportPeriod(), TimeUnit.SECONDS);
+
+            TimeUnit.SECONDS.sleep(config.getDuration());
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            agents.forEach(SyntheticAgent::closeStreams);
+
+            long elapsed = System.currentTimeMillis() - startTime;
+            log.info("Finished, {} segments sent, {} segments persisted, average ingest {} segments/s",
+                     sentSegments, recorder.persistedSegments(), recorder.persistedSegments() * 1000 / elapsed);
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    /**
+     * Send the data due since the start, so the rates are kept even when a tick is late.
+     */
+    private void tick() {
+        try {
+            long elapsed = System.currentTimeMillis() - startTime;
+
+            long dueSegments = config.getSegmentsPerSecond() * elapsed / 1000 - sentSegments;
+            for (long i = 0; i < dueSegments; i++) {
+                agents.get(nextSegmentAgent++ % agents.size()).sendSegment(config.getSpansPerSegment());
+                sentSegments++;
+            }
+
+            long dueMesh = config.getMeshPerSecond() * elapsed / 1000 - sentMesh;
+            for (long i = 0; i < dueMesh; i++) {
+                agents.get(nextMeshAgent++ % agents.size()).sendMesh();
+                sentMesh++;
+            }
+
+            if (elapsed / 1000 >= jvmRounds) {
+                for (SyntheticAgent agent : agents) {
+                    agent.sendJVMMetrics();
+                    if (jvmRounds % PING_PERIOD_SECONDS == 0) {
+                        agent.ping();
+                    }
+                }
+                jvmRounds++;
+            }
+        } catch (Throwable t) {
+            log.error(t.getMessage(), t);
+        }
+    }
+
+    private class Reporter implements Runnable {
+        private long lastTime = System.currentTimeMillis();
+        private long lastSentSegments;
+        private long lastPersistedSegments;
+        private long lastPersistedRows;
+
+        @Override
+        public void run() {
+            long now = System.currentTimeMillis();
+            double seconds = (now - lastTime) / 1000.0;
+            long persistedSegments = recorder.persistedSegments();
+            long persistedRows = recorder.persistedRows();
+
+            log.info(
+                "Segments sent {}/s, persisted {}/s, rows persisted {}/s, p99 persistence lag {} ms, queue depths {}, dropped {}",
+                (long) ((sentSegments - lastSentSegments) / seconds),
+                (long) ((persistedSegments - lastPersistedSegments) / seconds),
+                (long) ((persistedRows - lastPersistedRows) / seconds),
+                recorder.lagPercentileAndReset(99),
+                queueDepths(),
+                (long) sumOf("datacarrier_drop_count")
+            );
+
+            lastTime = now;
+            lastSentSegments = sentSegments;
+            lastPersistedSegments = persistedSegments;
+            lastPersistedRows = persistedRows;
+        }
+
+        /**
+         * The depths are registered by the data carriers of the workers into the prometheus telemetry.
+         */
+        private String queueDepths() {
+            StringBuilder depths = new StringBuilder();
+            for (Collector.MetricFamilySamples family : Collections.list(
+                CollectorRegistry.defaultRegistry.metricFamilySamples())) {
+                if (!"datacarrier_queue_depth".equals(family.name)) {
+                    continue;
+                }
+                for (Collector.MetricFamilySamples.Sample sample : family.samples) {
+                    if (sample.value > 0) {
+                        depths.append(sample.labelValues.get(0)).append('=').append((long) sample.value).append(' ');
+                    }
+                }
+            }
+            return depths.length() == 0 ? "empty" : depths.toString().trim();
+        }
+
+        private double sumOf(String name) {
+            double sum = 0;
+            for (Collector.MetricFamilySamples family : Collections.list(
+                CollectorRegistry.defaultRegistry.metricFamilySamples())) {
+                if (name.equals(family.name)) {
+                    for (Collector.MetricFamilySamples.Sample sample : family.samples) {
+                        sum += sample.value;
+                    }
+                }
+            }
+            return sum;
+        }
+    }
+}
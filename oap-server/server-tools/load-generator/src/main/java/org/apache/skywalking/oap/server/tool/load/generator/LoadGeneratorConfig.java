@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.tool.load.generator;
+
+import lombok.Data;
+
+@Data
+public class LoadGeneratorConfig {
+
+    // the gRPC address of the OAP started in the process
+    private String oapHost = "127.0.0.1";
+    private int oapPort = 11800;
+
+    // the simulated agents, each service has the given number of instances
+    private int services = 10;
+    private int instancesPerService = 2;
+
+    // the data sent by all the agents, the JVM metrics are sent by every instance each second
+    private int segmentsPerSecond = 1000;
+    private int spansPerSegment = 5;
+    private int meshPerSecond = 500;
+
+    // how long the load lasts, and how often the report is logged, in seconds
+    private int duration = 300;
+    private int reportPeriod = 10;
+
+    /**
+     * parse config from the command line, in the `--name=value` format, such as `--segmentsPerSecond=5000`
+     */
+    public static LoadGeneratorConfig parse(String[] args) {
+        LoadGeneratorConfig config = new LoadGeneratorConfig();
+        if (args == null) {
+            return config;
+        }
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("illegal argument " + arg + ", should be --name=value");
+            }
+            String name = arg.substring(2, split);
+            String value = arg.substring(split + 1);
+            switch (name) {
+                case "oapHost":
+                    config.setOapHost(value);
+                    break;
+                case "oapPort":
+                    config.setOapPort(Integer.parseInt(value));
+                    break;
+                case "services":
+                    config.setServices(Integer.parseInt(value));
+                    break;
+                case "instancesPerService":
+                    config.setInstancesPerService(Integer.parseInt(value));
+                    break;
+                case "segmentsPerSecond":
+                    config.setSegmentsPerSecond(Integer.parseInt(value));
+                    break;
+                case "spansPerSegment":
+                    config.setSpansPerSegment(Integer.parseInt(value));
+                    break;
+                case "meshPerSecond":
+                    config.setMeshPerSecond(Integer.parseInt(value));
+                    break;
+                case "duration":
+                    config.setDuration(Integer.parseInt(value));
+                    break;
+                case "reportPeriod":
+                    config.setReportPeriod(Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown argument " + arg);
+            }
+        }
+        if (config.getSpansPerSegment() < 2) {
+            throw new IllegalArgumentException("spansPerSegment must be at least 2, an entry span and an exit span");
+        }
+        return config;
+    }
+}
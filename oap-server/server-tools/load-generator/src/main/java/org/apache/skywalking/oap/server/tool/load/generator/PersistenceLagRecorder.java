@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.tool.load.generator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.storage.plugin.memory.MemoryStorageClient;
+
+/**
+ * Count the rows written into the memory storage, and sample the persistence lag of the segments, which is the time
+ * from the end of a segment in the simulated agent to its row being persisted. The samples are kept per report period,
+ * by the reservoir sampling, so the percentiles cost a fixed memory at any rate.
+ */
+public class PersistenceLagRecorder implements MemoryStorageClient.PersistenceListener {
+    private static final int RESERVOIR_SIZE = 10_000;
+
+    private final LongAdder persistedSegments = new LongAdder();
+    private final LongAdder persistedRows = new LongAdder();
+    private final long[] reservoir = new long[RESERVOIR_SIZE];
+    private long samples;
+
+    @Override
+    public void onPersisted(String tableName, Map<String, Object> row) {
+        persistedRows.increment();
+        if (!SegmentRecord.INDEX_NAME.equals(tableName)) {
+            return;
+        }
+        persistedSegments.increment();
+        long lag = System.currentTimeMillis() - ((Number) row.get(SegmentRecord.END_TIME)).longValue();
+        synchronized (reservoir) {
+            if (samples < RESERVOIR_SIZE) {
+                reservoir[(int) samples] = lag;
+            } else {
+                long index = ThreadLocalRandom.current().nextLong(samples + 1);
+                if (index < RESERVOIR_SIZE) {
+                    reservoir[(int) index] = lag;
+                }
+            }
+            samples++;
+        }
+    }
+
+    public long persistedSegments() {
+        return persistedSegments.sum();
+    }
+
+    public long persistedRows() {
+        return persistedRows.sum();
+    }
+
+    /**
+     * @return the given percentile of the lags sampled since the last call, in milliseconds, or -1 if no segment is
+     * persisted.
+     */
+    public long lagPercentileAndReset(int percentile) {
+        long[] sorted;
+        synchronized (reservoir) {
+            sorted = Arrays.copyOf(reservoir, (int) Math.min(samples, RESERVOIR_SIZE));
+            samples = 0;
+        }
+        if (sorted.length == 0) {
+            return -1;
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(rank, 0)];
+    }
+}
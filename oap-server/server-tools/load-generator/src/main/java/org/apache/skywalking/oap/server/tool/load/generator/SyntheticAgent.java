@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.tool.load.generator;
+
+import io.grpc.ManagedChannel;
+import io.grpc.stub.StreamObserver;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.network.common.CPU;
+import org.apache.skywalking.apm.network.common.Commands;
+import org.apache.skywalking.apm.network.common.DetectPoint;
+import org.apache.skywalking.apm.network.common.KeyIntValuePair;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+import org.apache.skywalking.apm.network.common.ServiceType;
+import org.apache.skywalking.apm.network.language.agent.GC;
+import org.apache.skywalking.apm.network.language.agent.GCPhrase;
+import org.apache.skywalking.apm.network.language.agent.JVMMetric;
+import org.apache.skywalking.apm.network.language.agent.Memory;
+import org.apache.skywalking.apm.network.language.agent.MemoryPool;
+import org.apache.skywalking.apm.network.language.agent.PoolType;
+import org.apache.skywalking.apm.network.language.agent.SpanLayer;
+import org.apache.skywalking.apm.network.language.agent.SpanType;
+import org.apache.skywalking.apm.network.language.agent.UniqueId;
+import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.apm.network.language.agent.v2.JVMMetricCollection;
+import org.apache.skywalking.apm.network.language.agent.v2.JVMMetricReportServiceGrpc;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
+import org.apache.skywalking.apm.network.language.agent.v2.TraceSegmentReportServiceGrpc;
+import org.apache.skywalking.apm.network.register.v2.NetAddressMapping;
+import org.apache.skywalking.apm.network.register.v2.NetAddresses;
+import org.apache.skywalking.apm.network.register.v2.RegisterGrpc;
+import org.apache.skywalking.apm.network.register.v2.Service;
+import org.apache.skywalking.apm.network.register.v2.ServiceInstance;
+import org.apache.skywalking.apm.network.register.v2.ServiceInstancePingGrpc;
+import org.apache.skywalking.apm.network.register.v2.ServiceInstancePingPkg;
+import org.apache.skywalking.apm.network.register.v2.ServiceInstanceRegisterMapping;
+import org.apache.skywalking.apm.network.register.v2.ServiceInstances;
+import org.apache.skywalking.apm.network.register.v2.ServiceRegisterMapping;
+import org.apache.skywalking.apm.network.register.v2.Services;
+import org.apache.skywalking.apm.network.servicemesh.MeshProbeDownstream;
+import org.apache.skywalking.apm.network.servicemesh.Protocol;
+import org.apache.skywalking.apm.network.servicemesh.ServiceMeshMetric;
+import org.apache.skywalking.apm.network.servicemesh.ServiceMeshMetricServiceGrpc;
+import org.apache.skywalking.apm.network.trace.component.ComponentsDefine;
+
+/**
+ * A simulated agent of a service instance. It registers itself and the address of the service it calls through the
+ * register receiver, as the agent does, then sends the segments and the mesh metrics through the streams of the trace
+ * and the mesh receivers, and the JVM metrics through the JVM receiver.
+ * <p>
+ * The agent is not thread safe, all the methods except the register should be called in the same thread.
+ */
+@Slf4j
+public class SyntheticAgent {
+    private static final int REGISTER_MAX_ATTEMPTS = 60;
+
+    private final ManagedChannel channel;
+    @Getter
+    private final String serviceName;
+    private final String instanceUUID = UUID.randomUUID().toString().replaceAll("-", "");
+    private final String peerServiceName;
+    private final String peerAddress;
+    private final Random random = new Random();
+
+    private int serviceId;
+    private int serviceInstanceId;
+    private int peerAddressId;
+    private long idPart;
+    private long gcCount;
+
+    private StreamObserver<UpstreamSegment> segmentStream;
+    private StreamObserver<ServiceMeshMetric> meshStream;
+
+    /**
+     * @param peerServiceName the service called by the exit spans and the mesh metrics of this agent.
+     */
+    public SyntheticAgent(ManagedChannel channel, String serviceName, String peerServiceName) {
+        this.channel = channel;
+        this.serviceName = serviceName;
+        this.peerServiceName = peerServiceName;
+        this.peerAddress = peerServiceName + ":8080";
+    }
+
+    /**
+     * Register the service, the instance and the peer address. The backend registers them asynchronously, so retry
+     * until all the ids are returned.
+     */
+    public void register() throws InterruptedException {
+        RegisterGrpc.RegisterBlockingStub stub = RegisterGrpc.newBlockingStub(channel);
+        for (int attempt = 0; attempt < REGISTER_MAX_ATTEMPTS; attempt++) {
+            if (serviceId == 0) {
+                ServiceRegisterMapping mapping = stub.doServiceRegister(
+                    Services.newBuilder()
+                            .addServices(Service.newBuilder().setServiceName(serviceName).setType(ServiceType.normal))
+                            .build());
+                serviceId = findValue(mapping.getServicesList(), serviceName);
+            }
+            if (serviceId != 0 && serviceInstanceId == 0) {
+                ServiceInstanceRegisterMapping mapping = stub.doServiceInstanceRegister(
+                    ServiceInstances.newBuilder()
+                                    .addInstances(ServiceInstance.newBuilder()
+                                                                 .setServiceId(serviceId)
+                                                                 .setInstanceUUID(instanceUUID)
+                                                                 .setTime(System.currentTimeMillis())
+                                                                 .addProperties(KeyStringValuePair.newBuilder()
+                                                                                                  .setKey("os_name")
+                                                                                                  .setValue("load-generator")))
+                                    .build());
+                serviceInstanceId = findValue(mapping.getServiceInstancesList(), instanceUUID);
+            }
+            if (peerAddressId == 0) {
+                NetAddressMapping mapping = stub.doNetworkAddressRegister(
+                    NetAddresses.newBuilder().addAddresses(peerAddress).build());
+                peerAddressId = findValue(mapping.getAddressIdsList(), peerAddress);
+            }
+            if (serviceInstanceId != 0 && peerAddressId != 0) {
+                return;
+            }
+            TimeUnit.SECONDS.sleep(1);
+        }
+        throw new IllegalStateException("can't register the agent of service " + serviceName);
+    }
+
+    public void openStreams() {
+        segmentStream = TraceSegmentReportServiceGrpc.newStub(channel).collect(new IgnoredObserver<Commands>());
+        meshStream = ServiceMeshMetricServiceGrpc.newStub(channel).collect(new IgnoredObserver<MeshProbeDownstream>());
+    }
+
+    public void closeStreams() {
+        segmentStream.onCompleted();
+        meshStream.onCompleted();
+    }
+
+    public void ping() {
+        ServiceInstancePingGrpc.newBlockingStub(channel)
+                               .doPing(ServiceInstancePingPkg.newBuilder()
+                                                             .setServiceInstanceId(serviceInstanceId)
+                                                             .setServiceInstanceUUID(instanceUUID)
+                                                             .setTime(System.currentTimeMillis())
+                                                             .build());
+    }
+
+    /**
+     * Send a segment, which has an entry span, the local spans and an exit span calling the peer service.
+     */
+    public void sendSegment(int spans) {
+        long endTime = System.currentTimeMillis();
+        long startTime = endTime - 10 - random.nextInt(500);
+        String endpoint = "/api/v1/orders/" + random.nextInt(20);
+
+        SegmentObject.Builder segment = SegmentObject.newBuilder();
+        segment.setTraceSegmentId(nextId());
+        segment.setServiceId(serviceId);
+        segment.setServiceInstanceId(serviceInstanceId);
+
+        segment.addSpans(SpanObjectV2.newBuilder()
+                                     .setSpanId(0)
+                                     .setParentSpanId(-1)
+                                     .setSpanType(SpanType.Entry)
+                                     .setSpanLayer(SpanLayer.Http)
+                                     .setComponentId(ComponentsDefine.TOMCAT.getId())
+                                     .setOperationName(endpoint)
+                                     .setStartTime(startTime)
+                                     .setEndTime(endTime)
+                                     .setIsError(random.nextInt(100) == 0)
+                                     .addTags(KeyStringValuePair.newBuilder().setKey("http.method").setValue("GET")));
+        for (int i = 1; i < spans - 1; i++) {
+            segment.addSpans(SpanObjectV2.newBuilder()
+                                         .setSpanId(i)
+                                         .setParentSpanId(i - 1)
+                                         .setSpanType(SpanType.Local)
+                                         .setOperationName("org.apache.skywalking.OrderService.query" + i)
+                                         .setStartTime(startTime + i)
+                                         .setEndTime(endTime - i));
+        }
+        segment.addSpans(SpanObjectV2.newBuilder()
+                                     .setSpanId(spans - 1)
+                                     .setParentSpanId(spans - 2)
+                                     .setSpanType(SpanType.Exit)
+                                     .setSpanLayer(SpanLayer.Http)
+                                     .setComponentId(ComponentsDefine.HTTPCLIENT.getId())
+                                     .setOperationName(endpoint)
+                                     .setPeerId(peerAddressId)
+                                     .setStartTime(startTime + spans)
+                                     .setEndTime(endTime - spans));
+
+        segmentStream.onNext(UpstreamSegment.newBuilder()
+                                            .addGlobalTraceIds(nextId())
+                                            .setSegment(segment.build().toByteString())
+                                            .build());
+    }
+
+    /**
+     * Send a mesh metric of this service calling the peer service, which is detected at the server side.
+     */
+    public void sendMesh() {
+        long endTime = System.currentTimeMillis();
+        int latency = 10 + random.nextInt(500);
+        boolean success = random.nextInt(100) != 0;
+        meshStream.onNext(ServiceMeshMetric.newBuilder()
+                                           .setStartTime(endTime - latency)
+                                           .setEndTime(endTime)
+                                           .setSourceServiceName(serviceName)
+                                           .setSourceServiceInstance(instanceUUID)
+                                           .setDestServiceName(peerServiceName)
+                                           .setDestServiceInstance(peerAddress)
+                                           .setEndpoint("/api/v1/orders/" + random.nextInt(20))
+                                           .setLatency(latency)
+                                           .setResponseCode(success ? 200 : 500)
+                                           .setStatus(success)
+                                           .setProtocol(Protocol.HTTP)
+                                           .setDetectPoint(DetectPoint.server)
+                                           .build());
+    }
+
+    /**
+     * Send the JVM metrics of the last second, as the agent reports them.
+     */
+    public void sendJVMMetrics() {
+        gcCount += random.nextInt(3);
+        JVMMetric metric = JVMMetric.newBuilder()
+                                    .setTime(System.currentTimeMillis())
+                                    .setCpu(CPU.newBuilder().setUsagePercent(random.nextInt(10000) / 100.0))
+                                    .addMemory(memory(true))
+                                    .addMemory(memory(false))
+                                    .addMemoryPool(memoryPool(PoolType.NEWGEN_USAGE))
+                                    .addMemoryPool(memoryPool(PoolType.OLDGEN_USAGE))
+                                    .addMemoryPool(memoryPool(PoolType.SURVIVOR_USAGE))
+                                    .addMemoryPool(memoryPool(PoolType.METASPACE_USAGE))
+                                    .addGc(GC.newBuilder().setPhrase(GCPhrase.NEW).setCount(gcCount).setTime(gcCount * 5))
+                                    .addGc(GC.newBuilder().setPhrase(GCPhrase.OLD).setCount(0).setTime(0))
+                                    .build();
+        JVMMetricReportServiceGrpc.newStub(channel)
+                                  .collect(JVMMetricCollection.newBuilder()
+                                                              .setServiceInstanceId(serviceInstanceId)
+                                                              .addMetrics(metric)
+                                                              .build(), new IgnoredObserver<Commands>());
+    }
+
+    private Memory memory(boolean isHeap) {
+        long max = 1024L * 1024 * 1024;
+        return Memory.newBuilder()
+                     .setIsHeap(isHeap)
+                     .setInit(max / 4)
+                     .setMax(max)
+                     .setCommitted(max / 2)
+                     .setUsed(random.nextInt((int) (max / 2)))
+                     .build();
+    }
+
+    private MemoryPool memoryPool(PoolType type) {
+        long max = 256L * 1024 * 1024;
+        return MemoryPool.newBuilder()
+                         .setType(type)
+                         .setInit(max / 4)
+                         .setMax(max)
+                         .setCommited(max / 2)
+                         .setUsed(random.nextInt((int) (max / 2)))
+                         .build();
+    }
+
+    private UniqueId nextId() {
+        return UniqueId.newBuilder()
+                       .addIdParts(serviceInstanceId)
+                       .addIdParts(System.nanoTime())
+                       .addIdParts(idPart++)
+                       .build();
+    }
+
+    private static int findValue(Iterable<KeyIntValuePair> mappings, String key) {
+        for (KeyIntValuePair mapping : mappings) {
+            if (key.equals(mapping.getKey())) {
+                return mapping.getValue();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The commands and the errors from the backend are ignored, the ingest is measured at the storage side.
+     */
+    private static class IgnoredObserver<T> implements StreamObserver<T> {
+        @Override
+        public void onNext(T value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.warn("The backend returns an error: {}", t.getMessage());
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+
+#
+# Licensed to the Apache Software Foundation (ASF) under one or more
+# contributor license agreements.  See the NOTICE file distributed with
+# this work for additional information regarding copyright ownership.
+# The ASF licenses this file to You under the Apache License, Version 2.0
+# (the "License"); you may not use this file except in compliance with
+# the License.  You may obtain a copy of the License at
+#
+#    http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Start an OAP with the memory storage in this process, and drive it by the simulated agents.
+# The arguments are in the `--name=value` format, such as `--segmentsPerSecond=5000 --duration=600`.
+# The settings of the storage are overridden by the system env, such as `SW_STORAGE_MEMORY_PERSISTENCE_LATENCY=20`.
+
+generator_dir=$(cd $(dirname $0); pwd)
+
+# prepare paths
+oap_libs_dir="${generator_dir}/../../oap-libs"
+oap_config_dir="${generator_dir}/../../config"
+[[ ! -f ${oap_config_dir}/application.yml ]] \
+  && echo "Cannot find oap application.yml" \
+  && exit 1
+[[ ! -d ${oap_libs_dir} ]] \
+  && echo "Cannot find oap libs path" \
+  && exit 1
+
+JAVA_OPTS="${JAVA_OPTS:- -Xms2G -Xmx2G}"
+_RUNJAVA=${JAVA_HOME}/bin/java
+[ -z "$JAVA_HOME" ] && _RUNJAVA=java
+
+# the log4j2.xml of the generator is ahead of the one of the oap
+CLASSPATH="${generator_dir}:${oap_config_dir}:$CLASSPATH"
+for i in "${oap_libs_dir}"/*.jar
+do
+    CLASSPATH="$i:$CLASSPATH"
+done
+
+exec $_RUNJAVA ${JAVA_OPTS} -classpath $CLASSPATH org.apache.skywalking.oap.server.tool.load.generator.LoadGenerator "$@"